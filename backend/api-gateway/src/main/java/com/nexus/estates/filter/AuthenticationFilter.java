@@ -20,7 +20,8 @@ import java.util.List;
  * <ol>
  * <li>Verifica se a rota solicitada é segura (via {@link RouteValidator}).</li>
  * <li>Valida a presença e formato do cabeçalho "Authorization".</li>
- * <li>Valida a assinatura e validade do Token JWT (via {@link JwtUtil}).</li>
+ * <li>Valida a assinatura e validade do Token JWT (via {@link JwtUtil}), numa única passagem
+ * que devolve logo as claims; tokens já verificados são servidos da cache do {@link JwtUtil}.</li>
  * </ol>
  * </p>
  * <p>
@@ -88,8 +89,7 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                 }
 
                 try {
-                    jwtUtil.validateToken(authHeader);
-                    var claims = jwtUtil.getAllClaimsFromToken(authHeader);
+                    var claims = jwtUtil.validateAndGetClaims(authHeader);
                     var request = exchange.getRequest()
                             .mutate()
                             .header("X-User-Id", String.valueOf(claims.get("userId")))
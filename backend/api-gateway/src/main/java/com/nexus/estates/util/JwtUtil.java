@@ -1,13 +1,23 @@
 package com.nexus.estates.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utilitário para operações relacionadas com JSON Web Tokens (JWT).
@@ -15,9 +25,16 @@ import java.security.Key;
  * Responsável pela validação, parsing e extração de metadados dos tokens de autenticação
  * recebidos no gateway. Utiliza a biblioteca <code>jjwt</code> para operações criptográficas.
  * </p>
+ * <p>
+ * O parser (com a chave já descodificada) é criado uma única vez e partilhado entre pedidos.
+ * Os tokens verificados ficam numa cache Caffeine limitada a {@code jwt.cache.max-entries}
+ * entradas, indexada pelo SHA-256 do token, em que cada entrada expira no {@code exp} do próprio
+ * token: pedidos seguintes da mesma sessão reutilizam as claims sem voltar a verificar a
+ * assinatura. Tokens sem {@code exp} nunca entram na cache.
+ * </p>
  *
  * @author Nexus Estates Team
- * @version 1.0
+ * @version 1.2
  */
 @Component
 public class JwtUtil {
@@ -26,6 +43,13 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
+    /** Número máximo de tokens verificados mantidos em cache (0 desativa a cache). */
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries = 10000;
+
+    private volatile Cache<String, VerifiedToken> verifiedTokens;
+    private volatile JwtParser parser;
+
     /**
      * Valida a integridade e a assinatura de um token JWT.
      * <p>
@@ -37,7 +61,7 @@ public class JwtUtil {
      * @throws io.jsonwebtoken.JwtException Se o token for inválido.
      */
     public void validateToken(final String token) {
-        Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token);
+        validateAndGetClaims(token);
     }
 
     /**
@@ -50,7 +74,69 @@ public class JwtUtil {
      * @return Objeto {@link Claims} contendo os dados do payload.
      */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token).getBody();
+        return validateAndGetClaims(token);
+    }
+
+    /**
+     * Valida o token e devolve as suas claims numa única passagem.
+     * <p>
+     * Um token já verificado e ainda dentro do {@code exp} é servido da cache. As claims
+     * devolvidas são partilhadas entre pedidos e devem ser tratadas como só de leitura.
+     * </p>
+     *
+     * @param token A string do token JWT (sem prefixo "Bearer ").
+     * @return Objeto {@link Claims} contendo os dados do payload.
+     * @throws io.jsonwebtoken.JwtException Se o token for inválido, expirado ou adulterado.
+     */
+    public Claims validateAndGetClaims(String token) {
+        if (cacheMaxEntries <= 0 || token == null) {
+            return parser().parseClaimsJws(token).getBody();
+        }
+
+        Cache<String, VerifiedToken> cache = verifiedTokens();
+        String key = hash(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && System.currentTimeMillis() < cached.expiresAt()) {
+            return cached.claims();
+        }
+
+        Claims claims = parser().parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            cache.put(key, new VerifiedToken(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    private Cache<String, VerifiedToken> verifiedTokens() {
+        Cache<String, VerifiedToken> current = verifiedTokens;
+        if (current == null) {
+            synchronized (this) {
+                current = verifiedTokens;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumSize(cacheMaxEntries)
+                            .expireAfter(new UntilTokenExpiry())
+                            .build();
+                    verifiedTokens = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            synchronized (this) {
+                current = parser;
+                if (current == null) {
+                    current = Jwts.parserBuilder().setSigningKey(getSignKey()).build();
+                    parser = current;
+                }
+            }
+        }
+        return current;
     }
 
     /**
@@ -62,4 +148,37 @@ public class JwtUtil {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    /** A cache guarda apenas o hash do token, nunca o token em claro. */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
+    }
+
+    private record VerifiedToken(Claims claims, long expiresAt) {
+    }
+
+    /** Cada entrada vive até ao {@code exp} do token; leituras e substituições não a prolongam. */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = Math.max(0, value.expiresAt() - System.currentTimeMillis());
+            return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
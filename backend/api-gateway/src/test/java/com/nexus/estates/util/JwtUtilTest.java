@@ -1,5 +1,7 @@
 package com.nexus.estates.util;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -14,6 +16,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class JwtUtilTest {
@@ -39,12 +44,55 @@ class JwtUtilTest {
         assertThrows(Exception.class, () -> jwtUtil.validateToken(invalidToken));
     }
 
+    @Test
+    void shouldServeRepeatedTokenFromCache() {
+        String token = createToken(new HashMap<>(Map.of("userId", 42L, "role", "OWNER")), "user");
+
+        Claims first = jwtUtil.validateAndGetClaims(token);
+        Claims second = jwtUtil.validateAndGetClaims(token);
+
+        assertSame(first, second);
+        assertEquals("OWNER", second.get("role"));
+    }
+
+    @Test
+    void shouldRejectTamperedTokenEvenWhenOriginalIsCached() {
+        String token = createToken(new HashMap<>(), "user");
+        jwtUtil.validateAndGetClaims(token);
+
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + createToken(new HashMap<>(Map.of("role", "ADMIN")), "user").split("\\.")[1]
+                + "." + parts[2];
+
+        assertThrows(Exception.class, () -> jwtUtil.validateAndGetClaims(tampered));
+    }
+
+    @Test
+    void shouldNotCacheExpiredTokens() {
+        String token = createToken(new HashMap<>(), "user", -1000);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateAndGetClaims(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateAndGetClaims(token));
+    }
+
+    @Test
+    void shouldVerifyEveryTimeWhenCacheIsDisabled() {
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 0);
+        String token = createToken(new HashMap<>(), "user");
+
+        assertNotSame(jwtUtil.validateAndGetClaims(token), jwtUtil.validateAndGetClaims(token));
+    }
+
     private String createToken(Map<String, Object> claims, String userName) {
+        return createToken(claims, userName, 1000 * 60 * 30);
+    }
+
+    private String createToken(Map<String, Object> claims, String userName, long ttlMillis) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userName)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 30))
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
                 .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
     }
 
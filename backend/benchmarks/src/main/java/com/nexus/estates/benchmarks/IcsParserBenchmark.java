@@ -0,0 +1,80 @@
+package com.nexus.estates.benchmarks;
+
+import com.nexus.estates.dto.SyncBlockDTO;
+import com.nexus.estates.service.calendar.IcsCalendarParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpretação de feeds iCal externos por {@link IcsCalendarParserService#parseBlocks(String)}.
+ *
+ * <p>Cobre um feed típico de um canal (poucos eventos) e um feed muito grande, semelhante ao
+ * de uma conta com anos de histórico. Metade dos eventos são de dia inteiro e a outra metade
+ * tem hora com {@code TZID}, para exercitar a normalização para UTC.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IcsParserBenchmark {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Param({"10", "10000"})
+    private int events;
+
+    private IcsCalendarParserService parser;
+    private String ics;
+
+    @Setup
+    public void setUp() {
+        parser = new IcsCalendarParserService();
+        ics = generateFeed(events);
+    }
+
+    @Benchmark
+    public List<SyncBlockDTO> parseBlocks() {
+        return parser.parseBlocks(ics);
+    }
+
+    static String generateFeed(int events) {
+        StringBuilder sb = new StringBuilder(events * 220)
+                .append("BEGIN:VCALENDAR\r\n")
+                .append("VERSION:2.0\r\n")
+                .append("PRODID:-//Nexus Estates//Benchmark//PT\r\n");
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < events; i++) {
+            LocalDate from = start.plusDays(i * 3L);
+            LocalDate to = from.plusDays(2);
+            sb.append("BEGIN:VEVENT\r\n")
+                    .append("UID:bench-").append(i).append("@nexus-estates\r\n")
+                    .append("DTSTAMP:20260101T000000Z\r\n");
+            if (i % 2 == 0) {
+                sb.append("DTSTART;VALUE=DATE:").append(from.format(DATE)).append("\r\n")
+                        .append("DTEND;VALUE=DATE:").append(to.format(DATE)).append("\r\n");
+            } else {
+                sb.append("DTSTART;TZID=Europe/Lisbon:").append(from.format(DATE)).append("T150000\r\n")
+                        .append("DTEND;TZID=Europe/Lisbon:").append(to.format(DATE)).append("T110000\r\n");
+            }
+            sb.append("SUMMARY:Reserved ").append(i).append("\r\n")
+                    .append("END:VEVENT\r\n");
+        }
+        return sb.append("END:VCALENDAR\r\n").toString();
+    }
+}
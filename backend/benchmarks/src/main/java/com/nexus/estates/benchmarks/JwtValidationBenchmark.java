@@ -0,0 +1,89 @@
+package com.nexus.estates.benchmarks;
+
+import com.nexus.estates.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de JWT no api-gateway por {@link JwtUtil}, executada em cada pedido a uma rota
+ * protegida. O token tem as mesmas claims que o user-service emite ({@code role} e {@code userId}).
+ *
+ * <p>{@code validateAndGetClaims} é o caminho do {@code AuthenticationFilter} (token repetido, servido
+ * da cache de tokens verificados); {@code uncachedValidateAndGetClaims} usa uma instância com a cache
+ * desligada ({@code jwt.cache.max-entries=0}) e mede a verificação completa com o parser partilhado.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        // O segredo é injetado pelo Spring via @Value; fora do contexto é definido por reflexão
+        Field secretField = JwtUtil.class.getDeclaredField("secret");
+        secretField.setAccessible(true);
+        secretField.set(jwtUtil, SECRET);
+        uncachedJwtUtil = new JwtUtil();
+        secretField.set(uncachedJwtUtil, SECRET);
+        Field cacheField = JwtUtil.class.getDeclaredField("cacheMaxEntries");
+        cacheField.setAccessible(true);
+        cacheField.setInt(uncachedJwtUtil, 0);
+
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .setClaims(Map.of("role", "GUEST", "userId", 42L))
+                .setSubject("guest@nexus-estates.com")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public void validateToken() {
+        jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims getAllClaimsFromToken() {
+        return jwtUtil.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims validateAndGetClaims() {
+        return jwtUtil.validateAndGetClaims(token);
+    }
+
+    @Benchmark
+    public Claims uncachedValidateAndGetClaims() {
+        return uncachedJwtUtil.validateAndGetClaims(token);
+    }
+}
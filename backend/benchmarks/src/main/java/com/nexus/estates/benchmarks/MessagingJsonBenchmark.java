@@ -0,0 +1,76 @@
+package com.nexus.estates.benchmarks;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.common.messaging.BookingCreatedMessage;
+import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
+import com.nexus.estates.common.messaging.BookingUpdatedMessage;
+import com.nexus.estates.common.messaging.CalendarBlockMessage;
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialização JSON dos eventos de {@code common.messaging} trocados via RabbitMQ.
+ *
+ * <p>Usa o mesmo {@link Jackson2JsonMessageConverter} configurado nos serviços, pelo que o
+ * custo medido inclui os cabeçalhos de tipo ({@code __TypeId__}) e não só o Jackson.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagingJsonBenchmark {
+
+    private static final Map<String, Object> SAMPLES = Map.of(
+            "BookingCreated", new BookingCreatedMessage(1001L, 42L, 7L, BookingStatus.PENDING_PAYMENT),
+            "BookingStatusUpdated", new BookingStatusUpdatedMessage(1001L, BookingStatus.CONFIRMED, "Pagamento confirmado"),
+            "BookingUpdated", new BookingUpdatedMessage(1001L, 42L, 7L, BookingStatus.CONFIRMED, "Datas alteradas",
+                    LocalDateTime.of(2026, 6, 1, 12, 0)),
+            "CalendarBlock", new CalendarBlockMessage(42L, Instant.parse("2026-07-01T15:00:00Z"),
+                    Instant.parse("2026-07-05T10:00:00Z"), "abc123@airbnb.com", "Reserved"),
+            "PropertyPricingChanged", new PropertyPricingChangedMessage(42L, "RULES", Instant.parse("2026-06-01T12:00:00Z"))
+    );
+
+    @Param({"BookingCreated", "BookingStatusUpdated", "BookingUpdated", "CalendarBlock", "PropertyPricingChanged"})
+    private String messageType;
+
+    private Jackson2JsonMessageConverter converter;
+    private Object payload;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        converter = new Jackson2JsonMessageConverter();
+        payload = SAMPLES.get(messageType);
+        message = converter.toMessage(payload, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message serialize() {
+        return converter.toMessage(payload, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return converter.fromMessage(message);
+    }
+}
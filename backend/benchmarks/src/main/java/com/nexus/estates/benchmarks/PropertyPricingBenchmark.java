@@ -0,0 +1,148 @@
+package com.nexus.estates.benchmarks;
+
+import com.nexus.estates.common.dto.PropertyQuoteRequest;
+import com.nexus.estates.common.dto.PropertyQuoteResponse;
+import com.nexus.estates.entity.Property;
+import com.nexus.estates.entity.PropertyRule;
+import com.nexus.estates.entity.RuleOverride;
+import com.nexus.estates.entity.SeasonalityRule;
+import com.nexus.estates.repository.PropertyRepository;
+import com.nexus.estates.repository.RuleOverrideRepository;
+import com.nexus.estates.repository.SeasonalityRuleRepository;
+import com.nexus.estates.service.PriceCalendarService;
+import com.nexus.estates.service.PropertyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de preços do property-service: {@link PropertyService#calculateTotalPrice} regra-a-regra
+ * e com o calendário pré-calculado do {@link PriceCalendarService}, e o fluxo completo de
+ * {@link PropertyService#validateAndQuote} usado pelo booking-service em cada reserva.
+ *
+ * <p>O conjunto de regras simula uma propriedade com épocas mensais, regras de fim de semana,
+ * regras por canal e um override de estadia mínima.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyPricingBenchmark {
+
+    private static final Long PROPERTY_ID = 1L;
+
+    @Param({"1", "7", "30", "365"})
+    private int nights;
+
+    private PropertyService ruleByRule;
+    private PropertyService withCalendar;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private PropertyQuoteRequest quoteRequest;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        Property property = new Property();
+        property.setId(PROPERTY_ID);
+        property.setBasePrice(new BigDecimal("120.00"));
+        property.setMaxGuests(6);
+        property.setPropertyRule(PropertyRule.builder().minNights(1).bookingLeadTimeDays(0).build());
+        List<SeasonalityRule> rules = sampleRules(property, today);
+        List<RuleOverride> overrides = List.of(RuleOverride.builder()
+                .property(property)
+                .startDate(today.plusDays(180))
+                .endDate(today.plusDays(200))
+                .minNightsOverride(3)
+                .allowedCheckInDays(EnumSet.of(DayOfWeek.SATURDAY))
+                .build());
+
+        PropertyRepository propertyRepository = Stubs.of(PropertyRepository.class,
+                Map.of("findById", args -> Optional.of(property)));
+        SeasonalityRuleRepository ruleRepository = Stubs.of(SeasonalityRuleRepository.class,
+                Map.of("findByPropertyIdAndDateRange", args -> overlapping(rules, (LocalDate) args[1], (LocalDate) args[2])));
+        RuleOverrideRepository overrideRepository = Stubs.of(RuleOverrideRepository.class,
+                Map.of("findOverlappingOverrides", args -> overrides.stream()
+                        .filter(o -> !o.getStartDate().isAfter((LocalDate) args[2]) && !o.getEndDate().isBefore((LocalDate) args[1]))
+                        .toList()));
+
+        // Janela 0 desativa o calendário e força o cálculo regra-a-regra
+        ruleByRule = new PropertyService(propertyRepository, null, ruleRepository, null, null, null,
+                overrideRepository, null, new PriceCalendarService(propertyRepository, ruleRepository, 0, 100, Duration.ofMinutes(10)));
+        withCalendar = new PropertyService(propertyRepository, null, ruleRepository, null, null, null,
+                overrideRepository, null, new PriceCalendarService(propertyRepository, ruleRepository, 540, 100, Duration.ofMinutes(10)));
+
+        checkIn = today.plusDays(1);
+        checkOut = checkIn.plusDays(nights);
+        quoteRequest = new PropertyQuoteRequest(checkIn, checkOut, 4);
+        // Aquece o calendário: o custo de construção é pago uma vez por propriedade/canal
+        withCalendar.calculateTotalPrice(PROPERTY_ID, checkIn, checkOut, null);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalPriceRuleByRule() {
+        return ruleByRule.calculateTotalPrice(PROPERTY_ID, checkIn, checkOut, null);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalPriceCalendar() {
+        return withCalendar.calculateTotalPrice(PROPERTY_ID, checkIn, checkOut, null);
+    }
+
+    @Benchmark
+    public PropertyQuoteResponse validateAndQuote() {
+        return withCalendar.validateAndQuote(PROPERTY_ID, quoteRequest);
+    }
+
+    private static List<SeasonalityRule> overlapping(List<SeasonalityRule> rules, LocalDate start, LocalDate end) {
+        return rules.stream()
+                .filter(r -> !r.getStartDate().isAfter(end) && !r.getEndDate().isBefore(start))
+                .toList();
+    }
+
+    private static List<SeasonalityRule> sampleRules(Property property, LocalDate today) {
+        List<SeasonalityRule> rules = new ArrayList<>();
+        for (int month = 0; month < 18; month++) {
+            LocalDate start = today.plusMonths(month).withDayOfMonth(1);
+            rules.add(rule(property, start, start.plusMonths(1).minusDays(1), month % 3 == 0 ? "1.25" : "0.95", null, null));
+        }
+        rules.add(rule(property, today, today.plusDays(540), "1.40", DayOfWeek.FRIDAY, null));
+        rules.add(rule(property, today, today.plusDays(540), "1.40", DayOfWeek.SATURDAY, null));
+        rules.add(rule(property, today, today.plusDays(540), "1.15", null, "Airbnb"));
+        rules.add(rule(property, today, today.plusDays(540), "1.12", null, "Booking"));
+        return rules;
+    }
+
+    private static SeasonalityRule rule(Property property, LocalDate start, LocalDate end, String modifier,
+                                        DayOfWeek dayOfWeek, String channel) {
+        SeasonalityRule rule = new SeasonalityRule();
+        rule.setProperty(property);
+        rule.setStartDate(start);
+        rule.setEndDate(end);
+        rule.setPriceModifier(new BigDecimal(modifier));
+        rule.setDayOfWeek(dayOfWeek);
+        rule.setChannel(channel);
+        return rule;
+    }
+}
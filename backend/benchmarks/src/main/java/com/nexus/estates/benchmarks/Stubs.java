@@ -0,0 +1,33 @@
+package com.nexus.estates.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stubs em memória para repositórios Spring Data, construídos com {@link Proxy}.
+ *
+ * <p>Evita o Mockito nos benchmarks, para que o custo medido seja o do código de negócio
+ * e não o da infraestrutura de mocks. Qualquer método sem resposta definida falha com
+ * {@link UnsupportedOperationException}.</p>
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * @param type    interface a implementar.
+     * @param answers resposta por nome de método, em função dos argumentos da chamada.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+}
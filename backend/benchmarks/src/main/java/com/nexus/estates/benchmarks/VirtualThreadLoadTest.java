@@ -0,0 +1,205 @@
+package com.nexus.estates.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Teste de carga HTTP em ciclo fechado, para comparar o modo de virtual threads
+ * ({@code VIRTUAL_THREADS_ENABLED=true}) com o pool de plataforma do Tomcat.
+ *
+ * <p>Cada um dos {@code load.concurrency} clientes (2000 por omissão) corre numa virtual thread e
+ * envia o pedido seguinte assim que recebe a resposta anterior, durante {@code load.duration},
+ * depois de um aquecimento de {@code load.warmup} cujos resultados são descartados. No fim
+ * imprime o throughput, os percentis de latência e a contagem de respostas não-2xx e de erros
+ * de ligação/timeout, e grava o mesmo resumo em {@code target/load-<label>.json}.</p>
+ *
+ * <p>Não é um benchmark JMH: mede o serviço real a correr (JDBC e chamadas {@code RestClient}
+ * incluídas), pelo que os números só são comparáveis entre execuções na mesma máquina e com os
+ * mesmos dados.</p>
+ *
+ * <p>Parâmetros (propriedades de sistema): {@code load.url}, {@code load.method} (GET/POST),
+ * {@code load.body}, {@code load.headers} ({@code "Nome: valor; Outro: valor"}),
+ * {@code load.concurrency}, {@code load.duration}, {@code load.warmup}, {@code load.timeout}
+ * (durações ISO-8601 ou em segundos) e {@code load.label}.</p>
+ */
+public final class VirtualThreadLoadTest {
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(System.getProperty("load.url", "http://localhost:8081/api/bookings/property/1"));
+        String method = System.getProperty("load.method", "GET").toUpperCase(Locale.ROOT);
+        String body = System.getProperty("load.body", "");
+        int concurrency = Integer.getInteger("load.concurrency", 2000);
+        Duration duration = duration("load.duration", Duration.ofSeconds(30));
+        Duration warmup = duration("load.warmup", Duration.ofSeconds(10));
+        Duration timeout = duration("load.timeout", Duration.ofSeconds(10));
+        String label = System.getProperty("load.label", "run");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout)
+                .method(method, body.isEmpty()
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (!body.isEmpty()) {
+            builder.header("Content-Type", "application/json");
+        }
+        for (String header : System.getProperty("load.headers", "").split(";")) {
+            int colon = header.indexOf(':');
+            if (colon > 0) {
+                builder.header(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+            }
+        }
+        HttpRequest request = builder.build();
+
+        System.out.printf("%s %s | %d clientes | aquecimento %ds | medição %ds%n",
+                method, uri, concurrency, warmup.toSeconds(), duration.toSeconds());
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(clients)
+                     .connectTimeout(timeout)
+                     .build()) {
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long deadline = measureFrom + duration.toNanos();
+
+            List<Worker> workers = new ArrayList<>(concurrency);
+            CountDownLatch done = new CountDownLatch(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker(http, request, measureFrom, deadline);
+                workers.add(worker);
+                clients.submit(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+
+            Result result = Result.merge(workers, duration);
+            System.out.println(result.describe());
+            Path out = Path.of("target", "load-" + label + ".json");
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, result.toJson(label, uri, concurrency));
+            System.out.println("Resultado gravado em " + out.toAbsolutePath());
+        }
+    }
+
+    private static Duration duration(String property, Duration defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /** Cliente em ciclo fechado; só regista os pedidos iniciados dentro da janela de medição. */
+    private static final class Worker implements Runnable {
+
+        private final HttpClient http;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long deadline;
+        private long[] latencies = new long[256];
+        private int count;
+        private int non2xx;
+        private int errors;
+
+        Worker(HttpClient http, HttpRequest request, long measureFrom, long deadline) {
+            this.http = http;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            long now;
+            while ((now = System.nanoTime()) < deadline) {
+                boolean measured = now >= measureFrom;
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (measured) {
+                        record(System.nanoTime() - now);
+                        if (response.statusCode() / 100 != 2) {
+                            non2xx++;
+                        }
+                    }
+                } catch (IOException e) {
+                    if (measured) {
+                        errors++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private record Result(long requests, long non2xx, long errors, double throughput,
+                          double p50, double p90, double p99, double max) {
+
+        static Result merge(List<Worker> workers, Duration window) {
+            long total = workers.stream().mapToLong(w -> w.count).sum();
+            long[] all = new long[(int) total];
+            int offset = 0;
+            long non2xx = 0;
+            long errors = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies, 0, all, offset, worker.count);
+                offset += worker.count;
+                non2xx += worker.non2xx;
+                errors += worker.errors;
+            }
+            Arrays.sort(all);
+            return new Result(total, non2xx, errors, total / (window.toNanos() / 1e9),
+                    percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99),
+                    all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT,
+                    "pedidos=%d | throughput=%.1f req/s | p50=%.1f ms | p90=%.1f ms | p99=%.1f ms | max=%.1f ms"
+                            + " | não-2xx=%d | erros=%d",
+                    requests, throughput, p50, p90, p99, max, non2xx, errors);
+        }
+
+        String toJson(String label, URI uri, int concurrency) {
+            return String.format(Locale.ROOT,
+                    "{\"label\":\"%s\",\"url\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"throughput\":%.2f,"
+                            + "\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f,\"non2xx\":%d,\"errors\":%d}%n",
+                    label, uri, concurrency, requests, throughput, p50, p90, p99, max, non2xx, errors);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nexus.estates.benchmarks;
+
+import com.nexus.estates.common.util.WebhookCryptoUtil;
+import com.nexus.estates.common.util.WebhookSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assinatura e verificação HMAC dos webhooks por {@link WebhookCryptoUtil}, executadas uma vez
+ * por entrega e por subscritor.
+ *
+ * <p>Os tamanhos cobrem uma notificação de mensagem de chat (~256 B) e um payload de reserva
+ * com detalhes (~16 KB).</p>
+ *
+ * <p>{@code uncachedSignPayload} reproduz a implementação anterior (novo {@code Mac} e nova chave a
+ * cada chamada, payload recodificado em UTF-8) como referência para o ganho do {@link WebhookSigner}
+ * em cache; {@code signBytes} e {@code verifyBytes} medem o caminho sem conversões de {@code String}
+ * usado pelo dispatcher e pelo webhook do Ably. Com {@code -t 4} mede-se também a contenção entre
+ * threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookCryptoBenchmark {
+
+    @Param({"256", "16384"})
+    private int payloadBytes;
+
+    private String secret;
+    private String payload;
+    private String signature;
+    private byte[] body;
+    private WebhookSigner signer;
+
+    @Setup
+    public void setUp() {
+        secret = WebhookCryptoUtil.generateSecret();
+        StringBuilder sb = new StringBuilder(payloadBytes).append("{\"event\":\"chat.message\",\"data\":\"");
+        while (sb.length() < payloadBytes - 2) {
+            sb.append((char) ('a' + sb.length() % 26));
+        }
+        payload = sb.append("\"}").toString();
+        signature = WebhookCryptoUtil.signPayload(payload, secret);
+        body = payload.getBytes(StandardCharsets.UTF_8);
+        signer = WebhookCryptoUtil.signerFor(secret);
+    }
+
+    @Benchmark
+    public String uncachedSignPayload() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "sha256=" + Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public String signPayload() {
+        return WebhookCryptoUtil.signPayload(payload, secret);
+    }
+
+    @Benchmark
+    public boolean isValidSignature() {
+        return WebhookCryptoUtil.isValidSignature(payload, signature, secret);
+    }
+
+    @Benchmark
+    public String signBytes() {
+        return signer.sign(body);
+    }
+
+    @Benchmark
+    public boolean verifyBytes() {
+        return signer.verify(body, signature);
+    }
+}
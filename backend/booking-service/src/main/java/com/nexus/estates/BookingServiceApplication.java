@@ -4,12 +4,14 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Ponto de entrada da aplicação Booking Service.
  * <p>
  * Inicializa o contexto do Spring Boot, configura os componentes automáticos
  * e expõe a documentação OpenAPI através do springdoc-openapi.
+ * O agendamento está ativo para o relay da outbox de eventos.
  * </p>
  *
  * @author Nexus Estates Team
@@ -23,6 +25,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
         )
 )
 @SpringBootApplication
+@EnableScheduling
 public class BookingServiceApplication
 {
     public static void main(String[] args)
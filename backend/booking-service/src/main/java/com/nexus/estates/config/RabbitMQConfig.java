@@ -1,5 +1,7 @@
 package com.nexus.estates.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
@@ -13,6 +15,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 /**
  * Configuração central de infraestrutura para integração com RabbitMQ.
@@ -26,6 +29,26 @@ import org.springframework.context.annotation.Configuration;
  * encaminhe automaticamente para as DLQs configuradas.
  * </p>
  *
+ * <p>
+ * Subscreve ainda os eventos {@code property.pricing.changed} da exchange do
+ * property-service através de uma fila anónima (exclusiva e auto-delete) por instância,
+ * para que todas as réplicas invalidem a sua cache local de cotações. Da mesma forma, os
+ * avisos {@code booking.availability.changed} chegam a todas as réplicas, que descartam o
+ * calendário da propriedade no seu índice de disponibilidade.
+ * </p>
+ *
+ * <p>
+ * A fila {@code booking.status.updated.queue} é consumida em lote por um container
+ * dedicado ({@link #statusUpdatedBatchContainerFactory}), com um único consumidor por
+ * instância e {@code x-single-active-consumer} na fila, para que as atualizações de estado
+ * sejam aplicadas pela ordem em que foram publicadas.
+ * </p>
+ *
+ * <p>
+ * Com {@code spring.threads.virtual.enabled=true}, os consumidores dos containers declarados
+ * aqui correm em virtual threads, tal como os containers criados pela autoconfiguração do Boot.
+ * </p>
+ *
  * @author Nexus Estates Team
  * @version 1.0
  */
@@ -53,6 +76,15 @@ public class RabbitMQConfig {
     @Value("${booking.calendar.queue.block:calendar.block.queue}")
     private String calendarBlockQueueName;
 
+    @Value("${booking.calendar.routing-key.import:calendar.import}")
+    private String calendarImportRoutingKey;
+
+    @Value("${booking.calendar.queue.import:calendar.import.queue}")
+    private String calendarImportQueueName;
+
+    @Value("${booking.events.routing-key.availability-changed:booking.availability.changed}")
+    private String availabilityChangedRoutingKey;
+
     @Value("${booking.events.dlx:booking.dlx}")
     private String bookingDeadLetterExchangeName;
 
@@ -62,12 +94,30 @@ public class RabbitMQConfig {
     @Value("${booking.events.routing-key.created.dlq:booking.created.dlq}")
     private String bookingCreatedDlqRoutingKey;
 
+    @Value("${property.events.exchange:property.exchange}")
+    private String propertyExchangeName;
+
+    @Value("${property.events.routing-key.pricing-changed:property.pricing.changed}")
+    private String propertyPricingChangedRoutingKey;
+
     @Value("${booking.events.queue.status-updated.dlq:booking.status.updated.dlq}")
     private String bookingStatusUpdatedDlqQueueName;
 
     @Value("${booking.events.routing-key.status-updated.dlq:booking.status.updated.dlq}")
     private String bookingStatusUpdatedDlqRoutingKey;
 
+    @Value("${booking.events.status-updated.batch.size:100}")
+    private int statusUpdatedBatchSize;
+
+    @Value("${booking.events.status-updated.batch.receive-timeout-ms:200}")
+    private long statusUpdatedBatchReceiveTimeoutMillis;
+
+    @Value("${booking.events.status-updated.prefetch:250}")
+    private int statusUpdatedPrefetch;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     /**
      * Cria a exchange de tópicos responsável pelos eventos de reserva.
      *
@@ -127,6 +177,12 @@ public class RabbitMQConfig {
 
     /**
      * Declara a fila que recebe atualizações de estado de reservas.
+     * <p>
+     * Com {@code x-single-active-consumer}, o broker entrega as mensagens a um só consumidor
+     * de cada vez, mesmo com várias instâncias do serviço; os restantes ficam em espera e
+     * assumem se esse cair. Sem isto, duas atualizações da mesma reserva podiam ser aplicadas
+     * por ordem inversa.
+     * </p>
      *
      * @return fila durável para mensagens {@code booking.status.updated}.
      */
@@ -136,6 +192,7 @@ public class RabbitMQConfig {
                 .durable(bookingStatusUpdatedQueueName)
                 .withArgument("x-dead-letter-exchange", bookingDeadLetterExchangeName)
                 .withArgument("x-dead-letter-routing-key", bookingStatusUpdatedDlqRoutingKey)
+                .singleActiveConsumer()
                 .build();
     }
 
@@ -199,6 +256,97 @@ public class RabbitMQConfig {
                 .with(calendarBlockRoutingKey + ".dlq");
     }
 
+    /**
+     * Fila das importações em lote de feeds iCal (uma mensagem por feed de propriedade).
+     *
+     * @return fila durável para mensagens {@code calendar.import}, com DLQ.
+     */
+    @Bean
+    public Queue calendarImportQueue() {
+        return QueueBuilder
+                .durable(calendarImportQueueName)
+                .withArgument("x-dead-letter-exchange", bookingDeadLetterExchangeName)
+                .withArgument("x-dead-letter-routing-key", calendarImportRoutingKey + ".dlq")
+                .build();
+    }
+
+    @Bean
+    public Queue calendarImportDlqQueue() {
+        return QueueBuilder
+                .durable(calendarImportRoutingKey + ".dlq")
+                .build();
+    }
+
+    @Bean
+    public Binding calendarImportBinding(Queue calendarImportQueue, TopicExchange bookingExchange) {
+        return BindingBuilder
+                .bind(calendarImportQueue)
+                .to(bookingExchange)
+                .with(calendarImportRoutingKey);
+    }
+
+    @Bean
+    public Binding calendarImportDlqBinding(Queue calendarImportDlqQueue, TopicExchange bookingDeadLetterExchange) {
+        return BindingBuilder
+                .bind(calendarImportDlqQueue)
+                .to(bookingDeadLetterExchange)
+                .with(calendarImportRoutingKey + ".dlq");
+    }
+
+    /**
+     * Exchange de eventos do property-service (declarada também pelo produtor).
+     *
+     * @return instância de {@link TopicExchange} partilhada com o property-service.
+     */
+    @Bean
+    public TopicExchange propertyExchange() {
+        return new TopicExchange(propertyExchangeName);
+    }
+
+    /**
+     * Fila de invalidação da cache de cotações, privada a esta instância.
+     *
+     * <p>Uma fila durável partilhada distribuiria cada evento por apenas uma réplica;
+     * aqui cada instância recebe todos os eventos. Perder eventos enquanto a instância está
+     * em baixo é aceitável, porque a cache arranca vazia.</p>
+     *
+     * @return fila anónima, exclusiva e auto-delete.
+     */
+    @Bean
+    public Queue propertyPricingChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding propertyPricingChangedBinding(Queue propertyPricingChangedQueue, TopicExchange propertyExchange) {
+        return BindingBuilder
+                .bind(propertyPricingChangedQueue)
+                .to(propertyExchange)
+                .with(propertyPricingChangedRoutingKey);
+    }
+
+    /**
+     * Fila dos avisos de alteração de disponibilidade, privada a esta instância.
+     *
+     * <p>Tal como na invalidação de cotações, cada réplica recebe todos os avisos para descartar
+     * o calendário da propriedade no seu {@code AvailabilityIndex}. Avisos perdidos enquanto a
+     * instância está em baixo não importam: o índice arranca vazio.</p>
+     *
+     * @return fila anónima, exclusiva e auto-delete.
+     */
+    @Bean
+    public Queue availabilityChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding availabilityChangedBinding(Queue availabilityChangedQueue, TopicExchange bookingExchange) {
+        return BindingBuilder
+                .bind(availabilityChangedQueue)
+                .to(bookingExchange)
+                .with(availabilityChangedRoutingKey);
+    }
+
     /**
      * Configura o conversor de mensagens baseado em Jackson para serialização JSON.
      *
@@ -231,6 +379,46 @@ public class RabbitMQConfig {
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jacksonMessageConverter);
         factory.setDefaultRequeueRejected(false);
+        if (virtualThreads) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-simple-"));
+        }
+        return factory;
+    }
+
+    /**
+     * Container em lote para {@code booking.status.updated}.
+     * <p>
+     * Cada consumidor acumula até {@code batch.size} mensagens (ou o que chegar dentro de
+     * {@code batch.receive-timeout-ms}) e entrega-as de uma só vez ao listener como
+     * {@code List}. O ack é manual: o listener confirma o lote aplicado e rejeita, sem requeue
+     * (para a DLQ), apenas as mensagens que falharem individualmente. Há um único consumidor,
+     * para que os lotes sejam aplicados pela ordem da fila. O prefetch nunca é inferior ao
+     * tamanho do lote, para que um lote possa ser preenchido sem esperar por novos envios do
+     * broker.
+     * </p>
+     *
+     * @param connectionFactory       fábrica de ligações AMQP.
+     * @param jacksonMessageConverter conversor JSON aplicado a cada mensagem do lote.
+     * @return fábrica de containers em lote.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory statusUpdatedBatchContainerFactory(ConnectionFactory connectionFactory,
+                                                                                   MessageConverter jacksonMessageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jacksonMessageConverter);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(statusUpdatedBatchSize);
+        factory.setReceiveTimeout(statusUpdatedBatchReceiveTimeoutMillis);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(Math.max(statusUpdatedPrefetch, statusUpdatedBatchSize));
+        if (virtualThreads) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-batch-"));
+        }
         return factory;
     }
 }
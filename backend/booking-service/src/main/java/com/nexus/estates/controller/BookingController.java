@@ -1,5 +1,9 @@
 package com.nexus.estates.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexus.estates.dto.AvailabilityQueryRequest;
+import com.nexus.estates.dto.AvailabilityQueryResponse;
+import com.nexus.estates.dto.BookingPage;
 import com.nexus.estates.dto.BookingResponse;
 import com.nexus.estates.dto.CreateBlockRequest;
 import com.nexus.estates.dto.CreateBookingRequest;
@@ -11,11 +15,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Controlador REST responsável pela orquestração das operações de reserva.
@@ -26,7 +39,7 @@ import java.util.List;
  * </p>
  *
  * @author Nexus Estates Team
- * @version 1.2
+ * @version 1.3
  * @since 2026-02-10
  */
 @RestController
@@ -37,15 +50,21 @@ import java.util.List;
 )
 public class BookingController {
 
+    /** Header com o cursor da página seguinte nas listagens paginadas. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Instancia o controlador com as dependências necessárias.
      *
      * @param bookingService Serviço de domínio para gestão de reservas.
+     * @param objectMapper Serializador JSON usado nas exportações NDJSON.
      */
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -64,7 +83,7 @@ public class BookingController {
      */
     @Operation(
             summary = "Cria uma nova reserva",
-            description = "Valida datas, verifica conflitos (CONFIRMED, BLOCKED, PENDING_PAYMENT) com Pessimistic Lock e cria uma reserva com estado inicial PENDING_PAYMENT."
+            description = "Valida datas, verifica conflitos (CONFIRMED, BLOCKED, PENDING_PAYMENT) dentro da secção crítica da propriedade e cria uma reserva com estado inicial PENDING_PAYMENT."
     )
     @ApiResponses({
             @ApiResponse(
@@ -115,9 +134,9 @@ public class BookingController {
      * </p>
      *
      * <p>
-     * A verificação de disponibilidade usa <b>Pessimistic Write Lock</b>
-     * ({@code SELECT ... FOR UPDATE}), garantindo atomicidade ao milissegundo
-     * e prevenção de double booking mesmo sob alta concorrência.
+     * A verificação de disponibilidade é serializada por propriedade
+     * ({@code booking.concurrency.mode}) e reforçada pela restrição de exclusão da tabela,
+     * garantindo prevenção de double booking mesmo sob alta concorrência.
      * </p>
      *
      * @param request Payload com propertyId, datas e razão opcional do bloqueio.
@@ -134,7 +153,7 @@ public class BookingController {
             description = """
                     Bloqueia um período de datas para uma propriedade sem transação financeira.
                     O estado resultante é BLOCKED, que impede novos agendamentos tal como CONFIRMED.
-                    A verificação de disponibilidade usa Pessimistic Write Lock para garantir
+                    A verificação de disponibilidade é serializada por propriedade para garantir
                     atomicidade sob alta concorrência.
                     """
     )
@@ -165,6 +184,36 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Consulta a disponibilidade de várias propriedades para o mesmo intervalo de datas.
+     * <p>
+     * Pensado para a página de pesquisa: substitui uma chamada a
+     * {@code GET /api/bookings/property/{propertyId}} por candidata e a filtragem no cliente.
+     * </p>
+     *
+     * @param request IDs das propriedades candidatas e intervalo de datas.
+     * @return {@link ResponseEntity} com os IDs das propriedades livres.
+     * @throws org.springframework.web.bind.MethodArgumentNotValidException Se o payload for inválido (400).
+     * @throws IllegalArgumentException Se o check-out não for posterior ao check-in (400).
+     */
+    @Operation(
+            summary = "Disponibilidade de várias propriedades",
+            description = "Recebe até 1000 IDs de propriedades e um intervalo de datas e devolve os IDs das que não têm reservas ativas (CONFIRMED, BLOCKED, PENDING_PAYMENT) no intervalo."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Propriedades livres no intervalo",
+                    content = @Content(schema = @Schema(implementation = AvailabilityQueryResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Dados de entrada inválidos"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @PostMapping("/availability")
+    public ResponseEntity<AvailabilityQueryResponse> findAvailableProperties(@Valid @RequestBody AvailabilityQueryRequest request) {
+        return ResponseEntity.ok(bookingService.findAvailableProperties(request));
+    }
+
     /**
      * Recupera os detalhes de uma reserva específica pelo seu identificador.
      *
@@ -191,17 +240,23 @@ public class BookingController {
     }
 
     /**
-     * Lista todas as reservas associadas a uma propriedade.
+     * Lista as reservas associadas a uma propriedade, paginadas por keyset.
      * <p>
-     * Utilizado para construção de calendários de disponibilidade e gestão de ocupação.
+     * Utilizado para construção de calendários de disponibilidade e gestão de ocupação. A resposta
+     * continua a ser uma lista; quando há mais reservas, o header {@code X-Next-Cursor} indica o
+     * valor a enviar no parâmetro {@code cursor} para obter a página seguinte.
      * </p>
      *
      * @param propertyId Identificador único da propriedade.
-     * @return Lista de {@link BookingResponse} contendo todas as reservas da propriedade.
+     * @param from Início opcional da janela de datas (reservas com check-out posterior).
+     * @param to Fim opcional da janela de datas (reservas com check-in anterior).
+     * @param cursor Cursor da página anterior (opcional).
+     * @param limit Tamanho da página (opcional, máximo {@value BookingPage#MAX_LIMIT}; sem cursor nem limite a listagem é completa).
+     * @return Lista de {@link BookingResponse} da página, ordenada por check-in.
      */
     @Operation(
             summary = "Lista reservas por propriedade",
-            description = "Retorna todas as reservas associadas a uma propriedade específica."
+            description = "Retorna as reservas de uma propriedade ordenadas por check-in, paginadas por cursor (header X-Next-Cursor) quando é indicado cursor ou limit, e opcionalmente limitadas a uma janela de datas."
     )
     @ApiResponses({
             @ApiResponse(
@@ -209,22 +264,64 @@ public class BookingController {
                     description = "Reservas encontradas",
                     content = @Content(schema = @Schema(implementation = BookingResponse.class))
             ),
+            @ApiResponse(responseCode = "400", description = "Janela de datas ou cursor inválidos"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @GetMapping("/property/{propertyId}")
-    public ResponseEntity<List<BookingResponse>> getByProperty(@PathVariable Long propertyId) {
-        return ResponseEntity.ok(bookingService.getBookingsByProperty(propertyId));
+    public ResponseEntity<List<BookingResponse>> getByProperty(
+            @PathVariable Long propertyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return pageResponse(bookingService.getBookingsByProperty(propertyId, from, to, cursor, limit));
+    }
+
+    /**
+     * Exporta todas as reservas de uma propriedade em NDJSON (uma reserva JSON por linha).
+     * <p>
+     * As reservas são lidas da base de dados em streaming e escritas à medida, pelo que a memória
+     * usada não depende do tamanho do histórico.
+     * </p>
+     *
+     * @param propertyId Identificador único da propriedade.
+     * @param from Início opcional da janela de datas.
+     * @param to Fim opcional da janela de datas.
+     * @return Corpo em streaming com {@code Content-Type: application/x-ndjson}.
+     */
+    @Operation(
+            summary = "Exporta reservas por propriedade (NDJSON)",
+            description = "Escreve em streaming todas as reservas da propriedade na janela de datas, uma por linha, ordenadas por check-in."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportação em curso"),
+            @ApiResponse(responseCode = "400", description = "Janela de datas inválida"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @GetMapping(value = "/property/{propertyId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByProperty(
+            @PathVariable Long propertyId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        validateWindow(from, to);
+        return ndjson(sink -> bookingService.exportBookingsByProperty(propertyId, from, to, sink));
     }
 
     /**
-     * Recupera o histórico de reservas de um utilizador específico.
+     * Recupera o histórico de reservas de um utilizador específico, paginado por keyset.
      *
      * @param userId Identificador único do utilizador.
-     * @return Lista de {@link BookingResponse} com o histórico de reservas do utilizador.
+     * @param from Início opcional da janela de datas.
+     * @param to Fim opcional da janela de datas.
+     * @param cursor Cursor da página anterior (opcional).
+     * @param limit Tamanho da página (opcional, máximo {@value BookingPage#MAX_LIMIT}; sem cursor nem limite a listagem é completa).
+     * @return Lista de {@link BookingResponse} da página, ordenada por check-in.
      */
     @Operation(
             summary = "Lista reservas por utilizador",
-            description = "Retorna o histórico de reservas associadas a um utilizador."
+            description = "Retorna o histórico de reservas de um utilizador ordenado por check-in, paginado por cursor (header X-Next-Cursor) quando é indicado cursor ou limit, e opcionalmente limitado a uma janela de datas."
     )
     @ApiResponses({
             @ApiResponse(
@@ -232,16 +329,50 @@ public class BookingController {
                     description = "Reservas encontradas",
                     content = @Content(schema = @Schema(implementation = BookingResponse.class))
             ),
+            @ApiResponse(responseCode = "400", description = "Janela de datas ou cursor inválidos"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BookingResponse>> getByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(bookingService.getBookingsByUser(userId));
+    public ResponseEntity<List<BookingResponse>> getByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return pageResponse(bookingService.getBookingsByUser(userId, from, to, cursor, limit));
+    }
+
+    /**
+     * Exporta o histórico de reservas de um utilizador em NDJSON.
+     *
+     * @param userId Identificador único do utilizador.
+     * @param from Início opcional da janela de datas.
+     * @param to Fim opcional da janela de datas.
+     * @return Corpo em streaming com {@code Content-Type: application/x-ndjson}.
+     */
+    @Operation(
+            summary = "Exporta reservas por utilizador (NDJSON)",
+            description = "Escreve em streaming todo o histórico de reservas do utilizador na janela de datas, uma por linha, ordenado por check-in."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Exportação em curso"),
+            @ApiResponse(responseCode = "400", description = "Janela de datas inválida"),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    @GetMapping(value = "/user/{userId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        validateWindow(from, to);
+        return ndjson(sink -> bookingService.exportBookingsByUser(userId, from, to, sink));
     }
 
     @Operation(
             summary = "Lista reservas do utilizador autenticado",
-            description = "Retorna o histórico de reservas do utilizador autenticado, resolvido via header X-User-Id injetado pelo API Gateway."
+            description = "Retorna o histórico de reservas do utilizador autenticado, resolvido via header X-User-Id injetado pelo API Gateway, com a mesma paginação por cursor de /user/{userId}."
     )
     @ApiResponses({
             @ApiResponse(
@@ -253,16 +384,61 @@ public class BookingController {
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @GetMapping("/me")
-    public ResponseEntity<List<BookingResponse>> getMine(@RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+    public ResponseEntity<List<BookingResponse>> getMine(
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
         if (userIdHeader == null || userIdHeader.isBlank()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        Long userId;
         try {
-            Long userId = Long.parseLong(userIdHeader);
-            return ResponseEntity.ok(bookingService.getBookingsByUser(userId));
+            userId = Long.parseLong(userIdHeader);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        return pageResponse(bookingService.getBookingsByUser(userId, from, to, cursor, limit));
+    }
+
+    private static ResponseEntity<List<BookingResponse>> pageResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Valida a janela antes de iniciar a resposta em streaming, para que um pedido inválido
+     * ainda possa ser respondido com 400.
+     */
+    private static void validateWindow(LocalDate from, LocalDate to) {
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new IllegalArgumentException("Window end must be after window start");
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<BookingResponse>> export) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            try {
+                export.accept(booking -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(booking));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
 }
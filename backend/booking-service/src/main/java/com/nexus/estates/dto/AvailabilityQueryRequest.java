@@ -0,0 +1,47 @@
+package com.nexus.estates.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO do pedido de disponibilidade em lote: várias propriedades candidatas para um único
+ * intervalo de datas.
+ * <p>
+ * Substitui, na página de pesquisa, as N chamadas a {@code GET /api/bookings/property/{propertyId}}
+ * seguidas de filtragem no cliente.
+ * </p>
+ *
+ * @param propertyIds IDs das propriedades candidatas (máximo {@value #MAX_PROPERTIES}).
+ * @param checkInDate Data de entrada pretendida.
+ * @param checkOutDate Data de saída pretendida (posterior ao check-in).
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Schema(
+        name = "AvailabilityQueryRequest",
+        description = "Pedido de disponibilidade de várias propriedades para o mesmo intervalo de datas."
+)
+public record AvailabilityQueryRequest(
+
+        @Schema(description = "IDs das propriedades candidatas", example = "[1, 2, 3]")
+        @NotEmpty(message = "At least one property ID is required")
+        @Size(max = AvailabilityQueryRequest.MAX_PROPERTIES, message = "Too many property IDs in a single request")
+        List<@NotNull Long> propertyIds,
+
+        @Schema(description = "Data de check-in pretendida", example = "2026-08-01")
+        @NotNull(message = "Check-in date is required")
+        LocalDate checkInDate,
+
+        @Schema(description = "Data de check-out pretendida", example = "2026-08-05")
+        @NotNull(message = "Check-out date is required")
+        LocalDate checkOutDate
+) {
+    /** Número máximo de propriedades por pedido. */
+    public static final int MAX_PROPERTIES = 1000;
+}
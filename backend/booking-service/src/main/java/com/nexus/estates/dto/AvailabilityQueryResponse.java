@@ -0,0 +1,35 @@
+package com.nexus.estates.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO de resposta da disponibilidade em lote.
+ * <p>
+ * Devolve apenas os IDs das propriedades livres, pela ordem do pedido e sem repetições;
+ * qualquer ID pedido que não conste da lista está ocupado no intervalo.
+ * </p>
+ *
+ * @param checkInDate Data de entrada consultada.
+ * @param checkOutDate Data de saída consultada.
+ * @param availablePropertyIds IDs das propriedades sem reservas ativas no intervalo.
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Schema(
+        name = "AvailabilityQueryResponse",
+        description = "Propriedades livres para o intervalo de datas pedido."
+)
+public record AvailabilityQueryResponse(
+        @Schema(description = "Data de check-in consultada", example = "2026-08-01")
+        LocalDate checkInDate,
+
+        @Schema(description = "Data de check-out consultada", example = "2026-08-05")
+        LocalDate checkOutDate,
+
+        @Schema(description = "IDs das propriedades livres no intervalo", example = "[1, 3]")
+        List<Long> availablePropertyIds
+) {}
@@ -0,0 +1,57 @@
+package com.nexus.estates.dto;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Posição de paginação por keyset nas listagens de reservas, ordenadas por
+ * {@code (check_in_date, id)}.
+ * <p>
+ * Representada em texto como {@code "<checkInDate>,<id>"} (ex.: {@code 2026-08-01,1234}),
+ * tal como é devolvida no header {@code X-Next-Cursor} e aceite no parâmetro {@code cursor}.
+ * </p>
+ *
+ * @param checkInDate Data de check-in da última reserva da página anterior.
+ * @param id ID da última reserva da página anterior (desempate entre reservas com o mesmo check-in).
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+public record BookingCursor(LocalDate checkInDate, Long id) {
+
+    /** Início da listagem: antes de qualquer reserva. */
+    public static final BookingCursor START = new BookingCursor(LocalDate.EPOCH, 0L);
+
+    /**
+     * Interpreta o cursor recebido num pedido.
+     *
+     * @param value cursor em texto, ou {@code null}/vazio para começar do início.
+     * @return a posição correspondente.
+     * @throws IllegalArgumentException se o formato for inválido.
+     */
+    public static BookingCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return START;
+        }
+        int comma = value.indexOf(',');
+        try {
+            return new BookingCursor(LocalDate.parse(value.substring(0, comma).trim()),
+                    Long.parseLong(value.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+
+    /**
+     * @param booking última reserva de uma página.
+     * @return o cursor que continua a listagem a seguir a essa reserva.
+     */
+    public static BookingCursor after(BookingResponse booking) {
+        return new BookingCursor(booking.checkInDate(), booking.id());
+    }
+
+    @Override
+    public String toString() {
+        return checkInDate + "," + id;
+    }
+}
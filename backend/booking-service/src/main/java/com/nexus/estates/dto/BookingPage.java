@@ -0,0 +1,18 @@
+package com.nexus.estates.dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem de reservas paginada por keyset.
+ *
+ * @param items Reservas da página, ordenadas por {@code (checkInDate, id)}.
+ * @param nextCursor Cursor da página seguinte, ou {@code null} se esta for a última.
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+public record BookingPage(List<BookingResponse> items, String nextCursor) {
+
+    /** Tamanho máximo de uma página, e o usado quando só o cursor é indicado. */
+    public static final int MAX_LIMIT = 500;
+}
@@ -0,0 +1,25 @@
+package com.nexus.estates.dto;
+
+import com.nexus.estates.common.enums.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção mínima de uma reserva usada na resolução de conflitos da importação de calendários.
+ *
+ * @param id           identificador da reserva.
+ * @param checkInDate  data de início (inclusiva).
+ * @param checkOutDate data de fim (exclusiva).
+ * @param status       estado atual.
+ * @param externalUid  UID do evento externo que originou a reserva técnica, ou {@code null}.
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+public record BookingSlot(
+        Long id,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        BookingStatus status,
+        String externalUid
+) {}
@@ -138,4 +138,11 @@ public class Booking {
     /** Justificação textual em caso de cancelamento. Nullable. */
     @Column(name = "cancellation_reason")
     private String cancellationReason;
+
+    /**
+     * UID do evento no calendário externo (iCal) que originou esta reserva técnica.
+     * <p>Único por propriedade; {@code null} nas reservas normais.</p>
+     */
+    @Column(name = "external_uid")
+    private String externalUid;
 }
@@ -0,0 +1,81 @@
+package com.nexus.estates.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio pendente de publicação no RabbitMQ (padrão Transactional Outbox).
+ * <p>
+ * Mapeia a tabela {@code booking_outbox}. Cada linha é gravada na mesma transação que
+ * altera a reserva e contém a mensagem já serializada, tal como será enviada para o broker.
+ * O {@link com.nexus.estates.messaging.OutboxRelay} publica as linhas pendentes e preenche
+ * {@code publishedAt} após a confirmação do broker; {@code availableAt} serve de lease durante
+ * a publicação e de instante da próxima tentativa após uma falha.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "booking_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    /** Tamanho máximo guardado em {@code lastError}. */
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    /** Identificador sequencial; define a ordem de publicação. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Reserva a que o evento pertence; os eventos de uma reserva são publicados por ordem de id. */
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    /** Exchange de destino. */
+    @Column(nullable = false)
+    private String exchange;
+
+    /** Routing key de destino. */
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    /** Identificador de tipo enviado no header {@code __TypeId__} (classe da mensagem). */
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    /** Corpo JSON da mensagem. */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** Momento em que o evento foi gravado (commit da transação de negócio). */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** Momento da confirmação pelo broker; {@code null} enquanto pendente. */
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    /** Instante a partir do qual o evento pode ser reclamado (fim do lease ou do backoff). */
+    @Builder.Default
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt = LocalDateTime.now();
+
+    /** Número de tentativas de publicação falhadas. */
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    /** Motivo da última falha de publicação. */
+    @Column(name = "last_error", length = MAX_ERROR_LENGTH)
+    private String lastError;
+}
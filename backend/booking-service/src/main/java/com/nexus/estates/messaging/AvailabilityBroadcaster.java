@@ -0,0 +1,78 @@
+package com.nexus.estates.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Anuncia a todas as instâncias do booking-service que o calendário de uma propriedade mudou.
+ *
+ * <p>Cada instância mantém o seu próprio {@link com.nexus.estates.service.AvailabilityIndex};
+ * sem este aviso, as restantes réplicas continuariam a responder "ocupado/livre" com base no
+ * último carregamento até expirar o TTL. O aviso segue para a {@code booking.exchange} com a
+ * routing key {@code booking.events.routing-key.availability-changed} e é recebido numa fila
+ * anónima por instância ({@link AvailabilityChangedConsumer}).</p>
+ *
+ * <p>O envio é <i>best-effort</i>: uma falha do broker fica em log e o TTL do índice limita o
+ * tempo durante o qual as outras instâncias podem responder com dados desatualizados.</p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Component
+public class AvailabilityBroadcaster {
+
+    /** Identifica esta instância, para ignorar os seus próprios avisos. */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final String routingKey;
+
+    /**
+     * @param rabbitTemplate template partilhado, com conversor JSON.
+     * @param exchange       exchange dos eventos de reserva.
+     * @param routingKey     routing key dos avisos de alteração de disponibilidade.
+     */
+    public AvailabilityBroadcaster(RabbitTemplate rabbitTemplate,
+                                   @Value("${booking.events.exchange:booking.exchange}") String exchange,
+                                   @Value("${booking.events.routing-key.availability-changed:booking.availability.changed}") String routingKey) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+    }
+
+    /**
+     * Publica o aviso de alteração do calendário de uma propriedade.
+     *
+     * @param propertyId propriedade alterada.
+     */
+    public void publish(Long propertyId) {
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, new AvailabilityChangedMessage(propertyId, instanceId));
+        } catch (AmqpException e) {
+            log.warn("Falha ao anunciar alteração de disponibilidade da propriedade {}: {}", propertyId, e.getMessage());
+        }
+    }
+
+    /**
+     * @param message aviso recebido.
+     * @return {@code true} se o aviso foi publicado por esta mesma instância.
+     */
+    boolean isOwn(AvailabilityChangedMessage message) {
+        return instanceId.equals(message.origin());
+    }
+
+    /**
+     * Aviso de alteração do calendário de uma propriedade.
+     *
+     * @param propertyId propriedade alterada.
+     * @param origin     instância que fez a alteração.
+     */
+    public record AvailabilityChangedMessage(Long propertyId, String origin) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.service.AvailabilityIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor dos avisos de alteração de disponibilidade publicados pelas outras instâncias.
+ * <p>
+ * Cada aviso descarta o calendário da propriedade no {@link AvailabilityIndex} local, para que a
+ * próxima consulta o volte a carregar da base de dados. Os avisos da própria instância são
+ * ignorados: o índice local já foi atualizado antes do envio.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailabilityChangedConsumer {
+
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityBroadcaster broadcaster;
+
+    /**
+     * Invalida o calendário da propriedade indicada no aviso.
+     *
+     * @param msg aviso de alteração (propriedade e instância de origem).
+     */
+    @RabbitListener(queues = "#{availabilityChangedQueue.name}")
+    public void handleAvailabilityChanged(AvailabilityBroadcaster.AvailabilityChangedMessage msg) {
+        if (msg == null || msg.propertyId() == null || broadcaster.isOwn(msg)) {
+            return;
+        }
+        log.debug("Disponibilidade da propriedade {} alterada noutra instância; a descartar calendário", msg.propertyId());
+        availabilityIndex.evict(msg.propertyId());
+    }
+}
@@ -5,12 +5,19 @@ import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
 import com.nexus.estates.common.messaging.BookingUpdatedMessage;
 import com.nexus.estates.common.messaging.BookingCancelledMessage;
 import com.nexus.estates.entity.Booking;
+import com.nexus.estates.entity.OutboxEvent;
 import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.repository.OutboxEventRepository;
+import com.nexus.estates.service.AvailabilityIndex;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 /**
@@ -30,14 +37,24 @@ import java.util.Optional;
  * para DLQ sem impactar o fluxo síncrono da API.
  * </p>
  *
+ * <p>
+ * <b>Outbox transacional:</b> os métodos {@code publish*} não contactam o broker.
+ * A mensagem é serializada com o mesmo conversor JSON do {@code RabbitTemplate} e gravada
+ * em {@code booking_outbox} na transação do chamador; o {@link OutboxRelay} publica-a
+ * depois do commit, com publisher confirms. Assim um rollback nunca deixa escapar um
+ * evento e um broker indisponível nunca faz perder um evento já comprometido.
+ * </p>
+ *
  * @author Nexus Estates Team
  * @version 1.0
  */
 @Service
 public class BookingEventPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final MessageConverter messageConverter;
     private final BookingRepository bookingRepository;
+    private final AvailabilityIndex availabilityIndex;
     private final String bookingExchangeName;
     private final String bookingCreatedRoutingKey;
     private final String bookingUpdatedRoutingKey;
@@ -46,19 +63,25 @@ public class BookingEventPublisher {
     /**
      * Construtor principal utilizado pelo Spring para injeção de dependências.
      *
-     * @param rabbitTemplate        cliente AMQP configurado com conversor JSON.
+     * @param outboxEventRepository repositório da outbox onde os eventos são gravados.
+     * @param messageConverter      conversor JSON partilhado com o {@code RabbitTemplate}.
      * @param bookingRepository     repositório de acesso às reservas persistidas.
+     * @param availabilityIndex     índice de disponibilidade em memória, mantido em sincronia com os estados.
      * @param bookingExchangeName   nome lógico da exchange utilizada para eventos de reserva.
      * @param bookingCreatedRoutingKey routing key associada ao evento {@code booking.created}.
      */
-    public BookingEventPublisher(RabbitTemplate rabbitTemplate,
+    public BookingEventPublisher(OutboxEventRepository outboxEventRepository,
+                                 MessageConverter messageConverter,
                                  BookingRepository bookingRepository,
+                                 AvailabilityIndex availabilityIndex,
                                  @Value("${booking.events.exchange:booking.exchange}") String bookingExchangeName,
                                  @Value("${booking.events.routing-key.created:booking.created}") String bookingCreatedRoutingKey,
                                  @Value("${booking.events.routing-key.updated:booking.updated}") String bookingUpdatedRoutingKey,
                                  @Value("${booking.events.routing-key.cancelled:booking.cancelled}") String bookingCancelledRoutingKey) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxEventRepository = outboxEventRepository;
+        this.messageConverter = messageConverter;
         this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
         this.bookingExchangeName = bookingExchangeName;
         this.bookingCreatedRoutingKey = bookingCreatedRoutingKey;
         this.bookingUpdatedRoutingKey = bookingUpdatedRoutingKey;
@@ -66,30 +89,49 @@ public class BookingEventPublisher {
     }
 
     /**
-     * Publica um evento indicando que uma nova reserva foi criada.
+     * Regista na outbox um evento indicando que uma nova reserva foi criada.
      *
      * @param message payload imutável contendo os identificadores essenciais da reserva.
      */
     public void publishBookingCreated(BookingCreatedMessage message) {
-        rabbitTemplate.convertAndSend(bookingExchangeName, bookingCreatedRoutingKey, message);
+        enqueue(bookingCreatedRoutingKey, message.bookingId(), message);
     }
 
     /**
-     * Publica um evento indicando que uma reserva foi atualizada.
+     * Regista na outbox um evento indicando que uma reserva foi atualizada.
      *
      * @param message payload imutável contendo os dados da atualização.
      */
     public void publishBookingUpdated(BookingUpdatedMessage message) {
-        rabbitTemplate.convertAndSend(bookingExchangeName, bookingUpdatedRoutingKey, message);
+        enqueue(bookingUpdatedRoutingKey, message.bookingId(), message);
     }
 
     /**
-     * Publica um evento indicando que uma reserva foi cancelada.
+     * Regista na outbox um evento indicando que uma reserva foi cancelada.
      *
      * @param message payload imutável contendo os dados do cancelamento.
      */
     public void publishBookingCancelled(BookingCancelledMessage message) {
-        rabbitTemplate.convertAndSend(bookingExchangeName, bookingCancelledRoutingKey, message);
+        enqueue(bookingCancelledRoutingKey, message.bookingId(), message);
+    }
+
+    /**
+     * Serializa a mensagem e grava-a na outbox, na transação corrente.
+     *
+     * @param routingKey routing key de destino.
+     * @param bookingId  reserva a que o evento pertence (ordem de publicação).
+     * @param message    payload a publicar.
+     */
+    private void enqueue(String routingKey, Long bookingId, Object message) {
+        Message serialized = messageConverter.toMessage(message, new MessageProperties());
+        Object typeId = serialized.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateId(bookingId)
+                .exchange(bookingExchangeName)
+                .routingKey(routingKey)
+                .payloadType(typeId != null ? typeId.toString() : message.getClass().getName())
+                .payload(new String(serialized.getBody(), StandardCharsets.UTF_8))
+                .build());
     }
 
     /**
@@ -98,17 +140,27 @@ public class BookingEventPublisher {
      * <p>
      * Sempre que uma mensagem é recebida na fila configurada, o serviço tenta
      * localizar a reserva correspondente e atualiza o seu {@link Booking} com
-     * o novo {@link com.nexus.estates.common.enums.BookingStatus}.
+     * o novo {@link com.nexus.estates.common.enums.BookingStatus}. O
+     * {@link AvailabilityIndex} é atualizado em seguida, libertando as datas de
+     * reservas que deixaram de estar ativas.
+     * </p>
+     *
+     * <p>
+     * Listener individual, ativo apenas com {@code booking.events.status-updated.batch.enabled=false};
+     * por omissão a fila é consumida em lote por {@link BookingStatusBatchConsumer}.
      * </p>
      *
      * @param message mensagem contendo o identificador da reserva e o novo estado.
      */
-    @RabbitListener(queues = "${booking.events.queue.status-updated:booking.status.updated.queue}")
+    @RabbitListener(id = "bookingStatusUpdated",
+            queues = "${booking.events.queue.status-updated:booking.status.updated.queue}",
+            autoStartup = "#{!${booking.events.status-updated.batch.enabled:true}}")
     public void handleStatusUpdated(BookingStatusUpdatedMessage message) {
         Optional<Booking> bookingOptional = bookingRepository.findById(message.bookingId());
         bookingOptional.ifPresent(booking -> {
             booking.setStatus(message.status());
             bookingRepository.save(booking);
+            availabilityIndex.registerAfterCommit(booking);
         });
     }
 }
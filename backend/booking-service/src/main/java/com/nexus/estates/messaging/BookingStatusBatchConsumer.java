@@ -0,0 +1,159 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
+import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.service.AvailabilityIndex;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumidor em lote das atualizações de estado de reservas ({@code booking.status.updated}).
+ *
+ * <p>
+ * Substitui, por omissão, o processamento mensagem a mensagem de
+ * {@link BookingEventPublisher#handleStatusUpdated(BookingStatusUpdatedMessage)}, que fazia um
+ * {@code findById} + {@code save} por evento. Após uma rajada de sincronização com as OTAs, o
+ * container entrega até {@code booking.events.status-updated.batch.size} mensagens de uma vez
+ * (ver {@link com.nexus.estates.config.RabbitMQConfig#statusUpdatedBatchContainerFactory}) e o
+ * lote é aplicado numa única transação:
+ * </p>
+ * <ol>
+ *   <li>eventos repetidos para a mesma reserva são colapsados, prevalecendo o último recebido;</li>
+ *   <li>os estados são escritos com um único batch JDBC de {@code UPDATE bookings};</li>
+ *   <li>as reservas afetadas são relidas numa só query e refletidas no {@link AvailabilityIndex}
+ *       após o commit.</li>
+ * </ol>
+ *
+ * <p>
+ * O lote aplicado é confirmado ({@code ack}) em conjunto. Se a transação do lote falhar, as
+ * mensagens são reaplicadas uma a uma, cada uma na sua transação e pela ordem de entrega:
+ * as que passarem são confirmadas e só as que voltarem a falhar são rejeitadas sem requeue,
+ * seguindo para a DLQ da fila. A fila tem um único consumidor ativo, pelo que os lotes são
+ * aplicados pela ordem de publicação.
+ * O modo em lote pode ser desligado com {@code booking.events.status-updated.batch.enabled=false},
+ * voltando ao listener individual.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.1
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingStatusBatchConsumer {
+
+    static final String UPDATE_STATUS_SQL = "UPDATE bookings SET status = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Aplica um lote de atualizações de estado e confirma-o manualmente.
+     *
+     * @param messages mensagens recebidas, pela ordem de entrega.
+     * @param channel  canal AMQP do consumidor, usado para o ack/nack de cada mensagem.
+     * @throws IOException se o ack ou nack falhar; as mensagens por confirmar são reentregues.
+     */
+    @RabbitListener(id = "bookingStatusUpdatedBatch",
+            queues = "${booking.events.queue.status-updated:booking.status.updated.queue}",
+            containerFactory = "statusUpdatedBatchContainerFactory",
+            autoStartup = "${booking.events.status-updated.batch.enabled:true}")
+    public void handleStatusUpdatedBatch(List<Message<BookingStatusUpdatedMessage>> messages, Channel channel)
+            throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<Long, BookingStatus> latest = new LinkedHashMap<>();
+        for (Message<BookingStatusUpdatedMessage> message : messages) {
+            if (isValid(message.getPayload())) {
+                latest.put(message.getPayload().bookingId(), message.getPayload().status());
+            }
+        }
+
+        try {
+            apply(latest);
+            channel.basicAck(deliveryTag(messages.get(messages.size() - 1)), true);
+            log.debug("Lote de {} mensagens aplicado a {} reservas", messages.size(), latest.size());
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao aplicar lote de {} atualizações de estado; a reaplicar uma a uma: {}",
+                    messages.size(), e.getMessage());
+        }
+
+        for (Message<BookingStatusUpdatedMessage> message : messages) {
+            BookingStatusUpdatedMessage update = message.getPayload();
+            try {
+                if (isValid(update)) {
+                    apply(Map.of(update.bookingId(), update.status()));
+                }
+                channel.basicAck(deliveryTag(message), false);
+            } catch (RuntimeException e) {
+                log.error("Atualização de estado {} rejeitada para a DLQ: {}", update, e.getMessage());
+                channel.basicNack(deliveryTag(message), false, false);
+            }
+        }
+    }
+
+    /**
+     * Escreve os estados numa única transação, com um batch JDBC, e reflete-os no
+     * {@link AvailabilityIndex} após o commit.
+     */
+    private void apply(Map<Long, BookingStatus> latest) {
+        if (latest.isEmpty()) {
+            return;
+        }
+        transactionOperations.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> args = new ArrayList<>(latest.size());
+            latest.forEach((bookingId, bookingStatus) -> args.add(new Object[]{bookingStatus.name(), now, bookingId}));
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, args);
+
+            // Relidas depois do UPDATE: já trazem o novo estado e não ficam "sujas" no contexto JPA.
+            bookingRepository.findAllById(latest.keySet()).forEach(availabilityIndex::registerAfterCommit);
+
+            int missing = 0;
+            for (int count : updated) {
+                if (count == 0) {
+                    missing++;
+                }
+            }
+            if (missing > 0) {
+                log.debug("{} atualizações de estado para reservas inexistentes", missing);
+            }
+        });
+    }
+
+    private static boolean isValid(BookingStatusUpdatedMessage message) {
+        if (message == null || message.bookingId() == null || message.status() == null) {
+            log.warn("Atualização de estado inválida ignorada: {}", message);
+            return false;
+        }
+        return true;
+    }
+
+    private static long deliveryTag(Message<?> message) {
+        Long tag = message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+        if (tag == null) {
+            throw new IllegalStateException("Mensagem sem delivery tag: ack manual impossível");
+        }
+        return tag;
+    }
+}
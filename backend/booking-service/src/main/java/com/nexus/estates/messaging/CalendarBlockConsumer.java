@@ -4,10 +4,13 @@ import com.nexus.estates.common.messaging.CalendarBlockMessage;
 import com.nexus.estates.entity.Booking;
 import com.nexus.estates.common.enums.BookingStatus;
 import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.service.AvailabilityIndex;
+import com.nexus.estates.service.BookingConcurrencyControl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -29,16 +32,25 @@ import java.time.ZoneOffset;
 public class CalendarBlockConsumer {
 
     private final BookingRepository bookingRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingConcurrencyControl concurrencyControl;
 
     /**
      * Processa mensagens de bloqueio de calendário recebidas da fila.
      * <p>
-     * Verifica se já existe uma reserva sobreposta para o período solicitado.
-     * Se não houver conflito, cria uma reserva técnica (bloqueio) para a propriedade.
+     * Verifica se já existe uma reserva sobreposta para o período solicitado, primeiro no
+     * {@link AvailabilityIndex} em memória e depois na base de dados.
+     * Se não houver conflito, cria uma reserva técnica (bloqueio) para a propriedade
+     * e regista-a no índice.
+     * </p>
+     * <p>
+     * A verificação e a inserção decorrem na mesma transação, dentro da secção crítica da
+     * propriedade definida por {@link BookingConcurrencyControl}, tal como nas reservas criadas via API.
      * </p>
      *
      * @param msg A mensagem contendo os detalhes do bloqueio (propriedade, datas, etc.).
      */
+    @Transactional
     @RabbitListener(queues = "${booking.calendar.queue.block:calendar.block.queue}")
     public void handleCalendarBlock(CalendarBlockMessage msg) {
         try {
@@ -46,8 +58,9 @@ public class CalendarBlockConsumer {
             LocalDate checkIn = msg.startUtc().atZone(ZoneOffset.UTC).toLocalDate();
             LocalDate checkOut = msg.endUtc().atZone(ZoneOffset.UTC).toLocalDate();
 
-            // Verificar conflitos
-            boolean occupied = bookingRepository.existsOverlappingBooking(msg.propertyId(), checkIn, checkOut);
+            // Verificar conflitos (índice em memória antes da query com lock)
+            boolean occupied = availabilityIndex.isOccupied(msg.propertyId(), checkIn, checkOut)
+                    || concurrencyControl.lockAndCheckOverlap(msg.propertyId(), checkIn, checkOut);
             
             if (occupied) {
                 log.info("Ignorando bloqueio para propriedade {} pois já existe reserva sobreposta: {} - {}",
@@ -68,7 +81,8 @@ public class CalendarBlockConsumer {
                     .cancellationReason("External Calendar Block: " + msg.sourceSummary())
                     .build();
 
-            bookingRepository.save(block);
+            Booking savedBlock = bookingRepository.save(block);
+            availabilityIndex.registerAfterCommit(savedBlock);
             log.info("Aplicado bloqueio externo para propriedade {}: {} - {}", msg.propertyId(), checkIn, checkOut);
             
         } catch (Exception ex) {
@@ -0,0 +1,46 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.CalendarImportMessage;
+import com.nexus.estates.service.CalendarImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Consumidor das importações em lote de calendários externos ({@code calendar.import}).
+ * <p>
+ * Cada mensagem transporta todos os bloqueios de um feed iCal de uma propriedade e é aplicada
+ * numa única transação por {@link CalendarImportService}. Ao contrário de
+ * {@link CalendarBlockConsumer}, as falhas não são engolidas: a mensagem é rejeitada e segue
+ * para a DLQ {@code calendar.import.dlq}, podendo ser reprocessada sem duplicar bloqueios.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CalendarImportConsumer {
+
+    private final CalendarImportService calendarImportService;
+
+    /**
+     * Aplica os bloqueios do feed recebido e cancela os removidos.
+     *
+     * @param msg propriedade alvo, bloqueios novos/alterados e UIDs removidos do feed.
+     */
+    @RabbitListener(queues = "${booking.calendar.queue.import:calendar.import.queue}")
+    public void handleCalendarImport(CalendarImportMessage msg) {
+        if (msg == null || msg.propertyId() == null) {
+            log.warn("Importação de calendário sem propriedade ou bloqueios ignorada: {}", msg);
+            return;
+        }
+        calendarImportService.importBlocks(msg.propertyId(),
+                msg.blocks() != null ? msg.blocks() : List.of(),
+                msg.removedUids() != null ? msg.removedUids() : List.of());
+    }
+}
@@ -0,0 +1,256 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.entity.OutboxEvent;
+import com.nexus.estates.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relay em segundo plano que drena a outbox {@code booking_outbox} para o RabbitMQ.
+ *
+ * <p>Em cada ciclo:</p>
+ * <ol>
+ *   <li>numa transação curta, reclama um lote de eventos prontos com
+ *       {@code FOR UPDATE SKIP LOCKED} e move o seu {@code available_at} para o fim de um lease
+ *       ({@code booking.outbox.lease-ms}); várias instâncias podem correr em paralelo sem
+ *       publicar a mesma linha, e nenhum lock fica aberto durante a publicação;</li>
+ *   <li>fora de qualquer transação, envia todo o lote sem esperar entre mensagens, cada uma
+ *       com o seu {@link CorrelationData}, e aguarda os publisher confirms (até
+ *       {@code booking.outbox.confirm-timeout-ms});</li>
+ *   <li>numa segunda transação curta, marca como publicados os eventos confirmados
+ *       ({@code ack}).</li>
+ * </ol>
+ *
+ * <p>Eventos rejeitados ({@code nack}), sem confirmação a tempo ou cujo envio falhou ficam
+ * pendentes, com {@code attempts} incrementado, o motivo em {@code last_error} e a próxima
+ * tentativa adiada com backoff exponencial ({@code booking.outbox.retry-backoff-ms}, até
+ * {@code booking.outbox.max-retry-backoff-ms}). Enquanto um evento de uma reserva estiver
+ * pendente, os eventos seguintes da mesma reserva não são reclamados, pelo que os
+ * consumidores recebem sempre os eventos de cada reserva pela ordem em que foram gravados.
+ * A entrega é at-least-once (também se um lease expirar antes dos confirms); cada mensagem
+ * leva o {@code messageId} {@code booking-outbox-<id>} para permitir deduplicação nos
+ * consumidores.</p>
+ *
+ * <p>Requer {@code spring.rabbitmq.publisher-confirm-type=correlated}. Pode ser desligado com
+ * {@code booking.outbox.relay.enabled=false} (por exemplo, em testes).</p>
+ *
+ * <p><b>Métricas:</b> contadores {@code booking.outbox.published} e {@code booking.outbox.failed}.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.1
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    /** Limite do expoente do backoff, para evitar overflow. */
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final Duration lease;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final long retentionHours;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    /**
+     * @param outboxEventRepository repositório da outbox.
+     * @param rabbitTemplate        cliente AMQP (com publisher confirms correlacionados).
+     * @param transactionOperations transações curtas de reclamação e de marcação dos lotes.
+     * @param batchSize             número máximo de eventos publicados por lote.
+     * @param confirmTimeoutMillis  tempo máximo de espera pelos confirms de um lote.
+     * @param leaseMillis           duração do lease de um lote reclamado; deve exceder {@code confirmTimeoutMillis}.
+     * @param retryBackoffMillis    espera antes da primeira nova tentativa de um evento falhado.
+     * @param maxRetryBackoffMillis espera máxima entre tentativas.
+     * @param retentionHours        horas durante as quais os eventos publicados são mantidos.
+     * @param meterRegistry         registo Micrometer dos contadores do relay.
+     */
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       TransactionOperations transactionOperations,
+                       @Value("${booking.outbox.batch-size:100}") int batchSize,
+                       @Value("${booking.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMillis,
+                       @Value("${booking.outbox.lease-ms:30000}") long leaseMillis,
+                       @Value("${booking.outbox.retry-backoff-ms:1000}") long retryBackoffMillis,
+                       @Value("${booking.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMillis,
+                       @Value("${booking.outbox.retention-hours:24}") long retentionHours,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.lease = Duration.ofMillis(Math.max(leaseMillis, confirmTimeoutMillis));
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+        this.retentionHours = retentionHours;
+        this.publishedCounter = Counter.builder("booking.outbox.published")
+                .description("Eventos da outbox confirmados pelo broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("booking.outbox.failed")
+                .description("Tentativas de publicação da outbox rejeitadas ou sem confirmação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drena a outbox: publica lotes consecutivos enquanto estes vierem cheios e
+     * totalmente confirmados, parando ao primeiro lote parcial ou com falhas.
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:200}")
+    public void relayPending() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * Reclama, publica e marca um lote de eventos prontos. Não deve ser chamado dentro de
+     * uma transação: a espera pelos confirms decorre sem locks na base de dados.
+     *
+     * @return número de eventos confirmados pelo broker.
+     */
+    int relayBatch() {
+        // precisão de milissegundos, para que available_at lido da base de dados seja igual ao lease
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime leaseUntil = now.plus(lease);
+        List<OutboxEvent> batch = transactionOperations.execute(status -> claim(now, leaseUntil));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+            } catch (AmqpException e) {
+                correlation.getFuture().completeExceptionally(e);
+            }
+            confirms.add(correlation);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        List<Long> acked = new ArrayList<>(batch.size());
+        Map<OutboxEvent, String> failed = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String error = awaitConfirm(confirms.get(i), deadline);
+            if (error == null) {
+                acked.add(batch.get(i).getId());
+            } else {
+                failed.put(batch.get(i), error.length() > OutboxEvent.MAX_ERROR_LENGTH
+                        ? error.substring(0, OutboxEvent.MAX_ERROR_LENGTH) : error);
+            }
+        }
+
+        LocalDateTime confirmedAt = LocalDateTime.now();
+        transactionOperations.executeWithoutResult(status -> {
+            if (!acked.isEmpty()) {
+                outboxEventRepository.markPublished(acked, confirmedAt);
+            }
+            failed.forEach((event, error) -> {
+                LocalDateTime retryAt = confirmedAt.plus(backoff(event.getAttempts()));
+                if (outboxEventRepository.recordFailure(event.getId(), error, leaseUntil, retryAt) > 0) {
+                    log.warn("Evento {} da outbox não publicado ({}ª tentativa, nova tentativa às {}): {}",
+                            event.getId(), event.getAttempts() + 1, retryAt, error);
+                }
+            });
+        });
+        publishedCounter.increment(acked.size());
+        failedCounter.increment(failed.size());
+        return acked.size();
+    }
+
+    /**
+     * Bloqueia o próximo lote pronto e estende o seu lease até {@code leaseUntil}.
+     * Deve ser chamado dentro de uma transação.
+     */
+    private List<OutboxEvent> claim(LocalDateTime now, LocalDateTime leaseUntil) {
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(now, PageRequest.of(0, batchSize));
+        batch.forEach(event -> event.setAvailableAt(leaseUntil));
+        return batch;
+    }
+
+    /**
+     * Espera antes da próxima tentativa: {@code retry-backoff-ms × 2^attempts}, limitada a
+     * {@code max-retry-backoff-ms}.
+     */
+    Duration backoff(int previousAttempts) {
+        long delay = retryBackoffMillis << Math.min(previousAttempts, MAX_BACKOFF_SHIFT);
+        return Duration.ofMillis(Math.min(delay, maxRetryBackoffMillis));
+    }
+
+    /**
+     * Remove periodicamente os eventos já publicados há mais de {@code booking.outbox.retention-hours}.
+     */
+    @Scheduled(fixedDelayString = "${booking.outbox.cleanup-interval-ms:3600000}",
+            initialDelayString = "${booking.outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer removed = transactionOperations.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        if (removed != null && removed > 0) {
+            log.info("Removidos {} eventos publicados da outbox anteriores a {}", removed, cutoff);
+        }
+    }
+
+    /**
+     * Reconstrói a mensagem AMQP tal como o {@code Jackson2JsonMessageConverter} a produziria.
+     */
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        properties.setMessageId("booking-outbox-" + event.getId());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    /**
+     * @return {@code null} se o broker confirmou a mensagem, ou o motivo da falha.
+     */
+    private String awaitConfirm(CorrelationData correlation, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return confirm.isAck() ? null : "nack: " + confirm.getReason();
+        } catch (TimeoutException e) {
+            return "sem confirmação do broker em " + confirmTimeoutMillis + " ms";
+        } catch (ExecutionException e) {
+            return "falha no envio: " + e.getCause().getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrompido à espera de confirmação";
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import com.nexus.estates.service.PropertyQuoteCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor dos eventos de alteração de preços/regras publicados pelo property-service.
+ * <p>
+ * Cada evento {@link PropertyPricingChangedMessage} descarta as cotações em cache da
+ * propriedade afetada, garantindo que a próxima reserva volta a consultar o property-service.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyPricingConsumer {
+
+    private final PropertyQuoteCache quoteCache;
+
+    /**
+     * Invalida a cache de cotações da propriedade indicada na mensagem.
+     *
+     * @param msg evento de alteração (propriedade e tipo de alteração).
+     */
+    @RabbitListener(queues = "#{propertyPricingChangedQueue.name}")
+    public void handlePricingChanged(PropertyPricingChangedMessage msg) {
+        if (msg == null || msg.propertyId() == null) {
+            log.warn("Evento de alteração de preços sem propriedade ignorado: {}", msg);
+            return;
+        }
+        log.info("Propriedade {} alterada ({}); a invalidar cotações em cache", msg.propertyId(), msg.changeType());
+        quoteCache.invalidate(msg.propertyId());
+    }
+}
@@ -1,15 +1,23 @@
 package com.nexus.estates.repository;
 
+import com.nexus.estates.dto.BookingResponse;
+import com.nexus.estates.dto.BookingSlot;
 import com.nexus.estates.entity.Booking;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface de repositório para a entidade {@link Booking}.
@@ -18,11 +26,22 @@ import java.util.List;
  * personalizadas otimizadas para o domínio de reservas.
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  */
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    /** Número de linhas lidas de cada vez do cursor JDBC nas exportações em streaming. */
+    int STREAM_FETCH_SIZE = 500;
+
+    /** Projeção comum às listagens: evita carregar entidades geridas no contexto de persistência. */
+    String LISTING_SELECT = """
+        SELECT new com.nexus.estates.dto.BookingResponse(
+            b.id, b.propertyId, b.userId, b.checkInDate, b.checkOutDate,
+            b.guests, b.totalPrice, b.currency, b.status)
+        FROM Booking b
+    """;
+
     /**
      * Deteta sobreposições de agendamento para uma propriedade num intervalo de datas,
      * aplicando <b>Pessimistic Write Lock</b> para garantir atomicidade sob alta concorrência.
@@ -82,26 +101,218 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     );
 
     /**
-     * Recupera todas as reservas associadas a uma determinada propriedade.
+     * Variante de {@link #existsOverlappingBooking} sem {@code FOR UPDATE}.
+     *
+     * <p>Usada pelos modos {@code ADVISORY} e {@code STRIPED} de
+     * {@link com.nexus.estates.service.BookingConcurrencyControl}, onde a serialização por
+     * propriedade já é garantida por um lock externo às linhas, evitando bloquear todas as
+     * reservas sobrepostas de propriedades muito procuradas.</p>
+     *
+     * @param propertyId O identificador da propriedade alvo.
+     * @param checkIn    Data de início do intervalo pretendido.
+     * @param checkOut   Data de fim do intervalo pretendido.
+     * @return {@code true} se existir pelo menos uma reserva activa que colida com o intervalo.
+     */
+    @Query("""
+        SELECT COUNT(b) > 0 FROM Booking b
+        WHERE b.propertyId = :propertyId
+        AND b.status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT')
+        AND (
+            b.checkInDate < :checkOut AND b.checkOutDate > :checkIn
+        )
+    """)
+    boolean existsOverlappingBookingWithoutLock(
+            @Param("propertyId") Long propertyId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    /**
+     * Recupera, sem lock, as reservas ativas (CONFIRMED, BLOCKED ou PENDING_PAYMENT) de uma
+     * propriedade cujo check-out é posterior a uma data de referência.
+     *
+     * <p>Uso típico: aquecer o {@link com.nexus.estates.service.AvailabilityIndex} em memória.</p>
+     *
+     * @param propertyId identificador da propriedade
+     * @param from       data de referência (normalmente hoje); reservas já terminadas são ignoradas
+     * @return reservas que ainda ocupam datas a partir de {@code from}
+     */
+    @Query("""
+        SELECT b FROM Booking b
+        WHERE b.propertyId = :propertyId
+        AND b.status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT')
+        AND b.checkOutDate > :from
+    """)
+    List<Booking> findActiveByPropertyIdFrom(
+            @Param("propertyId") Long propertyId,
+            @Param("from") LocalDate from
+    );
+
+    /**
+     * Devolve, numa única query, quais das propriedades indicadas têm pelo menos uma reserva
+     * ativa (CONFIRMED, BLOCKED ou PENDING_PAYMENT) que colide com o intervalo.
+     *
+     * <p>Uso típico: consulta de disponibilidade em lote da página de pesquisa. Resolvida
+     * pelo índice {@code idx_bookings_availability (property_id, check_in_date, check_out_date)}
+     * (migração V8), sem lock.</p>
+     *
+     * @param propertyIds propriedades candidatas
+     * @param checkIn     data de início do intervalo pretendido
+     * @param checkOut    data de fim do intervalo pretendido
+     * @return identificadores (sem repetição) das propriedades ocupadas no intervalo
+     */
+    @Query("""
+        SELECT DISTINCT b.propertyId FROM Booking b
+        WHERE b.propertyId IN :propertyIds
+        AND b.status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT')
+        AND (
+            b.checkInDate < :checkOut AND b.checkOutDate > :checkIn
+        )
+    """)
+    List<Long> findOccupiedPropertyIds(
+            @Param("propertyIds") Collection<Long> propertyIds,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    /**
+     * Carrega, numa única query, tudo o que a importação de um feed iCal precisa para
+     * resolver conflitos: as reservas ativas que intersetam a janela do feed e as reservas
+     * técnicas (em qualquer estado) com um dos UIDs do feed.
      *
-     * <p>Uso típico: construir calendários de disponibilidade e verificar ocupação.</p>
+     * @param propertyId propriedade alvo da importação
+     * @param from       início da janela coberta pelo feed (inclusivo)
+     * @param to         fim da janela coberta pelo feed (exclusivo)
+     * @param uids       UIDs presentes no feed (não vazio)
+     * @return projeções das reservas relevantes
+     */
+    @Query("""
+        SELECT new com.nexus.estates.dto.BookingSlot(b.id, b.checkInDate, b.checkOutDate, b.status, b.externalUid)
+        FROM Booking b
+        WHERE b.propertyId = :propertyId
+        AND (
+            (b.status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT')
+                AND b.checkInDate < :to AND b.checkOutDate > :from)
+            OR b.externalUid IN :uids
+        )
+    """)
+    List<BookingSlot> findSlotsForCalendarImport(
+            @Param("propertyId") Long propertyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("uids") Collection<String> uids
+    );
+
+    /**
+     * Variante de {@link #findSlotsForCalendarImport} para feeds sem UIDs: apenas as reservas
+     * ativas que intersetam a janela do feed.
      *
-     * <b>Nota de desempenho:</b> recomenda-se índice composto (property_id, check_in_date, check_out_date).
+     * @param propertyId propriedade alvo da importação
+     * @param from       início da janela coberta pelo feed (inclusivo)
+     * @param to         fim da janela coberta pelo feed (exclusivo)
+     * @return projeções das reservas ativas na janela
+     */
+    @Query("""
+        SELECT new com.nexus.estates.dto.BookingSlot(b.id, b.checkInDate, b.checkOutDate, b.status, b.externalUid)
+        FROM Booking b
+        WHERE b.propertyId = :propertyId
+        AND b.status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT')
+        AND b.checkInDate < :to AND b.checkOutDate > :from
+    """)
+    List<BookingSlot> findActiveSlotsInWindow(
+            @Param("propertyId") Long propertyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    /**
+     * Página de reservas de uma propriedade, por keyset sobre {@code (check_in_date, id)}.
+     *
+     * <p>Devolve apenas reservas que intersetam a janela {@code [from, to)} e que ficam depois
+     * da posição {@code (afterCheckIn, afterId)}, já projetadas em {@link BookingResponse} (sem
+     * entidades geridas no contexto de persistência). O tamanho da página vem de {@code page}.</p>
+     *
+     * <b>Nota de desempenho:</b> servida pelo índice {@code idx_bookings_property_keyset}
+     * (migração V10); o custo não depende do número de páginas já percorridas.
      *
-     * @param propertyId identificador único (UUID) da propriedade
-     * @return lista de reservas da propriedade (sem ordenação garantida)
+     * @param propertyId   identificador da propriedade
+     * @param from         início da janela (reservas com check-out posterior)
+     * @param to           fim da janela (reservas com check-in anterior)
+     * @param afterCheckIn check-in da última reserva da página anterior
+     * @param afterId      id da última reserva da página anterior
+     * @param page         tamanho da página (apenas a primeira página do {@link Pageable} é usada)
+     * @return reservas da página, ordenadas por check-in e id
      */
-    List<Booking> findByPropertyId(Long propertyId);
+    @Query(LISTING_SELECT + """
+        WHERE b.propertyId = :propertyId
+        AND b.checkOutDate > :from AND b.checkInDate < :to
+        AND (b.checkInDate > :afterCheckIn OR (b.checkInDate = :afterCheckIn AND b.id > :afterId))
+        ORDER BY b.checkInDate, b.id
+    """)
+    List<BookingResponse> findPageByPropertyId(
+            @Param("propertyId") Long propertyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterCheckIn") LocalDate afterCheckIn,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
 
     /**
-     * Recupera o histórico de reservas efetuadas por um utilizador específico.
+     * Página do histórico de reservas de um utilizador, por keyset sobre {@code (check_in_date, id)}.
      *
-     * <p>Uso típico: exibir histórico pessoal de reservas no frontend.</p>
+     * <p>Mesma semântica de {@link #findPageByPropertyId}, servida pelo índice
+     * {@code idx_bookings_user_keyset} (migração V10).</p>
+     */
+    @Query(LISTING_SELECT + """
+        WHERE b.userId = :userId
+        AND b.checkOutDate > :from AND b.checkInDate < :to
+        AND (b.checkInDate > :afterCheckIn OR (b.checkInDate = :afterCheckIn AND b.id > :afterId))
+        ORDER BY b.checkInDate, b.id
+    """)
+    List<BookingResponse> findPageByUserId(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("afterCheckIn") LocalDate afterCheckIn,
+            @Param("afterId") Long afterId,
+            Pageable page
+    );
+
+    /**
+     * Percorre, em streaming, todas as reservas de uma propriedade que intersetam a janela
+     * {@code [from, to)}, ordenadas por check-in e id.
      *
-     * @param userId identificador único (UUID) do utilizador
-     * @return lista de reservas associadas ao utilizador (sem ordenação garantida)
+     * <p>As linhas são lidas do cursor JDBC em blocos de {@value #STREAM_FETCH_SIZE}, pelo que a
+     * memória usada não depende do tamanho do histórico. Exige uma transação ativa durante toda a
+     * iteração e o {@link Stream} tem de ser fechado no fim.</p>
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(LISTING_SELECT + """
+        WHERE b.propertyId = :propertyId
+        AND b.checkOutDate > :from AND b.checkInDate < :to
+        ORDER BY b.checkInDate, b.id
+    """)
+    Stream<BookingResponse> streamByPropertyId(
+            @Param("propertyId") Long propertyId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    /**
+     * Variante de {@link #streamByPropertyId} para o histórico de um utilizador.
      */
-    List<Booking> findByUserId(Long userId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(LISTING_SELECT + """
+        WHERE b.userId = :userId
+        AND b.checkOutDate > :from AND b.checkInDate < :to
+        ORDER BY b.checkInDate, b.id
+    """)
+    Stream<BookingResponse> streamByUserId(
+            @Param("userId") Long userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
 
     //* Outra forma de fazer a query, mas se ve horrivel
 //?    boolean existsByPropertyIdAndStatusInAndCheckInDateLessThanAndCheckOutDateGreaterThan(
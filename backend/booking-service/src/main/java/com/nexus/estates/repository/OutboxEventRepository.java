@@ -0,0 +1,106 @@
+package com.nexus.estates.repository;
+
+import com.nexus.estates.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório da tabela de outbox {@code booking_outbox}.
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Bloqueia o próximo lote de eventos prontos a publicar, por ordem de inserção.
+     * <p>
+     * Só são devolvidos eventos pendentes cujo {@code availableAt} já passou (sem lease ativo
+     * nem backoff por cumprir) e que sejam o evento pendente mais antigo da sua reserva, pelo
+     * que nunca há dois eventos da mesma reserva em publicação e um evento que falhou bloqueia
+     * os seguintes da mesma reserva.
+     * </p>
+     * <p>
+     * O timeout de lock {@code -2} corresponde a {@code SKIP LOCKED}: no PostgreSQL é gerado
+     * {@code SELECT ... FOR UPDATE SKIP LOCKED}, pelo que linhas já bloqueadas por outra
+     * instância do relay são ignoradas em vez de esperar por elas. Deve ser chamado dentro
+     * de uma transação curta, que apenas move {@code availableAt} para o fim do lease.
+     * </p>
+     *
+     * @param now      instante corrente.
+     * @param pageable tamanho do lote (apenas a primeira página é usada).
+     * @return eventos prontos, bloqueados pela transação corrente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("""
+        SELECT e FROM OutboxEvent e
+        WHERE e.publishedAt IS NULL AND e.availableAt <= :now
+        AND (e.aggregateId IS NULL OR NOT EXISTS (
+            SELECT p.id FROM OutboxEvent p
+            WHERE p.aggregateId = e.aggregateId AND p.publishedAt IS NULL AND p.id < e.id))
+        ORDER BY e.id
+    """)
+    List<OutboxEvent> lockPendingBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Marca eventos como publicados.
+     *
+     * @param ids         eventos confirmados pelo broker.
+     * @param publishedAt instante da confirmação.
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids AND e.publishedAt IS NULL")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Regista uma tentativa falhada e agenda a seguinte.
+     * <p>
+     * Só atualiza a linha se o lease ainda for o deste relay ({@code availableAt = leaseUntil}):
+     * se o lease expirou e o evento foi entretanto reclamado por outra instância, a falha
+     * desta tentativa não se sobrepõe ao novo lease. O contador é incrementado na própria
+     * base de dados.
+     * </p>
+     *
+     * @param id         evento que falhou.
+     * @param error      motivo da falha.
+     * @param leaseUntil fim do lease obtido ao reclamar o evento.
+     * @param retryAt    instante da próxima tentativa.
+     * @return {@code 1} se a falha foi registada, {@code 0} se o lease já não era deste relay.
+     */
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.attempts = e.attempts + 1, e.lastError = :error, e.availableAt = :retryAt
+        WHERE e.id = :id AND e.publishedAt IS NULL AND e.availableAt = :leaseUntil
+    """)
+    int recordFailure(@Param("id") Long id,
+                      @Param("error") String error,
+                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("retryAt") LocalDateTime retryAt);
+
+    /**
+     * Remove eventos publicados antes do instante indicado.
+     *
+     * @param before limite superior (exclusivo) de {@code publishedAt}.
+     * @return número de linhas removidas.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,276 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.entity.Booking;
+import com.nexus.estates.messaging.AvailabilityBroadcaster;
+import com.nexus.estates.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de disponibilidade em memória, organizado por propriedade.
+ *
+ * <p>Mantém, para cada propriedade, os intervalos {@code [checkIn, checkOut)} das reservas
+ * que ocupam datas ({@code CONFIRMED}, {@code BLOCKED} e {@code PENDING_PAYMENT}), ordenados
+ * por data de check-in. Permite rejeitar conflitos evidentes sem tocar no PostgreSQL,
+ * deixando a verificação com lock de {@link BookingConcurrencyControl} apenas como guarda
+ * final da inserção.</p>
+ *
+ * <p><b>Consistência:</b> o índice é um filtro rápido, não a fonte da verdade. Uma resposta
+ * "ocupado" é fiável (a reserva existia no último carregamento ou foi registada por esta
+ * instância); uma resposta "livre" tem sempre de ser confirmada pela query com lock. Para
+ * propagar as alterações feitas por outras instâncias, cada alteração confirmada é anunciada
+ * pelo {@link AvailabilityBroadcaster} e as restantes réplicas descartam o calendário da
+ * propriedade. O TTL ({@code booking.availability.index.ttl-seconds}) fica apenas como rede de
+ * segurança para avisos perdidos.</p>
+ *
+ * <p>Cada propriedade tem um contador de versão, incrementado por {@link #register(Booking)} e
+ * {@link #evict(Long)}. Um calendário carregado da base de dados só é publicado se nenhuma
+ * alteração tiver ocorrido durante a leitura; caso contrário serve apenas a consulta atual e o
+ * próximo acesso volta a carregá-lo, para que uma reserva registada a meio do carregamento
+ * nunca se perca.</p>
+ *
+ * <p>Apenas reservas com check-out futuro são carregadas, pelo que pedidos com datas no
+ * passado nunca são rejeitados pelo índice e seguem para a verificação na base de dados.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+    /** Estados que ocupam datas no calendário de uma propriedade. */
+    static final Set<BookingStatus> BLOCKING_STATUSES =
+            EnumSet.of(BookingStatus.CONFIRMED, BookingStatus.BLOCKED, BookingStatus.PENDING_PAYMENT);
+
+    /** Resposta de {@link #lookupIfLoaded}: {@code UNKNOWN} quando o índice não pode responder sem a base de dados. */
+    public enum Lookup { OCCUPIED, FREE, UNKNOWN }
+
+    private final BookingRepository bookingRepository;
+    private final AvailabilityBroadcaster broadcaster;
+    private final long ttlNanos;
+    private final Map<Long, PropertyCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param bookingRepository repositório usado para aquecer o calendário de cada propriedade.
+     * @param broadcaster       anuncia às outras instâncias as alterações confirmadas.
+     * @param ttlSeconds tempo máximo (em segundos) antes de um calendário ser recarregado.
+     */
+    public AvailabilityIndex(BookingRepository bookingRepository,
+                             AvailabilityBroadcaster broadcaster,
+                             @Value("${booking.availability.index.ttl-seconds:60}") long ttlSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.broadcaster = broadcaster;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    }
+
+    /**
+     * Verifica, em memória, se o intervalo pedido colide com alguma reserva ativa conhecida.
+     *
+     * @param propertyId propriedade alvo.
+     * @param checkIn    data de início (inclusiva).
+     * @param checkOut   data de fim (exclusiva).
+     * @return {@code true} se existir uma reserva ativa sobreposta no índice.
+     */
+    public boolean isOccupied(Long propertyId, LocalDate checkIn, LocalDate checkOut) {
+        return calendar(propertyId).overlaps(checkIn, checkOut);
+    }
+
+    /**
+     * Variante de {@link #isOccupied} que nunca carrega calendários: responde apenas para
+     * propriedades já aquecidas e dentro do TTL.
+     *
+     * <p>Usada em consultas de muitas propriedades de uma vez, onde aquecer centenas de
+     * calendários custaria mais do que uma única query agregada para as restantes.</p>
+     *
+     * @param propertyId propriedade alvo.
+     * @param checkIn    data de início (inclusiva).
+     * @param checkOut   data de fim (exclusiva).
+     * @return {@code UNKNOWN} se o calendário não estiver carregado, tiver expirado ou o
+     *         intervalo começar no passado (reservas terminadas não são carregadas).
+     */
+    public Lookup lookupIfLoaded(Long propertyId, LocalDate checkIn, LocalDate checkOut) {
+        PropertyCalendar calendar = calendars.get(propertyId);
+        if (calendar == null || System.nanoTime() - calendar.loadedAt > ttlNanos
+                || checkIn.isBefore(LocalDate.now())) {
+            return Lookup.UNKNOWN;
+        }
+        return calendar.overlaps(checkIn, checkOut) ? Lookup.OCCUPIED : Lookup.FREE;
+    }
+
+    /**
+     * Reflete o estado atual de uma reserva no índice: adiciona-a se ocupar datas,
+     * remove-a caso contrário (ex.: {@code CANCELLED}, {@code REFUNDED}).
+     *
+     * @param booking reserva persistida (com identificador atribuído).
+     */
+    public void register(Booking booking) {
+        if (booking == null || booking.getId() == null || booking.getPropertyId() == null) {
+            return;
+        }
+        calendars.compute(booking.getPropertyId(), (propertyId, calendar) -> {
+            versions.merge(propertyId, 1L, Long::sum);
+            // Propriedade ainda não aquecida: o próximo acesso carrega o estado da base de dados.
+            if (calendar != null) {
+                if (BLOCKING_STATUSES.contains(booking.getStatus())) {
+                    calendar.put(booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+                } else {
+                    calendar.remove(booking.getId());
+                }
+            }
+            return calendar;
+        });
+    }
+
+    /**
+     * Igual a {@link #register(Booking)}, mas adiado para depois do commit quando existe
+     * uma transação ativa, evitando que o índice exponha reservas que acabem por sofrer rollback.
+     * A alteração é também anunciada às outras instâncias.
+     *
+     * @param booking reserva persistida.
+     */
+    public void registerAfterCommit(Booking booking) {
+        afterCommit(() -> {
+            register(booking);
+            if (booking != null && booking.getPropertyId() != null) {
+                broadcaster.publish(booking.getPropertyId());
+            }
+        });
+    }
+
+    /**
+     * Descarta o calendário de uma propriedade, forçando o recarregamento no próximo acesso.
+     *
+     * @param propertyId propriedade a invalidar.
+     */
+    public void evict(Long propertyId) {
+        calendars.compute(propertyId, (id, calendar) -> {
+            versions.merge(id, 1L, Long::sum);
+            return null;
+        });
+    }
+
+    /**
+     * Igual a {@link #evict(Long)}, mas adiado para depois do commit quando existe uma
+     * transação ativa, para que o recarregamento já veja as alterações confirmadas.
+     * A invalidação é também anunciada às outras instâncias.
+     *
+     * @param propertyId propriedade a invalidar.
+     */
+    public void evictAfterCommit(Long propertyId) {
+        afterCommit(() -> {
+            evict(propertyId);
+            broadcaster.publish(propertyId);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private PropertyCalendar calendar(Long propertyId) {
+        long now = System.nanoTime();
+        PropertyCalendar calendar = calendars.get(propertyId);
+        if (calendar != null && now - calendar.loadedAt <= ttlNanos) {
+            return calendar;
+        }
+        long version = versions.getOrDefault(propertyId, 0L);
+        PropertyCalendar loaded = load(propertyId, now);
+        // Só publica o calendário se nenhuma alteração tiver chegado durante a leitura.
+        calendars.compute(propertyId, (id, current) ->
+                versions.getOrDefault(id, 0L) == version ? loaded : current);
+        return loaded;
+    }
+
+    private PropertyCalendar load(Long propertyId, long now) {
+        List<Booking> active = bookingRepository.findActiveByPropertyIdFrom(propertyId, LocalDate.now());
+        PropertyCalendar calendar = new PropertyCalendar(now);
+        for (Booking booking : active) {
+            calendar.put(booking.getId(), booking.getCheckInDate(), booking.getCheckOutDate());
+        }
+        log.debug("Calendário de disponibilidade carregado para propriedade {} ({} reservas ativas)",
+                propertyId, active.size());
+        return calendar;
+    }
+
+    /**
+     * Intervalos ativos de uma propriedade, indexados por check-in.
+     *
+     * <p>A pesquisa de sobreposição percorre apenas as entradas com check-in em
+     * {@code (checkIn - maxNights, checkOut)}, onde {@code maxNights} é a maior estadia
+     * conhecida, pelo que o custo é proporcional às reservas vizinhas do intervalo pedido.</p>
+     */
+    private static final class PropertyCalendar {
+
+        private final long loadedAt;
+        private final NavigableMap<LocalDate, Map<Long, LocalDate>> byCheckIn = new TreeMap<>();
+        private final Map<Long, LocalDate> checkInById = new HashMap<>();
+        private long maxNights;
+
+        private PropertyCalendar(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+            if (byCheckIn.isEmpty()) {
+                return false;
+            }
+            LocalDate from = checkIn.minusDays(maxNights);
+            for (Map<Long, LocalDate> spans : byCheckIn.subMap(from, false, checkOut, false).values()) {
+                for (LocalDate existingCheckOut : spans.values()) {
+                    if (existingCheckOut.isAfter(checkIn)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        synchronized void put(Long bookingId, LocalDate checkIn, LocalDate checkOut) {
+            remove(bookingId);
+            byCheckIn.computeIfAbsent(checkIn, d -> new HashMap<>()).put(bookingId, checkOut);
+            checkInById.put(bookingId, checkIn);
+            maxNights = Math.max(maxNights, ChronoUnit.DAYS.between(checkIn, checkOut));
+        }
+
+        synchronized void remove(Long bookingId) {
+            LocalDate checkIn = checkInById.remove(bookingId);
+            if (checkIn == null) {
+                return;
+            }
+            Map<Long, LocalDate> spans = byCheckIn.get(checkIn);
+            if (spans != null) {
+                spans.remove(bookingId);
+                if (spans.isEmpty()) {
+                    byCheckIn.remove(checkIn);
+                }
+            }
+        }
+    }
+}
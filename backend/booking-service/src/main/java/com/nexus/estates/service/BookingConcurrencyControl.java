@@ -0,0 +1,182 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.exception.BookingConflictException;
+import com.nexus.estates.repository.BookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estratégia de controlo de concorrência usada na verificação final de disponibilidade.
+ *
+ * <p>Centraliza a secção crítica partilhada por reservas, bloqueios manuais e bloqueios
+ * de calendário externo. O modo é escolhido por {@code booking.concurrency.mode}:</p>
+ * <ul>
+ *   <li>{@link Mode#PESSIMISTIC} — comportamento original: {@code SELECT ... FOR UPDATE}
+ *       sobre as reservas sobrepostas. Não protege intervalos ainda vazios, porque o
+ *       PostgreSQL não bloqueia linhas inexistentes.</li>
+ *   <li>{@link Mode#ADVISORY} — serializa por propriedade com
+ *       {@code pg_advisory_xact_lock(propertyId)}, libertado automaticamente no fim da
+ *       transação. Funciona entre várias instâncias do serviço.</li>
+ *   <li>{@link Mode#STRIPED} — serializa por propriedade com um conjunto fixo de
+ *       {@link ReentrantLock} em memória. Apenas protege dentro da mesma JVM; útil em
+ *       instância única ou em bases de dados sem advisory locks.</li>
+ * </ul>
+ *
+ * <p>Em qualquer modo, a restrição de exclusão {@code ex_bookings_no_overlap}
+ * (migração V9) é a última linha de defesa: uma inserção sobreposta que escape ao lock
+ * falha na base de dados e é convertida em {@link BookingConflictException}.</p>
+ *
+ * <p>Os modos {@code ADVISORY} e {@code STRIPED} exigem uma transação ativa, pois o lock
+ * só é libertado no fim dessa transação.</p>
+ *
+ * <p><b>Métricas:</b> o tempo entre a obtenção do lock e o fim da transação é registado no
+ * timer {@code booking.lock.hold} (tags {@code mode} e {@code outcome}), permitindo
+ * acompanhar quanto tempo cada reserva mantém a secção crítica da propriedade.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class BookingConcurrencyControl {
+
+    /** Modos suportados de serialização das inserções por propriedade. */
+    public enum Mode { PESSIMISTIC, ADVISORY, STRIPED }
+
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMillis;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param bookingRepository repositório com as queries de sobreposição.
+     * @param jdbcTemplate      acesso JDBC para o advisory lock (partilha a ligação da transação JPA).
+     * @param mode              modo de concorrência ativo.
+     * @param stripeCount       número de locks em memória no modo {@code STRIPED} (arredondado a potência de 2).
+     * @param lockTimeoutMillis tempo máximo de espera por um lock em memória antes de falhar.
+     * @param meterRegistry     registo Micrometer onde é publicada a métrica {@code booking.lock.hold}.
+     */
+    public BookingConcurrencyControl(BookingRepository bookingRepository,
+                                     JdbcTemplate jdbcTemplate,
+                                     @Value("${booking.concurrency.mode:PESSIMISTIC}") Mode mode,
+                                     @Value("${booking.concurrency.stripes:256}") int stripeCount,
+                                     @Value("${booking.concurrency.lock-timeout-ms:5000}") long lockTimeoutMillis,
+                                     MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.meterRegistry = meterRegistry;
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        log.info("Controlo de concorrência de reservas em modo {}", mode);
+    }
+
+    /**
+     * Adquire a secção crítica da propriedade (de acordo com o modo) e verifica se o
+     * intervalo colide com reservas ativas (CONFIRMED, BLOCKED ou PENDING_PAYMENT).
+     *
+     * <p>Deve ser chamado dentro da transação que faz a inserção, imediatamente antes dela.</p>
+     *
+     * @param propertyId propriedade alvo.
+     * @param checkIn    data de início (inclusiva).
+     * @param checkOut   data de fim (exclusiva).
+     * @return {@code true} se existir sobreposição.
+     * @throws BookingConflictException se o lock em memória não for obtido dentro do timeout.
+     */
+    public boolean lockAndCheckOverlap(Long propertyId, LocalDate checkIn, LocalDate checkOut) {
+        return switch (mode) {
+            case PESSIMISTIC -> {
+                boolean occupied = bookingRepository.existsOverlappingBooking(propertyId, checkIn, checkOut);
+                recordHoldTime(System.nanoTime());
+                yield occupied;
+            }
+            case ADVISORY -> {
+                requireTransaction();
+                jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", propertyId);
+                recordHoldTime(System.nanoTime());
+                yield bookingRepository.existsOverlappingBookingWithoutLock(propertyId, checkIn, checkOut);
+            }
+            case STRIPED -> {
+                lockStripe(propertyId);
+                recordHoldTime(System.nanoTime());
+                yield bookingRepository.existsOverlappingBookingWithoutLock(propertyId, checkIn, checkOut);
+            }
+        };
+    }
+
+    /**
+     * @return modo de concorrência ativo.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    private void lockStripe(Long propertyId) {
+        requireTransaction();
+        ReentrantLock lock = stripes[stripeIndex(propertyId)];
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new BookingConflictException("Property is busy processing another booking, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException("Interrupted while waiting for property lock");
+        }
+        // O lock pertence à thread da transação e é libertado no fim (commit ou rollback).
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Regista no fim da transação o tempo durante o qual o lock da propriedade foi mantido.
+     */
+    private void recordHoldTime(long acquiredAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                Timer.builder("booking.lock.hold")
+                        .description("Tempo de retenção da secção crítica da propriedade por reserva")
+                        .tag("mode", mode.name())
+                        .tag("outcome", status == STATUS_COMMITTED ? "committed" : "rolled_back")
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private int stripeIndex(Long propertyId) {
+        int h = propertyId.hashCode();
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("O modo de concorrência " + mode + " requer uma transação ativa");
+        }
+    }
+}
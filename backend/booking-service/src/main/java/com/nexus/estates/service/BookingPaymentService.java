@@ -35,6 +35,7 @@ public class BookingPaymentService {
     private final Proxy proxy;
     private final BookingRepository bookingRepository;
     private final BookingEventPublisher eventPublisher;
+    private final AvailabilityIndex availabilityIndex;
 
     /**
      * Construtor para injeção de dependências.
@@ -42,13 +43,16 @@ public class BookingPaymentService {
      * @param proxy Facade para comunicação com microservices externos (inclui finance-service).
      * @param bookingRepository Repositório para acesso e persistência de dados de reservas.
      * @param eventPublisher Publicador de eventos para notificar outros componentes sobre mudanças de estado.
+     * @param availabilityIndex Índice de disponibilidade em memória, atualizado quando uma reserva é cancelada.
      */
     public BookingPaymentService(Proxy proxy,
                                  BookingRepository bookingRepository,
-                                 BookingEventPublisher eventPublisher) {
+                                 BookingEventPublisher eventPublisher,
+                                 AvailabilityIndex availabilityIndex) {
         this.proxy = proxy;
         this.bookingRepository = bookingRepository;
         this.eventPublisher = eventPublisher;
+        this.availabilityIndex = availabilityIndex;
     }
 
     /**
@@ -385,6 +389,7 @@ public class BookingPaymentService {
         bookingRepository.findById(bookingId).ifPresent(booking -> {
             booking.setStatus(BookingStatus.CANCELLED);
             bookingRepository.save(booking);
+            availabilityIndex.registerAfterCommit(booking);
             
             com.nexus.estates.common.messaging.BookingCancelledMessage message = new com.nexus.estates.common.messaging.BookingCancelledMessage(
                 booking.getId(),
@@ -1,9 +1,12 @@
 package com.nexus.estates.service;
 
-import com.nexus.estates.common.dto.ApiResponse;
 import com.nexus.estates.common.dto.PropertyQuoteRequest;
 import com.nexus.estates.common.dto.PropertyQuoteResponse;
 import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.dto.AvailabilityQueryRequest;
+import com.nexus.estates.dto.AvailabilityQueryResponse;
+import com.nexus.estates.dto.BookingCursor;
+import com.nexus.estates.dto.BookingPage;
 import com.nexus.estates.dto.BookingResponse;
 import com.nexus.estates.dto.CreateBlockRequest;
 import com.nexus.estates.dto.CreateBookingRequest;
@@ -14,11 +17,21 @@ import com.nexus.estates.common.messaging.BookingCreatedMessage;
 import com.nexus.estates.messaging.BookingEventPublisher;
 import com.nexus.estates.repository.BookingRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import com.nexus.estates.client.Proxy;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Serviço de domínio responsável pela execução da lógica de negócio de Reservas.
@@ -35,11 +48,16 @@ import java.util.List;
 public class BookingService
 {
 
+    /** Fim da janela das listagens quando não é indicado ({@code LocalDate.MAX} excede o tipo {@code date} do PostgreSQL). */
+    private static final LocalDate LISTING_END = LocalDate.of(9999, 12, 31);
+
     private final BookingRepository bookingRepository;
     private final BookingEventPublisher bookingEventPublisher;
     private final BookingPaymentService bookingPaymentService;
-
-    private final Proxy api;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingConcurrencyControl concurrencyControl;
+    private final PropertyQuoteCache quoteCache;
+    private final TransactionOperations transactionOperations;
 
     /**
      * Construtor padrão para injeção de dependências.
@@ -47,18 +65,24 @@ public class BookingService
      * @param bookingRepository 'Interface' de acesso aos dados persistidos.
      * @param bookingEventPublisher Componente responsável pela publicação de eventos de reserva.
      * @param bookingPaymentService Serviço para processamento de pagamentos.
-     * @param api Facade para comunicação com microservices externos (Propriedades, Utilizadores).
+     * @param availabilityIndex Índice de disponibilidade em memória usado para rejeitar conflitos antes do PostgreSQL.
+     * @param concurrencyControl Estratégia de serialização por propriedade usada na verificação final.
+     * @param quoteCache Cache de cotações do property-service (primeira fase, fora de transação).
+     * @param transactionOperations Executor da transação curta de verificação + inserção (segunda fase).
      */
-    public BookingService(BookingRepository bookingRepository, BookingEventPublisher bookingEventPublisher, BookingPaymentService bookingPaymentService, Proxy api)
+    public BookingService(BookingRepository bookingRepository, BookingEventPublisher bookingEventPublisher, BookingPaymentService bookingPaymentService, AvailabilityIndex availabilityIndex, BookingConcurrencyControl concurrencyControl, PropertyQuoteCache quoteCache, TransactionOperations transactionOperations)
     {
         this.bookingRepository = bookingRepository;
         this.bookingEventPublisher = bookingEventPublisher;
         this.bookingPaymentService = bookingPaymentService;
-        this.api = api;
+        this.availabilityIndex = availabilityIndex;
+        this.concurrencyControl = concurrencyControl;
+        this.quoteCache = quoteCache;
+        this.transactionOperations = transactionOperations;
     }
 
     /**
-     * Executa o fluxo de criação de uma reserva de forma atómica.
+     * Executa o fluxo de criação de uma reserva em duas fases.
      *
      * <p><b>Regras de Negócio aplicadas:</b></p>
      * <ul>
@@ -69,8 +93,16 @@ public class BookingService
      *       (regras operacionais + sazonalidade).</li>
      * </ul>
      *
-     * <p><b>Concorrência:</b> A query de disponibilidade usa Pessimistic Write Lock
-     * ({@code SELECT ... FOR UPDATE}), garantindo atomicidade ao milissegundo.</p>
+     * <p><b>Fase 1 (sem transação):</b> pré-verificação no {@link AvailabilityIndex} e cotação
+     * através do {@link PropertyQuoteCache}. Nenhuma ligação à base de dados fica retida durante
+     * a chamada HTTP ao property-service, pelo que um property-service lento não esgota o pool
+     * de ligações do booking-service.</p>
+     *
+     * <p><b>Fase 2 (transação curta):</b> dentro da secção crítica da propriedade definida por
+     * {@link BookingConcurrencyControl} (FOR UPDATE, advisory lock ou lock em memória), volta a
+     * verificar a disponibilidade e insere a reserva. O tempo de retenção do lock é publicado na
+     * métrica {@code booking.lock.hold}. Uma sobreposição que escape ao lock é rejeitada pela
+     * restrição de exclusão da tabela.</p>
      *
      * @param request O pedido de criação contendo os dados validados.
      * @return A resposta contendo os dados da reserva persistida.
@@ -79,54 +111,60 @@ public class BookingService
      * @throws BookingConflictException Se for detetada uma sobreposição de agendamento (Double Booking).
      * @throws RuleViolationException Se o property-service rejeitar a cotação (regras operacionais).
      */
-    @Transactional // Garante que tudo acontece ou nada acontece (Atomicidade)
     public BookingResponse createBooking(CreateBookingRequest request)
     {
         // 1. Validação Lógica de Datas
         if (!request.checkOutDate().isAfter(request.checkInDate()))
             throw new IllegalArgumentException("Check-out date must be after check-in date");
 
-        // 2. Verificar Disponibilidade com Pessimistic Lock (domínio do booking-service)
-        // Rejeita se existir sobreposição com CONFIRMED, BLOCKED ou PENDING_PAYMENT
-        boolean isOccupied = bookingRepository.existsOverlappingBooking(
-                request.propertyId(),
-                request.checkInDate(),
-                request.checkOutDate()
-        );
-
-        if (isOccupied)
+        // 2. Pré-verificação em memória (sem lock nem round-trip à base de dados)
+        if (availabilityIndex.isOccupied(request.propertyId(), request.checkInDate(), request.checkOutDate()))
             throw new BookingConflictException("Property is already booked for these dates");
 
-        // 3. Validação + Cotação (Regras Operacionais + Sazonalidade) no property-service
+        // 3. Validação + Cotação (Regras Operacionais + Sazonalidade) no property-service, fora de transação
         PropertyQuoteRequest quoteRequest = new PropertyQuoteRequest(
                 request.checkInDate(),
                 request.checkOutDate(),
                 request.guestCount()
         );
 
-        PropertyQuoteResponse quote;
-        try {
-            ApiResponse<PropertyQuoteResponse> quoteResponse = api.propertyClient().quote(request.propertyId(), quoteRequest);
-            if (quoteResponse == null || !quoteResponse.isSuccess() || quoteResponse.getData() == null) {
-                throw new RuntimeException("Não foi possível obter a cotação da propriedade.");
-            }
-            quote = quoteResponse.getData();
-        } catch (Exception e) {
-            throw new RuntimeException("Não foi possível validar/cotar a propriedade. Tente novamente mais tarde.", e);
-        }
+        PropertyQuoteResponse quote = quoteCache.quote(request.propertyId(), quoteRequest);
 
         if (!quote.valid()) {
             List<String> errors = quote.validationErrors() != null ? quote.validationErrors() : List.of("Cotação inválida.");
             throw new RuleViolationException(String.join(", ", errors));
         }
 
-        // 4. Converter DTO para Entidade
-        Booking booking = request.toEntity();
+        // 4. Transação curta: verificação definitiva + inserção + evento
+        return transactionOperations.execute(status -> insertBooking(request, quote));
+    }
 
-        // 5. Registar preço calculado pelo property-service
+    /**
+     * Segunda fase de {@link #createBooking}: executada dentro da transação curta.
+     *
+     * @param request pedido de reserva já validado e cotado.
+     * @param quote cotação válida devolvida pelo property-service.
+     * @return a reserva persistida.
+     */
+    private BookingResponse insertBooking(CreateBookingRequest request, PropertyQuoteResponse quote)
+    {
+        // Verificação definitiva na secção crítica da propriedade (domínio do booking-service)
+        // Rejeita se existir sobreposição com CONFIRMED, BLOCKED ou PENDING_PAYMENT
+        boolean isOccupied = concurrencyControl.lockAndCheckOverlap(
+                request.propertyId(),
+                request.checkInDate(),
+                request.checkOutDate()
+        );
+
+        if (isOccupied)
+            throw new BookingConflictException("Property is already booked for these dates");
+
+        // Converter DTO para Entidade e registar preço calculado pelo property-service
+        Booking booking = request.toEntity();
         booking.setTotalPrice(quote.totalPrice());
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = persist(booking, "Property is already booked for these dates");
+        availabilityIndex.registerAfterCommit(savedBooking);
 
         BookingResponse response = new BookingResponse(savedBooking);
 
@@ -149,7 +187,7 @@ public class BookingService
      * para impedir que determinadas datas fiquem disponíveis. Não passa pelo fluxo de
      * cotação nem publica eventos de pagamento.</p>
      *
-     * <p><b>Concorrência:</b> Usa a mesma query com Pessimistic Write Lock que
+     * <p><b>Concorrência:</b> Usa a mesma secção crítica ({@link BookingConcurrencyControl}) que
      * {@link #createBooking}, garantindo que bloqueios e reservas normais competem
      * pela mesma secção crítica e não se podem sobrepor.</p>
      *
@@ -170,10 +208,13 @@ public class BookingService
         if (!request.checkOutDate().isAfter(request.checkInDate()))
             throw new IllegalArgumentException("Check-out date must be after check-in date");
 
-        // 2. Verificar disponibilidade com Pessimistic Lock
-        // A mesma query usada em createBooking — bloqueios e reservas competem
+        // 2. Pré-verificação em memória, seguida da verificação na secção crítica da propriedade.
+        // A mesma verificação usada em createBooking — bloqueios e reservas competem
         // pela mesma secção crítica, impedindo sobreposições entre si.
-        boolean isOccupied = bookingRepository.existsOverlappingBooking(
+        if (availabilityIndex.isOccupied(request.propertyId(), request.checkInDate(), request.checkOutDate()))
+            throw new BookingConflictException("Property is already occupied for these dates (booking or block exists)");
+
+        boolean isOccupied = concurrencyControl.lockAndCheckOverlap(
                 request.propertyId(),
                 request.checkInDate(),
                 request.checkOutDate()
@@ -195,11 +236,29 @@ public class BookingService
                 .cancellationReason(request.reason()) // Razão do bloqueio (uso interno)
                 .build();
 
-        Booking savedBlock = bookingRepository.save(block);
+        Booking savedBlock = persist(block, "Property is already occupied for these dates (booking or block exists)");
+        availabilityIndex.registerAfterCommit(savedBlock);
 
         return new BookingResponse(savedBlock);
     }
 
+    /**
+     * Persiste uma reserva, convertendo a violação da restrição de exclusão
+     * {@code ex_bookings_no_overlap} (sobreposição detetada pela própria base de dados) num conflito.
+     *
+     * @param booking reserva a inserir.
+     * @param conflictMessage mensagem devolvida ao cliente em caso de sobreposição.
+     * @return a reserva persistida.
+     */
+    private Booking persist(Booking booking, String conflictMessage)
+    {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new BookingConflictException(conflictMessage);
+        }
+    }
+
     /**
      * Recupera os detalhes de uma reserva específica.
      *
@@ -215,32 +274,169 @@ public class BookingService
     }
 
     /**
-     * Lista todas as reservas associadas a uma propriedade específica.
+     * Lista as reservas de uma propriedade, paginadas por keyset sobre {@code (checkInDate, id)}.
      * <p>
-     * Útil para exibir o calendário de disponibilidade no Frontend e verificar ocupação.
+     * Útil para exibir o calendário de disponibilidade no Frontend e verificar ocupação. A janela
+     * opcional {@code [from, to)} limita a listagem às reservas que a intersetam.
      * </p>
      *
-     * @param propertyId O UUID da propriedade alvo.
-     * @return Lista de {@link BookingResponse} contendo as reservas encontradas.
+     * @param propertyId ID da propriedade alvo.
+     * @param from Início da janela (opcional).
+     * @param to Fim da janela (opcional).
+     * @param cursor Cursor devolvido pela página anterior (opcional; ver {@link BookingCursor}).
+     * @param limit Tamanho da página (opcional; limitado a {@link BookingPage#MAX_LIMIT}). Sem cursor nem limite,
+     *              devolve todas as reservas numa única página.
+     * @return Página de {@link BookingResponse} e cursor da página seguinte, se existir.
+     * @throws IllegalArgumentException Se a janela ou o cursor forem inválidos.
      */
-    public java.util.List<BookingResponse> getBookingsByProperty(Long propertyId)
+    public BookingPage getBookingsByProperty(Long propertyId, LocalDate from, LocalDate to, String cursor, Integer limit)
     {
-        return bookingRepository.findByPropertyId(propertyId).stream()
-                .map(BookingResponse::new)
-                .toList();
+        BookingCursor after = BookingCursor.parse(cursor);
+        Pageable page = pageRequest(cursor, limit);
+        return page(bookingRepository.findPageByPropertyId(propertyId, windowStart(from, to), windowEnd(to),
+                after.checkInDate(), after.id(), page), page);
     }
 
     /**
-     * Lista o histórico completo de reservas efetuadas por um utilizador.
+     * Lista o histórico de reservas de um utilizador, paginado por keyset sobre {@code (checkInDate, id)}.
      *
-     * @param userId O UUID do utilizador.
-     * @return Lista de {@link BookingResponse} com o histórico pessoal.
+     * @param userId ID do utilizador.
+     * @param from Início da janela (opcional).
+     * @param to Fim da janela (opcional).
+     * @param cursor Cursor devolvido pela página anterior (opcional).
+     * @param limit Tamanho da página (opcional; limitado a {@link BookingPage#MAX_LIMIT}). Sem cursor nem limite,
+     *              devolve todas as reservas numa única página.
+     * @return Página de {@link BookingResponse} e cursor da página seguinte, se existir.
+     * @throws IllegalArgumentException Se a janela ou o cursor forem inválidos.
      */
-    public java.util.List<BookingResponse> getBookingsByUser(Long userId)
+    public BookingPage getBookingsByUser(Long userId, LocalDate from, LocalDate to, String cursor, Integer limit)
     {
-        return bookingRepository.findByUserId(userId).stream()
-                .map(BookingResponse::new)
+        BookingCursor after = BookingCursor.parse(cursor);
+        Pageable page = pageRequest(cursor, limit);
+        return page(bookingRepository.findPageByUserId(userId, windowStart(from, to), windowEnd(to),
+                after.checkInDate(), after.id(), page), page);
+    }
+
+    /**
+     * Exporta, em streaming, todas as reservas de uma propriedade na janela {@code [from, to)}.
+     * <p>
+     * As reservas são lidas do cursor JDBC em blocos e entregues uma a uma ao {@code sink}, dentro
+     * de uma única transação, pelo que a memória usada não depende do tamanho do histórico.
+     * </p>
+     *
+     * @param propertyId ID da propriedade alvo.
+     * @param from Início da janela (opcional).
+     * @param to Fim da janela (opcional).
+     * @param sink Destino de cada reserva (ex.: escrita de uma linha NDJSON).
+     * @return Número de reservas exportadas.
+     * @throws IllegalArgumentException Se a janela for inválida.
+     */
+    public long exportBookingsByProperty(Long propertyId, LocalDate from, LocalDate to, Consumer<BookingResponse> sink)
+    {
+        LocalDate start = windowStart(from, to);
+        return export(() -> bookingRepository.streamByPropertyId(propertyId, start, windowEnd(to)), sink);
+    }
+
+    /**
+     * Variante de {@link #exportBookingsByProperty} para o histórico de um utilizador.
+     *
+     * @param userId ID do utilizador.
+     * @param from Início da janela (opcional).
+     * @param to Fim da janela (opcional).
+     * @param sink Destino de cada reserva.
+     * @return Número de reservas exportadas.
+     * @throws IllegalArgumentException Se a janela for inválida.
+     */
+    public long exportBookingsByUser(Long userId, LocalDate from, LocalDate to, Consumer<BookingResponse> sink)
+    {
+        LocalDate start = windowStart(from, to);
+        return export(() -> bookingRepository.streamByUserId(userId, start, windowEnd(to)), sink);
+    }
+
+    private long export(Supplier<Stream<BookingResponse>> query, Consumer<BookingResponse> sink)
+    {
+        Long exported = transactionOperations.execute(status -> {
+            long count = 0;
+            try (Stream<BookingResponse> bookings = query.get()) {
+                for (BookingResponse booking : (Iterable<BookingResponse>) bookings::iterator) {
+                    sink.accept(booking);
+                    count++;
+                }
+            }
+            return count;
+        });
+        return exported != null ? exported : 0L;
+    }
+
+    private static BookingPage page(List<BookingResponse> items, Pageable page)
+    {
+        boolean full = page.isPaged() && items.size() == page.getPageSize();
+        String next = full ? BookingCursor.after(items.get(items.size() - 1)).toString() : null;
+        return new BookingPage(items, next);
+    }
+
+    /**
+     * Pedidos sem cursor nem limite mantêm o contrato anterior à paginação e recebem a
+     * listagem completa; basta um dos dois para a página ficar limitada a
+     * {@link BookingPage#MAX_LIMIT}.
+     */
+    private static Pageable pageRequest(String cursor, Integer limit)
+    {
+        if (cursor == null && limit == null) {
+            return Pageable.unpaged();
+        }
+        return PageRequest.ofSize(limit == null ? BookingPage.MAX_LIMIT : Math.clamp(limit, 1, BookingPage.MAX_LIMIT));
+    }
+
+    private static LocalDate windowStart(LocalDate from, LocalDate to)
+    {
+        if (from != null && to != null && !to.isAfter(from))
+            throw new IllegalArgumentException("Window end must be after window start");
+        return from != null ? from : LocalDate.EPOCH;
+    }
+
+    private static LocalDate windowEnd(LocalDate to)
+    {
+        return to != null ? to : LISTING_END;
+    }
+
+    /**
+     * Determina quais de várias propriedades estão livres para um mesmo intervalo de datas.
+     *
+     * <p>As propriedades com calendário já aquecido no {@link AvailabilityIndex} são respondidas
+     * em memória; as restantes são resolvidas numa única query agregada
+     * ({@link BookingRepository#findOccupiedPropertyIds}), sem aquecer calendários um a um.</p>
+     *
+     * <p>É uma leitura para pesquisa: uma propriedade "livre" pode ainda ser recusada na criação
+     * da reserva, que repete a verificação dentro da secção crítica da propriedade.</p>
+     *
+     * @param request propriedades candidatas e intervalo de datas.
+     * @return IDs das propriedades livres, pela ordem do pedido e sem repetições.
+     * @throws IllegalArgumentException se o check-out não for posterior ao check-in.
+     */
+    public AvailabilityQueryResponse findAvailableProperties(AvailabilityQueryRequest request)
+    {
+        if (!request.checkOutDate().isAfter(request.checkInDate()))
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+
+        List<Long> candidates = request.propertyIds().stream().distinct().toList();
+        Set<Long> occupied = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long propertyId : candidates) {
+            switch (availabilityIndex.lookupIfLoaded(propertyId, request.checkInDate(), request.checkOutDate())) {
+                case OCCUPIED -> occupied.add(propertyId);
+                case UNKNOWN -> unknown.add(propertyId);
+                case FREE -> { }
+            }
+        }
+        if (!unknown.isEmpty()) {
+            occupied.addAll(bookingRepository.findOccupiedPropertyIds(unknown, request.checkInDate(), request.checkOutDate()));
+        }
+
+        List<Long> available = candidates.stream()
+                .filter(propertyId -> !occupied.contains(propertyId))
                 .toList();
+        return new AvailabilityQueryResponse(request.checkInDate(), request.checkOutDate(), available);
     }
 
     /**
@@ -0,0 +1,289 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.common.messaging.CalendarImportMessage;
+import com.nexus.estates.dto.BookingSlot;
+import com.nexus.estates.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Importação em lote dos bloqueios de um feed iCal para o calendário interno de uma propriedade.
+ *
+ * <p>Substitui, para feeds completos, o caminho mensagem-a-mensagem de
+ * {@link com.nexus.estates.messaging.CalendarBlockConsumer} (uma verificação de sobreposição e
+ * um {@code save} por VEVENT). Numa única transação, dentro da secção crítica da propriedade:</p>
+ * <ol>
+ *   <li>uma query carrega as reservas ativas na janela do feed e as reservas técnicas já
+ *       associadas aos UIDs do feed;</li>
+ *   <li>os conflitos são resolvidos em memória, por ordem de check-in, contra as reservas
+ *       existentes e contra os bloqueios já aceites do próprio feed;</li>
+ *   <li>os bloqueios novos são inseridos e os existentes atualizados com batches JDBC; os
+ *       bloqueios a mover são primeiro libertados, para que a restrição de exclusão
+ *       {@code ex_bookings_no_overlap} (verificada a cada instrução) aceite trocas de datas
+ *       entre UIDs.</li>
+ * </ol>
+ *
+ * <p><b>Idempotência:</b> um bloqueio com UID já importado é atualizado no lugar (datas e
+ * estado) em vez de duplicado, pelo que reimportar o mesmo feed não altera nada. Se as novas
+ * datas de um UID existente colidirem com outra reserva, a reserva técnica antiga é cancelada,
+ * refletindo que o calendário externo deixou de bloquear essas datas.</p>
+ *
+ * <p><b>Remoções:</b> os UIDs que o sync-service indica como removidos do feed têm as
+ * respetivas reservas técnicas canceladas, libertando as datas na mesma transação.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class CalendarImportService {
+
+    static final String INSERT_BLOCK_SQL = """
+        INSERT INTO bookings (property_id, user_id, check_in_date, check_out_date, guest_count,
+                              total_price, currency, status, created_at, updated_at,
+                              cancellation_reason, external_uid)
+        VALUES (?, 0, ?, ?, 1, 0, 'EUR', ?, ?, ?, ?, ?)
+        """;
+
+    static final String UPDATE_BLOCK_SQL = """
+        UPDATE bookings
+        SET check_in_date = ?, check_out_date = ?, status = ?, cancellation_reason = ?, updated_at = ?
+        WHERE id = ?
+        """;
+
+    static final String RELEASE_BLOCK_SQL = "UPDATE bookings SET status = ? WHERE id = ?";
+
+    /** Estado das reservas técnicas criadas a partir de calendários externos (igual ao caminho individual). */
+    static final BookingStatus BLOCK_STATUS = BookingStatus.CONFIRMED;
+
+    private static final String REASON_PREFIX = "External Calendar Block: ";
+    private static final String CONFLICT_REASON = "External Calendar Block conflict: dates no longer available";
+    private static final String REMOVED_REASON = "External Calendar Block removed from feed";
+
+    /**
+     * Resumo de uma importação.
+     *
+     * @param inserted  bloqueios novos inseridos.
+     * @param updated   reservas técnicas existentes atualizadas (datas ou reativação).
+     * @param removed   reservas técnicas canceladas por o UID ter saído do feed.
+     * @param unchanged bloqueios já importados sem alterações.
+     * @param conflicts bloqueios rejeitados por colidirem com outras reservas.
+     * @param invalid   bloqueios ignorados por não ocuparem nenhuma noite.
+     */
+    public record ImportResult(int inserted, int updated, int removed, int unchanged, int conflicts, int invalid) {}
+
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingConcurrencyControl concurrencyControl;
+    private final AvailabilityIndex availabilityIndex;
+
+    /**
+     * @param bookingRepository  repositório com a query de resolução de conflitos.
+     * @param jdbcTemplate       acesso JDBC para as escritas em batch (partilha a transação JPA).
+     * @param concurrencyControl secção crítica por propriedade, partilhada com as reservas via API.
+     * @param availabilityIndex  índice em memória, invalidado após o commit.
+     */
+    public CalendarImportService(BookingRepository bookingRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 BookingConcurrencyControl concurrencyControl,
+                                 AvailabilityIndex availabilityIndex) {
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.concurrencyControl = concurrencyControl;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    /**
+     * Aplica todos os bloqueios de um feed a uma propriedade.
+     *
+     * @param propertyId propriedade alvo.
+     * @param blocks      bloqueios novos ou alterados do feed (intervalos em UTC).
+     * @param removedUids UIDs removidos do feed, cujos bloqueios são cancelados.
+     * @return resumo das operações efetuadas.
+     */
+    @Transactional
+    public ImportResult importBlocks(Long propertyId,
+                                     List<CalendarImportMessage.Block> blocks,
+                                     Collection<String> removedUids) {
+        List<Candidate> candidates = new ArrayList<>();
+        Map<String, Candidate> byUid = new LinkedHashMap<>();
+        int invalid = 0;
+        for (CalendarImportMessage.Block block : blocks) {
+            Candidate candidate = Candidate.of(block);
+            if (candidate == null) {
+                invalid++;
+            } else if (candidate.uid == null) {
+                candidates.add(candidate);
+            } else {
+                // O mesmo UID repetido no feed: prevalece a última ocorrência.
+                byUid.put(candidate.uid, candidate);
+            }
+        }
+        candidates.addAll(byUid.values());
+        Set<String> removed = new HashSet<>();
+        for (String uid : removedUids) {
+            if (uid != null && !uid.isBlank() && !byUid.containsKey(uid)) {
+                removed.add(uid);
+            }
+        }
+        if (candidates.isEmpty() && removed.isEmpty()) {
+            return new ImportResult(0, 0, 0, 0, 0, invalid);
+        }
+        candidates.sort(Comparator.comparing((Candidate c) -> c.checkIn).thenComparing(c -> c.checkOut));
+
+        // Sem candidatos (apenas remoções) a janela fica vazia e a query carrega só os UIDs.
+        LocalDate from = candidates.stream().map(c -> c.checkIn).min(Comparator.naturalOrder()).orElse(LocalDate.EPOCH);
+        LocalDate to = candidates.stream().map(c -> c.checkOut).max(Comparator.naturalOrder()).orElse(LocalDate.EPOCH);
+        concurrencyControl.lockAndCheckOverlap(propertyId, from, to);
+
+        Set<String> uids = new HashSet<>(byUid.keySet());
+        uids.addAll(removed);
+        List<BookingSlot> slots = uids.isEmpty()
+                ? bookingRepository.findActiveSlotsInWindow(propertyId, from, to)
+                : bookingRepository.findSlotsForCalendarImport(propertyId, from, to, uids);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> cancellations = new ArrayList<>();
+        Map<String, BookingSlot> existingByUid = new HashMap<>();
+        Intervals occupied = new Intervals();
+        int removedCount = 0;
+        for (BookingSlot slot : slots) {
+            boolean active = AvailabilityIndex.BLOCKING_STATUSES.contains(slot.status());
+            if (slot.externalUid() != null && byUid.containsKey(slot.externalUid())) {
+                // Vai ser substituída pela versão do feed; não conta como ocupação.
+                existingByUid.put(slot.externalUid(), slot);
+            } else if (slot.externalUid() != null && removed.contains(slot.externalUid())) {
+                if (active) {
+                    cancellations.add(cancellation(slot, REMOVED_REASON, now));
+                    removedCount++;
+                }
+            } else if (active) {
+                occupied.add(slot.checkInDate(), slot.checkOutDate());
+            }
+        }
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        int unchanged = 0;
+        int conflicts = 0;
+        for (Candidate candidate : candidates) {
+            BookingSlot existing = candidate.uid != null ? existingByUid.get(candidate.uid) : null;
+            if (occupied.overlaps(candidate.checkIn, candidate.checkOut)) {
+                conflicts++;
+                if (existing != null && AvailabilityIndex.BLOCKING_STATUSES.contains(existing.status())) {
+                    cancellations.add(cancellation(existing, CONFLICT_REASON, now));
+                }
+                continue;
+            }
+            occupied.add(candidate.checkIn, candidate.checkOut);
+            if (existing == null) {
+                inserts.add(new Object[]{propertyId, Date.valueOf(candidate.checkIn), Date.valueOf(candidate.checkOut),
+                        BLOCK_STATUS.name(), now, now, candidate.reason(), candidate.uid});
+            } else if (existing.status() == BLOCK_STATUS
+                    && existing.checkInDate().equals(candidate.checkIn)
+                    && existing.checkOutDate().equals(candidate.checkOut)) {
+                unchanged++;
+            } else {
+                updates.add(new Object[]{Date.valueOf(candidate.checkIn), Date.valueOf(candidate.checkOut),
+                        BLOCK_STATUS.name(), candidate.reason(), now, existing.id()});
+            }
+        }
+
+        // Cancelamentos primeiro, para libertar datas antes de mover ou inserir bloqueios.
+        if (!cancellations.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_BLOCK_SQL, cancellations);
+        }
+        if (!updates.isEmpty()) {
+            // A restrição ex_bookings_no_overlap é verificada a cada UPDATE: se dois UIDs trocarem
+            // de datas, o primeiro a mover colidiria com as datas antigas do segundo. Os bloqueios a
+            // mover são por isso libertados todos antes de receberem as novas datas.
+            List<Object[]> releases = new ArrayList<>(updates.size());
+            for (Object[] update : updates) {
+                releases.add(new Object[]{BookingStatus.CANCELLED.name(), update[update.length - 1]});
+            }
+            jdbcTemplate.batchUpdate(RELEASE_BLOCK_SQL, releases);
+            jdbcTemplate.batchUpdate(UPDATE_BLOCK_SQL, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BLOCK_SQL, inserts);
+        }
+        if (!inserts.isEmpty() || !updates.isEmpty() || !cancellations.isEmpty()) {
+            availabilityIndex.evictAfterCommit(propertyId);
+        }
+
+        ImportResult result = new ImportResult(inserts.size(), updates.size(), removedCount, unchanged, conflicts, invalid);
+        log.info("Importação de calendário para propriedade {}: {}", propertyId, result);
+        return result;
+    }
+
+    private static Object[] cancellation(BookingSlot slot, String reason, Timestamp now) {
+        return new Object[]{Date.valueOf(slot.checkInDate()), Date.valueOf(slot.checkOutDate()),
+                BookingStatus.CANCELLED.name(), reason, now, slot.id()};
+    }
+
+    /** Bloqueio do feed já convertido para datas (check-out exclusivo). */
+    private record Candidate(LocalDate checkIn, LocalDate checkOut, String uid, String summary) {
+
+        static Candidate of(CalendarImportMessage.Block block) {
+            if (block == null || block.startUtc() == null || block.endUtc() == null) {
+                return null;
+            }
+            LocalDate checkIn = block.startUtc().atZone(ZoneOffset.UTC).toLocalDate();
+            LocalDate checkOut = block.endUtc().atZone(ZoneOffset.UTC).toLocalDate();
+            if (!checkOut.isAfter(checkIn)) {
+                return null;
+            }
+            String uid = block.sourceUid() == null || block.sourceUid().isBlank() ? null : block.sourceUid();
+            return new Candidate(checkIn, checkOut, uid, block.sourceSummary());
+        }
+
+        String reason() {
+            String reason = REASON_PREFIX + summary;
+            return reason.length() > 255 ? reason.substring(0, 255) : reason;
+        }
+    }
+
+    /** Conjunto de intervalos {@code [início, fim)} ocupados, fundidos quando se sobrepõem. */
+    private static final class Intervals {
+
+        private final TreeMap<LocalDate, LocalDate> ranges = new TreeMap<>();
+
+        boolean overlaps(LocalDate start, LocalDate end) {
+            Map.Entry<LocalDate, LocalDate> before = ranges.lowerEntry(end);
+            return before != null && before.getValue().isAfter(start);
+        }
+
+        void add(LocalDate start, LocalDate end) {
+            Map.Entry<LocalDate, LocalDate> before = ranges.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)) {
+                start = before.getKey();
+                end = end.isAfter(before.getValue()) ? end : before.getValue();
+            }
+            Map.Entry<LocalDate, LocalDate> next = ranges.ceilingEntry(start);
+            while (next != null && !next.getKey().isAfter(end)) {
+                end = end.isAfter(next.getValue()) ? end : next.getValue();
+                ranges.remove(next.getKey());
+                next = ranges.ceilingEntry(start);
+            }
+            ranges.put(start, end);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.nexus.estates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexus.estates.client.Proxy;
+import com.nexus.estates.common.dto.ApiResponse;
+import com.nexus.estates.common.dto.PropertyQuoteRequest;
+import com.nexus.estates.common.dto.PropertyQuoteResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Cache de curta duração para as cotações devolvidas pelo property-service.
+ *
+ * <p>Encapsula a chamada HTTP {@code NexusClients.PropertyClient#quote} usada na primeira fase
+ * da criação de reservas, fora de qualquer transação. Pedidos repetidos para a mesma
+ * combinação de propriedade, datas e hóspedes (ex.: retries do frontend) reutilizam a
+ * cotação durante {@code booking.quote-cache.ttl-seconds}.</p>
+ *
+ * <p>Apenas respostas bem-sucedidas do property-service são guardadas (válidas ou com
+ * violações de regras); falhas de comunicação nunca ficam em cache.</p>
+ *
+ * <p><b>Invalidação:</b> quando o property-service anuncia uma alteração de preço, regras ou
+ * sazonalidade ({@code property.pricing.changed}), todas as cotações dessa propriedade são
+ * descartadas via {@link #invalidate(Long)}. O TTL funciona apenas como limite superior de
+ * desatualização caso um evento se perca.</p>
+ *
+ * <p><b>Métricas:</b> hits, misses, evictions e tamanho são publicados no Micrometer com a
+ * tag {@code cache=booking.quote} ({@code cache.gets}, {@code cache.evictions}, {@code cache.size}).</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.1
+ */
+@Slf4j
+@Component
+public class PropertyQuoteCache {
+
+    private final Proxy api;
+    private final Cache<QuoteKey, PropertyQuoteResponse> cache;
+
+    /** Nome da cache nas métricas Micrometer. */
+    static final String CACHE_NAME = "booking.quote";
+
+    /**
+     * @param api           facade dos clientes HTTP externos.
+     * @param ttlSeconds    tempo de vida de cada cotação em cache.
+     * @param maxSize       número máximo de cotações mantidas em memória.
+     * @param meterRegistry registo Micrometer onde são publicadas as estatísticas da cache.
+     */
+    public PropertyQuoteCache(Proxy api,
+                              @Value("${booking.quote-cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${booking.quote-cache.max-size:10000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.api = api;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Obtém a cotação de uma estadia, consultando o property-service apenas em caso de miss.
+     *
+     * @param propertyId propriedade a cotar.
+     * @param request    datas e número de hóspedes.
+     * @return cotação (válida ou com erros de validação).
+     * @throws RuntimeException se o property-service não responder com uma cotação.
+     */
+    public PropertyQuoteResponse quote(Long propertyId, PropertyQuoteRequest request) {
+        QuoteKey key = new QuoteKey(propertyId, request.checkInDate(), request.checkOutDate(), request.guestCount());
+        PropertyQuoteResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        PropertyQuoteResponse quote = fetch(propertyId, request);
+        cache.put(key, quote);
+        return quote;
+    }
+
+    /**
+     * Descarta todas as cotações em cache de uma propriedade.
+     *
+     * <p>A cache é indexada pela combinação completa (propriedade, datas, hóspedes), pelo que a
+     * remoção percorre as chaves; o custo é limitado por {@code booking.quote-cache.max-size}
+     * e as alterações de preços são raras face às leituras.</p>
+     *
+     * @param propertyId propriedade cujas regras ou preços mudaram.
+     */
+    public void invalidate(Long propertyId) {
+        cache.asMap().keySet().removeIf(key -> key.propertyId().equals(propertyId));
+        log.debug("Cotações em cache invalidadas para a propriedade {}", propertyId);
+    }
+
+    private PropertyQuoteResponse fetch(Long propertyId, PropertyQuoteRequest request) {
+        try {
+            ApiResponse<PropertyQuoteResponse> quoteResponse = api.propertyClient().quote(propertyId, request);
+            if (quoteResponse == null || !quoteResponse.isSuccess() || quoteResponse.getData() == null) {
+                throw new RuntimeException("Não foi possível obter a cotação da propriedade.");
+            }
+            return quoteResponse.getData();
+        } catch (Exception e) {
+            throw new RuntimeException("Não foi possível validar/cotar a propriedade. Tente novamente mais tarde.", e);
+        }
+    }
+
+    /**
+     * Chave da cache: a cotação depende apenas da propriedade, das datas e do número de hóspedes.
+     */
+    record QuoteKey(Long propertyId, LocalDate checkIn, LocalDate checkOut, int guestCount) {}
+}
@@ -0,0 +1,16 @@
+-- =============================================================================
+-- V10: Índices para as listagens paginadas de reservas
+-- =============================================================================
+-- As listagens por propriedade e por utilizador passaram a ser paginadas por
+-- keyset sobre (check_in_date, id):
+--   WHERE property_id = ? AND (check_in_date, id) > (?, ?) ORDER BY check_in_date, id LIMIT ?
+-- Com estes índices cada página é uma leitura ordenada a partir da posição do
+-- cursor, sem ordenar o histórico completo nem percorrer as páginas anteriores.
+-- O mesmo acesso serve as exportações NDJSON em streaming.
+-- =============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_bookings_property_keyset
+    ON bookings (property_id, check_in_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_keyset
+    ON bookings (user_id, check_in_date, id);
@@ -0,0 +1,40 @@
+-- =============================================================================
+-- V11: Outbox transacional de eventos de reserva
+-- =============================================================================
+-- Os eventos booking.created / booking.updated / booking.cancelled deixam de ser
+-- enviados diretamente para o RabbitMQ dentro da transação de negócio. Passam a
+-- ser gravados nesta tabela na MESMA transação que altera a reserva e são
+-- drenados em lotes por um relay em segundo plano (OutboxRelay), que só marca
+-- published_at depois do publisher confirm do broker.
+--
+-- Garantias:
+--   * um rollback descarta também o evento (sem eventos "fantasma");
+--   * um commit nunca perde o evento, mesmo com o broker indisponível;
+--   * entrega at-least-once: os consumidores devem ser idempotentes.
+--
+-- O relay bloqueia cada lote com FOR UPDATE SKIP LOCKED, permitindo várias
+-- instâncias do serviço a drenar a tabela em paralelo sem processar a mesma linha.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    exchange     VARCHAR(255) NOT NULL,
+    routing_key  VARCHAR(255) NOT NULL,
+    payload_type VARCHAR(255) NOT NULL,
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    attempts     INT          NOT NULL DEFAULT 0,
+    last_error   VARCHAR(1000),
+    CONSTRAINT pk_booking_outbox PRIMARY KEY (id)
+);
+
+-- Índice parcial: o relay só percorre as linhas pendentes, por ordem de inserção.
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_pending
+    ON booking_outbox (id)
+    WHERE published_at IS NULL;
+
+-- Limpeza periódica das linhas já publicadas.
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_published_at
+    ON booking_outbox (published_at)
+    WHERE published_at IS NOT NULL;
@@ -0,0 +1,18 @@
+-- =============================================================================
+-- V12: UID de calendário externo nas reservas técnicas
+-- =============================================================================
+-- A importação em lote de feeds iCal (CalendarImportService) identifica cada
+-- bloqueio pelo UID do VEVENT. Reimportar o mesmo feed atualiza a reserva
+-- técnica existente (datas/estado) em vez de inserir um duplicado.
+--
+-- O índice único parcial garante no máximo uma reserva por (propriedade, UID) e
+-- serve a procura por UID feita em cada importação. Reservas normais e bloqueios
+-- sem UID ficam com external_uid a NULL e não são abrangidos.
+-- =============================================================================
+
+ALTER TABLE bookings
+    ADD external_uid VARCHAR(255);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_bookings_property_external_uid
+    ON bookings (property_id, external_uid)
+    WHERE external_uid IS NOT NULL;
@@ -0,0 +1,25 @@
+-- =============================================================================
+-- V13: Lease, backoff e ordem por agregado na outbox
+-- =============================================================================
+-- O OutboxRelay deixa de manter o lock das linhas (e a transacao) aberto enquanto
+-- espera pelos publisher confirms:
+--   * available_at: o relay reclama um lote numa transacao curta, movendo
+--     available_at para o fim de um lease; so linhas com available_at <= agora
+--     podem ser reclamadas. Apos uma falha, available_at passa a ser o instante
+--     da proxima tentativa (backoff exponencial sobre attempts);
+--   * aggregate_id: reserva a que o evento pertence. Enquanto um evento de uma
+--     reserva estiver pendente, os eventos seguintes da mesma reserva nao sao
+--     reclamados, pelo que uma falha nunca deixa passar eventos posteriores.
+-- As linhas anteriores ficam com aggregate_id a NULL e nao sao ordenadas entre si.
+-- =============================================================================
+
+ALTER TABLE booking_outbox
+    ADD aggregate_id BIGINT;
+
+ALTER TABLE booking_outbox
+    ADD available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Procura do evento pendente mais antigo de cada reserva.
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_pending_aggregate
+    ON booking_outbox (aggregate_id, id)
+    WHERE published_at IS NULL;
@@ -0,0 +1,28 @@
+-- =============================================================================
+-- V9: Prevenção de Double Booking ao nível da base de dados
+-- =============================================================================
+-- O SELECT ... FOR UPDATE usado em existsOverlappingBooking não protege intervalos
+-- ainda vazios: o PostgreSQL não consegue bloquear linhas que não existem, pelo que
+-- duas inserções concorrentes no mesmo período livre podem passar ambas na validação.
+--
+-- Alterações:
+--   1. Extensão btree_gist, necessária para combinar igualdade (property_id) com
+--      sobreposição de intervalos (daterange) num único índice GiST.
+--   2. Restrição de exclusão que impede duas reservas activas (CONFIRMED, BLOCKED,
+--      PENDING_PAYMENT) da mesma propriedade com intervalos [check_in, check_out)
+--      sobrepostos. Serve de última linha de defesa para qualquer modo de
+--      booking.concurrency.mode (PESSIMISTIC, ADVISORY ou STRIPED).
+--
+-- Nota: a migração falha se já existirem sobreposições activas na tabela; estas
+-- devem ser resolvidas (cancelamento de uma das reservas) antes de a aplicar.
+-- =============================================================================
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT ex_bookings_no_overlap
+    EXCLUDE USING gist (
+        property_id WITH =,
+        daterange(check_in_date, check_out_date, '[)') WITH &&
+    )
+    WHERE (status IN ('CONFIRMED', 'BLOCKED', 'PENDING_PAYMENT'));
@@ -0,0 +1,148 @@
+package com.nexus.estates.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexus.estates.client.NexusClients;
+import com.nexus.estates.common.dto.ApiResponse;
+import com.nexus.estates.common.dto.PropertyQuoteRequest;
+import com.nexus.estates.common.dto.PropertyQuoteResponse;
+import com.nexus.estates.dto.CreateBookingRequest;
+import com.nexus.estates.entity.Booking;
+import com.nexus.estates.repository.BookingRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Teste de carga concorrente ao endpoint {@code POST /api/bookings}.
+ * <p>
+ * Dispara milhares de pedidos sobrepostos em paralelo para um pequeno conjunto de propriedades,
+ * com o controlo de concorrência em modo {@code STRIPED} (o H2 não suporta advisory locks), e
+ * verifica que nenhuma propriedade acaba com reservas ativas sobrepostas.
+ * </p>
+ */
+@SpringBootTest(properties = "booking.concurrency.mode=STRIPED")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingConcurrencyStressTest {
+
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 32;
+    private static final List<Long> PROPERTIES = List.of(9001L, 9002L, 9003L);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private NexusClients.PropertyClient propertyClient;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    @DisplayName("Pedidos paralelos sobrepostos nunca produzem double booking")
+    void parallelOverlappingRequestsNeverDoubleBook() throws Exception {
+        when(propertyClient.quote(anyLong(), any(PropertyQuoteRequest.class)))
+                .thenReturn(ApiResponse.success(PropertyQuoteResponse.success(new BigDecimal("100.00"), "EUR"), "OK"));
+
+        LocalDate base = LocalDate.now().plusDays(30);
+        Random random = new Random(42);
+        List<String> payloads = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDate checkIn = base.plusDays(random.nextInt(20));
+            CreateBookingRequest request = new CreateBookingRequest(
+                    PROPERTIES.get(i % PROPERTIES.size()),
+                    100L + i,
+                    checkIn,
+                    checkIn.plusDays(1 + random.nextInt(4)),
+                    2,
+                    null, null, null, null, null, null, null, null
+            );
+            payloads.add(objectMapper.writeValueAsString(request));
+        }
+
+        Map<Integer, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (String payload : payloads) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int status = mockMvc.perform(post("/api/bookings")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(payload))
+                            .andReturn().getResponse().getStatus();
+                    statusCounts.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(statusCounts.keySet()).containsOnly(201, 409);
+
+        List<Booking> persisted = bookingRepository.findAll().stream()
+                .filter(b -> PROPERTIES.contains(b.getPropertyId()))
+                .toList();
+        assertThat(persisted).hasSize(statusCounts.get(201).get());
+        assertThat(meterRegistry.find("booking.lock.hold").tag("outcome", "committed").timer())
+                .isNotNull()
+                .satisfies(timer -> assertThat(timer.count()).isEqualTo(persisted.size()));
+
+        Map<Long, List<Booking>> byProperty = persisted.stream()
+                .collect(Collectors.groupingBy(Booking::getPropertyId));
+        for (List<Booking> bookings : byProperty.values()) {
+            List<Booking> sorted = bookings.stream()
+                    .sorted(Comparator.comparing(Booking::getCheckInDate))
+                    .toList();
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).getCheckInDate())
+                        .as("reserva %d sobrepõe-se à reserva %d", sorted.get(i).getId(), sorted.get(i - 1).getId())
+                        .isAfterOrEqualTo(sorted.get(i - 1).getCheckOutDate());
+            }
+        }
+    }
+}
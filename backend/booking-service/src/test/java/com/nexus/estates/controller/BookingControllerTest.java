@@ -1,6 +1,9 @@
 package com.nexus.estates.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexus.estates.dto.AvailabilityQueryRequest;
+import com.nexus.estates.dto.AvailabilityQueryResponse;
+import com.nexus.estates.dto.BookingPage;
 import com.nexus.estates.dto.BookingResponse;
 import com.nexus.estates.dto.CreateBookingRequest;
 import com.nexus.estates.common.enums.BookingStatus;
@@ -13,14 +16,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -185,7 +195,7 @@ class BookingControllerTest {
 
         );
 
-        when(bookingService.getBookingsByProperty(propertyId)).thenReturn(List.of(response));
+        when(bookingService.getBookingsByProperty(propertyId, null, null, null, null)).thenReturn(new BookingPage(List.of(response), null));
 
         mockMvc.perform(get("/api/bookings/property/{propertyId}", propertyId))
                 .andExpect(status().isOk())
@@ -196,7 +206,7 @@ class BookingControllerTest {
     @DisplayName("Should return empty list when property has no bookings")
     void shouldReturnEmptyListForProperty() throws Exception {
         Long propertyId = 11L;
-        when(bookingService.getBookingsByProperty(propertyId)).thenReturn(Collections.emptyList());
+        when(bookingService.getBookingsByProperty(propertyId, null, null, null, null)).thenReturn(new BookingPage(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/bookings/property/{propertyId}", propertyId))
                 .andExpect(status().isOk())
@@ -219,10 +229,99 @@ class BookingControllerTest {
                 BookingStatus.CONFIRMED
         );
 
-        when(bookingService.getBookingsByUser(userId)).thenReturn(List.of(response));
+        when(bookingService.getBookingsByUser(userId, null, null, null, null)).thenReturn(new BookingPage(List.of(response), null));
 
         mockMvc.perform(get("/api/bookings/user/{userId}", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].userId").value(userId));
     }
+
+    @Test
+    @DisplayName("Should return available properties for a batch availability query")
+    void shouldReturnAvailableProperties() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(4);
+        AvailabilityQueryRequest request = new AvailabilityQueryRequest(List.of(1L, 2L, 3L), checkIn, checkOut);
+        when(bookingService.findAvailableProperties(any(AvailabilityQueryRequest.class)))
+                .thenReturn(new AvailabilityQueryResponse(checkIn, checkOut, List.of(1L, 3L)));
+
+        mockMvc.perform(post("/api/bookings/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availablePropertyIds.length()").value(2))
+                .andExpect(jsonPath("$.availablePropertyIds[1]").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when batch availability query has no property IDs")
+    void shouldReturn400WhenAvailabilityQueryHasNoProperties() throws Exception {
+        AvailabilityQueryRequest request = new AvailabilityQueryRequest(
+                List.of(), LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+
+        mockMvc.perform(post("/api/bookings/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should pass window and cursor to the service and expose the next cursor header")
+    void shouldReturnNextCursorHeaderForPagedListing() throws Exception {
+        Long propertyId = 12L;
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 12, 31);
+        BookingResponse response = new BookingResponse(7L, propertyId, 20L, LocalDate.of(2026, 3, 1),
+                LocalDate.of(2026, 3, 4), 2, new BigDecimal("300.00"), "EUR", BookingStatus.CONFIRMED);
+        when(bookingService.getBookingsByProperty(propertyId, from, to, "2026-02-01,5", 1))
+                .thenReturn(new BookingPage(List.of(response), "2026-03-01,7"));
+
+        mockMvc.perform(get("/api/bookings/property/{propertyId}", propertyId)
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-12-31")
+                        .param("cursor", "2026-02-01,5")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "2026-03-01,7"))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    @DisplayName("Should stream property bookings as NDJSON")
+    void shouldExportBookingsAsNdjson() throws Exception {
+        Long propertyId = 13L;
+        List<BookingResponse> bookings = List.of(
+                new BookingResponse(1L, propertyId, 20L, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 4),
+                        2, new BigDecimal("300.00"), "EUR", BookingStatus.CONFIRMED),
+                new BookingResponse(2L, propertyId, 21L, LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 2),
+                        1, new BigDecimal("100.00"), "EUR", BookingStatus.CANCELLED));
+        when(bookingService.exportBookingsByProperty(eq(propertyId), isNull(), isNull(), any())).thenAnswer(inv -> {
+            Consumer<BookingResponse> sink = inv.getArgument(3);
+            bookings.forEach(sink);
+            return (long) bookings.size();
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/bookings/property/{propertyId}/export", propertyId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readValue(lines[1], BookingResponse.class).id());
+    }
+
+    @Test
+    @DisplayName("Should return 400 before streaming when the export window is invalid")
+    void shouldReturn400WhenExportWindowIsInvalid() throws Exception {
+        mockMvc.perform(get("/api/bookings/user/{userId}/export", 20L)
+                        .param("from", "2026-05-01")
+                        .param("to", "2026-05-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
 }
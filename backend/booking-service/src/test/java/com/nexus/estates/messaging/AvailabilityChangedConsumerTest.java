@@ -0,0 +1,45 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.service.AvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityChangedConsumerTest {
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private AvailabilityBroadcaster broadcaster;
+
+    @InjectMocks
+    private AvailabilityChangedConsumer consumer;
+
+    @Test
+    void shouldEvictCalendarChangedByAnotherInstance() {
+        AvailabilityBroadcaster.AvailabilityChangedMessage msg = new AvailabilityBroadcaster.AvailabilityChangedMessage(7L, "other");
+        when(broadcaster.isOwn(msg)).thenReturn(false);
+
+        consumer.handleAvailabilityChanged(msg);
+
+        verify(availabilityIndex).evict(7L);
+    }
+
+    @Test
+    void shouldIgnoreOwnNotices() {
+        AvailabilityBroadcaster.AvailabilityChangedMessage msg = new AvailabilityBroadcaster.AvailabilityChangedMessage(7L, "self");
+        when(broadcaster.isOwn(msg)).thenReturn(true);
+
+        consumer.handleAvailabilityChanged(msg);
+
+        verifyNoInteractions(availabilityIndex);
+    }
+}
@@ -6,14 +6,18 @@ import com.nexus.estates.common.messaging.BookingCreatedMessage;
 import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
 import com.nexus.estates.common.messaging.BookingUpdatedMessage;
 import com.nexus.estates.entity.Booking;
+import com.nexus.estates.entity.OutboxEvent;
 import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.repository.OutboxEventRepository;
+import com.nexus.estates.service.AvailabilityIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -28,18 +32,23 @@ import static org.mockito.Mockito.*;
 class BookingEventPublisherExtendedTest {
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     private BookingEventPublisher bookingEventPublisher;
 
     @BeforeEach
     void setUp() {
         bookingEventPublisher = new BookingEventPublisher(
-                rabbitTemplate,
+                outboxEventRepository,
+                new Jackson2JsonMessageConverter(),
                 bookingRepository,
+                availabilityIndex,
                 "booking.exchange",
                 "booking.created",
                 "booking.updated",
@@ -63,11 +72,11 @@ class BookingEventPublisherExtendedTest {
         bookingEventPublisher.publishBookingUpdated(message);
 
         // Assert
-        verify(rabbitTemplate).convertAndSend(
-                eq("booking.exchange"),
-                eq("booking.updated"),
-                eq(message)
-        );
+        OutboxEvent event = savedEvent();
+        assertThat(event.getExchange()).isEqualTo("booking.exchange");
+        assertThat(event.getRoutingKey()).isEqualTo("booking.updated");
+        assertThat(event.getPayloadType()).isEqualTo(BookingUpdatedMessage.class.getName());
+        assertThat(event.getPayload()).contains("\"reason\":\"Updated check-in details\"");
     }
 
     @Test
@@ -86,11 +95,10 @@ class BookingEventPublisherExtendedTest {
         bookingEventPublisher.publishBookingCancelled(message);
 
         // Assert
-        verify(rabbitTemplate).convertAndSend(
-                eq("booking.exchange"),
-                eq("booking.cancelled"),
-                eq(message)
-        );
+        OutboxEvent event = savedEvent();
+        assertThat(event.getRoutingKey()).isEqualTo("booking.cancelled");
+        assertThat(event.getPayloadType()).isEqualTo(BookingCancelledMessage.class.getName());
+        assertThat(event.getPublishedAt()).isNull();
     }
 
     @Test
@@ -141,8 +149,8 @@ class BookingEventPublisherExtendedTest {
     }
 
     @Test
-    @DisplayName("Should handle RabbitTemplate exception gracefully")
-    void shouldHandleRabbitTemplateExceptionGracefully() {
+    @DisplayName("Should propagate outbox write failure to roll back the caller transaction")
+    void shouldPropagateOutboxWriteFailure() {
         // Arrange
         BookingCreatedMessage message = new BookingCreatedMessage(
                 1L,
@@ -151,20 +159,15 @@ class BookingEventPublisherExtendedTest {
                 BookingStatus.PENDING_PAYMENT
         );
 
-        // Fix: Use specific matchers or cast to Object to resolve ambiguity
-        doThrow(new RuntimeException("RabbitMQ connection failed"))
-                .when(rabbitTemplate).convertAndSend(any(String.class), any(String.class), any(Object.class));
+        doThrow(new RuntimeException("Outbox insert failed"))
+                .when(outboxEventRepository).save(any(OutboxEvent.class));
 
         // Act & Assert
         assertThatThrownBy(() -> bookingEventPublisher.publishBookingCreated(message))
                 .isInstanceOf(RuntimeException.class)
-                .hasMessage("RabbitMQ connection failed");
+                .hasMessage("Outbox insert failed");
 
-        verify(rabbitTemplate).convertAndSend(
-                eq("booking.exchange"),
-                eq("booking.created"),
-                eq(message)
-        );
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
     }
 
     @Test
@@ -175,8 +178,10 @@ class BookingEventPublisherExtendedTest {
         String customRoutingKey = "booking.custom.event";
         
         BookingEventPublisher customPublisher = new BookingEventPublisher(
-                rabbitTemplate,
+                outboxEventRepository,
+                new Jackson2JsonMessageConverter(),
                 bookingRepository,
+                availabilityIndex,
                 customExchange,
                 customRoutingKey,
                 "booking.updated",
@@ -194,10 +199,14 @@ class BookingEventPublisherExtendedTest {
         customPublisher.publishBookingCreated(message);
 
         // Assert
-        verify(rabbitTemplate).convertAndSend(
-                eq(customExchange),
-                eq(customRoutingKey),
-                eq(message)
-        );
+        OutboxEvent event = savedEvent();
+        assertThat(event.getExchange()).isEqualTo(customExchange);
+        assertThat(event.getRoutingKey()).isEqualTo(customRoutingKey);
+    }
+
+    private OutboxEvent savedEvent() {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        return captor.getValue();
     }
 }
\ No newline at end of file
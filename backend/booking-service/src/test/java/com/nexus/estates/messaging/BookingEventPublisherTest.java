@@ -1,19 +1,24 @@
 package com.nexus.estates.messaging;
 
 import com.nexus.estates.entity.Booking;
+import com.nexus.estates.entity.OutboxEvent;
 import com.nexus.estates.common.enums.BookingStatus;
 import com.nexus.estates.common.messaging.BookingCreatedMessage;
 import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
 import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.repository.OutboxEventRepository;
+import com.nexus.estates.service.AvailabilityIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,18 +26,23 @@ import static org.mockito.Mockito.when;
 class BookingEventPublisherTest {
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     private BookingEventPublisher bookingEventPublisher;
 
     @BeforeEach
     void setUp() {
         bookingEventPublisher = new BookingEventPublisher(
-                rabbitTemplate,
+                outboxEventRepository,
+                new Jackson2JsonMessageConverter(),
                 bookingRepository,
+                availabilityIndex,
                 "booking.exchange",
                 "booking.created",
                 "booking.updated",
@@ -41,7 +51,7 @@ class BookingEventPublisherTest {
     }
 
     @Test
-    void shouldPublishBookingCreatedEvent() {
+    void shouldWriteBookingCreatedEventToOutbox() {
         BookingCreatedMessage message = new BookingCreatedMessage(
                 1L,
                 10L,
@@ -51,7 +61,14 @@ class BookingEventPublisherTest {
 
         bookingEventPublisher.publishBookingCreated(message);
 
-        verify(rabbitTemplate).convertAndSend("booking.exchange", "booking.created", message);
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertThat(event.getExchange()).isEqualTo("booking.exchange");
+        assertThat(event.getRoutingKey()).isEqualTo("booking.created");
+        assertThat(event.getPayloadType()).isEqualTo(BookingCreatedMessage.class.getName());
+        assertThat(event.getPayload()).contains("\"bookingId\":1", "\"status\":\"PENDING_PAYMENT\"");
+        assertThat(event.getPublishedAt()).isNull();
     }
 
     @Test
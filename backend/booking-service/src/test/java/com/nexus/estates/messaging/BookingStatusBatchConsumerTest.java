@@ -0,0 +1,139 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
+import com.nexus.estates.entity.Booking;
+import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.service.AvailabilityIndex;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingStatusBatchConsumerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private Channel channel;
+
+    private BookingStatusBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new BookingStatusBatchConsumer(jdbcTemplate, bookingRepository, availabilityIndex,
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    @DisplayName("Aplica o lote num único batch JDBC, prevalecendo o último estado de cada reserva")
+    @SuppressWarnings("unchecked")
+    void handleStatusUpdatedBatch_ShouldApplyLatestStatusPerBookingInOneBatch() throws IOException {
+        Booking first = booking(1L, BookingStatus.CANCELLED);
+        Booking second = booking(2L, BookingStatus.CONFIRMED);
+        when(jdbcTemplate.batchUpdate(eq(BookingStatusBatchConsumer.UPDATE_STATUS_SQL), anyList()))
+                .thenReturn(new int[]{1, 1});
+        when(bookingRepository.findAllById(any())).thenReturn(List.of(first, second));
+
+        consumer.handleStatusUpdatedBatch(List.of(
+                message(1, new BookingStatusUpdatedMessage(1L, BookingStatus.CONFIRMED, "paid")),
+                message(2, new BookingStatusUpdatedMessage(2L, BookingStatus.CONFIRMED, "paid")),
+                message(3, new BookingStatusUpdatedMessage(1L, BookingStatus.CANCELLED, "refunded"))), channel);
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(BookingStatusBatchConsumer.UPDATE_STATUS_SQL), args.capture());
+        assertThat(args.getValue()).hasSize(2);
+        assertThat(args.getValue().get(0)[0]).isEqualTo("CANCELLED");
+        assertThat(args.getValue().get(0)[2]).isEqualTo(1L);
+        assertThat(args.getValue().get(1)[0]).isEqualTo("CONFIRMED");
+        assertThat(args.getValue().get(1)[2]).isEqualTo(2L);
+
+        ArgumentCaptor<Iterable<Long>> ids = ArgumentCaptor.forClass(Iterable.class);
+        verify(bookingRepository, times(1)).findAllById(ids.capture());
+        assertThat(ids.getValue()).containsExactly(1L, 2L);
+        verify(availabilityIndex).registerAfterCommit(first);
+        verify(availabilityIndex).registerAfterCommit(second);
+        verify(bookingRepository, never()).save(any());
+        verify(channel).basicAck(3L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    @DisplayName("Se o lote falhar, reaplica uma a uma e só envia para a DLQ a mensagem que volta a falhar")
+    @SuppressWarnings("unchecked")
+    void handleStatusUpdatedBatch_ShouldDeadLetterOnlyFailingMessage_WhenBatchFails() throws IOException {
+        when(jdbcTemplate.batchUpdate(eq(BookingStatusBatchConsumer.UPDATE_STATUS_SQL), anyList()))
+                .thenAnswer(inv -> {
+                    List<Object[]> args = inv.getArgument(1);
+                    if (args.stream().anyMatch(row -> row[2].equals(2L))) {
+                        throw new DataIntegrityViolationException("overlap");
+                    }
+                    return new int[args.size()];
+                });
+        when(bookingRepository.findAllById(any())).thenReturn(List.of());
+
+        consumer.handleStatusUpdatedBatch(List.of(
+                message(1, new BookingStatusUpdatedMessage(1L, BookingStatus.CONFIRMED, "paid")),
+                message(2, new BookingStatusUpdatedMessage(2L, BookingStatus.CONFIRMED, "paid")),
+                message(3, new BookingStatusUpdatedMessage(3L, BookingStatus.CANCELLED, "refunded"))), channel);
+
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(4)).batchUpdate(eq(BookingStatusBatchConsumer.UPDATE_STATUS_SQL), args.capture());
+        assertThat(args.getAllValues().get(3).get(0)[2]).isEqualTo(3L);
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicAck(1L, false);
+        order.verify(channel).basicNack(2L, false, false);
+        order.verify(channel).basicAck(3L, false);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    @DisplayName("Ignora mensagens inválidas sem tocar na base de dados")
+    void handleStatusUpdatedBatch_ShouldIgnoreInvalidMessages() throws IOException {
+        consumer.handleStatusUpdatedBatch(List.of(
+                message(1, new BookingStatusUpdatedMessage(null, BookingStatus.CONFIRMED, "paid")),
+                message(2, new BookingStatusUpdatedMessage(3L, null, "paid"))), channel);
+
+        verifyNoInteractions(jdbcTemplate, bookingRepository, availabilityIndex);
+        verify(channel).basicAck(2L, true);
+    }
+
+    private Message<BookingStatusUpdatedMessage> message(long deliveryTag, BookingStatusUpdatedMessage payload) {
+        return MessageBuilder.withPayload(payload).setHeader(AmqpHeaders.DELIVERY_TAG, deliveryTag).build();
+    }
+
+    private Booking booking(Long id, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setPropertyId(10L);
+        booking.setStatus(status);
+        return booking;
+    }
+}
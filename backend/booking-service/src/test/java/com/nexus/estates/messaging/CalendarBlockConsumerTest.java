@@ -2,6 +2,8 @@ package com.nexus.estates.messaging;
 
 import com.nexus.estates.common.messaging.CalendarBlockMessage;
 import com.nexus.estates.repository.BookingRepository;
+import com.nexus.estates.service.AvailabilityIndex;
+import com.nexus.estates.service.BookingConcurrencyControl;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,6 +22,12 @@ class CalendarBlockConsumerTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private BookingConcurrencyControl concurrencyControl;
+
     @InjectMocks
     private CalendarBlockConsumer consumer;
 
@@ -33,7 +41,7 @@ class CalendarBlockConsumerTest {
                 "uid-1",
                 "summary"
         );
-        when(bookingRepository.existsOverlappingBooking(any(), any(), any())).thenReturn(false);
+        when(concurrencyControl.lockAndCheckOverlap(any(), any(), any())).thenReturn(false);
 
         consumer.handleCalendarBlock(msg);
 
@@ -50,7 +58,7 @@ class CalendarBlockConsumerTest {
                 "uid-1",
                 "summary"
         );
-        when(bookingRepository.existsOverlappingBooking(any(), any(), any())).thenReturn(true);
+        when(concurrencyControl.lockAndCheckOverlap(any(), any(), any())).thenReturn(true);
 
         consumer.handleCalendarBlock(msg);
 
@@ -0,0 +1,162 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.entity.OutboxEvent;
+import com.nexus.estates.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, rabbitTemplate, TransactionOperations.withoutTransaction(),
+                2, 200, 1000, 1000, 60_000, 24, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Marca como publicados apenas os eventos confirmados pelo broker")
+    void relayBatch_ShouldMarkOnlyAckedEventsAsPublished() {
+        OutboxEvent acked = event(1L);
+        OutboxEvent nacked = event(2L);
+        when(outboxEventRepository.lockPendingBatch(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(acked, nacked));
+        doAnswer(inv -> {
+            CorrelationData correlation = inv.getArgument(3);
+            boolean ack = correlation.getId().equals("1");
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(eq("booking.exchange"), eq("booking.created"), any(Message.class), any(CorrelationData.class));
+
+        int published = relay.relayBatch();
+
+        assertThat(published).isEqualTo(1);
+        verify(outboxEventRepository).markPublished(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(outboxEventRepository).recordFailure(eq(2L), eq("nack: queue full"), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertThat(meterRegistry.counter("booking.outbox.published").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("booking.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Envia o payload gravado com o header de tipo e um messageId estável")
+    void relayBatch_ShouldSendStoredPayloadWithTypeHeader() {
+        OutboxEvent event = event(7L);
+        when(outboxEventRepository.lockPendingBatch(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(event));
+        doAnswer(inv -> {
+            inv.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(any(String.class), any(String.class), any(Message.class), any(CorrelationData.class));
+
+        relay.relayBatch();
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("booking.exchange"), eq("booking.created"), captor.capture(), any(CorrelationData.class));
+        Message message = captor.getValue();
+        assertThat(new String(message.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"bookingId\":7}");
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo("application/json");
+        assertThat(message.getMessageProperties().<String>getHeader("__TypeId__"))
+                .isEqualTo("com.nexus.estates.common.messaging.BookingCreatedMessage");
+        assertThat(message.getMessageProperties().getMessageId()).isEqualTo("booking-outbox-7");
+    }
+
+    @Test
+    @DisplayName("Falhas de envio e confirms em falta deixam os eventos pendentes para nova tentativa")
+    void relayBatch_ShouldKeepEventsPending_WhenSendFailsOrConfirmTimesOut() {
+        OutboxEvent failed = event(1L);
+        OutboxEvent unconfirmed = event(2L);
+        when(outboxEventRepository.lockPendingBatch(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failed, unconfirmed));
+        doThrow(new AmqpConnectException(new RuntimeException("connection refused")))
+                .doNothing()
+                .when(rabbitTemplate).send(any(String.class), any(String.class), any(Message.class), any(CorrelationData.class));
+
+        int published = relay.relayBatch();
+
+        assertThat(published).isZero();
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        verify(outboxEventRepository).recordFailure(eq(1L), startsWith("falha no envio"), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(outboxEventRepository).recordFailure(eq(2L), startsWith("sem confirmação do broker"), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Reclama o lote com lease e agenda a nova tentativa com backoff exponencial")
+    void relayBatch_ShouldLeaseClaimedEventsAndBackOffAfterFailure() {
+        OutboxEvent event = event(1L);
+        event.setAttempts(3);
+        when(outboxEventRepository.lockPendingBatch(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(event));
+        doAnswer(inv -> {
+            inv.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(any(String.class), any(String.class), any(Message.class), any(CorrelationData.class));
+
+        relay.relayBatch();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).lockPendingBatch(now.capture(), any(Pageable.class));
+        ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).recordFailure(eq(1L), eq("nack: queue full"), leaseUntil.capture(), retryAt.capture());
+        assertThat(leaseUntil.getValue()).isEqualTo(now.getValue().plusSeconds(1)).isEqualTo(event.getAvailableAt());
+        assertThat(retryAt.getValue()).isAfterOrEqualTo(now.getValue().plusSeconds(8));
+        assertThat(relay.backoff(0)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(relay.backoff(40)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Drena lotes consecutivos enquanto vierem cheios")
+    void relayPending_ShouldDrainUntilPartialBatch() {
+        when(outboxEventRepository.lockPendingBatch(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+        doAnswer(inv -> {
+            inv.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(any(String.class), any(String.class), any(Message.class), any(CorrelationData.class));
+
+        relay.relayPending();
+
+        verify(outboxEventRepository, times(2)).lockPendingBatch(any(LocalDateTime.class), any(Pageable.class));
+        verify(rabbitTemplate, times(3)).send(any(String.class), any(String.class), any(Message.class), any(CorrelationData.class));
+    }
+
+    private OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(id)
+                .exchange("booking.exchange")
+                .routingKey("booking.created")
+                .payloadType("com.nexus.estates.common.messaging.BookingCreatedMessage")
+                .payload("{\"bookingId\":" + id + "}")
+                .build();
+    }
+}
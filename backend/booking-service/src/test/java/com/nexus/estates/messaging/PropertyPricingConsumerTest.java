@@ -0,0 +1,38 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import com.nexus.estates.service.PropertyQuoteCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyPricingConsumerTest {
+
+    @Mock
+    private PropertyQuoteCache quoteCache;
+
+    @InjectMocks
+    private PropertyPricingConsumer consumer;
+
+    @Test
+    void shouldInvalidateQuotesOfChangedProperty() {
+        consumer.handlePricingChanged(new PropertyPricingChangedMessage(7L, "RULES", Instant.now()));
+
+        verify(quoteCache).invalidate(7L);
+    }
+
+    @Test
+    void shouldIgnoreMessagesWithoutProperty() {
+        consumer.handlePricingChanged(new PropertyPricingChangedMessage(null, "PRICE", Instant.now()));
+
+        verifyNoInteractions(quoteCache);
+    }
+}
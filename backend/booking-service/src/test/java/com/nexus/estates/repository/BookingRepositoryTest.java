@@ -1,15 +1,19 @@
 package com.nexus.estates.repository;
 
+import com.nexus.estates.dto.BookingResponse;
 import com.nexus.estates.entity.Booking;
 import com.nexus.estates.common.enums.BookingStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -74,4 +78,66 @@ class BookingRepositoryTest {
         assertThat(noOverlap1).isFalse();
         assertThat(noOverlap2).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnOnlyOccupiedPropertiesInBatch() {
+        persist(300L, LocalDate.now().plusDays(2), LocalDate.now().plusDays(5), BookingStatus.CONFIRMED);
+        persist(300L, LocalDate.now().plusDays(3), LocalDate.now().plusDays(4), BookingStatus.CANCELLED);
+        persist(301L, LocalDate.now().plusDays(3), LocalDate.now().plusDays(4), BookingStatus.CANCELLED);
+        persist(302L, LocalDate.now().plusDays(5), LocalDate.now().plusDays(7), BookingStatus.BLOCKED);
+        persist(303L, LocalDate.now().plusDays(4), LocalDate.now().plusDays(6), BookingStatus.PENDING_PAYMENT);
+        entityManager.flush();
+
+        List<Long> occupied = bookingRepository.findOccupiedPropertyIds(
+                List.of(300L, 301L, 302L, 303L, 304L), LocalDate.now().plusDays(3), LocalDate.now().plusDays(5));
+
+        assertThat(occupied).containsExactlyInAnyOrder(300L, 303L);
+    }
+
+    @Test
+    void shouldPaginateByKeysetWithinWindow() {
+        LocalDate base = LocalDate.of(2026, 3, 1);
+        persist(400L, base, base.plusDays(2), BookingStatus.CONFIRMED);
+        persist(400L, base, base.plusDays(3), BookingStatus.CANCELLED);
+        persist(400L, base.plusDays(5), base.plusDays(6), BookingStatus.CONFIRMED);
+        persist(400L, base.plusDays(40), base.plusDays(42), BookingStatus.CONFIRMED);
+        persist(401L, base.plusDays(1), base.plusDays(2), BookingStatus.CONFIRMED);
+        entityManager.flush();
+
+        LocalDate from = base.minusDays(1);
+        LocalDate to = base.plusDays(30);
+        List<BookingResponse> first = bookingRepository.findPageByPropertyId(400L, from, to,
+                LocalDate.EPOCH, 0L, PageRequest.ofSize(2));
+        BookingResponse last = first.get(first.size() - 1);
+        List<BookingResponse> second = bookingRepository.findPageByPropertyId(400L, from, to,
+                last.checkInDate(), last.id(), PageRequest.ofSize(2));
+
+        assertThat(first).hasSize(2).allMatch(b -> b.checkInDate().equals(base));
+        assertThat(first.get(0).id()).isLessThan(first.get(1).id());
+        assertThat(second).extracting(BookingResponse::checkInDate).containsExactly(base.plusDays(5));
+    }
+
+    @Test
+    void shouldStreamUserBookingsInKeysetOrder() {
+        LocalDate base = LocalDate.of(2026, 5, 1);
+        persist(402L, base.plusDays(10), base.plusDays(12), BookingStatus.CONFIRMED);
+        persist(403L, base, base.plusDays(1), BookingStatus.CANCELLED);
+        entityManager.flush();
+
+        try (Stream<BookingResponse> stream = bookingRepository.streamByUserId(202L, base.minusDays(1), base.plusDays(30))) {
+            assertThat(stream.map(BookingResponse::propertyId).toList()).containsExactly(403L, 402L);
+        }
+    }
+
+    private void persist(Long propertyId, LocalDate checkIn, LocalDate checkOut, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setPropertyId(propertyId);
+        booking.setUserId(202L);
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setStatus(status);
+        booking.setTotalPrice(BigDecimal.TEN);
+        booking.setGuests(1);
+        entityManager.persist(booking);
+    }
+}
@@ -0,0 +1,110 @@
+package com.nexus.estates.repository;
+
+import com.nexus.estates.entity.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void shouldLockPendingEventsInInsertionOrder() {
+        OutboxEvent first = persist("booking.created", null);
+        persist("booking.updated", LocalDateTime.now());
+        OutboxEvent third = persist("booking.cancelled", null);
+        OutboxEvent fourth = persist("booking.created", null);
+
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(LocalDateTime.now(), PageRequest.of(0, 2));
+
+        assertThat(batch).extracting(OutboxEvent::getId).containsExactly(first.getId(), third.getId());
+        assertThat(outboxEventRepository.lockPendingBatch(LocalDateTime.now(), PageRequest.of(0, 10)))
+                .extracting(OutboxEvent::getId)
+                .containsExactly(first.getId(), third.getId(), fourth.getId());
+    }
+
+    @Test
+    void shouldClaimOnlyAvailableOldestPendingEventOfEachBooking() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent failed = persist(1L, "booking.created", null, now.plusMinutes(1));
+        persist(1L, "booking.updated", null, now.minusMinutes(1));
+        OutboxEvent created = persist(2L, "booking.created", now.minusMinutes(1), now.minusMinutes(2));
+        OutboxEvent updated = persist(2L, "booking.updated", null, now.minusMinutes(1));
+        persist(2L, "booking.cancelled", null, now.minusMinutes(1));
+
+        List<OutboxEvent> batch = outboxEventRepository.lockPendingBatch(now, PageRequest.of(0, 10));
+
+        assertThat(batch).extracting(OutboxEvent::getId).containsExactly(updated.getId());
+        assertThat(outboxEventRepository.lockPendingBatch(now.plusMinutes(2), PageRequest.of(0, 10)))
+                .extracting(OutboxEvent::getId)
+                .containsExactly(failed.getId(), updated.getId());
+        assertThat(created.getPublishedAt()).isNotNull();
+    }
+
+    @Test
+    void shouldRecordFailureOnlyWhileLeaseIsHeld() {
+        LocalDateTime lease = LocalDateTime.now().plusSeconds(30).withNano(0);
+        OutboxEvent event = persist(1L, "booking.created", null, lease);
+
+        int stale = outboxEventRepository.recordFailure(event.getId(), "nack", lease.minusSeconds(30), lease.plusMinutes(1));
+        int held = outboxEventRepository.recordFailure(event.getId(), "nack", lease, lease.plusMinutes(1));
+        entityManager.clear();
+
+        assertThat(stale).isZero();
+        assertThat(held).isEqualTo(1);
+        OutboxEvent reloaded = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(reloaded.getAttempts()).isEqualTo(1);
+        assertThat(reloaded.getLastError()).isEqualTo("nack");
+        assertThat(reloaded.getAvailableAt()).isEqualTo(lease.plusMinutes(1));
+    }
+
+    @Test
+    void shouldDeleteOnlyEventsPublishedBeforeCutoff() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent pending = persist("booking.created", null);
+        persist("booking.created", now.minusDays(2));
+        OutboxEvent recent = persist("booking.created", now.minusMinutes(5));
+
+        int removed = outboxEventRepository.deletePublishedBefore(now.minusDays(1));
+        entityManager.clear();
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getId)
+                .containsExactlyInAnyOrder(pending.getId(), recent.getId());
+    }
+
+    private OutboxEvent persist(String routingKey, LocalDateTime publishedAt) {
+        return persist(null, routingKey, publishedAt, LocalDateTime.now().minusSeconds(1));
+    }
+
+    private OutboxEvent persist(Long bookingId, String routingKey, LocalDateTime publishedAt, LocalDateTime availableAt) {
+        OutboxEvent event = OutboxEvent.builder()
+                .aggregateId(bookingId)
+                .availableAt(availableAt)
+                .exchange("booking.exchange")
+                .routingKey(routingKey)
+                .payloadType("com.nexus.estates.common.messaging.BookingCreatedMessage")
+                .payload("{}")
+                .publishedAt(publishedAt)
+                .build();
+        entityManager.persist(event);
+        entityManager.flush();
+        return event;
+    }
+}
@@ -0,0 +1,150 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.entity.Booking;
+import com.nexus.estates.messaging.AvailabilityBroadcaster;
+import com.nexus.estates.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    private static final Long PROPERTY_ID = 10L;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AvailabilityBroadcaster broadcaster;
+
+    private AvailabilityIndex availabilityIndex;
+
+    private final LocalDate base = LocalDate.now().plusDays(10);
+
+    @BeforeEach
+    void setUp() {
+        availabilityIndex = new AvailabilityIndex(bookingRepository, broadcaster, 60);
+    }
+
+    @Test
+    @DisplayName("Deve detetar sobreposições com reservas carregadas da base de dados")
+    void shouldDetectOverlapsWithWarmedBookings() {
+        when(bookingRepository.findActiveByPropertyIdFrom(eq(PROPERTY_ID), any()))
+                .thenReturn(List.of(booking(1L, base, base.plusDays(3), BookingStatus.CONFIRMED)));
+
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.minusDays(1), base.plusDays(1))).isTrue();
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.plusDays(2), base.plusDays(6))).isTrue();
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.minusDays(2), base.plusDays(8))).isTrue();
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.minusDays(3), base)).isFalse();
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.plusDays(3), base.plusDays(5))).isFalse();
+
+        // O calendário é carregado uma única vez enquanto o TTL não expira
+        verify(bookingRepository, times(1)).findActiveByPropertyIdFrom(eq(PROPERTY_ID), any());
+    }
+
+    @Test
+    @DisplayName("Deve refletir novas reservas e libertar datas de reservas canceladas")
+    void shouldRegisterAndReleaseBookings() {
+        when(bookingRepository.findActiveByPropertyIdFrom(eq(PROPERTY_ID), any())).thenReturn(List.of());
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(2))).isFalse();
+
+        Booking booking = booking(2L, base, base.plusDays(2), BookingStatus.PENDING_PAYMENT);
+        availabilityIndex.register(booking);
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.plusDays(1), base.plusDays(4))).isTrue();
+
+        booking.setStatus(BookingStatus.CANCELLED);
+        availabilityIndex.register(booking);
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base.plusDays(1), base.plusDays(4))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o calendário após invalidação explícita")
+    void shouldReloadAfterEviction() {
+        when(bookingRepository.findActiveByPropertyIdFrom(eq(PROPERTY_ID), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(booking(3L, base, base.plusDays(1), BookingStatus.BLOCKED)));
+
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(1))).isFalse();
+        availabilityIndex.evict(PROPERTY_ID);
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(1))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Consulta sem carregamento só responde para calendários já aquecidos")
+    void lookupIfLoadedShouldNotWarmCalendars() {
+        assertThat(availabilityIndex.lookupIfLoaded(PROPERTY_ID, base, base.plusDays(1)))
+                .isEqualTo(AvailabilityIndex.Lookup.UNKNOWN);
+        verifyNoInteractions(bookingRepository);
+
+        when(bookingRepository.findActiveByPropertyIdFrom(eq(PROPERTY_ID), any()))
+                .thenReturn(List.of(booking(4L, base, base.plusDays(2), BookingStatus.CONFIRMED)));
+        availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(1));
+
+        assertThat(availabilityIndex.lookupIfLoaded(PROPERTY_ID, base.plusDays(1), base.plusDays(3)))
+                .isEqualTo(AvailabilityIndex.Lookup.OCCUPIED);
+        assertThat(availabilityIndex.lookupIfLoaded(PROPERTY_ID, base.plusDays(2), base.plusDays(3)))
+                .isEqualTo(AvailabilityIndex.Lookup.FREE);
+        // Reservas já terminadas não estão no índice
+        assertThat(availabilityIndex.lookupIfLoaded(PROPERTY_ID, LocalDate.now().minusDays(1), LocalDate.now()))
+                .isEqualTo(AvailabilityIndex.Lookup.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Não deve publicar um calendário carregado enquanto uma reserva era registada")
+    void shouldNotPublishCalendarLoadedDuringConcurrentRegistration() {
+        Booking concurrent = booking(5L, base, base.plusDays(2), BookingStatus.CONFIRMED);
+        when(bookingRepository.findActiveByPropertyIdFrom(eq(PROPERTY_ID), any()))
+                .thenAnswer(invocation -> {
+                    // A reserva é confirmada noutra transação depois de a leitura ter começado
+                    availabilityIndex.register(concurrent);
+                    return List.of();
+                })
+                .thenReturn(List.of(concurrent));
+
+        availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(1));
+
+        assertThat(availabilityIndex.lookupIfLoaded(PROPERTY_ID, base, base.plusDays(1)))
+                .isEqualTo(AvailabilityIndex.Lookup.UNKNOWN);
+        assertThat(availabilityIndex.isOccupied(PROPERTY_ID, base, base.plusDays(1))).isTrue();
+        verify(bookingRepository, times(2)).findActiveByPropertyIdFrom(eq(PROPERTY_ID), any());
+    }
+
+    @Test
+    @DisplayName("Deve anunciar às outras instâncias as alterações confirmadas")
+    void shouldBroadcastCommittedChanges() {
+        availabilityIndex.registerAfterCommit(booking(6L, base, base.plusDays(1), BookingStatus.CONFIRMED));
+        availabilityIndex.evictAfterCommit(PROPERTY_ID);
+
+        verify(broadcaster, times(2)).publish(PROPERTY_ID);
+    }
+
+    private Booking booking(Long id, LocalDate checkIn, LocalDate checkOut, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .propertyId(PROPERTY_ID)
+                .userId(1L)
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .guests(1)
+                .totalPrice(BigDecimal.TEN)
+                .status(status)
+                .build();
+    }
+}
@@ -45,13 +45,16 @@ class BookingPaymentServiceTest {
     @Mock
     private BookingEventPublisher eventPublisher;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     private Proxy proxy;
     private BookingPaymentService bookingPaymentService;
 
     @BeforeEach
     void setUp() {
         proxy = new Proxy(propertyClient, userClient, financeClient);
-        bookingPaymentService = new BookingPaymentService(proxy, bookingRepository, eventPublisher);
+        bookingPaymentService = new BookingPaymentService(proxy, bookingRepository, eventPublisher, availabilityIndex);
     }
 
     @Test
@@ -11,12 +11,14 @@ import com.nexus.estates.entity.Booking;
 import com.nexus.estates.common.enums.BookingStatus;
 import com.nexus.estates.messaging.BookingEventPublisher;
 import com.nexus.estates.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -39,6 +41,9 @@ class BookingServiceIntegrationTest {
     @Mock
     private BookingPaymentService bookingPaymentService;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     @Mock
     private NexusClients.PropertyClient propertyClient;
 
@@ -50,7 +55,11 @@ class BookingServiceIntegrationTest {
     @BeforeEach
     void setUp() {
         Proxy api = new Proxy(propertyClient, userClient, null);
-        bookingService = new BookingService(bookingRepository, bookingEventPublisher, bookingPaymentService, api);
+        BookingConcurrencyControl concurrencyControl = new BookingConcurrencyControl(
+                bookingRepository, null, BookingConcurrencyControl.Mode.PESSIMISTIC, 1, 0, new SimpleMeterRegistry());
+        bookingService = new BookingService(bookingRepository, bookingEventPublisher, bookingPaymentService,
+                availabilityIndex, concurrencyControl, new PropertyQuoteCache(api, 30, 100, new SimpleMeterRegistry()),
+                TransactionOperations.withoutTransaction());
     }
 
     @Test
@@ -5,24 +5,41 @@ import com.nexus.estates.client.Proxy;
 import com.nexus.estates.common.dto.ApiResponse;
 import com.nexus.estates.common.dto.PropertyQuoteRequest;
 import com.nexus.estates.common.dto.PropertyQuoteResponse;
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.dto.AvailabilityQueryRequest;
+import com.nexus.estates.dto.AvailabilityQueryResponse;
+import com.nexus.estates.dto.BookingPage;
+import com.nexus.estates.dto.BookingResponse;
 import com.nexus.estates.dto.CreateBookingRequest;
 import com.nexus.estates.entity.Booking;
+import com.nexus.estates.exception.BookingConflictException;
 import com.nexus.estates.exception.RuleViolationException;
 import com.nexus.estates.messaging.BookingEventPublisher;
 import com.nexus.estates.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -38,6 +55,9 @@ class BookingServiceTest {
     @Mock
     private BookingPaymentService bookingPaymentService;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
     @Mock
     private NexusClients.PropertyClient propertyClient;
 
@@ -51,9 +71,13 @@ class BookingServiceTest {
     @BeforeEach
     void setUp() {
         Proxy api = new Proxy(propertyClient, userClient, null);
-        bookingService = new BookingService(bookingRepository, bookingEventPublisher, bookingPaymentService, api);
+        BookingConcurrencyControl concurrencyControl = new BookingConcurrencyControl(
+                bookingRepository, null, BookingConcurrencyControl.Mode.PESSIMISTIC, 1, 0, new SimpleMeterRegistry());
+        bookingService = new BookingService(bookingRepository, bookingEventPublisher, bookingPaymentService,
+                availabilityIndex, concurrencyControl, new PropertyQuoteCache(api, 30, 100, new SimpleMeterRegistry()),
+                TransactionOperations.withoutTransaction());
 
-        when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any())).thenReturn(false);
+        lenient().when(bookingRepository.existsOverlappingBooking(anyLong(), any(), any())).thenReturn(false);
 
         request = new CreateBookingRequest(
                 1L,
@@ -112,4 +136,132 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).save(any(Booking.class));
         verify(bookingEventPublisher, times(1)).publishBookingCreated(any());
     }
+
+    @Test
+    void createBooking_ShouldRejectInMemory_WhenIndexReportsConflict() {
+        when(availabilityIndex.isOccupied(anyLong(), any(), any())).thenReturn(true);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(request));
+
+        verifyNoInteractions(propertyClient);
+        verify(bookingRepository, never()).existsOverlappingBooking(anyLong(), any(), any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_ShouldQuoteBeforeOpeningTransaction() {
+        TransactionOperations transactionOperations = mock(TransactionOperations.class);
+        BookingService service = new BookingService(bookingRepository, bookingEventPublisher, bookingPaymentService,
+                availabilityIndex, mock(BookingConcurrencyControl.class),
+                new PropertyQuoteCache(new Proxy(propertyClient, userClient, null), 30, 100, new SimpleMeterRegistry()),
+                transactionOperations);
+
+        PropertyQuoteResponse quote = PropertyQuoteResponse.success(new BigDecimal("300.00"), "EUR");
+        when(propertyClient.quote(anyLong(), any(PropertyQuoteRequest.class))).thenReturn(ApiResponse.success(quote, "OK"));
+
+        service.createBooking(request);
+
+        InOrder inOrder = inOrder(propertyClient, transactionOperations);
+        inOrder.verify(propertyClient).quote(anyLong(), any(PropertyQuoteRequest.class));
+        inOrder.verify(transactionOperations).execute(any());
+    }
+
+    @Test
+    void findAvailableProperties_ShouldQueryDatabaseOnlyForPropertiesNotInIndex() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(3);
+        when(availabilityIndex.lookupIfLoaded(1L, checkIn, checkOut)).thenReturn(AvailabilityIndex.Lookup.OCCUPIED);
+        when(availabilityIndex.lookupIfLoaded(2L, checkIn, checkOut)).thenReturn(AvailabilityIndex.Lookup.FREE);
+        when(availabilityIndex.lookupIfLoaded(3L, checkIn, checkOut)).thenReturn(AvailabilityIndex.Lookup.UNKNOWN);
+        when(availabilityIndex.lookupIfLoaded(4L, checkIn, checkOut)).thenReturn(AvailabilityIndex.Lookup.UNKNOWN);
+        when(bookingRepository.findOccupiedPropertyIds(List.of(3L, 4L), checkIn, checkOut)).thenReturn(List.of(4L));
+
+        AvailabilityQueryResponse response = bookingService.findAvailableProperties(
+                new AvailabilityQueryRequest(List.of(1L, 2L, 3L, 4L, 2L), checkIn, checkOut));
+
+        assertEquals(List.of(2L, 3L), response.availablePropertyIds());
+        verify(bookingRepository, times(1)).findOccupiedPropertyIds(anyCollection(), any(), any());
+    }
+
+    @Test
+    void findAvailableProperties_ShouldRejectInvalidRange() {
+        LocalDate date = LocalDate.now().plusDays(10);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.findAvailableProperties(
+                new AvailabilityQueryRequest(List.of(1L), date, date)));
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getBookingsByProperty_ShouldReturnNextCursorWhenPageIsFull() {
+        BookingResponse first = listed(1L, LocalDate.of(2026, 3, 1));
+        BookingResponse second = listed(2L, LocalDate.of(2026, 3, 1));
+        when(bookingRepository.findPageByPropertyId(eq(1L), eq(LocalDate.of(2026, 1, 1)), eq(LocalDate.of(2026, 6, 1)),
+                eq(LocalDate.of(2026, 2, 1)), eq(9L), any(Pageable.class))).thenReturn(List.of(first, second));
+
+        BookingPage page = bookingService.getBookingsByProperty(1L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 1),
+                "2026-02-01,9", 2);
+
+        assertEquals(List.of(first, second), page.items());
+        assertEquals("2026-03-01,2", page.nextCursor());
+    }
+
+    @Test
+    void getBookingsByUser_ShouldStartFromBeginningAndCapPageSize() {
+        when(bookingRepository.findPageByUserId(eq(100L), eq(LocalDate.EPOCH), any(), eq(LocalDate.EPOCH), eq(0L),
+                any(Pageable.class))).thenReturn(List.of(listed(1L, LocalDate.of(2026, 3, 1))));
+
+        BookingPage page = bookingService.getBookingsByUser(100L, null, null, null, 100_000);
+
+        assertNull(page.nextCursor());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(bookingRepository).findPageByUserId(eq(100L), any(), any(), any(), any(), pageable.capture());
+        assertEquals(BookingPage.MAX_LIMIT, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    void getBookingsByProperty_ShouldReturnEverything_WhenNeitherCursorNorLimitIsGiven() {
+        List<BookingResponse> all = new ArrayList<>();
+        for (long id = 1; id <= BookingPage.MAX_LIMIT + 1; id++) {
+            all.add(listed(id, LocalDate.of(2026, 3, 1)));
+        }
+        when(bookingRepository.findPageByPropertyId(eq(1L), any(), any(), any(), any(), eq(Pageable.unpaged())))
+                .thenReturn(all);
+
+        BookingPage page = bookingService.getBookingsByProperty(1L, null, null, null, null);
+
+        assertEquals(BookingPage.MAX_LIMIT + 1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getBookingsByProperty_ShouldRejectInvalidCursorAndWindow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookingsByProperty(1L, null, null, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.getBookingsByProperty(1L, LocalDate.of(2026, 5, 1), LocalDate.of(2026, 4, 1), null, null));
+
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void exportBookingsByProperty_ShouldStreamEveryBookingAndCloseTheStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        List<BookingResponse> rows = List.of(listed(1L, LocalDate.of(2026, 3, 1)), listed(2L, LocalDate.of(2026, 4, 1)));
+        when(bookingRepository.streamByPropertyId(eq(1L), any(), any()))
+                .thenReturn(rows.stream().onClose(() -> closed.set(true)));
+        List<BookingResponse> exported = new ArrayList<>();
+
+        long count = bookingService.exportBookingsByProperty(1L, null, null, exported::add);
+
+        assertEquals(2L, count);
+        assertEquals(rows, exported);
+        assertTrue(closed.get());
+    }
+
+    private BookingResponse listed(Long id, LocalDate checkIn) {
+        return new BookingResponse(id, 1L, 100L, checkIn, checkIn.plusDays(2), 2,
+                new BigDecimal("200.00"), "EUR", BookingStatus.CONFIRMED);
+    }
 }
@@ -0,0 +1,205 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.common.enums.BookingStatus;
+import com.nexus.estates.common.messaging.CalendarImportMessage;
+import com.nexus.estates.entity.Booking;
+import com.nexus.estates.repository.BookingRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes da importação em lote de calendários sobre H2, incluindo as escritas em batch JDBC.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CalendarImportService.class)
+class CalendarImportServiceTest {
+
+    private static final Long PROPERTY_ID = 500L;
+    private static final LocalDate BASE = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private CalendarImportService importService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private BookingConcurrencyControl concurrencyControl;
+
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Insere os bloqueios livres e rejeita os que colidem com reservas ou com o próprio feed")
+    void importBlocks_ShouldInsertFreeBlocksAndRejectConflicts() {
+        persistBooking(BASE.plusDays(10), BASE.plusDays(12));
+
+        CalendarImportService.ImportResult result = importService.importBlocks(PROPERTY_ID, List.of(
+                block(0, 3, "uid-a"),
+                block(2, 4, "uid-b"),       // sobrepõe uid-a
+                block(11, 13, "uid-c"),     // sobrepõe a reserva existente
+                block(20, 22, null),
+                block(25, 25, "uid-e")),    // nenhuma noite
+                List.of());
+
+        assertThat(result).isEqualTo(new CalendarImportService.ImportResult(2, 0, 0, 0, 2, 1));
+        assertThat(blocks()).extracting(Booking::getExternalUid, Booking::getCheckInDate, Booking::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("uid-a", BASE, BookingStatus.CONFIRMED),
+                        tuple(null, BASE.plusDays(20), BookingStatus.CONFIRMED));
+        verify(concurrencyControl).lockAndCheckOverlap(PROPERTY_ID, BASE, BASE.plusDays(22));
+        verify(availabilityIndex).evictAfterCommit(PROPERTY_ID);
+    }
+
+    @Test
+    @DisplayName("Reimportar o mesmo feed não cria duplicados")
+    void importBlocks_ShouldBeIdempotentByUid() {
+        List<CalendarImportMessage.Block> feed = List.of(block(0, 3, "uid-a"), block(5, 7, "uid-b"));
+
+        importService.importBlocks(PROPERTY_ID, feed, List.of());
+        entityManager.clear();
+        CalendarImportService.ImportResult second = importService.importBlocks(PROPERTY_ID, feed, List.of());
+
+        assertThat(second).isEqualTo(new CalendarImportService.ImportResult(0, 0, 0, 2, 0, 0));
+        assertThat(blocks()).hasSize(2);
+        verify(availabilityIndex, times(1)).evictAfterCommit(PROPERTY_ID);
+    }
+
+    @Test
+    @DisplayName("Um UID com novas datas é atualizado; se as novas datas colidirem, o bloqueio antigo é cancelado")
+    void importBlocks_ShouldMoveExistingUidOrCancelItOnConflict() {
+        importService.importBlocks(PROPERTY_ID, List.of(block(0, 3, "uid-a"), block(5, 7, "uid-b")), List.of());
+        persistBooking(BASE.plusDays(15), BASE.plusDays(18));
+        entityManager.clear();
+
+        CalendarImportService.ImportResult result = importService.importBlocks(PROPERTY_ID, List.of(
+                block(1, 4, "uid-a"),
+                block(16, 17, "uid-b")), List.of());
+
+        assertThat(result).isEqualTo(new CalendarImportService.ImportResult(0, 1, 0, 0, 1, 0));
+        entityManager.clear();
+        Booking moved = findByUid("uid-a");
+        assertThat(moved.getCheckInDate()).isEqualTo(BASE.plusDays(1));
+        assertThat(moved.getCheckOutDate()).isEqualTo(BASE.plusDays(4));
+        assertThat(findByUid("uid-b").getStatus()).isEqualTo(BookingStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Dois UIDs que trocam de datas são ambos atualizados")
+    void importBlocks_ShouldSwapDatesBetweenUids() {
+        importService.importBlocks(PROPERTY_ID, List.of(block(0, 3, "uid-a"), block(3, 6, "uid-b")), List.of());
+        entityManager.clear();
+
+        CalendarImportService.ImportResult result = importService.importBlocks(PROPERTY_ID, List.of(
+                block(3, 6, "uid-a"),
+                block(0, 3, "uid-b")), List.of());
+
+        assertThat(result).isEqualTo(new CalendarImportService.ImportResult(0, 2, 0, 0, 0, 0));
+        entityManager.clear();
+        assertThat(findByUid("uid-a")).extracting(Booking::getCheckInDate, Booking::getStatus)
+                .containsExactly(BASE.plusDays(3), BookingStatus.CONFIRMED);
+        assertThat(findByUid("uid-b")).extracting(Booking::getCheckInDate, Booking::getStatus)
+                .containsExactly(BASE, BookingStatus.CONFIRMED);
+        // Na BD real a restrição de exclusão exige que ambos sejam libertados antes de mover algum.
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).batchUpdate(eq(CalendarImportService.RELEASE_BLOCK_SQL), anyList());
+        order.verify(jdbcTemplate).batchUpdate(eq(CalendarImportService.UPDATE_BLOCK_SQL), anyList());
+    }
+
+    @Test
+    @DisplayName("Um feed sem UIDs é resolvido apenas contra as reservas ativas da janela")
+    void importBlocks_ShouldHandleFeedWithoutUids() {
+        persistBooking(BASE.plusDays(1), BASE.plusDays(2));
+
+        CalendarImportService.ImportResult result = importService.importBlocks(PROPERTY_ID, List.of(
+                block(0, 3, null),
+                block(4, 6, null)), List.of());
+
+        assertThat(result).isEqualTo(new CalendarImportService.ImportResult(1, 0, 0, 0, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Um delta só com remoções cancela os bloqueios cujo UID saiu do feed")
+    void importBlocks_ShouldCancelRemovedUids() {
+        importService.importBlocks(PROPERTY_ID, List.of(block(0, 3, "uid-a"), block(5, 7, "uid-b")), List.of());
+        entityManager.clear();
+
+        CalendarImportService.ImportResult result =
+                importService.importBlocks(PROPERTY_ID, List.of(), List.of("uid-a", "uid-unknown"));
+
+        assertThat(result).isEqualTo(new CalendarImportService.ImportResult(0, 0, 1, 0, 0, 0));
+        entityManager.clear();
+        assertThat(findByUid("uid-a").getStatus()).isEqualTo(BookingStatus.CANCELLED);
+        assertThat(findByUid("uid-b").getStatus()).isEqualTo(BookingStatus.CONFIRMED);
+        verify(availabilityIndex, times(2)).evictAfterCommit(PROPERTY_ID);
+    }
+
+    private CalendarImportMessage.Block block(int startOffset, int endOffset, String uid) {
+        return new CalendarImportMessage.Block(
+                instant(BASE.plusDays(startOffset)),
+                instant(BASE.plusDays(endOffset)),
+                uid,
+                "Airbnb (Not available)");
+    }
+
+    private Instant instant(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private void persistBooking(LocalDate checkIn, LocalDate checkOut) {
+        Booking booking = new Booking();
+        booking.setPropertyId(PROPERTY_ID);
+        booking.setUserId(42L);
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setTotalPrice(BigDecimal.TEN);
+        booking.setGuests(2);
+        entityManager.persist(booking);
+        entityManager.flush();
+    }
+
+    private List<Booking> blocks() {
+        entityManager.clear();
+        return bookingRepository.findAll().stream()
+                .filter(b -> PROPERTY_ID.equals(b.getPropertyId()) && b.getUserId() == 0L)
+                .toList();
+    }
+
+    private Booking findByUid(String uid) {
+        return bookingRepository.findAll().stream()
+                .filter(b -> uid.equals(b.getExternalUid()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,75 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.client.NexusClients;
+import com.nexus.estates.client.Proxy;
+import com.nexus.estates.common.dto.ApiResponse;
+import com.nexus.estates.common.dto.PropertyQuoteRequest;
+import com.nexus.estates.common.dto.PropertyQuoteResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyQuoteCacheTest {
+
+    @Mock
+    private NexusClients.PropertyClient propertyClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PropertyQuoteCache quoteCache;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(10);
+    private final PropertyQuoteRequest request = new PropertyQuoteRequest(checkIn, checkIn.plusDays(3), 2);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        quoteCache = new PropertyQuoteCache(new Proxy(propertyClient, null, null), 300, 100, meterRegistry);
+        when(propertyClient.quote(anyLong(), any(PropertyQuoteRequest.class)))
+                .thenReturn(ApiResponse.success(PropertyQuoteResponse.success(new BigDecimal("300.00"), "EUR"), "OK"));
+    }
+
+    @Test
+    @DisplayName("Pedidos repetidos reutilizam a cotação e são contados como hit/miss")
+    void shouldServeRepeatedQuotesFromCacheAndRecordStats() {
+        quoteCache.quote(1L, request);
+        quoteCache.quote(1L, request);
+        quoteCache.quote(1L, request);
+
+        verify(propertyClient, times(1)).quote(1L, request);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "booking.quote").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "booking.quote").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "booking.quote").functionCounter()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Invalidar uma propriedade descarta apenas as suas cotações")
+    void invalidateShouldOnlyDropQuotesOfThatProperty() {
+        quoteCache.quote(1L, request);
+        quoteCache.quote(2L, request);
+
+        quoteCache.invalidate(1L);
+        quoteCache.quote(1L, request);
+        quoteCache.quote(2L, request);
+
+        verify(propertyClient, times(2)).quote(eq(1L), any(PropertyQuoteRequest.class));
+        verify(propertyClient, times(1)).quote(eq(2L), any(PropertyQuoteRequest.class));
+    }
+}
@@ -0,0 +1,111 @@
+package com.nexus.estates.common.config;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diagnóstico de <i>pinning</i> de virtual threads, comum aos serviços servlet.
+ *
+ * <p>Com {@code spring.threads.virtual.enabled=true}, uma virtual thread que bloqueia dentro de
+ * um bloco {@code synchronized} (ou numa chamada nativa) fica presa à thread portadora e deixa
+ * de libertar o carrier durante o I/O. Este componente subscreve, via JFR em streaming, o evento
+ * {@code jdk.VirtualThreadPinned} e regista em log cada ocorrência acima do limiar configurado,
+ * com a thread e o topo da stack, para identificar as secções a migrar para
+ * {@link java.util.concurrent.locks.ReentrantLock}.</p>
+ *
+ * <p>Ativado por {@code nexus.virtual-threads.pinning-monitor.enabled}; os serviços ligam-no por
+ * omissão sempre que o modo de virtual threads está ativo.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "nexus.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final int stackDepth;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private volatile RecordingStream stream;
+
+    /**
+     * @param threshold  duração mínima de um pinning para ser reportado.
+     * @param stackDepth número de frames da stack incluídos em cada registo.
+     */
+    public VirtualThreadPinningMonitor(
+            @Value("${nexus.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold,
+            @Value("${nexus.virtual-threads.pinning-monitor.stack-depth:12}") int stackDepth) {
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::report);
+        recording.startAsync();
+        stream = recording;
+        log.info("Monitor de pinning de virtual threads ativo (limiar {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * @return número de eventos de pinning reportados desde o arranque.
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        RecordedThread thread = event.getThread();
+        log.warn("Virtual thread fixada ao carrier durante {} ms (thread: {}){}",
+                event.getDuration().toMillis(),
+                thread != null ? thread.getJavaName() : "desconhecida",
+                formatStack(event.getStackTrace()));
+    }
+
+    private String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(stackDepth, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append(System.lineSeparator()).append("\tat ")
+                    .append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package com.nexus.estates.common.messaging;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Mensagem de integração com todos os bloqueios de um feed iCal (.ics) de uma propriedade.
+ *
+ * <p>Alternativa em lote a {@link CalendarBlockMessage}: em vez de uma mensagem por VEVENT,
+ * o sync-service publica uma única mensagem por feed e o booking-service resolve os conflitos
+ * e aplica os bloqueios numa só transação. Os bloqueios com {@code sourceUid} são
+ * idempotentes: reimportar o mesmo feed atualiza as reservas técnicas existentes em vez de
+ * criar duplicados.</p>
+ *
+ * <p>Com a ressincronização incremental do sync-service, a mensagem transporta apenas o
+ * delta do feed: {@code blocks} contém os eventos novos ou alterados e {@code removedUids}
+ * os UIDs que desapareceram do feed, cujos bloqueios devem ser cancelados.</p>
+ *
+ * @param propertyId  identificador da propriedade alvo dos bloqueios.
+ * @param blocks      bloqueios novos ou alterados.
+ * @param removedUids UIDs de eventos removidos do feed desde a última sincronização.
+ */
+public record CalendarImportMessage(
+        Long propertyId,
+        List<Block> blocks,
+        List<String> removedUids
+) {
+
+    /**
+     * Importação sem remoções (feed completo ou apenas eventos novos/alterados).
+     *
+     * @param propertyId identificador da propriedade alvo dos bloqueios.
+     * @param blocks     bloqueios extraídos do feed.
+     */
+    public CalendarImportMessage(Long propertyId, List<Block> blocks) {
+        this(propertyId, blocks, List.of());
+    }
+
+    /**
+     * Bloqueio individual do feed.
+     *
+     * @param startUtc      instante UTC de início do bloqueio.
+     * @param endUtc        instante UTC de fim do bloqueio.
+     * @param sourceUid     identificador único do evento no calendário externo (quando disponível).
+     * @param sourceSummary descrição/título do evento no calendário externo (quando disponível).
+     */
+    public record Block(
+            Instant startUtc,
+            Instant endUtc,
+            String sourceUid,
+            String sourceSummary
+    ) {
+    }
+}
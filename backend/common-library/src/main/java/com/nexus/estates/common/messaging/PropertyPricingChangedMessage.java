@@ -0,0 +1,22 @@
+package com.nexus.estates.common.messaging;
+
+import java.time.Instant;
+
+/**
+ * Mensagem de integração publicada pelo property-service sempre que muda algo que
+ * influencia a cotação de uma propriedade (preço base, capacidade, regras operacionais,
+ * sobreposições de regras ou sazonalidade).
+ *
+ * <p>Os consumidores (ex.: cache de cotações do booking-service) devem descartar qualquer
+ * cotação calculada anteriormente para a propriedade indicada.</p>
+ *
+ * @param propertyId identificador da propriedade alterada.
+ * @param changeType tipo de alteração ({@code PRICE}, {@code RULES}, {@code SEASONALITY} ou {@code DELETED}).
+ * @param occurredAt instante em que a alteração foi confirmada.
+ */
+public record PropertyPricingChangedMessage(
+        Long propertyId,
+        String changeType,
+        Instant occurredAt
+) {
+}
@@ -1,10 +1,9 @@
 package com.nexus.estates.common.util;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
@@ -19,15 +18,26 @@ import java.util.Base64;
  * Partilhado de forma transparente entre os microserviços {@code finance-service} e
  * {@code sync-service} através do módulo {@code common-library}, promovendo reutilização.
  * </p>
+ * <p>
+ * As assinaturas passam por um {@link WebhookSigner} por segredo, mantido numa cache Caffeine limitada a
+ * {@value #MAX_CACHED_SIGNERS} entradas, que reutiliza o {@code Mac} já inicializado em cada thread.
+ * </p>
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  * @since 2023-10-15
  */
 public final class WebhookCryptoUtil {
 
     /** Algoritmo criptográfico aprovado e padrão para assinatura de webhooks em todo o Nexus. */
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** Segredos distintos com assinador em cache; acima disto saem os menos usados. */
+    static final int MAX_CACHED_SIGNERS = 1024;
+
+    private static final Cache<String, WebhookSigner> SIGNERS = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_SIGNERS)
+            .build();
 
     /** Gerador aleatório seguro de elevada entropia. */
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
@@ -58,6 +68,20 @@ public final class WebhookCryptoUtil {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
     }
 
+    /**
+     * Devolve o assinador (em cache) de um segredo.
+     *
+     * @param secret O segredo partilhado com o subscritor ou a origem do webhook.
+     * @return assinador reutilizável e seguro entre threads.
+     * @throws IllegalArgumentException Caso o {@code secret} seja nulo.
+     */
+    public static WebhookSigner signerFor(String secret) {
+        if (secret == null) {
+            throw new IllegalArgumentException("Secret não pode ser nulo para assinatura.");
+        }
+        return SIGNERS.get(secret, WebhookSigner::new);
+    }
+
     /**
      * Calcula e devolve a assinatura criptográfica HMAC-SHA256 de um payload.
      *
@@ -73,26 +97,32 @@ public final class WebhookCryptoUtil {
         if (payload == null || secret == null) {
             throw new IllegalArgumentException("Payload e Secret não podem ser nulos para assinatura.");
         }
+        return signerFor(secret).sign(payload.getBytes(StandardCharsets.UTF_8));
+    }
 
-        try {
-            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            SecretKeySpec secretKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
-            mac.init(secretKey);
-
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            return "sha256=" + Base64.getEncoder().encodeToString(hash);
-
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new IllegalStateException("Erro crítico de configuração criptográfica no sistema", e);
+    /**
+     * Variante de {@link #signPayload(String, String)} sobre os bytes exatos do corpo, sem
+     * conversão para {@code String}.
+     *
+     * @param payload Os bytes do corpo a assinar.
+     * @param secret O segredo partilhado.
+     * @return A assinatura no formato {@code "sha256=<base64>"}.
+     * @throws IllegalArgumentException Caso o {@code payload} ou o {@code secret} sejam nulos.
+     */
+    public static String signPayload(byte[] payload, String secret) {
+        if (payload == null || secret == null) {
+            throw new IllegalArgumentException("Payload e Secret não podem ser nulos para assinatura.");
         }
+        return signerFor(secret).sign(payload);
     }
 
     /**
      * Valida de forma robusta e segura se a assinatura recebida num webhook corresponde
      * à combinação do corpo da mensagem com o segredo esperado.
      * <p>
-     * Utiliza internamente o {@link java.security.MessageDigest#isEqual(byte[], byte[])} para
-     * comparar os bytes resultantes de forma a prevenir de ataques de tempo (timing attacks).
+     * A assinatura recebida é descodificada de Base64 e comparada com o HMAC calculado através de
+     * {@link java.security.MessageDigest#isEqual(byte[], byte[])}, em tempo constante, de forma a
+     * prevenir ataques de tempo (timing attacks).
      * Útil para validar webhooks que chegam ao Nexus (por ex. de serviços externos).
      * </p>
      *
@@ -104,14 +134,25 @@ public final class WebhookCryptoUtil {
      */
     public static boolean isValidSignature(String payload, String expectedSignature, String secret) {
         if (expectedSignature == null || expectedSignature.isBlank()) return false;
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload e Secret não podem ser nulos para assinatura.");
+        }
+        return isValidSignature(payload.getBytes(StandardCharsets.UTF_8), expectedSignature, secret);
+    }
 
-        String generatedSignature = signPayload(payload, secret);
-
-        // A utilização de MessageDigest.isEqual mitiga vulnerabilidades relativas a ataques baseados
-        // no tempo de execução das comparações de strings (timing attacks).
-        return java.security.MessageDigest.isEqual(
-                expectedSignature.getBytes(StandardCharsets.UTF_8),
-                generatedSignature.getBytes(StandardCharsets.UTF_8)
-        );
+    /**
+     * Variante de {@link #isValidSignature(String, String, String)} sobre os bytes exatos recebidos.
+     *
+     * @param payload Os bytes do corpo recebido.
+     * @param expectedSignature A assinatura declarada no pedido HTTP.
+     * @param secret O segredo associado à fonte da mensagem.
+     * @return {@code true} se as assinaturas coincidirem.
+     */
+    public static boolean isValidSignature(byte[] payload, String expectedSignature, String secret) {
+        if (expectedSignature == null || expectedSignature.isBlank()) return false;
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload e Secret não podem ser nulos para assinatura.");
+        }
+        return signerFor(secret).verify(payload, expectedSignature);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,99 @@
+package com.nexus.estates.common.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Assinador HMAC-SHA256 associado a um único segredo de webhook.
+ * <p>
+ * {@code Mac.getInstance} (procura do provider) e {@code Mac.init} (derivação da chave) custam
+ * mais do que assinar um payload pequeno; aqui são feitos uma vez por thread e por segredo: cada
+ * thread mantém o seu próprio {@link Mac} já inicializado num {@link ThreadLocal}, reutilizado em
+ * todas as assinaturas seguintes. Com virtual threads (uma por tarefa) o ganho limita-se à chave
+ * já preparada, mas o resultado é idêntico.
+ * </p>
+ * <p>
+ * Obtém-se com {@link WebhookCryptoUtil#signerFor(String)}, que mantém uma cache limitada de
+ * assinadores por segredo. Os métodos aceitam os bytes exatos que vão (ou vieram) na rede, sem
+ * conversões intermédias para {@code String}.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @since 2026-10-17
+ */
+public final class WebhookSigner {
+
+    /** Prefixo das assinaturas nos cabeçalhos ({@code X-Nexus-Signature}, {@code X-Ably-Signature}). */
+    static final String SIGNATURE_PREFIX = "sha256=";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    WebhookSigner(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), WebhookCryptoUtil.HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @param payload bytes exatos do corpo a assinar.
+     * @return assinatura no formato do cabeçalho ({@code "sha256=<base64>"}).
+     */
+    public String sign(byte[] payload) {
+        return SIGNATURE_PREFIX + Base64.getEncoder().encodeToString(digest(payload));
+    }
+
+    /**
+     * @param payload corpo a assinar; é consumido desde a posição atual até ao limite.
+     * @return assinatura no formato do cabeçalho ({@code "sha256=<base64>"}).
+     */
+    public String sign(ByteBuffer payload) {
+        Mac m = mac.get();
+        m.update(payload);
+        return SIGNATURE_PREFIX + Base64.getEncoder().encodeToString(m.doFinal());
+    }
+
+    /**
+     * Verifica uma assinatura recebida em tempo constante.
+     * <p>
+     * O Base64 do cabeçalho é descodificado e comparado byte a byte com o HMAC calculado
+     * ({@link MessageDigest#isEqual}), sem voltar a codificar o resultado em texto.
+     * </p>
+     *
+     * @param payload   bytes exatos do corpo recebido.
+     * @param signature valor do cabeçalho de assinatura ({@code "sha256=<base64>"}).
+     * @return {@code true} se a assinatura corresponder ao payload; {@code false} se for nula,
+     *         mal formada ou incorreta.
+     */
+    public boolean verify(byte[] payload, String signature) {
+        if (payload == null || signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(signature.substring(SIGNATURE_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, digest(payload));
+    }
+
+    private byte[] digest(byte[] payload) {
+        // doFinal repõe o Mac, pronto para a assinatura seguinte na mesma thread
+        return mac.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac m = Mac.getInstance(WebhookCryptoUtil.HMAC_ALGORITHM);
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Erro crítico de configuração criptográfica no sistema", e);
+        }
+    }
+}
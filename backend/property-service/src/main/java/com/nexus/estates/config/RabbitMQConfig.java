@@ -0,0 +1,93 @@
+package com.nexus.estates.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração de RabbitMQ do property-service.
+ *
+ * <p>Declara a exchange de eventos de propriedades (partilhada com o sync-service) e expõe
+ * um {@link RabbitTemplate} com conversor JSON. As filas dos outros serviços são declaradas
+ * pelos próprios consumidores; cada instância do property-service tem apenas uma fila
+ * anónima própria onde recebe {@code property.pricing.changed}, para invalidar o seu
+ * calendário de preços local.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    @Value("${property.events.exchange:property.exchange}")
+    private String propertyExchangeName;
+
+    @Value("${property.events.routing-key.pricing-changed:property.pricing.changed}")
+    private String pricingChangedRoutingKey;
+
+    /**
+     * Exchange de tópicos para os eventos de propriedades.
+     *
+     * @return instância configurada de {@link TopicExchange}.
+     */
+    @Bean
+    public TopicExchange propertyExchange() {
+        return new TopicExchange(propertyExchangeName);
+    }
+
+    /**
+     * Fila exclusiva e auto-removível desta instância para os eventos de alteração de preços.
+     *
+     * @return fila anónima.
+     */
+    @Bean
+    public Queue propertyPricingChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Liga a fila desta instância à exchange de propriedades.
+     *
+     * @param propertyPricingChangedQueue fila anónima desta instância.
+     * @param propertyExchange            exchange de eventos de propriedades.
+     * @return binding configurado.
+     */
+    @Bean
+    public Binding propertyPricingChangedBinding(Queue propertyPricingChangedQueue, TopicExchange propertyExchange) {
+        return BindingBuilder.bind(propertyPricingChangedQueue).to(propertyExchange).with(pricingChangedRoutingKey);
+    }
+
+    /**
+     * Conversor de mensagens baseado em Jackson para serialização JSON.
+     *
+     * @return conversor a ser utilizado pelo {@link RabbitTemplate}.
+     */
+    @Bean
+    public MessageConverter jacksonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    /**
+     * {@link RabbitTemplate} partilhado, já configurado com o conversor JSON.
+     *
+     * @param connectionFactory       fábrica de conexões AMQP.
+     * @param jacksonMessageConverter conversor de mensagens JSON.
+     * @return instância configurada de {@link RabbitTemplate}.
+     */
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         MessageConverter jacksonMessageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(jacksonMessageConverter);
+        return template;
+    }
+}
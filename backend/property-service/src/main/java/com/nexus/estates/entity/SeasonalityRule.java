@@ -1,6 +1,7 @@
 package com.nexus.estates.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nexus.estates.service.SeasonalityRulePriceListener;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -28,6 +29,7 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "seasonality_rules")
+@EntityListeners(SeasonalityRulePriceListener.class)
 @Getter
 @Setter
 @Schema(description = "Regra de precificação dinâmica baseada em sazonalidade ou outros fatores")
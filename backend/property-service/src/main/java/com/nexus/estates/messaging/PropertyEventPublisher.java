@@ -0,0 +1,110 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Publica no RabbitMQ os eventos de domínio do property-service.
+ *
+ * <p>O evento {@link PropertyPricingChangedMessage} é emitido sempre que muda algo que
+ * afeta a cotação de uma propriedade, permitindo ao booking-service invalidar as cotações
+ * que mantém em cache.</p>
+ *
+ * <p>Quando existe uma transação ativa, a publicação é adiada para depois do commit, para
+ * que os consumidores nunca recalculem a cotação sobre dados ainda não visíveis (ou que
+ * acabem por sofrer rollback). A publicação é <i>best-effort</i>: uma falha do broker é
+ * apenas registada, já que a cache do consumidor expira por TTL.</p>
+ *
+ * <p>Cada mensagem leva no cabeçalho {@link #ORIGIN_HEADER} o identificador desta instância,
+ * para que o {@link PropertyPricingConsumer} local ignore os eventos que ela própria emitiu.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class PropertyEventPublisher {
+
+    /** Alteração do preço base, capacidade ou estado da propriedade. */
+    public static final String PRICE = "PRICE";
+    /** Alteração das regras operacionais ou das sobreposições de regras. */
+    public static final String RULES = "RULES";
+    /** Alteração das regras de sazonalidade. */
+    public static final String SEASONALITY = "SEASONALITY";
+    /** Remoção da propriedade. */
+    public static final String DELETED = "DELETED";
+
+    /** Cabeçalho AMQP com o identificador da instância que publicou o evento. */
+    public static final String ORIGIN_HEADER = "x-origin-instance";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String propertyExchangeName;
+    private final String pricingChangedRoutingKey;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * @param rabbitTemplate           cliente AMQP configurado com conversor JSON.
+     * @param propertyExchangeName     exchange de eventos de propriedades.
+     * @param pricingChangedRoutingKey routing key do evento {@code property.pricing.changed}.
+     */
+    public PropertyEventPublisher(RabbitTemplate rabbitTemplate,
+                                  @Value("${property.events.exchange:property.exchange}") String propertyExchangeName,
+                                  @Value("${property.events.routing-key.pricing-changed:property.pricing.changed}") String pricingChangedRoutingKey) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.propertyExchangeName = propertyExchangeName;
+        this.pricingChangedRoutingKey = pricingChangedRoutingKey;
+    }
+
+    /**
+     * Anuncia que a cotação de uma propriedade pode ter mudado.
+     *
+     * @param propertyId propriedade alterada.
+     * @param changeType tipo de alteração ({@link #PRICE}, {@link #RULES}, {@link #SEASONALITY} ou {@link #DELETED}).
+     */
+    public void publishPricingChanged(Long propertyId, String changeType) {
+        if (propertyId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(propertyId, changeType);
+                }
+            });
+        } else {
+            send(propertyId, changeType);
+        }
+    }
+
+    /**
+     * @param origin valor do cabeçalho {@link #ORIGIN_HEADER} de uma mensagem recebida.
+     * @return {@code true} se a mensagem foi publicada por esta instância.
+     */
+    public boolean isOwn(String origin) {
+        return instanceId.equals(origin);
+    }
+
+    private void send(Long propertyId, String changeType) {
+        try {
+            rabbitTemplate.convertAndSend(propertyExchangeName, pricingChangedRoutingKey,
+                    new PropertyPricingChangedMessage(propertyId, changeType, Instant.now()),
+                    message -> {
+                        message.getMessageProperties().setHeader(ORIGIN_HEADER, instanceId);
+                        return message;
+                    });
+        } catch (AmqpException e) {
+            log.warn("Falha ao publicar alteração de preços da propriedade {} ({}): {}",
+                    propertyId, changeType, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import com.nexus.estates.service.PriceCalendarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor dos eventos {@code property.pricing.changed} publicados pelas outras instâncias.
+ * <p>
+ * Cada evento descarta os calendários da propriedade no {@link PriceCalendarService} local,
+ * que são reconstruídos no próximo pedido. Os eventos da própria instância são ignorados: o
+ * calendário local já foi atualizado depois do commit que os originou.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PropertyPricingConsumer {
+
+    private final PriceCalendarService priceCalendarService;
+    private final PropertyEventPublisher publisher;
+
+    /**
+     * Invalida os calendários de preços da propriedade indicada no evento.
+     *
+     * @param msg    evento de alteração de preços.
+     * @param origin instância que publicou o evento (cabeçalho {@link PropertyEventPublisher#ORIGIN_HEADER}).
+     */
+    @RabbitListener(queues = "#{propertyPricingChangedQueue.name}")
+    public void handlePricingChanged(PropertyPricingChangedMessage msg,
+                                     @Header(name = PropertyEventPublisher.ORIGIN_HEADER, required = false) String origin) {
+        if (msg == null || msg.propertyId() == null || publisher.isOwn(origin)) {
+            return;
+        }
+        log.debug("Preços da propriedade {} alterados noutra instância ({}); a descartar calendários",
+                msg.propertyId(), msg.changeType());
+        priceCalendarService.evictNow(msg.propertyId());
+    }
+}
@@ -0,0 +1,401 @@
+package com.nexus.estates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexus.estates.entity.Property;
+import com.nexus.estates.entity.SeasonalityRule;
+import com.nexus.estates.exception.PropertyNotFoundException;
+import com.nexus.estates.repository.PropertyRepository;
+import com.nexus.estates.repository.SeasonalityRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calendário de preços por noite, pré-calculado por propriedade e canal.
+ *
+ * <p>Para cada combinação (propriedade, canal) mantém em memória o preço de cada noite dos
+ * próximos {@code property.price-calendar.horizon-days} dias, já com a regra de sazonalidade
+ * vencedora aplicada, e o respetivo array de somas prefixas. O preço de uma estadia passa a
+ * ser {@code prefix[checkOut] - prefix[checkIn]}, em O(1), em vez de filtrar todas as regras
+ * para cada noite.</p>
+ *
+ * <p><b>Precisão:</b> os preços são guardados como inteiros em unidades de {@code 10^-4}
+ * (preço base com 2 casas × modificador com 2 casas), pelo que as somas são exatas e
+ * iguais às do cálculo com {@link BigDecimal}.</p>
+ *
+ * <p><b>Atualização incremental:</b></p>
+ * <ul>
+ *   <li>alteração do preço base — os preços são recalculados a partir dos modificadores já
+ *       conhecidos, sem nova consulta à base de dados;</li>
+ *   <li>criação/remoção de uma {@link SeasonalityRule} — apenas as noites do intervalo da
+ *       regra são recalculadas, e as somas prefixas a partir da primeira noite afetada;</li>
+ *   <li>qualquer outra alteração — o calendário da propriedade é descartado e reconstruído
+ *       no próximo pedido.</li>
+ * </ul>
+ * <p>Todas as atualizações são aplicadas depois do commit da transação que as origina.
+ * Cada calendário é imutável e substituído atomicamente, pelo que as leituras não bloqueiam.
+ * As restantes instâncias descartam os seus calendários ao receber o evento
+ * {@code property.pricing.changed} e, como salvaguarda, cada calendário expira ao fim de
+ * {@code property.price-calendar.ttl}.</p>
+ *
+ * <p>Pedidos fora da janela (datas passadas ou além do horizonte) devolvem vazio e o
+ * chamador recorre ao cálculo regra-a-regra.</p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class PriceCalendarService {
+
+    /** Casas decimais das unidades inteiras guardadas no calendário. */
+    static final int SCALE = 4;
+
+    private final PropertyRepository propertyRepository;
+    private final SeasonalityRuleRepository seasonalityRuleRepository;
+    private final int horizonDays;
+    private final Cache<CalendarKey, NightlyPriceCalendar> calendars;
+
+    /**
+     * Incrementado por cada invalidação ou atualização. Um calendário só é guardado se a
+     * geração não mudou durante a sua construção.
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final Object writeLock = new Object();
+
+    /**
+     * @param propertyRepository        repositório usado para obter o preço base.
+     * @param seasonalityRuleRepository repositório das regras de sazonalidade.
+     * @param horizonDays               número de noites pré-calculadas a partir de hoje ({@code 0} desativa o calendário).
+     * @param maxCalendars              número máximo de calendários (propriedade × canal) mantidos em memória.
+     * @param ttl                       tempo máximo de vida de cada calendário, desde a sua construção ou última atualização.
+     */
+    public PriceCalendarService(PropertyRepository propertyRepository,
+                                SeasonalityRuleRepository seasonalityRuleRepository,
+                                @Value("${property.price-calendar.horizon-days:540}") int horizonDays,
+                                @Value("${property.price-calendar.max-calendars:5000}") long maxCalendars,
+                                @Value("${property.price-calendar.ttl:10m}") Duration ttl) {
+        this.propertyRepository = propertyRepository;
+        this.seasonalityRuleRepository = seasonalityRuleRepository;
+        this.horizonDays = horizonDays;
+        this.calendars = Caffeine.newBuilder()
+                .maximumSize(maxCalendars)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Calcula o preço total de uma estadia a partir do calendário pré-calculado.
+     *
+     * @param propertyId   propriedade a cotar.
+     * @param checkInDate  primeira noite (inclusiva).
+     * @param checkOutDate dia de saída (exclusivo).
+     * @param channel      canal de venda (opcional).
+     * @return preço total, ou vazio se o intervalo estiver fora da janela do calendário.
+     * @throws PropertyNotFoundException se a propriedade não existir.
+     */
+    public Optional<BigDecimal> totalPrice(Long propertyId, LocalDate checkInDate, LocalDate checkOutDate, String channel) {
+        if (horizonDays <= 0 || !checkInDate.isBefore(checkOutDate)) {
+            return Optional.empty();
+        }
+        LocalDate today = LocalDate.now();
+        if (checkInDate.isBefore(today) || checkOutDate.isAfter(today.plusDays(horizonDays))) {
+            return Optional.empty();
+        }
+        NightlyPriceCalendar calendar = calendar(new CalendarKey(propertyId, normalize(channel)), today);
+        if (calendar == null) {
+            return Optional.empty();
+        }
+        return Optional.of(calendar.sum(checkInDate, checkOutDate));
+    }
+
+    /**
+     * Reflete uma alteração do preço base em todos os calendários da propriedade.
+     *
+     * @param propertyId propriedade alterada.
+     * @param basePrice  novo preço base por noite.
+     */
+    public void basePriceChanged(Long propertyId, BigDecimal basePrice) {
+        afterCommit(() -> forEachCalendar(propertyId, (key, calendar) -> calendar.withBasePrice(basePrice)));
+    }
+
+    /**
+     * Recalcula as noites de um intervalo em todos os calendários da propriedade, após a
+     * criação ou remoção de uma regra de sazonalidade nesse intervalo.
+     *
+     * <p>As regras são lidas uma única vez, para o intervalo limitado às janelas dos calendários
+     * existentes, antes de tomar o {@link #writeLock}: dentro dele só corre a troca em memória dos
+     * modificadores. Um calendário publicado entretanto que precise de noites fora do intervalo
+     * lido é descartado e reconstruído no próximo pedido.</p>
+     *
+     * @param propertyId propriedade alterada.
+     * @param from       primeira data afetada (inclusiva).
+     * @param to         última data afetada (inclusiva).
+     */
+    public void rulesChanged(Long propertyId, LocalDate from, LocalDate to) {
+        afterCommit(() -> {
+            LocalDate firstNight = null;
+            LocalDate lastNight = null;
+            for (Map.Entry<CalendarKey, NightlyPriceCalendar> entry : calendars.asMap().entrySet()) {
+                if (entry.getKey().propertyId().equals(propertyId)) {
+                    NightlyPriceCalendar calendar = entry.getValue();
+                    firstNight = firstNight == null || calendar.start().isBefore(firstNight) ? calendar.start() : firstNight;
+                    lastNight = lastNight == null || calendar.lastNight().isAfter(lastNight) ? calendar.lastNight() : lastNight;
+                }
+            }
+            LocalDate loadedFrom = firstNight != null && firstNight.isAfter(from) ? firstNight : from;
+            LocalDate loadedTo = lastNight != null && lastNight.isBefore(to) ? lastNight : to;
+            boolean loaded = firstNight != null && !loadedFrom.isAfter(loadedTo);
+            List<SeasonalityRule> rules = loaded
+                    ? seasonalityRuleRepository.findByPropertyIdAndDateRange(propertyId, loadedFrom, loadedTo)
+                    : List.of();
+
+            forEachCalendar(propertyId, (key, calendar) -> {
+                LocalDate start = from.isBefore(calendar.start()) ? calendar.start() : from;
+                LocalDate end = to.isAfter(calendar.lastNight()) ? calendar.lastNight() : to;
+                if (start.isAfter(end)) {
+                    return calendar;
+                }
+                if (!loaded || start.isBefore(loadedFrom) || end.isAfter(loadedTo)) {
+                    return null;
+                }
+                return calendar.withModifiers(start, resolveModifiers(rules, start, end, key.channel()));
+            });
+        });
+    }
+
+    /**
+     * Descarta todos os calendários de uma propriedade; o próximo pedido reconstrói-os.
+     *
+     * @param propertyId propriedade a invalidar.
+     */
+    public void evict(Long propertyId) {
+        afterCommit(() -> evictNow(propertyId));
+    }
+
+    /**
+     * Descarta de imediato os calendários de uma propriedade, sem esperar por nenhuma transação.
+     * Usado quando a alteração foi confirmada noutra instância.
+     *
+     * @param propertyId propriedade a invalidar.
+     */
+    public void evictNow(Long propertyId) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            calendars.asMap().keySet().removeIf(key -> key.propertyId().equals(propertyId));
+        }
+    }
+
+    /**
+     * Prioridade de uma regra de sazonalidade: regras de canal prevalecem sobre regras de
+     * dia da semana, que prevalecem sobre regras apenas de datas.
+     */
+    static int rulePriority(SeasonalityRule rule) {
+        int priority = 0;
+        if (rule.getChannel() != null && !rule.getChannel().isEmpty()) {
+            priority += 100;
+        }
+        if (rule.getDayOfWeek() != null) {
+            priority += 50;
+        }
+        return priority;
+    }
+
+    /**
+     * Devolve o calendário da chave, construindo-o se não existir ou se já não começar hoje.
+     *
+     * <p>A construção corre fora de qualquer lock; o resultado só é publicado se nenhuma
+     * invalidação ou atualização tiver ocorrido entretanto (ver {@link #generation}). Caso
+     * contrário é devolvido apenas a este pedido, para que um calendário construído com dados
+     * antigos não sobreponha a alteração.</p>
+     */
+    private NightlyPriceCalendar calendar(CalendarKey key, LocalDate today) {
+        NightlyPriceCalendar calendar = calendars.getIfPresent(key);
+        if (calendar != null && calendar.start().equals(today)) {
+            return calendar;
+        }
+        long observed = generation.get();
+        calendar = build(key, today);
+        if (calendar != null) {
+            synchronized (writeLock) {
+                if (generation.get() == observed) {
+                    calendars.put(key, calendar);
+                }
+            }
+        }
+        return calendar;
+    }
+
+    private NightlyPriceCalendar build(CalendarKey key, LocalDate start) {
+        Property property = propertyRepository.findById(key.propertyId())
+                .orElseThrow(() -> new PropertyNotFoundException(key.propertyId()));
+        LocalDate end = start.plusDays(horizonDays - 1L);
+        List<SeasonalityRule> rules = seasonalityRuleRepository.findByPropertyIdAndDateRange(key.propertyId(), start, end);
+        try {
+            NightlyPriceCalendar calendar = NightlyPriceCalendar.of(start, property.getBasePrice(),
+                    resolveModifiers(rules, start, end, key.channel()));
+            log.debug("Calendário de preços construído para propriedade {} (canal {}, {} regras, {} noites)",
+                    key.propertyId(), key.channel(), rules.size(), horizonDays);
+            return calendar;
+        } catch (ArithmeticException e) {
+            log.warn("Preços da propriedade {} não representáveis no calendário; a usar cálculo por regras: {}",
+                    key.propertyId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolve o modificador vencedor de cada noite de {@code [from, to]}.
+     *
+     * <p>Percorre cada regra uma única vez, apenas nas noites que cobre. Em caso de empate de
+     * prioridade prevalece a primeira regra da lista, tal como no cálculo regra-a-regra.</p>
+     */
+    private BigDecimal[] resolveModifiers(List<SeasonalityRule> rules, LocalDate from, LocalDate to, String channel) {
+        int nights = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BigDecimal[] modifiers = new BigDecimal[nights];
+        int[] priorities = new int[nights];
+        Arrays.fill(modifiers, BigDecimal.ONE);
+        Arrays.fill(priorities, -1);
+        for (SeasonalityRule rule : rules) {
+            if (rule.getChannel() != null && !rule.getChannel().equalsIgnoreCase(channel)) {
+                continue;
+            }
+            int priority = rulePriority(rule);
+            LocalDate first = rule.getStartDate().isBefore(from) ? from : rule.getStartDate();
+            LocalDate last = rule.getEndDate().isAfter(to) ? to : rule.getEndDate();
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                if (rule.getDayOfWeek() != null && rule.getDayOfWeek() != date.getDayOfWeek()) {
+                    continue;
+                }
+                int index = (int) ChronoUnit.DAYS.between(from, date);
+                if (priority > priorities[index]) {
+                    priorities[index] = priority;
+                    modifiers[index] = rule.getPriceModifier();
+                }
+            }
+        }
+        return modifiers;
+    }
+
+    private void forEachCalendar(Long propertyId, CalendarUpdate update) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            for (CalendarKey key : List.copyOf(calendars.asMap().keySet())) {
+                if (!key.propertyId().equals(propertyId)) {
+                    continue;
+                }
+                calendars.asMap().computeIfPresent(key, (k, calendar) -> {
+                    try {
+                        return update.apply(k, calendar);
+                    } catch (ArithmeticException e) {
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String channel) {
+        return channel == null ? null : channel.toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface CalendarUpdate {
+        NightlyPriceCalendar apply(CalendarKey key, NightlyPriceCalendar calendar);
+    }
+
+    /**
+     * Chave do calendário: o canal é guardado em minúsculas, já que a correspondência com as
+     * regras ignora maiúsculas/minúsculas.
+     */
+    record CalendarKey(Long propertyId, String channel) {}
+
+    /**
+     * Snapshot imutável dos preços por noite a partir de {@code start}.
+     *
+     * <p>{@code prefix[i]} é a soma das noites {@code [0, i)}, em unidades de {@code 10^-4}.</p>
+     */
+    static final class NightlyPriceCalendar {
+
+        private final LocalDate start;
+        private final BigDecimal basePrice;
+        private final BigDecimal[] modifiers;
+        private final long[] prefix;
+
+        private NightlyPriceCalendar(LocalDate start, BigDecimal basePrice, BigDecimal[] modifiers, long[] prefix) {
+            this.start = start;
+            this.basePrice = basePrice;
+            this.modifiers = modifiers;
+            this.prefix = prefix;
+        }
+
+        static NightlyPriceCalendar of(LocalDate start, BigDecimal basePrice, BigDecimal[] modifiers) {
+            long[] prefix = new long[modifiers.length + 1];
+            fillPrefix(prefix, basePrice, modifiers, 0);
+            return new NightlyPriceCalendar(start, basePrice, modifiers, prefix);
+        }
+
+        LocalDate start() {
+            return start;
+        }
+
+        LocalDate lastNight() {
+            return start.plusDays(modifiers.length - 1L);
+        }
+
+        BigDecimal sum(LocalDate checkIn, LocalDate checkOut) {
+            int from = (int) ChronoUnit.DAYS.between(start, checkIn);
+            int to = (int) ChronoUnit.DAYS.between(start, checkOut);
+            BigDecimal total = BigDecimal.valueOf(prefix[to] - prefix[from], SCALE).stripTrailingZeros();
+            return total.scale() < 2 ? total.setScale(2, RoundingMode.UNNECESSARY) : total;
+        }
+
+        NightlyPriceCalendar withBasePrice(BigDecimal newBasePrice) {
+            return of(start, newBasePrice, modifiers);
+        }
+
+        NightlyPriceCalendar withModifiers(LocalDate from, BigDecimal[] replacement) {
+            int offset = (int) ChronoUnit.DAYS.between(start, from);
+            BigDecimal[] updated = modifiers.clone();
+            System.arraycopy(replacement, 0, updated, offset, replacement.length);
+            long[] updatedPrefix = prefix.clone();
+            fillPrefix(updatedPrefix, basePrice, updated, offset);
+            return new NightlyPriceCalendar(start, basePrice, updated, updatedPrefix);
+        }
+
+        private static void fillPrefix(long[] prefix, BigDecimal basePrice, BigDecimal[] modifiers, int from) {
+            for (int i = from; i < modifiers.length; i++) {
+                long night = basePrice.multiply(modifiers[i]).setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+                prefix[i + 1] = Math.addExact(prefix[i], night);
+            }
+        }
+    }
+}
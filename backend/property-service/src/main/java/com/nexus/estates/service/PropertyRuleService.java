@@ -3,6 +3,7 @@ package com.nexus.estates.service;
 import com.nexus.estates.common.dto.PropertyRuleDTO;
 import com.nexus.estates.entity.Property;
 import com.nexus.estates.entity.PropertyRule;
+import com.nexus.estates.messaging.PropertyEventPublisher;
 import com.nexus.estates.repository.PropertyRepository;
 import com.nexus.estates.repository.PropertyRuleRepository;
 import org.springframework.stereotype.Service;
@@ -23,10 +24,14 @@ public class PropertyRuleService {
 
     private final PropertyRepository propertyRepository;
     private final PropertyRuleRepository ruleRepository;
+    private final PropertyEventPublisher eventPublisher;
 
-    public PropertyRuleService(PropertyRepository propertyRepository, PropertyRuleRepository ruleRepository) {
+    public PropertyRuleService(PropertyRepository propertyRepository,
+                               PropertyRuleRepository ruleRepository,
+                               PropertyEventPublisher eventPublisher) {
         this.propertyRepository = propertyRepository;
         this.ruleRepository = ruleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -71,6 +76,8 @@ public class PropertyRuleService {
      * <p>
      * Se a propriedade ainda não tiver regras, uma nova entidade {@link PropertyRule}
      * será criada e associada. Caso contrário, os valores existentes serão atualizados.
+     * Após o commit é publicado um {@code property.pricing.changed}, invalidando as cotações
+     * em cache no booking-service.
      * </p>
      *
      * @param propertyId O ID da propriedade a ser atualizada.
@@ -97,6 +104,7 @@ public class PropertyRuleService {
         rule.setBookingLeadTimeDays(dto.bookingLeadTimeDays());
 
         PropertyRule savedRule = ruleRepository.save(rule);
+        eventPublisher.publishPricingChanged(propertyId, PropertyEventPublisher.RULES);
 
         return new PropertyRuleDTO(
                 savedRule.getCheckInTime(),
@@ -17,6 +17,7 @@ import com.nexus.estates.entity.RuleOverride;
 import com.nexus.estates.entity.SeasonalityRule;
 import com.nexus.estates.exception.AmenityNotFoundException;
 import com.nexus.estates.exception.PropertyNotFoundException;
+import com.nexus.estates.messaging.PropertyEventPublisher;
 import com.nexus.estates.repository.AmenityRepository;
 import com.nexus.estates.repository.PermissionRepository;
 import com.nexus.estates.repository.PropertyChangeLogRepository;
@@ -64,6 +65,8 @@ public class PropertyService {
     private final PermissionRepository permissionRepository;
     private final PropertyChangeLogRepository changeLogRepository;
     private final RuleOverrideRepository ruleOverrideRepository;
+    private final PropertyEventPublisher eventPublisher;
+    private final PriceCalendarService priceCalendar;
 
     /**
      * Construtor do serviço.
@@ -74,7 +77,9 @@ public class PropertyService {
                            PropertyRuleRepository propertyRuleRepository,
                            PermissionRepository permissionRepository,
                            PropertyChangeLogRepository changeLogRepository,
-                           RuleOverrideRepository ruleOverrideRepository) {
+                           RuleOverrideRepository ruleOverrideRepository,
+                           PropertyEventPublisher eventPublisher,
+                           PriceCalendarService priceCalendar) {
         this.repository = repository;
         this.amenityRepository = amenityRepository;
         this.seasonalityRuleRepository = seasonalityRuleRepository;
@@ -82,6 +87,8 @@ public class PropertyService {
         this.permissionRepository = permissionRepository;
         this.changeLogRepository = changeLogRepository;
         this.ruleOverrideRepository = ruleOverrideRepository;
+        this.eventPublisher = eventPublisher;
+        this.priceCalendar = priceCalendar;
     }
 
     /**
@@ -203,7 +210,9 @@ public class PropertyService {
                 .allowedCheckOutDays(dto.allowedCheckOutDays())
                 .build();
         
-        return ruleOverrideRepository.save(override);
+        RuleOverride saved = ruleOverrideRepository.save(override);
+        eventPublisher.publishPricingChanged(propertyId, PropertyEventPublisher.RULES);
+        return saved;
     }
 
     /**
@@ -226,7 +235,10 @@ public class PropertyService {
      */
     @Transactional
     public void deleteOverride(Long overrideId) {
-        ruleOverrideRepository.deleteById(overrideId);
+        ruleOverrideRepository.findById(overrideId).ifPresent(override -> {
+            ruleOverrideRepository.delete(override);
+            eventPublisher.publishPricingChanged(override.getProperty().getId(), PropertyEventPublisher.RULES);
+        });
     }
 
     /**
@@ -340,6 +352,8 @@ public class PropertyService {
     public Property updateProperty(Long id, UpdatePropertyRequest req, Long actorUserId) {
         Long effectiveActorUserId = resolveActorUserId(actorUserId);
         Property p = findById(id);
+        // Preço base e capacidade entram na cotação; as restantes alterações não a afetam.
+        boolean pricingChanged = false;
         if (req.title() != null) {
             if (req.title().length() < 3) {
                 throw new IllegalArgumentException("O título deve ter pelo menos 3 caracteres.");
@@ -369,6 +383,8 @@ public class PropertyService {
             }
             recordChange(id, effectiveActorUserId, "UPDATE", "basePrice", p.getBasePrice() == null ? null : p.getBasePrice().toPlainString(), req.basePrice().toPlainString());
             p.setBasePrice(req.basePrice());
+            priceCalendar.basePriceChanged(id, req.basePrice());
+            pricingChanged = true;
         }
         if (req.maxGuests() != null) {
             if (req.maxGuests() < 1) {
@@ -376,6 +392,7 @@ public class PropertyService {
             }
             recordChange(id, effectiveActorUserId, "UPDATE", "maxGuests", p.getMaxGuests() == null ? null : p.getMaxGuests().toString(), req.maxGuests().toString());
             p.setMaxGuests(req.maxGuests());
+            pricingChanged = true;
         }
         if (req.isActive() != null) {
             recordChange(id, effectiveActorUserId, "UPDATE", "isActive", String.valueOf(p.getIsActive()), String.valueOf(req.isActive()));
@@ -385,7 +402,11 @@ public class PropertyService {
             recordChange(id, effectiveActorUserId, "UPDATE", "imageUrl", p.getImageUrl(), req.imageUrl());
             p.setImageUrl(req.imageUrl());
         }
-        return repository.save(p);
+        Property saved = repository.save(p);
+        if (pricingChanged) {
+            eventPublisher.publishPricingChanged(id, PropertyEventPublisher.PRICE);
+        }
+        return saved;
     }
 
     @Transactional
@@ -394,6 +415,8 @@ public class PropertyService {
         Property p = findById(id);
         repository.delete(p);
         recordChange(id, effectiveActorUserId, "DELETE", null, null, null);
+        priceCalendar.evict(id);
+        eventPublisher.publishPricingChanged(id, PropertyEventPublisher.DELETED);
     }
 
     private void recordChange(Long propertyId, Long userId, String action, String field, String oldV, String newV) {
@@ -503,8 +526,21 @@ public class PropertyService {
 
     /**
      * Calcula o preço total de uma estadia para uma propriedade, aplicando regras de sazonalidade.
+     *
+     * <p>Dentro da janela do {@link PriceCalendarService} o total é uma soma de intervalo sobre
+     * preços por noite pré-calculados; fora dela (datas passadas ou muito distantes) recorre
+     * ao cálculo regra-a-regra.</p>
      */
     public BigDecimal calculateTotalPrice(Long propertyId, LocalDate checkInDate, LocalDate checkOutDate, String channel) {
+        return priceCalendar.totalPrice(propertyId, checkInDate, checkOutDate, channel)
+                .orElseGet(() -> calculateTotalPriceByRules(propertyId, checkInDate, checkOutDate, channel));
+    }
+
+    /**
+     * Cálculo regra-a-regra: carrega a propriedade e as regras sobrepostas e escolhe, para
+     * cada noite, a regra aplicável de maior prioridade.
+     */
+    BigDecimal calculateTotalPriceByRules(Long propertyId, LocalDate checkInDate, LocalDate checkOutDate, String channel) {
         Property property = findById(propertyId);
 
         // Busca todas as regras de sazonalidade que se sobrepõem ao período da reserva
@@ -541,14 +577,7 @@ public class PropertyService {
      * Define a prioridade de uma regra de sazonalidade.
      */
     private int getRulePriority(SeasonalityRule rule) {
-        int priority = 0;
-        if (rule.getChannel() != null && !rule.getChannel().isEmpty()) {
-            priority += 100;
-        }
-        if (rule.getDayOfWeek() != null) {
-            priority += 50;
-        }
-        return priority;
+        return PriceCalendarService.rulePriority(rule);
     }
 
 
@@ -0,0 +1,56 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.entity.SeasonalityRule;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA que mantém o {@link PriceCalendarService} sincronizado com as regras de sazonalidade.
+ *
+ * <p>É instanciado pelo Hibernate através do contentor de beans do Spring, pelo que apanha
+ * qualquer escrita de {@link SeasonalityRule}, incluindo as feitas em cascata a partir da
+ * {@link com.nexus.estates.entity.Property}.</p>
+ *
+ * <ul>
+ *   <li>criação/remoção — recalcula apenas as noites do intervalo da regra;</li>
+ *   <li>atualização — o intervalo anterior não é conhecido, pelo que o calendário da
+ *       propriedade é descartado e reconstruído no próximo pedido.</li>
+ * </ul>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Component
+public class SeasonalityRulePriceListener {
+
+    private final ObjectProvider<PriceCalendarService> priceCalendar;
+
+    public SeasonalityRulePriceListener(ObjectProvider<PriceCalendarService> priceCalendar) {
+        this.priceCalendar = priceCalendar;
+    }
+
+    @PostPersist
+    @PostRemove
+    void onCreatedOrRemoved(SeasonalityRule rule) {
+        Long propertyId = propertyId(rule);
+        if (propertyId == null || rule.getStartDate() == null || rule.getEndDate() == null) {
+            return;
+        }
+        priceCalendar.ifAvailable(calendar -> calendar.rulesChanged(propertyId, rule.getStartDate(), rule.getEndDate()));
+    }
+
+    @PostUpdate
+    void onUpdated(SeasonalityRule rule) {
+        Long propertyId = propertyId(rule);
+        if (propertyId != null) {
+            priceCalendar.ifAvailable(calendar -> calendar.evict(propertyId));
+        }
+    }
+
+    private static Long propertyId(SeasonalityRule rule) {
+        return rule.getProperty() == null ? null : rule.getProperty().getId();
+    }
+}
@@ -0,0 +1,89 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyEventPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private PropertyEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new PropertyEventPublisher(rabbitTemplate, "property.exchange", "property.pricing.changed");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldPublishImmediately_WhenNoTransactionIsActive() {
+        publisher.publishPricingChanged(1L, PropertyEventPublisher.PRICE);
+
+        ArgumentCaptor<PropertyPricingChangedMessage> captor = ArgumentCaptor.forClass(PropertyPricingChangedMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("property.exchange"), eq("property.pricing.changed"), captor.capture(), any(MessagePostProcessor.class));
+        assertEquals(1L, captor.getValue().propertyId());
+        assertEquals(PropertyEventPublisher.PRICE, captor.getValue().changeType());
+    }
+
+    @Test
+    void shouldDeferPublication_UntilTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publishPricingChanged(1L, PropertyEventPublisher.RULES);
+        verifyNoInteractions(rabbitTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(rabbitTemplate).convertAndSend(eq("property.exchange"), eq("property.pricing.changed"), any(PropertyPricingChangedMessage.class), any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void shouldSwallowBrokerFailures() {
+        doThrow(new AmqpConnectException(new RuntimeException("down")))
+                .when(rabbitTemplate).convertAndSend(eq("property.exchange"), eq("property.pricing.changed"), any(Object.class), any(MessagePostProcessor.class));
+
+        assertDoesNotThrow(() -> publisher.publishPricingChanged(1L, PropertyEventPublisher.DELETED));
+    }
+
+    @Test
+    void shouldTagMessagesWithOriginInstance() {
+        publisher.publishPricingChanged(1L, PropertyEventPublisher.PRICE);
+
+        ArgumentCaptor<MessagePostProcessor> captor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(eq("property.exchange"), eq("property.pricing.changed"), any(Object.class), captor.capture());
+        Message message = captor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        String origin = message.getMessageProperties().getHeader(PropertyEventPublisher.ORIGIN_HEADER);
+        assertTrue(publisher.isOwn(origin));
+        assertFalse(new PropertyEventPublisher(rabbitTemplate, "property.exchange", "property.pricing.changed").isOwn(origin));
+    }
+}
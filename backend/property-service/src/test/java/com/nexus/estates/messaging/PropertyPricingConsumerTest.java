@@ -0,0 +1,45 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.common.messaging.PropertyPricingChangedMessage;
+import com.nexus.estates.service.PriceCalendarService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyPricingConsumerTest {
+
+    @Mock
+    private PriceCalendarService priceCalendarService;
+    @Mock
+    private PropertyEventPublisher publisher;
+
+    @InjectMocks
+    private PropertyPricingConsumer consumer;
+
+    @Test
+    void shouldEvictCalendars_WhenEventComesFromAnotherInstance() {
+        when(publisher.isOwn("other")).thenReturn(false);
+
+        consumer.handlePricingChanged(new PropertyPricingChangedMessage(1L, PropertyEventPublisher.PRICE, Instant.now()), "other");
+
+        verify(priceCalendarService).evictNow(1L);
+    }
+
+    @Test
+    void shouldIgnoreOwnEvents() {
+        when(publisher.isOwn("self")).thenReturn(true);
+
+        consumer.handlePricingChanged(new PropertyPricingChangedMessage(1L, PropertyEventPublisher.RULES, Instant.now()), "self");
+
+        verifyNoInteractions(priceCalendarService);
+    }
+}
@@ -0,0 +1,176 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.entity.Property;
+import com.nexus.estates.entity.SeasonalityRule;
+import com.nexus.estates.repository.PropertyRepository;
+import com.nexus.estates.repository.SeasonalityRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o {@link PriceCalendarService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class PriceCalendarServiceTest {
+
+    private static final Long PROPERTY_ID = 1L;
+
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private SeasonalityRuleRepository seasonalityRuleRepository;
+
+    private PriceCalendarService priceCalendar;
+    private Property property;
+    private final List<SeasonalityRule> rules = new ArrayList<>();
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        priceCalendar = new PriceCalendarService(propertyRepository, seasonalityRuleRepository, 60, 100, Duration.ofMinutes(10));
+        property = new Property();
+        property.setId(PROPERTY_ID);
+        property.setBasePrice(new BigDecimal("99.99"));
+        lenient().when(propertyRepository.findById(PROPERTY_ID)).thenReturn(Optional.of(property));
+        lenient().when(seasonalityRuleRepository.findByPropertyIdAndDateRange(eq(PROPERTY_ID), any(), any()))
+                .thenAnswer(inv -> {
+                    LocalDate start = inv.getArgument(1);
+                    LocalDate end = inv.getArgument(2);
+                    return rules.stream()
+                            .filter(r -> !r.getStartDate().isAfter(end) && !r.getEndDate().isBefore(start))
+                            .toList();
+                });
+    }
+
+    @Test
+    @DisplayName("Deve produzir o mesmo total que o cálculo regra-a-regra")
+    void totalPrice_ShouldMatchRuleByRuleCalculation() {
+        rules.add(rule(today.plusDays(5), today.plusDays(20), "1.15", null, null));
+        rules.add(rule(today, today.plusDays(59), "1.30", DayOfWeek.SATURDAY, null));
+        rules.add(rule(today.plusDays(10), today.plusDays(12), "0.85", null, "Airbnb"));
+        PropertyService legacy = new PropertyService(propertyRepository, null, seasonalityRuleRepository,
+                null, null, null, null, null, priceCalendar);
+
+        for (String channel : new String[]{null, "airbnb"}) {
+            for (int[] stay : new int[][]{{0, 1}, {3, 10}, {8, 15}, {0, 60}, {59, 60}}) {
+                LocalDate checkIn = today.plusDays(stay[0]);
+                LocalDate checkOut = today.plusDays(stay[1]);
+                BigDecimal expected = legacy.calculateTotalPriceByRules(PROPERTY_ID, checkIn, checkOut, channel);
+                BigDecimal actual = priceCalendar.totalPrice(PROPERTY_ID, checkIn, checkOut, channel).orElseThrow();
+                assertEquals(0, expected.compareTo(actual), "canal " + channel + " estadia " + checkIn + " -> " + checkOut);
+            }
+        }
+        // Um calendário por canal, cada um construído uma única vez
+        verify(propertyRepository, times(2 + 10)).findById(PROPERTY_ID);
+    }
+
+    @Test
+    @DisplayName("Deve recorrer ao cálculo por regras fora da janela do calendário")
+    void totalPrice_ShouldBeEmpty_OutsideHorizon() {
+        assertTrue(priceCalendar.totalPrice(PROPERTY_ID, today.minusDays(1), today.plusDays(2), null).isEmpty());
+        assertTrue(priceCalendar.totalPrice(PROPERTY_ID, today.plusDays(50), today.plusDays(61), null).isEmpty());
+        verifyNoInteractions(propertyRepository);
+    }
+
+    @Test
+    @DisplayName("Alteração do preço base recalcula o calendário sem consultar a base de dados")
+    void basePriceChanged_ShouldRecomputeWithoutReloading() {
+        rules.add(rule(today, today.plusDays(59), "1.50", null, null));
+        assertEquals(new BigDecimal("449.955"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null).orElseThrow());
+
+        priceCalendar.basePriceChanged(PROPERTY_ID, new BigDecimal("200.00"));
+
+        assertEquals(new BigDecimal("900.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null).orElseThrow());
+        verify(propertyRepository, times(1)).findById(PROPERTY_ID);
+        verify(seasonalityRuleRepository, times(1)).findByPropertyIdAndDateRange(eq(PROPERTY_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Nova regra recalcula apenas as noites do seu intervalo")
+    void rulesChanged_ShouldRecomputeOnlyAffectedRange() {
+        property.setBasePrice(new BigDecimal("100.00"));
+        assertEquals(new BigDecimal("1000.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), null).orElseThrow());
+
+        rules.add(rule(today.plusDays(2), today.plusDays(3), "2.00", null, null));
+        priceCalendar.rulesChanged(PROPERTY_ID, today.plusDays(2), today.plusDays(3));
+
+        assertEquals(new BigDecimal("1200.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), null).orElseThrow());
+        verify(seasonalityRuleRepository).findByPropertyIdAndDateRange(PROPERTY_ID, today.plusDays(2), today.plusDays(3));
+        verify(propertyRepository, times(1)).findById(PROPERTY_ID);
+    }
+
+    @Test
+    @DisplayName("Nova regra lê as regras uma única vez para todos os calendários da propriedade")
+    void rulesChanged_ShouldLoadRulesOnceForAllChannels() {
+        property.setBasePrice(new BigDecimal("100.00"));
+        priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), null).orElseThrow();
+        priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), "airbnb").orElseThrow();
+
+        rules.add(rule(today.plusDays(2), today.plusDays(3), "2.00", null, null));
+        priceCalendar.rulesChanged(PROPERTY_ID, today.plusDays(2), today.plusDays(3));
+
+        assertEquals(new BigDecimal("1200.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), null).orElseThrow());
+        assertEquals(new BigDecimal("1200.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(10), "airbnb").orElseThrow());
+        verify(seasonalityRuleRepository, times(1)).findByPropertyIdAndDateRange(PROPERTY_ID, today.plusDays(2), today.plusDays(3));
+    }
+
+    @Test
+    @DisplayName("Invalidação durante a construção impede que o calendário antigo fique em cache")
+    void evictNow_DuringBuild_ShouldDiscardStaleCalendar() {
+        Property snapshot = new Property();
+        snapshot.setId(PROPERTY_ID);
+        snapshot.setBasePrice(new BigDecimal("100.00"));
+        when(propertyRepository.findById(PROPERTY_ID))
+                .thenAnswer(inv -> {
+                    // outra instância confirma um novo preço enquanto este calendário é construído
+                    property.setBasePrice(new BigDecimal("200.00"));
+                    priceCalendar.evictNow(PROPERTY_ID);
+                    return Optional.of(snapshot);
+                })
+                .thenAnswer(inv -> Optional.of(property));
+
+        assertEquals(new BigDecimal("300.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null).orElseThrow());
+        assertEquals(new BigDecimal("600.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null).orElseThrow());
+        assertEquals(new BigDecimal("600.00"), priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null).orElseThrow());
+        verify(propertyRepository, times(2)).findById(PROPERTY_ID);
+    }
+
+    @Test
+    @DisplayName("Calendários expiram ao fim do TTL configurado")
+    void totalPrice_ShouldRebuildAfterTtl() {
+        priceCalendar = new PriceCalendarService(propertyRepository, seasonalityRuleRepository, 60, 100, Duration.ZERO);
+
+        priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null);
+        priceCalendar.totalPrice(PROPERTY_ID, today, today.plusDays(3), null);
+
+        verify(propertyRepository, times(2)).findById(PROPERTY_ID);
+    }
+
+    private SeasonalityRule rule(LocalDate start, LocalDate end, String modifier, DayOfWeek dayOfWeek, String channel) {
+        SeasonalityRule rule = new SeasonalityRule();
+        rule.setProperty(property);
+        rule.setStartDate(start);
+        rule.setEndDate(end);
+        rule.setPriceModifier(new BigDecimal(modifier));
+        rule.setDayOfWeek(dayOfWeek);
+        rule.setChannel(channel);
+        return rule;
+    }
+}
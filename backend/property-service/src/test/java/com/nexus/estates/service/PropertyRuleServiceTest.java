@@ -4,6 +4,7 @@ import com.nexus.estates.common.dto.PropertyRuleDTO;
 import com.nexus.estates.entity.Property;
 import com.nexus.estates.entity.PropertyRule;
 import com.nexus.estates.exception.PropertyNotFoundException;
+import com.nexus.estates.messaging.PropertyEventPublisher;
 import com.nexus.estates.repository.PropertyRepository;
 import com.nexus.estates.repository.PropertyRuleRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +29,9 @@ class PropertyRuleServiceTest {
     @Mock
     private PropertyRuleRepository ruleRepository;
 
+    @Mock
+    private PropertyEventPublisher eventPublisher;
+
     private PropertyRuleService propertyRuleService;
 
     private Property property;
@@ -35,7 +39,7 @@ class PropertyRuleServiceTest {
 
     @BeforeEach
     void setUp() {
-        propertyRuleService = new PropertyRuleService(propertyRepository, ruleRepository);
+        propertyRuleService = new PropertyRuleService(propertyRepository, ruleRepository, eventPublisher);
         property = new Property();
         property.setId(1L);
 
@@ -100,6 +104,7 @@ class PropertyRuleServiceTest {
         assertEquals(5, result.minNights());
         assertEquals(7, result.bookingLeadTimeDays());
         verify(ruleRepository).save(any(PropertyRule.class));
+        verify(eventPublisher).publishPricingChanged(1L, PropertyEventPublisher.RULES);
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.nexus.estates.service;
 
 import com.nexus.estates.dto.UpdatePropertyRequest;
 import com.nexus.estates.entity.Property;
+import com.nexus.estates.messaging.PropertyEventPublisher;
 import com.nexus.estates.repository.AmenityRepository;
 import com.nexus.estates.repository.PermissionRepository;
 import com.nexus.estates.repository.PropertyChangeLogRepository;
@@ -28,6 +29,8 @@ class PropertyServiceNewTest {
     private PermissionRepository permissionRepository;
     private PropertyChangeLogRepository changeLogRepository;
     private RuleOverrideRepository ruleOverrideRepository;
+    private PropertyEventPublisher eventPublisher;
+    private PriceCalendarService priceCalendar;
     private PropertyService service;
 
     @BeforeEach
@@ -39,6 +42,8 @@ class PropertyServiceNewTest {
         permissionRepository = mock(PermissionRepository.class);
         changeLogRepository = mock(PropertyChangeLogRepository.class);
         ruleOverrideRepository = mock(RuleOverrideRepository.class);
+        eventPublisher = mock(PropertyEventPublisher.class);
+        priceCalendar = mock(PriceCalendarService.class);
         service = new PropertyService(
                 propertyRepository,
                 amenityRepository,
@@ -46,7 +51,9 @@ class PropertyServiceNewTest {
                 ruleRepository,
                 permissionRepository,
                 changeLogRepository,
-                ruleOverrideRepository
+                ruleOverrideRepository,
+                eventPublisher,
+                priceCalendar
         );
     }
 
@@ -76,5 +83,19 @@ class PropertyServiceNewTest {
         assertEquals(2, updated.getMaxGuests());
         assertTrue(updated.getIsActive());
         verify(changeLogRepository, atLeastOnce()).save(any());
+        verify(eventPublisher).publishPricingChanged(1L, PropertyEventPublisher.PRICE);
+        verify(priceCalendar).basePriceChanged(1L, new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("Alterações que não afetam a cotação não publicam evento de preços")
+    void cosmeticUpdateDoesNotPublish() {
+        Property p = new Property();
+        p.setId(1L);
+        p.setName("Casa");
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(p));
+        when(propertyRepository.save(any(Property.class))).thenAnswer(inv -> inv.getArgument(0));
+        service.updateProperty(1L, new UpdatePropertyRequest("Nova", null, null, "Porto", null, null, null, null, null), 10L);
+        verifyNoInteractions(eventPublisher);
     }
 }
\ No newline at end of file
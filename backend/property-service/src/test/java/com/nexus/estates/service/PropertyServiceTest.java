@@ -8,6 +8,7 @@ import com.nexus.estates.entity.Property;
 import com.nexus.estates.entity.PropertyRule;
 import com.nexus.estates.entity.RuleOverride;
 import com.nexus.estates.entity.SeasonalityRule;
+import com.nexus.estates.messaging.PropertyEventPublisher;
 import com.nexus.estates.repository.AmenityRepository;
 import com.nexus.estates.repository.PermissionRepository;
 import com.nexus.estates.repository.PropertyChangeLogRepository;
@@ -52,6 +53,10 @@ class PropertyServiceTest {
     private PropertyChangeLogRepository changeLogRepository;
     @Mock
     private RuleOverrideRepository ruleOverrideRepository;
+    @Mock
+    private PropertyEventPublisher eventPublisher;
+    @Mock
+    private PriceCalendarService priceCalendar;
 
     @InjectMocks
     private PropertyService service;
@@ -163,6 +168,19 @@ class PropertyServiceTest {
         assertNotNull(result);
         assertEquals(7, result.getMinNightsOverride());
         verify(ruleOverrideRepository).save(any());
+        verify(eventPublisher).publishPricingChanged(1L, PropertyEventPublisher.RULES);
+    }
+
+    @Test
+    @DisplayName("Deve remover um RuleOverride e anunciar a alteração de regras da propriedade")
+    void deleteOverride_ShouldPublishPricingChanged() {
+        RuleOverride override = RuleOverride.builder().id(5L).property(savedProperty).build();
+        when(ruleOverrideRepository.findById(5L)).thenReturn(Optional.of(override));
+
+        service.deleteOverride(5L);
+
+        verify(ruleOverrideRepository).delete(override);
+        verify(eventPublisher).publishPricingChanged(1L, PropertyEventPublisher.RULES);
     }
 
     // --- Testes de Sazonalidade Preservados ---
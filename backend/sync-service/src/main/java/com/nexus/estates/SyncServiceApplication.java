@@ -4,13 +4,15 @@ import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Ponto de entrada da aplicação Sync Service.
  * <p>
  * Responsável por iniciar o contexto Spring Boot e carregar os componentes de
  * integração assíncrona com o RabbitMQ, consumindo eventos de reservas
- * criadas e publicando atualizações de estado de forma desacoplada.
+ * criadas e publicando atualizações de estado de forma desacoplada. O agendamento
+ * fica ativo para o polling periódico dos feeds iCal registados.
  * </p>
  *
  * @author Nexus Estates Team
@@ -25,6 +27,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
         )
 )
 @SpringBootApplication
+@EnableScheduling
 public class SyncServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(SyncServiceApplication.class, args);
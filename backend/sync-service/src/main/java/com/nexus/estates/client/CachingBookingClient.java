@@ -0,0 +1,39 @@
+package com.nexus.estates.client;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * {@link NexusClients.BookingClient} com cache TTL e <i>single-flight</i> por reserva.
+ * <p>
+ * Os participantes de uma reserva não mudam durante a conversa, mas eram pedidos ao
+ * booking-service a cada mensagem de chat recebida. Ficam agora em cache durante
+ * {@code clients.booking.cache.ttl} e mensagens concorrentes da mesma reserva partilham uma
+ * única chamada remota.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+public class CachingBookingClient implements NexusClients.BookingClient {
+
+    private final NexusClients.BookingClient delegate;
+    private final ClientCache<Long, Set<Long>> participants;
+
+    /**
+     * @param delegate   cliente HTTP para o booking-service.
+     * @param ttl        tempo de vida dos participantes de cada reserva em cache.
+     * @param maxEntries número máximo de reservas em cache.
+     */
+    public CachingBookingClient(NexusClients.BookingClient delegate, Duration ttl, int maxEntries) {
+        this.delegate = delegate;
+        this.participants = new ClientCache<>(ttl, maxEntries);
+    }
+
+    @Override
+    public Set<Long> getBookingParticipants(Long bookingId) {
+        return participants.get(bookingId, id -> {
+            Set<Long> loaded = delegate.getBookingParticipants(id);
+            return loaded != null ? Set.copyOf(loaded) : null;
+        });
+    }
+}
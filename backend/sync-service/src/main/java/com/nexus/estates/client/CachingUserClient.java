@@ -0,0 +1,75 @@
+package com.nexus.estates.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link NexusClients.UserClient} com cache TTL e <i>single-flight</i> por utilizador.
+ * <p>
+ * Cada mensagem de chat recebida e cada pedido de token realtime resolviam o e-mail (e as
+ * preferências) do utilizador com uma chamada ao user-service. Os e-mails passam a ser
+ * resolvidos pela pesquisa em lote {@code POST /api/users/contacts}, também para um só id,
+ * e ficam em cache durante {@code clients.user.cache.ttl}; as preferências ficam em cache pelo
+ * mesmo período. Pedidos concorrentes pelo mesmo utilizador partilham uma única chamada remota.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+public class CachingUserClient implements NexusClients.UserClient {
+
+    /** Máximo de ids por pedido aceite por {@code POST /api/users/contacts}. */
+    static final int MAX_IDS_PER_REQUEST = 500;
+
+    private final NexusClients.UserClient delegate;
+    private final ClientCache<Long, String> emails;
+    private final ClientCache<Long, NexusClients.UserPreferencesDTO> preferences;
+
+    /**
+     * @param delegate   cliente HTTP para o user-service.
+     * @param ttl        tempo de vida de cada e-mail e preferência em cache.
+     * @param maxEntries número máximo de utilizadores em cache, por tipo de dado.
+     */
+    public CachingUserClient(NexusClients.UserClient delegate, Duration ttl, int maxEntries) {
+        this.delegate = delegate;
+        this.emails = new ClientCache<>(ttl, maxEntries);
+        this.preferences = new ClientCache<>(ttl, maxEntries);
+    }
+
+    @Override
+    public String getUserEmail(Long id) {
+        return getUserEmails(List.of(id)).get(id);
+    }
+
+    @Override
+    public NexusClients.UserPreferencesDTO getUserPreferences(Long id) {
+        return preferences.get(id, delegate::getUserPreferences);
+    }
+
+    @Override
+    public List<NexusClients.UserContactDTO> getUserContacts(Collection<Long> ids) {
+        List<NexusClients.UserContactDTO> contacts = new ArrayList<>();
+        getUserEmails(ids).forEach((id, email) -> contacts.add(new NexusClients.UserContactDTO(id, email)));
+        return contacts;
+    }
+
+    @Override
+    public Map<Long, String> getUserEmails(Collection<Long> ids) {
+        return emails.getAll(ids, this::fetchEmails);
+    }
+
+    private Map<Long, String> fetchEmails(Collection<Long> ids) {
+        if (ids.size() <= MAX_IDS_PER_REQUEST) {
+            return delegate.getUserEmails(ids);
+        }
+        Map<Long, String> fetched = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += MAX_IDS_PER_REQUEST) {
+            fetched.putAll(delegate.getUserEmails(all.subList(from, Math.min(all.size(), from + MAX_IDS_PER_REQUEST))));
+        }
+        return fetched;
+    }
+}
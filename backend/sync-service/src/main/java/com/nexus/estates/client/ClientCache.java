@@ -0,0 +1,85 @@
+package com.nexus.estates.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Cache TTL com <i>single-flight</i> por chave para as respostas dos clientes HTTP declarativos.
+ * <p>
+ * Assenta numa {@link AsyncCache} do Caffeine: enquanto uma chave está a ser carregada, os
+ * restantes pedidos pela mesma chave esperam pelo futuro desse carregamento em vez de repetirem a
+ * chamada remota. Só os valores não nulos ficam em cache; falhas propagam-se a todos os que
+ * esperavam e não são memorizadas. A cache está limitada a {@code maxEntries} entradas.
+ * </p>
+ * <p>
+ * As chamadas remotas correm sempre na thread de quem pede, fora dos locks internos da cache.
+ * </p>
+ *
+ * @param <K> tipo da chave.
+ * @param <V> tipo do valor.
+ * @author Nexus Estates Team
+ */
+final class ClientCache<K, V> {
+
+    private final AsyncCache<K, V> entries;
+
+    ClientCache(Duration ttl, int maxEntries) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    /**
+     * @param key    chave pretendida.
+     * @param loader chamada remota usada quando a chave não está em cache nem a ser carregada.
+     * @return valor em cache ou carregado (pode ser nulo).
+     */
+    V get(K key, Function<K, V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> future = entries.get(key, (k, executor) -> mine);
+        if (future == mine) {
+            try {
+                // Um valor nulo ou uma falha retiram a entrada da cache
+                mine.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return join(future);
+    }
+
+    /**
+     * Versão em lote de {@link #get(Object, Function)}: as chaves em cache são servidas de
+     * imediato, as que já estão a ser carregadas aguardam esse carregamento e as restantes são
+     * pedidas numa única chamada a {@code bulkLoader}.
+     *
+     * @param keys       chaves pretendidas.
+     * @param bulkLoader chamada remota que devolve os valores encontrados para um conjunto de chaves.
+     * @return valores encontrados, por chave; as chaves sem valor ficam de fora.
+     */
+    Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> bulkLoader) {
+        return join(entries.getAll(keys, (missing, executor) ->
+                CompletableFuture.completedFuture(bulkLoader.apply(Collections.unmodifiableSet(missing)))));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
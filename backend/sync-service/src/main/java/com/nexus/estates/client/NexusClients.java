@@ -1,8 +1,14 @@
 package com.nexus.estates.client;
 
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,6 +44,29 @@ public interface NexusClients {
          */
         @GetExchange("/api/users/{id}/preferences")
         UserPreferencesDTO getUserPreferences(@PathVariable("id") Long id);
+
+        /**
+         * Obtém os contactos de vários utilizadores num só pedido.
+         *
+         * @param ids Identificadores dos utilizadores (no máximo 500 por pedido).
+         * @return Os contactos encontrados; os ids inexistentes são omitidos.
+         */
+        @PostExchange("/api/users/contacts")
+        List<UserContactDTO> getUserContacts(@RequestBody Collection<Long> ids);
+
+        /**
+         * Obtém os e-mails de vários utilizadores num só pedido.
+         *
+         * @param ids Identificadores dos utilizadores.
+         * @return Os e-mails encontrados, por id de utilizador.
+         */
+        default Map<Long, String> getUserEmails(Collection<Long> ids) {
+            Map<Long, String> emails = new HashMap<>();
+            for (UserContactDTO contact : getUserContacts(ids)) {
+                emails.put(contact.id(), contact.email());
+            }
+            return emails;
+        }
     }
 
     /**
@@ -61,4 +90,12 @@ public interface NexusClients {
     record UserPreferencesDTO(
             boolean emailNotificationsEnabled
     ) {}
+
+    /**
+     * DTO para mapear o contacto de um utilizador na pesquisa em lote.
+     */
+    record UserContactDTO(
+            Long id,
+            String email
+    ) {}
 }
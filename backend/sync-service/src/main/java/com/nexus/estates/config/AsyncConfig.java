@@ -1,7 +1,9 @@
 package com.nexus.estates.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -11,8 +13,13 @@ import java.util.concurrent.Executor;
  * Configuração global para execução de tarefas assíncronas.
  * Habilita o uso da anotação @Async em beans geridos pelo Spring.
  * Define um pool de threads gerenciado para evitar sobrecarga do sistema.
+ * <p>
+ * Com {@code spring.threads.virtual.enabled=true} o pool é substituído por um executor de
+ * virtual threads (uma por tarefa): as tarefas {@code @Async} passam a bloquear em JDBC/HTTP
+ * sem ocupar threads de plataforma e deixam de ser rejeitadas quando a fila enche.
+ * </p>
  * @author Equipa Nexus Estates
- * @version 1.0
+ * @version 1.1
  */
 @Configuration
 @EnableAsync
@@ -29,10 +36,18 @@ public class AsyncConfig {
     // Capacidade da fila antes de criar novas threads até ao máximo
     private int queueSize = 100;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
     @Bean(name = "taskExecutor")
     public Executor taskExecutor()
     {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("NexusAsync-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         executor.setCorePoolSize(minThreads);
@@ -44,4 +59,4 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+}
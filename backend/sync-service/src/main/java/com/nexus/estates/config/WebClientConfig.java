@@ -1,5 +1,7 @@
 package com.nexus.estates.config;
 
+import com.nexus.estates.client.CachingBookingClient;
+import com.nexus.estates.client.CachingUserClient;
 import com.nexus.estates.client.NexusClients;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,33 +10,67 @@ import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.time.Duration;
+
 /**
  * Classe de configuração responsável pela criação e injeção dos clientes HTTP declarativos.
+ * <p>
+ * Os pedidos aos outros microsserviços são chamadas serviço-a-serviço: levam a credencial
+ * partilhada {@code clients.service-token} no cabeçalho {@value #SERVICE_TOKEN_HEADER}, exigida
+ * pelos endpoints internos do user-service (ex.: {@code POST /api/users/contacts}).
+ * </p>
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  */
 @Configuration
 public class WebClientConfig {
 
+    /** Cabeçalho da credencial serviço-a-serviço verificada pelo user-service. */
+    static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
     @Value("${user.service.url:http://localhost:8083}")
     private String userServiceUrl;
 
     @Value("${booking.service.url:http://localhost:8081}")
     private String bookingServiceUrl;
 
+    @Value("${clients.user.cache.ttl:5m}")
+    private Duration userCacheTtl;
+
+    @Value("${clients.booking.cache.ttl:10m}")
+    private Duration bookingCacheTtl;
+
+    @Value("${clients.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${clients.service-token:}")
+    private String serviceToken;
+
+    /**
+     * Cliente do User Service, envolvido numa cache com <i>single-flight</i> por utilizador.
+     */
     @Bean
     public NexusClients.UserClient userClient(RestClient.Builder builder) {
-        return createClient(NexusClients.UserClient.class, builder, userServiceUrl);
+        return new CachingUserClient(createClient(NexusClients.UserClient.class, builder, userServiceUrl),
+                userCacheTtl, cacheMaxEntries);
     }
 
+    /**
+     * Cliente do Booking Service, envolvido numa cache com <i>single-flight</i> por reserva.
+     */
     @Bean
     public NexusClients.BookingClient bookingClient(RestClient.Builder builder) {
-        return createClient(NexusClients.BookingClient.class, builder, bookingServiceUrl);
+        return new CachingBookingClient(createClient(NexusClients.BookingClient.class, builder, bookingServiceUrl),
+                bookingCacheTtl, cacheMaxEntries);
     }
 
     private <T> T createClient(Class<T> clientClass, RestClient.Builder builder, String baseUrl) {
-        RestClient restClient = builder.baseUrl(baseUrl).build();
+        builder.baseUrl(baseUrl);
+        if (serviceToken != null && !serviceToken.isBlank()) {
+            builder.defaultHeader(SERVICE_TOKEN_HEADER, serviceToken);
+        }
+        RestClient restClient = builder.build();
         RestClientAdapter adapter = RestClientAdapter.create(restClient);
         HttpServiceProxyFactory factory = HttpServiceProxyFactory.builderFor(adapter).build();
         return factory.createClient(clientClass);
@@ -12,6 +12,7 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 /**
  * Configuração de RabbitMQ para o Sync Service.
@@ -77,6 +78,9 @@ public class BookingRabbitConfig {
     @Value("${booking.webhooks.routing-key.status-updated.dlq:booking.webhooks.status.updated.dlq}")
     private String bookingWebhooksStatusUpdatedDlqRoutingKey;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean
     /**
      * Exchange principal para eventos de reservas.
@@ -312,6 +316,10 @@ public class BookingRabbitConfig {
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jacksonMessageConverter);
         factory.setDefaultRequeueRejected(false);
+        if (virtualThreads) {
+            // O container próprio não passa pelo configurer do Boot: aplica o modo virtual explicitamente
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-simple-"));
+        }
         return factory;
     }
 }
@@ -0,0 +1,53 @@
+package com.nexus.estates.config.rabbitMQConfig;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração de RabbitMQ para a coordenação das instâncias do sync-service em torno dos webhooks.
+ * <p>
+ * Cada alteração a uma subscrição é publicada em {@code webhooks.exchange}; cada instância
+ * recebe-a numa fila própria e descarta a sua cache de subscrições por evento.
+ * </p>
+ */
+@Configuration
+public class WebhookRabbitConfig {
+
+    @Value("${webhooks.events.exchange:webhooks.exchange}")
+    private String webhooksExchangeName;
+
+    @Value("${webhooks.events.routing-key.subscriptions-changed:webhooks.subscriptions.changed}")
+    private String subscriptionsChangedRoutingKey;
+
+    @Bean
+    public TopicExchange webhooksExchange() {
+        return new TopicExchange(webhooksExchangeName);
+    }
+
+    /**
+     * Fila de invalidação da cache de subscrições, privada a esta instância.
+     *
+     * <p>Uma fila durável partilhada entregaria cada alteração a apenas uma réplica; aqui todas a
+     * recebem. Perder mensagens com a instância em baixo é aceitável, porque a cache arranca vazia.</p>
+     *
+     * @return fila anónima, exclusiva e auto-delete.
+     */
+    @Bean
+    public Queue webhookSubscriptionsChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding webhookSubscriptionsChangedBinding(Queue webhookSubscriptionsChangedQueue, TopicExchange webhooksExchange) {
+        return BindingBuilder
+                .bind(webhookSubscriptionsChangedQueue)
+                .to(webhooksExchange)
+                .with(subscriptionsChangedRoutingKey);
+    }
+}
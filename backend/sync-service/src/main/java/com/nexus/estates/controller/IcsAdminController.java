@@ -1,21 +1,24 @@
 package com.nexus.estates.controller;
 
+import com.nexus.estates.dto.IcsFeedDTO;
+import com.nexus.estates.dto.IcsResyncResultDTO;
 import com.nexus.estates.dto.SyncBlockDTO;
 import com.nexus.estates.service.calendar.IcsCalendarParserService;
+import com.nexus.estates.service.calendar.IcsFeedSyncService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -25,8 +28,10 @@ import java.util.List;
  * </p>
  * <ul>
  *   <li>Interpretar ficheiros iCal (.ics) e visualizar os blocos normalizados em UTC;</li>
- *   <li>Aplicar esses blocos diretamente no domínio interno através de eventos AMQP,
- *   publicando mensagens de bloqueio para o booking-service.</li>
+ *   <li>Registar URLs de feeds para polling agendado ({@link com.nexus.estates.service.calendar.IcsFeedPoller});</li>
+ *   <li>Aplicar esses blocos no domínio interno através de {@link IcsFeedSyncService},
+ *   que publica para o booking-service apenas os eventos novos, alterados e removidos
+ *   desde o último feed aplicado.</li>
  * </ul>
  *
  * @author Nexus Estates Team
@@ -37,25 +42,25 @@ import java.util.List;
 @Tag(name = "ICS Admin", description = "Operações administrativas para interpretar e aplicar calendários externos (.ics)")
 public class IcsAdminController {
 
-    private final IcsCalendarParserService parserService;
-    private final RabbitTemplate rabbitTemplate;
+    /** Feed usado quando o pedido não identifica a origem (importação manual). */
+    static final String DEFAULT_FEED_KEY = "manual";
 
-    @Value("${booking.events.exchange:booking.exchange}")
-    private String bookingExchangeName;
+    /** Tamanho da coluna {@code ics_feed_states.feed_key}. */
+    private static final int MAX_FEED_KEY_LENGTH = 255;
 
-    @Value("${booking.calendar.routing-key.block:calendar.block}")
-    private String calendarBlockRoutingKey;
+    private final IcsCalendarParserService parserService;
+    private final IcsFeedSyncService feedSyncService;
 
     /**
      * Instancia o controlador com as dependências necessárias.
      *
      * @param parserService serviço responsável por interpretar ficheiros iCal (.ics).
-     * @param rabbitTemplate template AMQP utilizado para publicar mensagens de bloqueio.
+     * @param feedSyncService serviço de ressincronização incremental dos feeds.
      */
     public IcsAdminController(IcsCalendarParserService parserService,
-                              RabbitTemplate rabbitTemplate) {
+                              IcsFeedSyncService feedSyncService) {
         this.parserService = parserService;
-        this.rabbitTemplate = rabbitTemplate;
+        this.feedSyncService = feedSyncService;
     }
 
     @PostMapping(
@@ -117,39 +122,31 @@ public class IcsAdminController {
     /**
      * Aplica bloqueios de calendário a partir de conteúdo .ics textual.
      * <p>
-     * Para cada bloco extraído, é publicada uma mensagem AMQP com os detalhes
-     * do intervalo e metadados do evento externo, direcionada à propriedade
-     * indicada.
+     * O feed é comparado com o último aplicado ao mesmo {@code feedKey} da propriedade e
+     * apenas os eventos novos, alterados e removidos são publicados numa única mensagem
+     * AMQP para o booking-service.
      * </p>
      *
      * @param propertyId identificador da propriedade cujas datas serão bloqueadas.
-     * @param icsContents conteúdo textual completo do ficheiro .ics.
-     * @return lista de blocos extraídos e publicados.
+     * @param feedKey identificador do feed dentro da propriedade.
+     * @param icsContents corpo do pedido com o ficheiro .ics (UTF-8), lido em streaming sem ser
+     *                    copiado para memória.
+     * @return contagem das diferenças publicadas.
+     * @throws IOException se ocorrer um erro ao ler o corpo do pedido.
      */
     @Operation(
         summary = "Aplica bloqueios ao calendário interno",
-        description = "Recebe conteúdo .ics em texto e publica eventos de bloqueio para a propriedade indicada."
+        description = "Recebe conteúdo .ics em texto e publica para a propriedade apenas as diferenças face ao último feed aplicado."
     )
     @ApiResponse(
         responseCode = "200",
-        description = "Bloqueios publicados com sucesso",
-        content = @Content(array = @ArraySchema(schema = @Schema(implementation = SyncBlockDTO.class)))
+        description = "Diferenças publicadas com sucesso",
+        content = @Content(schema = @Schema(implementation = IcsResyncResultDTO.class))
     )
-    public ResponseEntity<List<SyncBlockDTO>> applyRaw(@RequestParam("propertyId") Long propertyId,
-                                                       @RequestBody String icsContents) {
-        List<SyncBlockDTO> blocks = parserService.parseBlocks(icsContents);
-        blocks.forEach(b -> rabbitTemplate.convertAndSend(
-                bookingExchangeName,
-                calendarBlockRoutingKey,
-                new com.nexus.estates.common.messaging.CalendarBlockMessage(
-                        propertyId,
-                        b.startUtc(),
-                        b.endUtc(),
-                        b.uid(),
-                        b.summary()
-                )
-        ));
-        return ResponseEntity.ok(blocks);
+    public ResponseEntity<IcsResyncResultDTO> applyRaw(@RequestParam("propertyId") Long propertyId,
+                                                       @RequestParam(value = "feedKey", defaultValue = DEFAULT_FEED_KEY) String feedKey,
+                                                       InputStream icsContents) throws IOException {
+        return ResponseEntity.ok(feedSyncService.resync(propertyId, feedKey, icsContents));
     }
 
     @PostMapping(
@@ -160,39 +157,79 @@ public class IcsAdminController {
     /**
      * Aplica bloqueios de calendário a partir de um ficheiro .ics enviado via multipart.
      * <p>
-     * O ficheiro é interpretado e, para cada bloco resultante, é publicada uma
-     * mensagem AMQP para o booking-service aplicar o bloqueio no calendário
-     * interno da propriedade.
+     * Tal como em {@link #applyRaw}, apenas as diferenças face ao último feed aplicado
+     * são publicadas para o booking-service.
      * </p>
      *
      * @param propertyId identificador da propriedade cujas datas serão bloqueadas.
+     * @param feedKey identificador do feed dentro da propriedade.
      * @param file ficheiro .ics contendo os eventos de bloqueio.
-     * @return lista de blocos extraídos e publicados.
+     * @return contagem das diferenças publicadas.
      * @throws IOException se ocorrer um erro ao ler o ficheiro.
      */
     @Operation(
         summary = "Aplica bloqueios a partir de ficheiro .ics",
-        description = "Recebe um ficheiro .ics via multipart e publica eventos de bloqueio para a propriedade."
+        description = "Recebe um ficheiro .ics via multipart e publica para a propriedade apenas as diferenças face ao último feed aplicado."
     )
     @ApiResponse(
         responseCode = "200",
-        description = "Bloqueios publicados com sucesso",
-        content = @Content(array = @ArraySchema(schema = @Schema(implementation = SyncBlockDTO.class)))
+        description = "Diferenças publicadas com sucesso",
+        content = @Content(schema = @Schema(implementation = IcsResyncResultDTO.class))
     )
-    public ResponseEntity<List<SyncBlockDTO>> applyFile(@RequestParam("propertyId") Long propertyId,
+    public ResponseEntity<IcsResyncResultDTO> applyFile(@RequestParam("propertyId") Long propertyId,
+                                                        @RequestParam(value = "feedKey", defaultValue = DEFAULT_FEED_KEY) String feedKey,
                                                         MultipartFile file) throws IOException {
-        List<SyncBlockDTO> blocks = parserService.parseBlocks(file.getInputStream());
-        blocks.forEach(b -> rabbitTemplate.convertAndSend(
-                bookingExchangeName,
-                calendarBlockRoutingKey,
-                new com.nexus.estates.common.messaging.CalendarBlockMessage(
-                        propertyId,
-                        b.startUtc(),
-                        b.endUtc(),
-                        b.uid(),
-                        b.summary()
-                )
-        ));
-        return ResponseEntity.ok(blocks);
+        try (InputStream content = file.getInputStream()) {
+            return ResponseEntity.ok(feedSyncService.resync(propertyId, feedKey, content));
+        }
+    }
+
+    @PostMapping(
+            value = "/feeds",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    /**
+     * Regista o URL de um calendário externo para polling agendado.
+     * <p>
+     * O feed passa a ser consultado periodicamente com pedidos condicionais e as diferenças
+     * são aplicadas como em {@link #applyRaw}. Por omissão o próprio URL identifica o feed.
+     * </p>
+     *
+     * @param propertyId identificador da propriedade cujas datas serão bloqueadas.
+     * @param url URL http(s) do ficheiro .ics.
+     * @param feedKey identificador do feed dentro da propriedade (opcional).
+     * @return feed registado, com o primeiro polling agendado; 400 se o URL não for http(s) ou
+     *         apontar para um endereço interno.
+     */
+    @Operation(
+        summary = "Regista um feed .ics para polling",
+        description = "Associa um URL de calendário externo à propriedade; o sync-service passa a consultá-lo periodicamente."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Feed registado com sucesso",
+        content = @Content(schema = @Schema(implementation = IcsFeedDTO.class))
+    )
+    public ResponseEntity<IcsFeedDTO> registerFeed(@RequestParam("propertyId") Long propertyId,
+                                                   @RequestParam("url") String url,
+                                                   @RequestParam(value = "feedKey", required = false) String feedKey) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (uri.getHost() == null || !("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        String key = feedKey != null && !feedKey.isBlank() ? feedKey : url;
+        if (key.length() > MAX_FEED_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(IcsFeedDTO.from(feedSyncService.registerFeed(propertyId, key, url)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -16,6 +16,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -39,22 +40,74 @@ public class SyncMessageController {
     private final ObjectMapper objectMapper;
 
     /**
-     * Recupera o histórico completo de mensagens de uma reserva específica.
+     * Recupera o histórico de mensagens de uma reserva, completo ou por páginas.
+     * <p>
+     * Sem {@code before} nem {@code limit} devolve o histórico completo, como até aqui, para os
+     * clientes que não paginam. Com {@code limit} devolve apenas as mensagens mais recentes; para
+     * carregar o histórico mais antigo, o cliente repete o pedido com {@code before} igual ao ID da
+     * mensagem mais antiga que já tem, até receber uma página incompleta.
+     * </p>
      *
      * @param bookingId O ID da reserva.
+     * @param before    ID da mensagem mais antiga já carregada (opcional).
+     * @param limit     Tamanho da página (opcional, limitado por {@code chat.history.max-page-size}).
      * @return Uma lista de mensagens ordenadas cronologicamente.
      */
-    @Operation(summary = "Listar mensagens", description = "Retorna o histórico de mensagens associado a uma reserva.")
+    @Operation(summary = "Listar mensagens", description = "Retorna o histórico completo de uma reserva ou, com limit/before, uma página das mensagens mais recentes ou anteriores a um cursor.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso",
                     content = @Content(schema = @Schema(implementation = Message.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor não pertence à reserva", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno", content = @Content)
     })
     @GetMapping("/{bookingId}")
-    public ResponseEntity<List<Message>> getMessages(@PathVariable Long bookingId) {
+    public ResponseEntity<List<Message>> getMessages(
+            @PathVariable Long bookingId,
+            @Parameter(description = "ID da mensagem mais antiga já carregada") @RequestParam(required = false) Long before,
+            @Parameter(description = "Número máximo de mensagens") @RequestParam(required = false) Integer limit
+    ) {
         log.info("Solicitação de histórico de mensagens para Booking ID: {}", bookingId);
-        List<Message> messages = messageService.getMessagesByBookingId(bookingId);
-        return ResponseEntity.ok(messages);
+        try {
+            if (before == null && limit == null) {
+                return ResponseEntity.ok(messageService.getMessagesByBookingId(bookingId));
+            }
+            return ResponseEntity.ok(messageService.getLatestMessages(bookingId, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recupera as mensagens de uma reserva posteriores a um cursor.
+     * <p>
+     * Destinado aos clientes que se reconectam ao canal de tempo real: em vez de voltarem a
+     * pedir o histórico, pedem apenas o que chegou depois da última mensagem que receberam.
+     * Uma página cheia indica que podem existir mais mensagens.
+     * </p>
+     *
+     * @param bookingId O ID da reserva.
+     * @param after     ID da mensagem mais recente já recebida pelo cliente.
+     * @param limit     Tamanho da página (opcional, limitado por {@code chat.history.max-page-size}).
+     * @return As mensagens novas, ordenadas cronologicamente.
+     */
+    @Operation(summary = "Mensagens novas", description = "Retorna apenas as mensagens posteriores a um cursor, para sincronizar após reconexão.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Mensagens novas retornadas com sucesso",
+                    content = @Content(schema = @Schema(implementation = Message.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor não pertence à reserva", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Erro interno", content = @Content)
+    })
+    @GetMapping("/{bookingId}/delta")
+    public ResponseEntity<List<Message>> getMessagesDelta(
+            @PathVariable Long bookingId,
+            @Parameter(description = "ID da mensagem mais recente já recebida", required = true) @RequestParam Long after,
+            @Parameter(description = "Número máximo de mensagens") @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            return ResponseEntity.ok(messageService.getMessagesAfter(bookingId, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -62,7 +115,8 @@ public class SyncMessageController {
      *
      * @param bookingId O ID da reserva.
      * @param request   O corpo da requisição contendo o remetente e o conteúdo.
-     * @return A mensagem persistida.
+     * @return A mensagem persistida, emitida quando a publicação em tempo real terminar
+     *         (a resposta é assíncrona e não ocupa a thread do servlet durante a chamada ao Ably).
      */
     @Operation(summary = "Enviar mensagem", description = "Persiste a mensagem e publica no canal de tempo real.")
     @ApiResponses(value = {
@@ -72,7 +126,7 @@ public class SyncMessageController {
             @ApiResponse(responseCode = "500", description = "Erro interno", content = @Content)
     })
     @PostMapping("/{bookingId}")
-    public ResponseEntity<Message> sendMessage(
+    public Mono<ResponseEntity<Message>> sendMessage(
             @PathVariable Long bookingId,
             @RequestBody SendMessageRequest request
     ) {
@@ -83,19 +137,19 @@ public class SyncMessageController {
 
         // 2. Publicar no canal de tempo real
         String channelId = "booking-chat:" + bookingId;
-        boolean published = chatPlatform.sendMessage(channelId, "new-message", savedMessage);
-
-        if (!published) {
-            log.warn("Falha ao publicar mensagem no canal de tempo real para Booking ID {}", bookingId);
-        }
-
-        return ResponseEntity.ok(savedMessage);
+        return chatPlatform.sendMessageReactive(channelId, "new-message", savedMessage)
+                .map(published -> {
+                    if (!published) {
+                        log.warn("Falha ao publicar mensagem no canal de tempo real para Booking ID {}", bookingId);
+                    }
+                    return ResponseEntity.ok(savedMessage);
+                });
     }
 
     /**
      * Endpoint para receber webhooks do Ably.
      *
-     * @param rawBody O corpo cru do webhook.
+     * @param rawBody O corpo cru do webhook, em bytes, tal como foi assinado.
      * @param signature A assinatura HMAC-SHA256 enviada no cabeçalho.
      * @return 200 OK se a assinatura for válida e o processamento iniciado.
      */
@@ -108,7 +162,7 @@ public class SyncMessageController {
     })
     @PostMapping("/webhook")
     public ResponseEntity<String> handleWebhook(
-            @RequestBody String rawBody,
+            @RequestBody byte[] rawBody,
             @Parameter(description = "Assinatura HMAC-SHA256 (formato: sha256=...)") @RequestHeader(value = "X-Ably-Signature", required = false) String signature
     ) {
         if (signature == null || signature.isBlank()) {
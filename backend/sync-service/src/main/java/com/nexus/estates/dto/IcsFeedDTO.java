@@ -0,0 +1,36 @@
+package com.nexus.estates.dto;
+
+import com.nexus.estates.entity.IcsFeedState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Feed iCal registado para polling agendado.
+ *
+ * @param id                  identificador do estado do feed.
+ * @param propertyId          propriedade alvo.
+ * @param feedKey             identificador do feed dentro da propriedade.
+ * @param feedUrl             URL consultado pelo poller.
+ * @param pollIntervalSeconds intervalo de polling atual, em segundos.
+ * @param nextPollAt          próximo polling agendado.
+ */
+public record IcsFeedDTO(
+        Long id,
+        Long propertyId,
+        String feedKey,
+        String feedUrl,
+        Integer pollIntervalSeconds,
+        LocalDateTime nextPollAt
+) {
+
+    /**
+     * Converte o estado persistido de um feed no respetivo DTO.
+     *
+     * @param state estado do feed.
+     * @return DTO correspondente.
+     */
+    public static IcsFeedDTO from(IcsFeedState state) {
+        return new IcsFeedDTO(state.getId(), state.getPropertyId(), state.getFeedKey(), state.getFeedUrl(),
+                state.getPollIntervalSeconds(), state.getNextPollAt());
+    }
+}
@@ -0,0 +1,21 @@
+package com.nexus.estates.dto;
+
+/**
+ * Resultado de uma ressincronização de um feed iCal (.ics).
+ *
+ * @param propertyId  propriedade alvo.
+ * @param feedKey     identificador do feed dentro da propriedade.
+ * @param feedUnchanged {@code true} se o conteúdo era idêntico ao último aplicado (nada foi interpretado nem publicado).
+ * @param added       eventos novos publicados.
+ * @param changed     eventos com datas ou resumo alterados, republicados.
+ * @param removed     eventos que desapareceram do feed, publicados como remoções.
+ */
+public record IcsResyncResultDTO(
+        Long propertyId,
+        String feedKey,
+        boolean feedUnchanged,
+        int added,
+        int changed,
+        int removed
+) {
+}
@@ -2,12 +2,14 @@ package com.nexus.estates.dto;
 
 import com.nexus.estates.entity.WebhookSubscription;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 import java.time.OffsetDateTime;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -41,6 +43,9 @@ public final class WebhookSubscriptionDTO {
      *
      * @param targetUrl O URL de destino para onde os eventos do webhook serão enviados. Deve ser um URL válido (HTTP/HTTPS).
      * @param subscribedEvents A lista de eventos que o cliente deseja subscrever (ex: 'booking.created'). Não pode estar vazia.
+     * @param timeoutMs Timeout opcional, em milissegundos, de cada tentativa de entrega ao URL de destino.
+     * @param batchWindowMs Janela opcional, em milissegundos, durante a qual os eventos são agrupados num único pedido.
+     * @param batchMaxEvents Número máximo opcional de eventos por pedido agrupado.
      */
     @Schema(description = "Payload esperado quando o utilizador pede para criar um novo webhook.")
     public record CreateRequest(
@@ -51,7 +56,22 @@ public final class WebhookSubscriptionDTO {
 
             @Schema(description = "Lista de eventos subscritos", example = "[\"booking.created\"]", requiredMode = Schema.RequiredMode.REQUIRED)
             @NotEmpty(message = "Deve subscrever pelo menos um evento (ex: 'booking.created').")
-            List<String> subscribedEvents
+            List<@NotBlank @Size(max = 100, message = "O nome do evento não pode exceder 100 caracteres.") String> subscribedEvents,
+
+            @Schema(description = "Timeout de cada tentativa de entrega, em milissegundos (opcional)", example = "3000")
+            @Min(value = 100, message = "O timeout mínimo é de 100 ms.")
+            @Max(value = 30000, message = "O timeout máximo é de 30000 ms.")
+            Integer timeoutMs,
+
+            @Schema(description = "Ativa a entrega agrupada: eventos acumulados durante esta janela, em milissegundos, seguem num único pedido (opcional)", example = "2000")
+            @Min(value = 100, message = "A janela mínima de agrupamento é de 100 ms.")
+            @Max(value = 60000, message = "A janela máxima de agrupamento é de 60000 ms.")
+            Integer batchWindowMs,
+
+            @Schema(description = "Número máximo de eventos por pedido agrupado (opcional)", example = "100")
+            @Min(value = 2, message = "Um lote tem pelo menos 2 eventos.")
+            @Max(value = 1000, message = "Um lote tem no máximo 1000 eventos.")
+            Integer batchMaxEvents
     ) {
     }
 
@@ -65,6 +85,9 @@ public final class WebhookSubscriptionDTO {
      * @param targetUrl O URL configurado para receber as notificações.
      * @param isActive Estado atual do webhook (ativo/inativo).
      * @param subscribedEvents Lista de eventos que estão a ser escutados.
+     * @param timeoutMs Timeout de cada tentativa de entrega, em milissegundos ({@code null} usa o valor por omissão).
+     * @param batchWindowMs Janela de agrupamento em milissegundos ({@code null} se a entrega é individual).
+     * @param batchMaxEvents Número máximo de eventos por pedido agrupado.
      * @param createdAt Data e hora em que a subscrição foi criada.
      */
     @Schema(description = "Resposta padrão ao listar ou consultar webhooks (omite o secret).")
@@ -79,6 +102,12 @@ public final class WebhookSubscriptionDTO {
             boolean isActive,
             @Schema(description = "Eventos atualmente subscritos", example = "[\"booking.created\"]")
             List<String> subscribedEvents,
+            @Schema(description = "Timeout de cada tentativa de entrega, em milissegundos", example = "3000")
+            Integer timeoutMs,
+            @Schema(description = "Janela de agrupamento em milissegundos (null se a entrega é individual)", example = "2000")
+            Integer batchWindowMs,
+            @Schema(description = "Número máximo de eventos por pedido agrupado", example = "100")
+            Integer batchMaxEvents,
             @Schema(description = "Data de criação")
             OffsetDateTime createdAt
     ) {
@@ -90,13 +119,16 @@ public final class WebhookSubscriptionDTO {
          * @return O DTO preenchido com os dados da entidade, adequado para ser retornado na API.
          */
         public static Response fromEntity(WebhookSubscription entity) {
-            List<String> eventsList = Arrays.asList(entity.getSubscribedEvents().split(","));
+            List<String> eventsList = entity.getSubscribedEvents().stream().sorted().toList();
             return new Response(
                     entity.getId(),
                     entity.getUserId(),
                     entity.getTargetUrl(),
                     entity.isActive(),
                     eventsList,
+                    entity.getTimeoutMs(),
+                    entity.getBatchWindowMs(),
+                    entity.getBatchMaxEvents(),
                     entity.getCreatedAt()
             );
         }
@@ -114,6 +146,9 @@ public final class WebhookSubscriptionDTO {
      * @param targetUrl O URL configurado para receber as notificações.
      * @param isActive Estado atual do webhook (ativo/inativo).
      * @param subscribedEvents Lista de eventos que estão a ser escutados.
+     * @param timeoutMs Timeout de cada tentativa de entrega, em milissegundos ({@code null} usa o valor por omissão).
+     * @param batchWindowMs Janela de agrupamento em milissegundos ({@code null} se a entrega é individual).
+     * @param batchMaxEvents Número máximo de eventos por pedido agrupado.
      * @param createdAt Data e hora em que a subscrição foi criada.
      * @param secret O segredo criptográfico gerado. (Deve ser armazenado de forma segura pelo cliente).
      */
@@ -129,6 +164,12 @@ public final class WebhookSubscriptionDTO {
             boolean isActive,
             @Schema(description = "Eventos atualmente subscritos", example = "[\"booking.created\"]")
             List<String> subscribedEvents,
+            @Schema(description = "Timeout de cada tentativa de entrega, em milissegundos", example = "3000")
+            Integer timeoutMs,
+            @Schema(description = "Janela de agrupamento em milissegundos (null se a entrega é individual)", example = "2000")
+            Integer batchWindowMs,
+            @Schema(description = "Número máximo de eventos por pedido agrupado", example = "100")
+            Integer batchMaxEvents,
             @Schema(description = "Data de criação")
             OffsetDateTime createdAt,
             @Schema(description = "Segredo gerado para assinatura HMAC. Mostrado APENAS na criação.", example = "a1b2c3d4e5f6...")
@@ -143,13 +184,16 @@ public final class WebhookSubscriptionDTO {
          * @return O DTO contendo todos os dados, incluindo o segredo.
          */
         public static CreatedResponse fromEntity(WebhookSubscription entity, String secret) {
-            List<String> eventsList = Arrays.asList(entity.getSubscribedEvents().split(","));
+            List<String> eventsList = entity.getSubscribedEvents().stream().sorted().toList();
             return new CreatedResponse(
                     entity.getId(),
                     entity.getUserId(),
                     entity.getTargetUrl(),
                     entity.isActive(),
                     eventsList,
+                    entity.getTimeoutMs(),
+                    entity.getBatchWindowMs(),
+                    entity.getBatchMaxEvents(),
                     entity.getCreatedAt(),
                     secret
             );
@@ -0,0 +1,104 @@
+package com.nexus.estates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estado persistido de um feed iCal (.ics) associado a uma propriedade.
+ * <p>
+ * Guarda o hash do último conteúdo aplicado e, por UID, o hash de cada evento, para que
+ * uma ressincronização publique apenas as diferenças. Os eventos são carregados de forma
+ * preguiçosa: quando o hash do feed não muda, o mapa nunca chega a ser lido.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Entity
+@Table(name = "ics_feed_states",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"property_id", "feed_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IcsFeedState {
+
+    /**
+     * Identificador único do estado.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Propriedade cujo calendário é alimentado pelo feed.
+     */
+    @Column(name = "property_id", nullable = false)
+    private Long propertyId;
+
+    /**
+     * Identificador do feed dentro da propriedade (ex.: URL ou nome da plataforma).
+     */
+    @Column(name = "feed_key", nullable = false)
+    private String feedKey;
+
+    /**
+     * SHA-256 (hex) do conteúdo bruto do último feed aplicado.
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /**
+     * Valor do cabeçalho ETag devolvido pela origem do feed, quando existe.
+     */
+    @Column(name = "etag")
+    private String etag;
+
+    /**
+     * Valor do cabeçalho Last-Modified devolvido pela origem do feed, quando existe.
+     */
+    @Column(name = "last_modified", length = 64)
+    private String lastModified;
+
+    /**
+     * Momento da última ressincronização (com ou sem alterações).
+     */
+    @Column(name = "last_synced_at")
+    private LocalDateTime lastSyncedAt;
+
+    /**
+     * URL consultado periodicamente pelo poller; nulo para feeds aplicados apenas manualmente.
+     */
+    @Column(name = "feed_url", length = 2048)
+    private String feedUrl;
+
+    /**
+     * Intervalo de polling atual, em segundos, ajustado consoante o feed muda ou não.
+     */
+    @Column(name = "poll_interval_seconds")
+    private Integer pollIntervalSeconds;
+
+    /**
+     * Próximo instante em que o feed deve ser consultado.
+     */
+    @Column(name = "next_poll_at")
+    private LocalDateTime nextPollAt;
+
+    /**
+     * Hash de cada evento do último feed aplicado, indexado por UID.
+     */
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "ics_feed_events", joinColumns = @JoinColumn(name = "feed_state_id"))
+    @MapKeyColumn(name = "uid")
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private Map<String, String> eventHashes = new HashMap<>();
+}
@@ -0,0 +1,114 @@
+package com.nexus.estates.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registo persistente de uma entrega de webhook (um evento para uma subscrição).
+ * <p>
+ * Guarda o payload exatamente como foi serializado e o {@code X-Nexus-Delivery-Id}
+ * enviado ao subscritor, que se mantém em todas as tentativas. Enquanto está
+ * {@link Status#PENDING}, {@code nextAttemptAt} indica quando o
+ * {@code WebhookRetryScheduler} a deve voltar a tentar.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Entity
+@Table(name = "webhook_deliveries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookDelivery {
+
+    /** Estado de uma entrega. */
+    public enum Status {
+        /** Por entregar: em curso ou à espera da próxima tentativa. */
+        PENDING,
+        /** Aceite pelo subscritor (2xx). */
+        DELIVERED,
+        /** Tentativas esgotadas ou subscrição inativa; não volta a ser tentada. */
+        FAILED
+    }
+
+    /**
+     * Identificador único do registo.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Valor do cabeçalho {@code X-Nexus-Delivery-Id} (UUID).
+     */
+    @Column(name = "delivery_id", nullable = false, unique = true, length = 36)
+    private String deliveryId;
+
+    /**
+     * Subscrição de destino.
+     */
+    @Column(name = "subscription_id", nullable = false)
+    private Long subscriptionId;
+
+    /**
+     * Nome do evento (ex.: {@code booking.created}).
+     */
+    @Column(nullable = false, length = 100)
+    private String event;
+
+    /**
+     * Corpo JSON enviado, assinado de novo em cada tentativa.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Se a entrega segue num pedido agrupado ({@code WebhookBatcher}) em vez de individualmente.
+     */
+    @Column(nullable = false)
+    private boolean batched;
+
+    /**
+     * Estado atual da entrega.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    /**
+     * Número de tentativas já concluídas.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Próxima tentativa (ou fim do lease enquanto uma tentativa está em curso).
+     */
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Momento da última tentativa concluída.
+     */
+    @Column(name = "last_attempt_at")
+    private LocalDateTime lastAttemptAt;
+
+    /**
+     * Momento em que o subscritor aceitou a entrega.
+     */
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -3,9 +3,13 @@ package com.nexus.estates.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "webhook_subscriptions")
@@ -31,8 +35,25 @@ public class WebhookSubscription {
     @Column(name = "is_active")
     private boolean isActive = true;
 
-    @Column(name = "subscribed_events")
-    private String subscribedEvents;
+    /** Eventos subscritos, um por linha em {@code webhook_subscription_events} (pesquisa indexada por evento). */
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
+    @CollectionTable(name = "webhook_subscription_events", joinColumns = @JoinColumn(name = "subscription_id"))
+    @Column(name = "event", nullable = false, length = 100)
+    private Set<String> subscribedEvents = new HashSet<>();
+
+    /** Timeout por tentativa de entrega, em milissegundos; {@code null} usa o valor por omissão do serviço. */
+    @Column(name = "timeout_ms")
+    private Integer timeoutMs;
+
+    /** Janela de agrupamento em milissegundos; {@code null} entrega cada evento num pedido próprio. */
+    @Column(name = "batch_window_ms")
+    private Integer batchWindowMs;
+
+    /** Número máximo de eventos por pedido agrupado; {@code null} usa o valor por omissão do serviço. */
+    @Column(name = "batch_max_events")
+    private Integer batchMaxEvents;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
@@ -41,4 +62,9 @@ public class WebhookSubscription {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
+
+    /** @return true se os eventos desta subscrição são entregues em lotes. */
+    public boolean isBatched() {
+        return batchWindowMs != null;
+    }
 }
@@ -1,15 +1,17 @@
 package com.nexus.estates.messaging;
 
 import com.nexus.estates.common.messaging.BookingCreatedMessage;
-import com.nexus.estates.common.messaging.BookingStatusUpdatedMessage;
 import com.nexus.estates.config.rabbitMQConfig.BookingRabbitConfig;
 import com.nexus.estates.service.booking.BookingSyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Consumidor principal de eventos no Sync Service.
@@ -23,7 +25,7 @@ import org.springframework.stereotype.Component;
  * </p>
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  */
 @Slf4j
 @Component
@@ -41,18 +43,36 @@ public class BookingEventListener {
 
     /**
      * Processa o evento booking.created.
+     * <p>
+     * Devolve um {@link Mono}: o container deteta o tipo de retorno assíncrono, liberta a thread
+     * do consumidor enquanto a chamada externa decorre e só confirma (ack) a mensagem quando o
+     * resultado tiver sido publicado. O número de sincronizações em curso fica assim limitado
+     * pelo prefetch do consumidor e não pelo número de threads do container.
+     * </p>
+     * <p>
+     * O adaptador assíncrono não herda o {@code defaultRequeueRejected=false} do container, pelo
+     * que os erros são embrulhados em {@link AmqpRejectAndDontRequeueException} para manter o
+     * encaminhamento para a DLQ em vez de um ciclo de reentregas.
+     * </p>
      *
      * @param message mensagem contendo os dados da reserva criada.
+     * @return Mono que completa após a publicação do resultado.
      */
     @RabbitListener(queues = "${booking.events.queue.created:booking.created.queue}")
-    public void handleBookingCreated(BookingCreatedMessage message) {
+    public Mono<Void> handleBookingCreated(BookingCreatedMessage message) {
         log.info("Recebido evento de criação de reserva: {}", message);
 
         // Processa via serviço especializado de sincronização
-        BookingStatusUpdatedMessage resultMessage = bookingSyncService.syncBooking(message);
-
-        // Publica resultado (Status Updated)
-        log.info("Publicando atualização de status: {} -> {}", resultMessage.bookingId(), resultMessage.status());
-        rabbitTemplate.convertAndSend(bookingExchangeName, bookingStatusUpdatedRoutingKey, resultMessage);
+        return bookingSyncService.syncBookingReactive(message)
+                // O envio via RabbitTemplate é bloqueante: sai da thread de I/O do WebClient
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(resultMessage -> {
+                    // Publica resultado (Status Updated)
+                    log.info("Publicando atualização de status: {} -> {}", resultMessage.bookingId(), resultMessage.status());
+                    rabbitTemplate.convertAndSend(bookingExchangeName, bookingStatusUpdatedRoutingKey, resultMessage);
+                })
+                .then()
+                .onErrorMap(ex -> !(ex instanceof AmqpRejectAndDontRequeueException),
+                        ex -> new AmqpRejectAndDontRequeueException("Falha ao processar booking.created", ex));
     }
 }
@@ -0,0 +1,28 @@
+package com.nexus.estates.messaging;
+
+import com.nexus.estates.service.chat.WebhookSubscriptionCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor das alterações de subscrições de webhooks publicadas por qualquer instância
+ * (incluindo esta), que invalida a cache local de subscrições por evento.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebhookSubscriptionChangeListener {
+
+    private final WebhookSubscriptionCache subscriptionCache;
+
+    /**
+     * @param message subscrição alterada.
+     */
+    @RabbitListener(queues = "#{webhookSubscriptionsChangedQueue.name}")
+    public void handleSubscriptionChanged(WebhookSubscriptionChangedMessage message) {
+        log.debug("Subscrição de webhook {} alterada; a invalidar a cache de subscrições", message.subscriptionId());
+        subscriptionCache.invalidate();
+    }
+}
@@ -0,0 +1,10 @@
+package com.nexus.estates.messaging;
+
+/**
+ * Aviso, trocado entre instâncias do sync-service, de que uma subscrição de webhook foi
+ * criada, alterada ou removida.
+ *
+ * @param subscriptionId subscrição alterada.
+ */
+public record WebhookSubscriptionChangedMessage(Long subscriptionId) {
+}
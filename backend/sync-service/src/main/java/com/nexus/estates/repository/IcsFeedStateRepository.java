@@ -0,0 +1,81 @@
+package com.nexus.estates.repository;
+
+import com.nexus.estates.entity.IcsFeedState;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório JPA para a entidade {@link IcsFeedState}.
+ *
+ * @author Nexus Estates Team
+ */
+@Repository
+public interface IcsFeedStateRepository extends JpaRepository<IcsFeedState, Long> {
+
+    /**
+     * Obtém o estado de um feed com lock de escrita, serializando ressincronizações
+     * concorrentes do mesmo feed até ao fim da transação.
+     *
+     * @param propertyId propriedade alvo.
+     * @param feedKey    identificador do feed.
+     * @return estado do feed, se já tiver sido sincronizado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM IcsFeedState s WHERE s.propertyId = :propertyId AND s.feedKey = :feedKey")
+    Optional<IcsFeedState> findForUpdate(@Param("propertyId") Long propertyId, @Param("feedKey") String feedKey);
+
+    /**
+     * Bloqueia o próximo lote de feeds com polling vencido, pelos mais atrasados primeiro.
+     * <p>
+     * O timeout de lock {@code -2} corresponde a {@code SKIP LOCKED}, pelo que várias
+     * instâncias do poller reclamam lotes disjuntos sem esperar umas pelas outras.
+     * </p>
+     *
+     * @param now      instante de referência.
+     * @param pageable tamanho máximo do lote.
+     * @return feeds vencidos bloqueados pela transação corrente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT s FROM IcsFeedState s WHERE s.feedUrl IS NOT NULL AND s.nextPollAt <= :now ORDER BY s.nextPollAt")
+    List<IcsFeedState> lockDueFeeds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Adia o próximo polling dos feeds indicados (lease enquanto o pedido está em curso).
+     *
+     * @param ids        feeds reclamados.
+     * @param nextPollAt instante até ao qual não voltam a ser reclamados.
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE IcsFeedState s SET s.nextPollAt = :nextPollAt WHERE s.id IN :ids")
+    int leaseUntil(@Param("ids") Collection<Long> ids, @Param("nextPollAt") LocalDateTime nextPollAt);
+
+    /**
+     * Guarda o novo intervalo e o próximo instante de polling de um feed.
+     *
+     * @param id                  feed alvo.
+     * @param pollIntervalSeconds intervalo adaptativo, em segundos.
+     * @param nextPollAt          próximo polling (já com jitter).
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE IcsFeedState s SET s.pollIntervalSeconds = :interval, s.nextPollAt = :nextPollAt WHERE s.id = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("interval") int pollIntervalSeconds,
+                   @Param("nextPollAt") LocalDateTime nextPollAt);
+}
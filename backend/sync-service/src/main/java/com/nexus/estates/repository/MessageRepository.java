@@ -1,15 +1,21 @@
 package com.nexus.estates.repository;
 
 import com.nexus.estates.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Repositório JPA para a entidade {@link Message}.
  * <p>
  * Fornece métodos para persistir e recuperar o histórico de mensagens de chat.
+ * As leituras seguem a ordem do cursor {@code (createdAt, id)}, servida pelo índice
+ * {@code idx_messages_booking_created_id}; todas são paginadas exceto a do histórico completo.
  * </p>
  * Para interagir com a Tabela
  */
@@ -17,13 +23,57 @@ import java.util.List;
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
     /**
-     * Busca todas as mensagens associadas a uma reserva específica, ordenadas cronologicamente.
+     * Busca todas as mensagens de uma reserva, ordenadas cronologicamente pelo cursor
+     * {@code (createdAt, id)}.
      *
      * @param bookingId O ID da reserva.
-     * @return Uma lista de mensagens ordenadas por data de criação (mais antigas primeiro).
+     * @return O histórico completo, das mensagens mais antigas para as mais recentes.
      */
-    List<Message> findByBookingIdOrderByCreatedAtAsc(Long bookingId);
+    List<Message> findByBookingIdOrderByCreatedAtAscIdAsc(Long bookingId);
 
+    /**
+     * Busca as mensagens mais recentes de uma reserva.
+     *
+     * @param bookingId O ID da reserva.
+     * @param pageable  Limita o número de mensagens devolvidas.
+     * @return Mensagens ordenadas da mais recente para a mais antiga.
+     */
+    @Query("SELECT m FROM Message m WHERE m.bookingId = :bookingId ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatest(@Param("bookingId") Long bookingId, Pageable pageable);
 
+    /**
+     * Busca as mensagens de uma reserva anteriores a um cursor {@code (createdAt, id)},
+     * para carregar o histórico mais antigo página a página.
+     *
+     * @param bookingId O ID da reserva.
+     * @param createdAt Data de criação da mensagem-cursor.
+     * @param id        ID da mensagem-cursor (desempata mensagens com a mesma data).
+     * @param pageable  Limita o número de mensagens devolvidas.
+     * @return Mensagens ordenadas da mais recente para a mais antiga.
+     */
+    @Query("SELECT m FROM Message m WHERE m.bookingId = :bookingId"
+            + " AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id))"
+            + " ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findBefore(@Param("bookingId") Long bookingId,
+                             @Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable pageable);
 
+    /**
+     * Busca as mensagens de uma reserva posteriores a um cursor {@code (createdAt, id)},
+     * usada na sincronização incremental depois de uma reconexão.
+     *
+     * @param bookingId O ID da reserva.
+     * @param createdAt Data de criação da mensagem-cursor.
+     * @param id        ID da mensagem-cursor (desempata mensagens com a mesma data).
+     * @param pageable  Limita o número de mensagens devolvidas.
+     * @return Mensagens ordenadas cronologicamente (mais antigas primeiro).
+     */
+    @Query("SELECT m FROM Message m WHERE m.bookingId = :bookingId"
+            + " AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id))"
+            + " ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findAfter(@Param("bookingId") Long bookingId,
+                            @Param("createdAt") LocalDateTime createdAt,
+                            @Param("id") Long id,
+                            Pageable pageable);
 }
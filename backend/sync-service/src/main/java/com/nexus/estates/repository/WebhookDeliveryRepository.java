@@ -0,0 +1,185 @@
+package com.nexus.estates.repository;
+
+import com.nexus.estates.entity.WebhookDelivery;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório JPA para a entidade {@link WebhookDelivery}.
+ *
+ * @author Nexus Estates Team
+ */
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+
+    /**
+     * Bloqueia o próximo lote de entregas individuais pendentes vencidas, pelas mais atrasadas primeiro.
+     * As entregas agrupadas ({@code batched}) seguem pelo {@code WebhookBatcher}.
+     * <p>
+     * O timeout de lock {@code -2} corresponde a {@code SKIP LOCKED}, pelo que várias
+     * instâncias do scheduler reclamam lotes disjuntos sem esperar umas pelas outras.
+     * </p>
+     *
+     * @param now      instante de referência.
+     * @param pageable tamanho máximo do lote.
+     * @return entregas vencidas bloqueadas pela transação corrente.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT d FROM WebhookDelivery d WHERE d.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING"
+            + " AND d.batched = false AND d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt")
+    List<WebhookDelivery> lockDueDeliveries(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Próximo lote de entregas agrupadas de uma subscrição, por ordem de criação.
+     * <p>
+     * Só inclui entregas pendentes até {@code cutoff} que não tenham à sua frente nenhuma entrega
+     * pendente posterior a {@code cutoff} (em curso, sob lease, ou à espera de nova tentativa):
+     * uma entrega atrasada bloqueia as seguintes, preservando a ordem dos eventos. Deve ser chamada
+     * com a subscrição bloqueada, para que duas instâncias não montem lotes da mesma subscrição.
+     * </p>
+     *
+     * @param subscriptionId subscrição alvo.
+     * @param cutoff         instante até ao qual uma entrega pendente pode seguir já.
+     * @param pageable       tamanho máximo do lote.
+     * @return entregas do lote, pela ordem em que devem ser enviadas.
+     */
+    @Query("SELECT d FROM WebhookDelivery d WHERE d.subscriptionId = :subscriptionId AND d.batched = true"
+            + " AND d.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING AND d.nextAttemptAt <= :cutoff"
+            + " AND NOT EXISTS (SELECT o.id FROM WebhookDelivery o WHERE o.subscriptionId = :subscriptionId"
+            + " AND o.batched = true AND o.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING"
+            + " AND o.nextAttemptAt > :cutoff AND o.id < d.id)"
+            + " ORDER BY d.id")
+    List<WebhookDelivery> findNextBatch(@Param("subscriptionId") Long subscriptionId,
+                                        @Param("cutoff") LocalDateTime cutoff,
+                                        Pageable pageable);
+
+    /**
+     * @param now instante de referência.
+     * @return subscrições com entregas agrupadas vencidas (retomadas pelo scheduler).
+     */
+    @Query("SELECT DISTINCT d.subscriptionId FROM WebhookDelivery d WHERE d.batched = true"
+            + " AND d.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING AND d.nextAttemptAt <= :now")
+    List<Long> findSubscriptionsWithDueBatches(@Param("now") LocalDateTime now);
+
+    /**
+     * Adia as entregas indicadas (lease enquanto a tentativa está em curso).
+     *
+     * @param ids           entregas reclamadas.
+     * @param nextAttemptAt instante até ao qual não voltam a ser reclamadas.
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.nextAttemptAt = :nextAttemptAt WHERE d.id IN :ids")
+    int leaseUntil(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Substitui o lease das entregas pendentes que ainda o detêm: renova-o quando uma entrega sai
+     * da fila do motor de entrega, ou adia-a quando não chegou a ser tentada.
+     *
+     * @param ids           entregas alvo.
+     * @param leaseUntil    lease detido pelo chamador; entregas com outro valor foram reclamadas
+     *                      por outra tentativa e não são alteradas.
+     * @param nextAttemptAt novo fim do lease (ou instante da próxima tentativa).
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.nextAttemptAt = :nextAttemptAt WHERE d.id IN :ids"
+            + " AND d.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING AND d.nextAttemptAt = :leaseUntil")
+    int renewLease(@Param("ids") Collection<Long> ids,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Regista o resultado de uma tentativa, somando-a às tentativas da entrega, desde que o
+     * chamador ainda detenha o lease.
+     *
+     * @param id            entrega alvo.
+     * @param leaseUntil    lease detido pelo chamador durante a tentativa.
+     * @param status        novo estado.
+     * @param attemptedAt   momento da tentativa.
+     * @param nextAttemptAt próxima tentativa ({@code null} se já não há nenhuma).
+     * @param deliveredAt   momento da entrega ({@code null} se falhou).
+     * @return número de linhas atualizadas (0 se o lease já não era do chamador).
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = :status, d.attempts = d.attempts + 1, d.lastAttemptAt = :attemptedAt,"
+            + " d.nextAttemptAt = :nextAttemptAt, d.deliveredAt = :deliveredAt"
+            + " WHERE d.id = :id AND d.nextAttemptAt = :leaseUntil")
+    int recordAttempt(@Param("id") Long id,
+                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                      @Param("status") WebhookDelivery.Status status,
+                      @Param("attemptedAt") LocalDateTime attemptedAt,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    /**
+     * Regista o resultado de uma tentativa agrupada, somando uma tentativa a cada entrega do lote
+     * cujo lease ainda é do chamador.
+     *
+     * @param ids           entregas do lote.
+     * @param leaseUntil    lease detido pelo chamador durante a tentativa.
+     * @param status        novo estado.
+     * @param attemptedAt   momento da tentativa.
+     * @param nextAttemptAt próxima tentativa ({@code null} se já não há nenhuma).
+     * @param deliveredAt   momento da entrega ({@code null} se falhou).
+     * @return número de linhas atualizadas (menos do que {@code ids} se parte do lote foi reclamada de novo).
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = :status, d.attempts = d.attempts + 1, d.lastAttemptAt = :attemptedAt,"
+            + " d.nextAttemptAt = :nextAttemptAt, d.deliveredAt = :deliveredAt"
+            + " WHERE d.id IN :ids AND d.nextAttemptAt = :leaseUntil")
+    int recordBatchAttempt(@Param("ids") Collection<Long> ids,
+                           @Param("leaseUntil") LocalDateTime leaseUntil,
+                           @Param("status") WebhookDelivery.Status status,
+                           @Param("attemptedAt") LocalDateTime attemptedAt,
+                           @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                           @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    /**
+     * Dá por falhadas as entregas agrupadas pendentes de uma subscrição (ex.: subscrição inativa).
+     *
+     * @param subscriptionId subscrição alvo.
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = com.nexus.estates.entity.WebhookDelivery.Status.FAILED,"
+            + " d.nextAttemptAt = NULL WHERE d.subscriptionId = :subscriptionId AND d.batched = true"
+            + " AND d.status = com.nexus.estates.entity.WebhookDelivery.Status.PENDING")
+    int abandonPendingBatches(@Param("subscriptionId") Long subscriptionId);
+
+    /**
+     * Dá por falhadas, sem nova tentativa, as entregas indicadas.
+     *
+     * @param ids entregas a abandonar.
+     * @return número de linhas atualizadas.
+     */
+    @Modifying
+    @Query("UPDATE WebhookDelivery d SET d.status = com.nexus.estates.entity.WebhookDelivery.Status.FAILED,"
+            + " d.nextAttemptAt = NULL WHERE d.id IN :ids")
+    int abandon(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Apaga o histórico de entregas concluídas (entregues ou falhadas) anteriores a um instante.
+     *
+     * @param before limite de retenção.
+     * @return número de linhas apagadas.
+     */
+    @Modifying
+    @Query("DELETE FROM WebhookDelivery d WHERE d.status <> com.nexus.estates.entity.WebhookDelivery.Status.PENDING"
+            + " AND d.createdAt < :before")
+    int purgeCompletedBefore(@Param("before") LocalDateTime before);
+}
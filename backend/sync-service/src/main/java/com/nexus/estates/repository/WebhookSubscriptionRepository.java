@@ -1,14 +1,29 @@
 package com.nexus.estates.repository;
 import com.nexus.estates.entity.WebhookSubscription;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, Long>
 {
 
     List<WebhookSubscription> findByUserId(Long userId);
 
-    // Procura todos os webhooks ativos que subscreveram um evento específico
-    List<WebhookSubscription> findBySubscribedEventsContainingAndIsActiveTrue(String event);
+    // Procura todos os webhooks ativos que subscreveram exatamente este evento (índice em webhook_subscription_events)
+    @Query("SELECT s FROM WebhookSubscription s JOIN s.subscribedEvents e WHERE e = :event AND s.isActive = true")
+    List<WebhookSubscription> findActiveByEvent(@Param("event") String event);
+
+    // Bloqueia a subscrição enquanto se monta um lote (SKIP LOCKED: vazio se outra instância já o está a fazer)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT s FROM WebhookSubscription s WHERE s.id = :id")
+    Optional<WebhookSubscription> lockForBatch(@Param("id") Long id);
 }
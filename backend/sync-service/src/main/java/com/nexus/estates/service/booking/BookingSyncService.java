@@ -9,8 +9,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-
-import java.util.Optional;
+import reactor.core.publisher.Mono;
 
 /**
  * Serviço de domínio responsável pela sincronização de reservas com parceiros externos.
@@ -41,14 +40,28 @@ public class BookingSyncService {
     /**
      * Sincroniza a reserva com a OTA configurada, aplicando resiliência via conector genérico.
      * <p>
-     * Constrói a configuração de API externa, invoca o conector e traduz o resultado
-     * para um evento {@link BookingStatusUpdatedMessage}.
+     * Variante bloqueante de {@link #syncBookingReactive}.
      * </p>
      *
      * @param message evento de criação de reserva recebido via mensageria
      * @return mensagem de atualização de estado (CONFIRMED ou CANCELLED) com razão
      */
     public BookingStatusUpdatedMessage syncBooking(BookingCreatedMessage message) {
+        return syncBookingReactive(message).block();
+    }
+
+    /**
+     * Sincroniza a reserva com a OTA configurada sem bloquear a thread chamadora.
+     * <p>
+     * Constrói a configuração de API externa, invoca o conector e traduz o resultado
+     * para um evento {@link BookingStatusUpdatedMessage}. Falhas esgotadas na integração
+     * resultam em {@code CANCELLED}, pelo que o Mono nunca termina em erro.
+     * </p>
+     *
+     * @param message evento de criação de reserva recebido via mensageria
+     * @return Mono com a mensagem de atualização de estado (CONFIRMED ou CANCELLED) com razão
+     */
+    public Mono<BookingStatusUpdatedMessage> syncBookingReactive(BookingCreatedMessage message) {
         log.info("Sincronizando reserva {} com plataforma externa", message.bookingId());
 
         ExternalApiConfig config = ExternalApiConfig.builder()
@@ -58,16 +71,15 @@ public class BookingSyncService {
                 .credentials(otaApiKey)
                 .build();
 
-        Optional<ExternalSyncResult> result = connectorFactory.generic().call(config, message, ExternalSyncResult.class);
-
-        return result.map(body -> {
-            BookingStatus status = body.approved() ? BookingStatus.CONFIRMED : BookingStatus.CANCELLED;
-            return new BookingStatusUpdatedMessage(message.bookingId(), status, body.reason());
-        }).orElseGet(() -> new BookingStatusUpdatedMessage(
-                message.bookingId(),
-                BookingStatus.CANCELLED,
-                "Falha na integração externa (Fallback ativado)"
-        ));
+        return connectorFactory.generic().callReactive(config, message, ExternalSyncResult.class)
+                .map(result -> result.map(body -> {
+                    BookingStatus status = body.approved() ? BookingStatus.CONFIRMED : BookingStatus.CANCELLED;
+                    return new BookingStatusUpdatedMessage(message.bookingId(), status, body.reason());
+                }).orElseGet(() -> new BookingStatusUpdatedMessage(
+                        message.bookingId(),
+                        BookingStatus.CANCELLED,
+                        "Falha na integração externa (Fallback ativado)"
+                )));
     }
 
     public record ExternalSyncResult(boolean approved, String reason) {}
@@ -3,6 +3,7 @@ package com.nexus.estates.service.calendar;
 import biweekly.Biweekly;
 import biweekly.ICalendar;
 import biweekly.component.VEvent;
+import biweekly.component.VTimezone;
 import biweekly.io.TimezoneAssignment;
 import biweekly.io.TimezoneInfo;
 import biweekly.property.DateEnd;
@@ -13,15 +14,30 @@ import biweekly.property.Uid;
 import biweekly.util.DateTimeComponents;
 import biweekly.util.ICalDate;
 import com.nexus.estates.dto.SyncBlockDTO;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Serviço responsável por interpretar ficheiros iCalendar (.ics) e normalizar eventos em UTC.
@@ -30,15 +46,36 @@ import java.util.TimeZone;
  * temporais (TZID, floating, VALUE=DATE) para {@link Instant} UTC e devolvendo uma lista de
  * {@link SyncBlockDTO} pronta para publicação/consumo por outros serviços.
  * </p>
+ * <p>
+ * <b>Streaming:</b> o conteúdo é lido linha a linha e cada VEVENT é interpretado isoladamente
+ * e entregue a um callback, pelo que a memória usada é limitada a um evento e não ao ficheiro
+ * inteiro. Cada VTIMEZONE é interpretado uma única vez, quando termina, e as suas regras são
+ * reutilizadas por todos os eventos que o referenciem. Os métodos que devolvem listas assentam
+ * nesse mesmo modo de leitura.
+ * </p>
+ * <p>
+ * <b>VTIMEZONE tardios:</b> o RFC 5545 não obriga a que os VTIMEZONE precedam os eventos. Um
+ * VEVENT que referencie um TZID ainda não declarado (e que não seja um identificador Olson
+ * conhecido) fica retido até ao fim do ficheiro e só é interpretado com todos os VTIMEZONE
+ * lidos; se o TZID continuar por resolver, o evento é interpretado em UTC e é registado um aviso.
+ * </p>
  *
  * @author Nexus Estates Team
- * @version 1.0
+ * @version 1.1
  * @since 2026-03-31
  * @see SyncBlockDTO
  */
+@Slf4j
 @Service
 public class IcsCalendarParserService {
 
+    private static final String CRLF = "\r\n";
+    private static final String CALENDAR_HEADER = "BEGIN:VCALENDAR" + CRLF + "VERSION:2.0" + CRLF;
+    private static final String CALENDAR_FOOTER = "END:VCALENDAR" + CRLF;
+    private static final Pattern TZID_PARAMETER = Pattern.compile("(?i);TZID=(\"[^\"]*\"|[^;:\r\n]*)");
+    /** Identificadores Olson conhecidos; {@link ZoneId#getAvailableZoneIds()} devolve uma cópia nova a cada chamada. */
+    private static final Set<String> AVAILABLE_ZONE_IDS = Set.copyOf(ZoneId.getAvailableZoneIds());
+
     /**
      * Interpreta o conteúdo .ics de um InputStream e extrai blocos normalizados.
      *
@@ -47,16 +84,7 @@ public class IcsCalendarParserService {
      * @throws IllegalArgumentException se o conteúdo estiver inválido
      */
     public List<SyncBlockDTO> parseBlocks(InputStream icsInputStream) {
-        try {
-            List<ICalendar> calendars = Biweekly.parse(icsInputStream).all();
-            boolean hasEvent = calendars.stream().anyMatch(c -> !c.getEvents().isEmpty());
-            if (!hasEvent) {
-                throw new IllegalArgumentException("Conteúdo .ics inválido");
-            }
-            return extractBlocks(calendars);
-        } catch (java.io.IOException e) {
-            throw new IllegalArgumentException("Conteúdo .ics inválido", e);
-        }
+        return collect(new InputStreamReader(icsInputStream, StandardCharsets.UTF_8));
     }
 
     /**
@@ -67,72 +95,216 @@ public class IcsCalendarParserService {
      * @throws IllegalArgumentException se o conteúdo estiver inválido
      */
     public List<SyncBlockDTO> parseBlocks(String icsContents) {
-        try (InputStream is = new ByteArrayInputStream(icsContents.getBytes(StandardCharsets.UTF_8))) {
-            List<ICalendar> calendars = Biweekly.parse(is).all();
-            boolean hasEvent = calendars.stream().anyMatch(c -> !c.getEvents().isEmpty());
-            if (!hasEvent) {
-                throw new IllegalArgumentException("Conteúdo .ics inválido");
-            }
-            return extractBlocks(calendars);
-        } catch (java.io.IOException e) {
-            throw new IllegalArgumentException("Conteúdo .ics inválido", e);
-        }
+        return collect(new StringReader(icsContents));
     }
 
     /**
-     * Converte calendários parseados em uma lista de blocos de sincronização.
+     * Lê um feed .ics incrementalmente, entregando cada bloco ao {@code sink} à medida que
+     * o respetivo VEVENT termina. Calendários sem eventos são aceites (um feed vazio é válido
+     * na ressincronização e significa que todos os bloqueios foram removidos na origem).
      *
-     * @param calendars lista de calendários iCal já parseados
-     * @return blocos normalizados com instantes UTC
+     * @param icsInputStream stream com conteúdo iCalendar (UTF-8); não é fechado por este método
+     * @param sink           destino de cada bloco normalizado em UTC
+     * @return número de VEVENT lidos (incluindo os ignorados por não terem datas)
+     * @throws IllegalArgumentException se o conteúdo não contiver nenhum VCALENDAR
      */
-    private List<SyncBlockDTO> extractBlocks(List<ICalendar> calendars) {
+    public int streamBlocks(InputStream icsInputStream, Consumer<SyncBlockDTO> sink) {
+        return stream(new InputStreamReader(icsInputStream, StandardCharsets.UTF_8), sink);
+    }
+
+    private List<SyncBlockDTO> collect(Reader reader) {
         List<SyncBlockDTO> result = new ArrayList<>();
-        for (ICalendar ical : calendars) {
-            TimezoneInfo tzinfo = ical.getTimezoneInfo();
-            for (VEvent event : ical.getEvents()) {
-                DateStart ds = event.getDateStart();
-                DateEnd de = event.getDateEnd();
-                if (ds == null || de == null) {
+        if (stream(reader, result::add) == 0) {
+            throw new IllegalArgumentException("Conteúdo .ics inválido");
+        }
+        return result;
+    }
+
+    /**
+     * Percorre o conteúdo linha a linha, isolando cada VTIMEZONE e VEVENT (com os respetivos
+     * subcomponentes, ex.: VALARM). Linhas dobradas (iniciadas por espaço ou tab) são copiadas
+     * tal como estão, ficando o unfolding a cargo do Biweekly. Os VEVENT que referenciem um TZID
+     * ainda desconhecido são interpretados apenas no fim do ficheiro.
+     *
+     * @return número de VEVENT lidos
+     */
+    private int stream(Reader reader, Consumer<SyncBlockDTO> sink) {
+        Map<String, TimeZone> declaredZones = new HashMap<>();
+        List<String> deferred = new ArrayList<>();
+        StringBuilder component = null;
+        boolean timezone = false;
+        boolean sawCalendar = false;
+        int depth = 0;
+        int events = 0;
+        try (BufferedReader in = new BufferedReader(reader)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean folded = !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t');
+                if (component != null) {
+                    component.append(line).append(CRLF);
+                    if (folded) {
+                        continue;
+                    }
+                    String upper = line.trim().toUpperCase(Locale.ROOT);
+                    if (upper.startsWith("BEGIN:")) {
+                        depth++;
+                    } else if (upper.startsWith("END:") && --depth == 0) {
+                        if (timezone) {
+                            declare(component, declaredZones);
+                        } else {
+                            events++;
+                            if (isResolvable(component, declaredZones.keySet())) {
+                                emit(declaredZones, component, sink);
+                            } else {
+                                deferred.add(component.toString());
+                            }
+                        }
+                        component = null;
+                    }
                     continue;
                 }
-                ICalDate start = ds.getValue();
-                ICalDate end = de.getValue();
-
-                Instant startUtc = toInstantUtc(start, tzinfo, ds);
-                Instant endUtc = toInstantUtc(end, tzinfo, de);
-
-                Uid uid = event.getUid();
-                Summary summary = event.getSummary();
-                result.add(new SyncBlockDTO(
-                        startUtc,
-                        endUtc,
-                        uid != null ? uid.getValue() : null,
-                        summary != null ? summary.getValue() : null
-                ));
+                if (folded) {
+                    continue;
+                }
+                String upper = line.trim().toUpperCase(Locale.ROOT);
+                if (upper.equals("BEGIN:VCALENDAR")) {
+                    sawCalendar = true;
+                } else if (upper.equals("BEGIN:VEVENT") || upper.equals("BEGIN:VTIMEZONE")) {
+                    timezone = upper.equals("BEGIN:VTIMEZONE");
+                    component = new StringBuilder(line.trim()).append(CRLF);
+                    depth = 1;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler conteúdo .ics", e);
+        }
+        if (!sawCalendar) {
+            throw new IllegalArgumentException("Conteúdo .ics inválido");
+        }
+        for (String event : deferred) {
+            if (!isResolvable(event, declaredZones.keySet())) {
+                log.warn("VEVENT com TZID sem VTIMEZONE correspondente {}; interpretado em UTC",
+                        zoneIds(TZID_PARAMETER, event));
+            }
+            emit(declaredZones, event, sink);
+        }
+        return events;
+    }
+
+    /**
+     * Indica se todos os TZID referenciados pelo evento já foram declarados num VTIMEZONE ou
+     * são identificadores Olson que o Biweekly resolve sem VTIMEZONE.
+     */
+    private static boolean isResolvable(CharSequence event, Set<String> declaredZones) {
+        for (String tzid : zoneIds(TZID_PARAMETER, event)) {
+            if (!declaredZones.contains(tzid) && !AVAILABLE_ZONE_IDS.contains(tzid)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extrai os TZID de um componente, depois de desfazer as linhas dobradas.
+     */
+    private static Set<String> zoneIds(Pattern pattern, CharSequence component) {
+        String unfolded = component.toString().replace(CRLF + " ", "").replace(CRLF + "\t", "");
+        Set<String> ids = new HashSet<>();
+        Matcher matcher = pattern.matcher(unfolded);
+        while (matcher.find()) {
+            String id = matcher.group(1).trim();
+            if (id.length() > 1 && id.startsWith("\"") && id.endsWith("\"")) {
+                id = id.substring(1, id.length() - 1);
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Interpreta um VTIMEZONE uma única vez e regista as suas regras pelo respetivo TZID.
+     */
+    private static void declare(CharSequence timezone, Map<String, TimeZone> declaredZones) {
+        ICalendar ical = Biweekly.parse(CALENDAR_HEADER + timezone + CALENDAR_FOOTER).first();
+        if (ical == null) {
+            return;
+        }
+        for (TimezoneAssignment assignment : ical.getTimezoneInfo().getTimezones()) {
+            VTimezone component = assignment.getComponent();
+            if (component != null && component.getTimezoneId() != null && component.getTimezoneId().getValue() != null) {
+                declaredZones.put(component.getTimezoneId().getValue().trim(), assignment.getTimeZone());
             }
         }
-        return result;
+    }
+
+    /**
+     * Interpreta um único VEVENT, embrulhado num calendário mínimo; as referências TZID são
+     * resolvidas depois, com os VTIMEZONE já interpretados.
+     */
+    private void emit(Map<String, TimeZone> declaredZones, CharSequence event, Consumer<SyncBlockDTO> sink) {
+        ICalendar ical = Biweekly.parse(CALENDAR_HEADER + event + CALENDAR_FOOTER).first();
+        if (ical != null) {
+            extractBlocks(ical, declaredZones, sink);
+        }
+    }
+
+    /**
+     * Converte um calendário parseado em blocos de sincronização.
+     *
+     * @param ical          calendário iCal já parseado
+     * @param declaredZones regras dos VTIMEZONE do ficheiro, por TZID
+     * @param sink          destino dos blocos normalizados com instantes UTC
+     */
+    private void extractBlocks(ICalendar ical, Map<String, TimeZone> declaredZones, Consumer<SyncBlockDTO> sink) {
+        TimezoneInfo tzinfo = ical.getTimezoneInfo();
+        for (VEvent event : ical.getEvents()) {
+            DateStart ds = event.getDateStart();
+            DateEnd de = event.getDateEnd();
+            if (ds == null || de == null || ds.getValue() == null || de.getValue() == null) {
+                continue;
+            }
+            Instant startUtc = toInstantUtc(ds.getValue(), tzinfo, declaredZones, ds);
+            Instant endUtc = toInstantUtc(de.getValue(), tzinfo, declaredZones, de);
+
+            Uid uid = event.getUid();
+            Summary summary = event.getSummary();
+            sink.accept(new SyncBlockDTO(
+                    startUtc,
+                    endUtc,
+                    uid != null ? uid.getValue() : null,
+                    summary != null ? summary.getValue() : null
+            ));
+        }
     }
 
     /**
      * Converte uma data iCal para {@link Instant} em UTC, respeitando TZID/floating/DATE.
      *
-     * @param icalDate data iCal
-     * @param tzinfo   contexto de timezone do calendário
-     * @param property propriedade original (DTSTART/DTEND)
+     * Um TZID declarado num VTIMEZONE do ficheiro prevalece sobre o identificador Olson homónimo.
+     *
+     * @param icalDate      data iCal
+     * @param tzinfo        contexto de timezone do calendário
+     * @param declaredZones regras dos VTIMEZONE do ficheiro, por TZID
+     * @param property      propriedade original (DTSTART/DTEND)
      * @return instante em UTC
      */
-    private Instant toInstantUtc(ICalDate icalDate, TimezoneInfo tzinfo, ICalProperty property) {
+    private Instant toInstantUtc(ICalDate icalDate, TimezoneInfo tzinfo, Map<String, TimeZone> declaredZones,
+                                 ICalProperty property) {
         DateTimeComponents comps = icalDate.getRawComponents();
 
         boolean hasTime = icalDate.hasTime();
-        boolean floating = tzinfo.isFloating(property);
         TimezoneAssignment assign = tzinfo.getTimezone(property);
+        // Sem o VTIMEZONE no calendário do evento, o Biweekly resolve apenas TZID Olson e deixa os
+        // restantes no parâmetro da propriedade
+        String tzid = assign != null ? assign.getGlobalId() : property.getParameters().getTimezoneId();
+        TimeZone declared = tzid != null ? declaredZones.get(tzid.trim()) : null;
 
         TimeZone tz;
         if (!hasTime) {
             tz = TimeZone.getTimeZone("UTC");
-        } else if (floating) {
+        } else if (declared != null) {
+            tz = declared;
+        } else if (tzinfo.isFloating(property)) {
             tz = TimeZone.getDefault();
         } else {
             tz = (assign != null) ? assign.getTimeZone() : TimeZone.getTimeZone("UTC");
@@ -0,0 +1,360 @@
+package com.nexus.estates.service.calendar;
+
+import com.nexus.estates.dto.IcsResyncResultDTO;
+import com.nexus.estates.entity.IcsFeedState;
+import com.nexus.estates.repository.IcsFeedStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Polling agendado dos feeds iCal registados ({@link IcsFeedState#getFeedUrl()}).
+ * <p>
+ * A cada tick, reclama um lote de feeds vencidos ({@code FOR UPDATE SKIP LOCKED}) e adia-os
+ * por um lease enquanto o pedido está em curso, pelo que várias instâncias podem correr em
+ * paralelo sem consultar o mesmo feed. Os pedidos são feitos de forma não bloqueante com o
+ * {@link WebClient} dos serviços externos:
+ * </p>
+ * <ul>
+ *   <li><b>GET condicional:</b> {@code If-None-Match}/{@code If-Modified-Since} com os
+ *       validadores guardados; um {@code 304} não descarrega nem interpreta nada;</li>
+ *   <li><b>Concorrência limitada:</b> um teto global de feeds reclamados e outro de pedidos em
+ *       curso por host remoto; os feeds de um host ocupado esperam numa fila local, pela ordem
+ *       de vencimento, e só quando essa fila também está cheia (tantos feeds quanto o limite
+ *       por host) ficam vencidos para o tick seguinte, mantendo a sua posição;</li>
+ *   <li><b>Timeout por pedido:</b> o {@code request-timeout} é aplicado também como timeout de
+ *       resposta do Netty em cada pedido, sobrepondo-se ao do cliente partilhado;</li>
+ *   <li><b>Endereços internos:</b> antes de cada pedido o host é resolvido e recusado se
+ *       apontar para loopback ou redes privadas (ver {@link IcsFeedUrls});</li>
+ *   <li><b>Intervalo adaptativo:</b> encurta para metade quando o feed muda e cresce 50% quando
+ *       não muda, entre os limites configurados; falhas adiam o feed sem alterar o intervalo;</li>
+ *   <li><b>Jitter:</b> o próximo polling é deslocado aleatoriamente (±{@code jitter}) para
+ *       que milhares de feeds não convirjam para o mesmo instante.</li>
+ * </ul>
+ * <p>
+ * Os conteúdos alterados seguem para {@link IcsFeedSyncService#resync}, fora das threads de
+ * I/O, que publica apenas o delta para o booking-service.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sync.ics.poller.enabled", havingValue = "true", matchIfMissing = true)
+public class IcsFeedPoller {
+
+    /** Resultado do polling de um feed. */
+    public enum Outcome { CHANGED, UNCHANGED, NOT_MODIFIED, FAILED }
+
+    private final IcsFeedStateRepository feedStateRepository;
+    private final IcsFeedSyncService feedSyncService;
+    private final TransactionOperations transactionOperations;
+    private final WebClient webClient;
+    private final Duration requestTimeout;
+    private final int batchSize;
+    private final int perHostLimit;
+    private final Semaphore inFlight;
+    private final int minIntervalSeconds;
+    private final int maxIntervalSeconds;
+    private final double jitter;
+    private final Duration lease;
+    private final boolean allowPrivateHosts;
+    /** Uma entrada por host com feeds reclamados; nunca excede {@code maxInFlight} entradas. */
+    private final Map<String, HostLane> hostLanes = new ConcurrentHashMap<>();
+
+    /**
+     * @param feedStateRepository   repositório do estado dos feeds.
+     * @param feedSyncService       ressincronização incremental dos conteúdos alterados.
+     * @param transactionOperations transações curtas para reclamar e reagendar feeds.
+     * @param externalApiWebClient  cliente HTTP partilhado com os serviços externos.
+     * @param maxFeedBytes          tamanho máximo aceite para o corpo de um feed.
+     * @param requestTimeout        timeout total de cada pedido.
+     * @param batchSize             número máximo de feeds reclamados por tick.
+     * @param maxInFlight           teto global de feeds reclamados (em curso ou em fila).
+     * @param perHostLimit          teto de pedidos em curso por host remoto.
+     * @param minIntervalSeconds    intervalo mínimo entre pollings do mesmo feed.
+     * @param maxIntervalSeconds    intervalo máximo entre pollings do mesmo feed.
+     * @param jitter                fração de variação aleatória aplicada a cada reagendamento.
+     * @param leaseSeconds          tempo durante o qual um feed reclamado não volta a ser reclamado.
+     * @param allowPrivateHosts     permite consultar hosts internos (apenas para desenvolvimento).
+     */
+    public IcsFeedPoller(IcsFeedStateRepository feedStateRepository,
+                         IcsFeedSyncService feedSyncService,
+                         TransactionOperations transactionOperations,
+                         WebClient externalApiWebClient,
+                         @Value("${sync.ics.poller.max-feed-bytes:20971520}") int maxFeedBytes,
+                         @Value("${sync.ics.poller.request-timeout:30s}") Duration requestTimeout,
+                         @Value("${sync.ics.poller.batch-size:200}") int batchSize,
+                         @Value("${sync.ics.poller.max-in-flight:64}") int maxInFlight,
+                         @Value("${sync.ics.poller.per-host-limit:4}") int perHostLimit,
+                         @Value("${sync.ics.poller.min-interval-seconds:300}") int minIntervalSeconds,
+                         @Value("${sync.ics.poller.max-interval-seconds:21600}") int maxIntervalSeconds,
+                         @Value("${sync.ics.poller.jitter:0.2}") double jitter,
+                         @Value("${sync.ics.poller.lease-seconds:300}") long leaseSeconds,
+                         @Value("${sync.ics.allow-private-hosts:false}") boolean allowPrivateHosts) {
+        this.feedStateRepository = feedStateRepository;
+        this.feedSyncService = feedSyncService;
+        this.transactionOperations = transactionOperations;
+        this.webClient = externalApiWebClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxFeedBytes))
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.batchSize = batchSize;
+        this.perHostLimit = perHostLimit;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.minIntervalSeconds = minIntervalSeconds;
+        this.maxIntervalSeconds = maxIntervalSeconds;
+        this.jitter = jitter;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.allowPrivateHosts = allowPrivateHosts;
+    }
+
+    /**
+     * Tick agendado: reclama os feeds vencidos e dispara os pedidos sem esperar por eles.
+     */
+    @Scheduled(fixedDelayString = "${sync.ics.poller.tick-ms:15000}",
+            initialDelayString = "${sync.ics.poller.tick-ms:15000}")
+    public void tick() {
+        try {
+            pollDue().subscribe();
+        } catch (RuntimeException e) {
+            log.error("Falha ao reclamar feeds iCal vencidos: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reclama o próximo lote de feeds vencidos, dentro dos limites de concorrência, e devolve
+     * o fluxo dos respetivos pollings (que só começam quando subscrito).
+     *
+     * @return resultado de cada feed reclamado.
+     */
+    public Flux<Outcome> pollDue() {
+        if (inFlight.availablePermits() == 0) {
+            return Flux.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Claim> claims = transactionOperations.execute(status -> {
+            List<Claim> claimed = new ArrayList<>();
+            for (IcsFeedState feed : feedStateRepository.lockDueFeeds(now, PageRequest.of(0, batchSize))) {
+                if (!inFlight.tryAcquire()) {
+                    break;
+                }
+                String host = host(feed.getFeedUrl());
+                HostLane lane = reserve(host);
+                if (lane == null) {
+                    // Fila do host cheia: o feed continua vencido e volta a ser o primeiro no próximo tick.
+                    inFlight.release();
+                    continue;
+                }
+                claimed.add(new Claim(feed, host, lane));
+            }
+            if (!claimed.isEmpty()) {
+                feedStateRepository.leaseUntil(claimed.stream().map(c -> c.feed.getId()).toList(), now.plus(lease));
+            }
+            return claimed;
+        });
+        return Flux.fromIterable(claims).flatMap(this::poll);
+    }
+
+    private Mono<Outcome> poll(Claim claim) {
+        IcsFeedState feed = claim.feed;
+        HostLane.Waiter waiter = new HostLane.Waiter();
+        return Mono.<Void>create(sink -> claim.lane.acquire(waiter, sink, perHostLimit))
+                .then(Mono.defer(() -> fetch(feed)))
+                .onErrorResume(e -> Mono.just(new Fetch(null, null, null, e)))
+                // A ressincronização e o reagendamento usam JPA: saem das threads de I/O.
+                .publishOn(Schedulers.boundedElastic())
+                .map(fetch -> {
+                    Outcome outcome = apply(feed, fetch);
+                    reschedule(feed, outcome);
+                    return outcome;
+                })
+                .doFinally(signal -> {
+                    claim.lane.release(waiter);
+                    hostLanes.computeIfPresent(claim.host, (h, lane) -> --lane.claimed == 0 ? null : lane);
+                    inFlight.release();
+                });
+    }
+
+    private Mono<Fetch> fetch(IcsFeedState feed) {
+        Mono<Void> guard = allowPrivateHosts
+                ? Mono.empty()
+                // Resolução DNS bloqueante: fora das threads de I/O.
+                : Mono.<Void>fromRunnable(() -> IcsFeedUrls.requirePublicHttpUrl(feed.getFeedUrl()))
+                        .subscribeOn(Schedulers.boundedElastic());
+        return guard.then(webClient.get()
+                .uri(URI.create(feed.getFeedUrl()))
+                .headers(h -> {
+                    if (feed.getEtag() != null) {
+                        h.setIfNoneMatch(feed.getEtag());
+                    }
+                    if (feed.getLastModified() != null) {
+                        h.set(HttpHeaders.IF_MODIFIED_SINCE, feed.getLastModified());
+                    }
+                })
+                .httpRequest(request -> {
+                    Object nativeRequest = request.getNativeRequest();
+                    if (nativeRequest instanceof HttpClientRequest httpClientRequest) {
+                        httpClientRequest.responseTimeout(requestTimeout);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return response.releaseBody().thenReturn(Fetch.NOT_MODIFIED);
+                    }
+                    if (response.statusCode().is2xxSuccessful()) {
+                        HttpHeaders headers = response.headers().asHttpHeaders();
+                        return response.bodyToMono(byte[].class)
+                                .defaultIfEmpty(new byte[0])
+                                .map(body -> new Fetch(body, headers.getETag(),
+                                        headers.getFirst(HttpHeaders.LAST_MODIFIED), null));
+                    }
+                    return response.createException().flatMap(Mono::error);
+                })
+                .timeout(requestTimeout));
+    }
+
+    /**
+     * Reserva um lugar na fila do host, criando-a se necessário.
+     *
+     * @return a fila reservada, ou {@code null} se o host já tiver o máximo de feeds reclamados.
+     */
+    private HostLane reserve(String host) {
+        HostLane[] reserved = new HostLane[1];
+        hostLanes.compute(host, (h, lane) -> {
+            HostLane current = lane != null ? lane : new HostLane();
+            if (current.claimed < 2 * perHostLimit) {
+                current.claimed++;
+                reserved[0] = current;
+            }
+            return current.claimed == 0 ? null : current;
+        });
+        return reserved[0];
+    }
+
+    private Outcome apply(IcsFeedState feed, Fetch fetch) {
+        if (fetch == Fetch.NOT_MODIFIED) {
+            return Outcome.NOT_MODIFIED;
+        }
+        if (fetch.error != null) {
+            log.warn("Falha ao consultar feed {} da propriedade {}: {}",
+                    feed.getFeedKey(), feed.getPropertyId(), fetch.error.getMessage());
+            return Outcome.FAILED;
+        }
+        try {
+            IcsResyncResultDTO result = feedSyncService.resync(feed.getPropertyId(), feed.getFeedKey(),
+                    fetch.body, fetch.etag, fetch.lastModified);
+            boolean changed = !result.feedUnchanged() && result.added() + result.changed() + result.removed() > 0;
+            return changed ? Outcome.CHANGED : Outcome.UNCHANGED;
+        } catch (RuntimeException e) {
+            log.warn("Falha ao aplicar feed {} da propriedade {}: {}",
+                    feed.getFeedKey(), feed.getPropertyId(), e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    private void reschedule(IcsFeedState feed, Outcome outcome) {
+        int current = feed.getPollIntervalSeconds() != null ? feed.getPollIntervalSeconds() : minIntervalSeconds;
+        int interval = switch (outcome) {
+            case CHANGED -> current / 2;
+            case UNCHANGED, NOT_MODIFIED -> (int) Math.min(Integer.MAX_VALUE, current * 3L / 2);
+            case FAILED -> current;
+        };
+        interval = Math.max(minIntervalSeconds, Math.min(maxIntervalSeconds, interval));
+        long delay = outcome == Outcome.FAILED ? Math.min(maxIntervalSeconds, interval * 2L) : interval;
+        double factor = jitter > 0 ? 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter) : 1;
+        LocalDateTime nextPollAt = LocalDateTime.now().plusSeconds(Math.round(delay * factor));
+        int newInterval = interval;
+        transactionOperations.executeWithoutResult(status ->
+                feedStateRepository.reschedule(feed.getId(), newInterval, nextPollAt));
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private record Claim(IcsFeedState feed, String host, HostLane lane) {}
+
+    /**
+     * Feeds reclamados de um mesmo host: até {@code perHostLimit} pedidos em curso e os
+     * restantes em fila, pela ordem em que foram reclamados.
+     */
+    private static final class HostLane {
+
+        /** Feeds reclamados (em curso ou em fila); alterado apenas dentro de {@code hostLanes.compute}. */
+        private int claimed;
+        private int running;
+        private final Deque<Waiter> waiting = new ArrayDeque<>();
+
+        /** Entrega o lugar ao {@code sink} de imediato, ou quando outro pedido do host terminar. */
+        void acquire(Waiter waiter, MonoSink<Void> sink, int limit) {
+            synchronized (this) {
+                waiter.sink = sink;
+                if (running >= limit) {
+                    waiting.add(waiter);
+                    return;
+                }
+                running++;
+                waiter.granted = true;
+            }
+            sink.success();
+        }
+
+        /** Liberta o lugar do {@code waiter} (ou retira-o da fila) e passa-o ao seguinte. */
+        void release(Waiter waiter) {
+            Waiter next;
+            synchronized (this) {
+                if (!waiter.granted) {
+                    waiting.remove(waiter);
+                    return;
+                }
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+                next.granted = true;
+            }
+            next.sink.success();
+        }
+
+        static final class Waiter {
+            private MonoSink<Void> sink;
+            private boolean granted;
+        }
+    }
+
+    private record Fetch(byte[] body, String etag, String lastModified, Throwable error) {
+        static final Fetch NOT_MODIFIED = new Fetch(null, null, null, null);
+    }
+}
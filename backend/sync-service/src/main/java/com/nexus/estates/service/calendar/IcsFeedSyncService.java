@@ -0,0 +1,294 @@
+package com.nexus.estates.service.calendar;
+
+import com.nexus.estates.common.messaging.CalendarImportMessage;
+import com.nexus.estates.dto.IcsResyncResultDTO;
+import com.nexus.estates.dto.SyncBlockDTO;
+import com.nexus.estates.entity.IcsFeedState;
+import com.nexus.estates.repository.IcsFeedStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ressincronização incremental de feeds iCal (.ics), com estado persistido por propriedade.
+ * <p>
+ * Em vez de republicar todos os eventos a cada importação, compara o feed recebido com o
+ * {@link IcsFeedState} guardado e publica para o booking-service uma única
+ * {@link CalendarImportMessage} apenas com os eventos novos ou alterados e os UIDs removidos:
+ * </p>
+ * <ol>
+ *   <li>o hash SHA-256 do conteúdo bruto é comparado com o último aplicado; se for igual, o
+ *       feed não é interpretado e os eventos guardados nem são carregados;</li>
+ *   <li>caso contrário, o feed é lido em streaming e cada evento, identificado pelo UID e
+ *       resumido num hash das datas e do resumo, é comparado de imediato com o guardado, pelo
+ *       que apenas o delta e os pares UID/hash ficam em memória;</li>
+ *   <li>o delta é publicado e o estado atualizado na mesma transação; se a publicação falhar,
+ *       o estado não avança e a próxima ressincronização volta a calcular o mesmo delta.</li>
+ * </ol>
+ * <p>
+ * Eventos sem UID recebem um identificador sintético derivado do próprio conteúdo
+ * ({@code hash:<sha256>}), pelo que uma alteração a um desses eventos é tratada como a
+ * remoção do antigo e a adição do novo.
+ * </p>
+ * <p>
+ * Só são publicados eventos dentro do horizonte configurado ({@code sync.ics.horizon.*});
+ * eventos fora dele, tipicamente estadias já terminadas, são descartados durante a leitura.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Service
+public class IcsFeedSyncService {
+
+    static final String SYNTHETIC_UID_PREFIX = "hash:";
+
+    private final IcsFeedStateRepository feedStateRepository;
+    private final IcsCalendarParserService parserService;
+    private final RabbitTemplate rabbitTemplate;
+    private final String bookingExchangeName;
+    private final String calendarImportRoutingKey;
+    private final Duration pastHorizon;
+    private final Duration futureHorizon;
+    private final int initialPollIntervalSeconds;
+    private final boolean allowPrivateHosts;
+
+    /**
+     * @param feedStateRepository      repositório do estado dos feeds.
+     * @param parserService            parser iCal usado quando o feed mudou.
+     * @param rabbitTemplate           template AMQP para publicar o delta.
+     * @param bookingExchangeName      exchange partilhada com o booking-service.
+     * @param calendarImportRoutingKey routing key da importação de calendários.
+     * @param pastHorizonDays          dias no passado a partir dos quais eventos terminados são ignorados.
+     * @param futureHorizonDays        dias no futuro além dos quais eventos são ignorados.
+     * @param initialPollIntervalSeconds intervalo de polling atribuído a um feed registado.
+     * @param allowPrivateHosts        aceita feeds em hosts internos (apenas para desenvolvimento).
+     */
+    public IcsFeedSyncService(IcsFeedStateRepository feedStateRepository,
+                              IcsCalendarParserService parserService,
+                              RabbitTemplate rabbitTemplate,
+                              @Value("${booking.events.exchange:booking.exchange}") String bookingExchangeName,
+                              @Value("${booking.calendar.routing-key.import:calendar.import}") String calendarImportRoutingKey,
+                              @Value("${sync.ics.horizon.past-days:1}") long pastHorizonDays,
+                              @Value("${sync.ics.horizon.future-days:1095}") long futureHorizonDays,
+                              @Value("${sync.ics.poller.initial-interval-seconds:900}") int initialPollIntervalSeconds,
+                              @Value("${sync.ics.allow-private-hosts:false}") boolean allowPrivateHosts) {
+        this.feedStateRepository = feedStateRepository;
+        this.parserService = parserService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.bookingExchangeName = bookingExchangeName;
+        this.calendarImportRoutingKey = calendarImportRoutingKey;
+        this.pastHorizon = Duration.ofDays(pastHorizonDays);
+        this.futureHorizon = Duration.ofDays(futureHorizonDays);
+        this.initialPollIntervalSeconds = initialPollIntervalSeconds;
+        this.allowPrivateHosts = allowPrivateHosts;
+    }
+
+    /**
+     * Aplica um feed completo a uma propriedade, publicando apenas as diferenças face ao último.
+     *
+     * @param propertyId propriedade alvo.
+     * @param feedKey    identificador do feed dentro da propriedade.
+     * @param content    conteúdo bruto do ficheiro .ics.
+     * @return contagem de eventos adicionados, alterados e removidos.
+     * @throws IllegalArgumentException se o conteúdo não for um calendário iCal válido.
+     */
+    @Transactional
+    public IcsResyncResultDTO resync(Long propertyId, String feedKey, byte[] content) {
+        return resync(propertyId, feedKey, content, null, null);
+    }
+
+    /**
+     * Igual a {@link #resync(Long, String, byte[])}, lendo o feed em streaming: o conteúdo
+     * nunca é carregado por inteiro em memória. O stream não é fechado por este método.
+     *
+     * @param propertyId propriedade alvo.
+     * @param feedKey    identificador do feed dentro da propriedade.
+     * @param content    stream com o conteúdo bruto do ficheiro .ics.
+     * @return contagem de eventos adicionados, alterados e removidos.
+     * @throws IllegalArgumentException se o conteúdo não for um calendário iCal válido.
+     */
+    @Transactional
+    public IcsResyncResultDTO resync(Long propertyId, String feedKey, InputStream content) {
+        return resync(propertyId, feedKey, content, null, null, null);
+    }
+
+    /**
+     * Igual a {@link #resync(Long, String, byte[])}, guardando também os validadores HTTP
+     * devolvidos pela origem para o próximo pedido condicional do poller.
+     *
+     * @param propertyId   propriedade alvo.
+     * @param feedKey      identificador do feed dentro da propriedade.
+     * @param content      conteúdo bruto do ficheiro .ics.
+     * @param etag         cabeçalho ETag da resposta (ou {@code null}).
+     * @param lastModified cabeçalho Last-Modified da resposta (ou {@code null}).
+     * @return contagem de eventos adicionados, alterados e removidos.
+     */
+    @Transactional
+    public IcsResyncResultDTO resync(Long propertyId, String feedKey, byte[] content,
+                                     String etag, String lastModified) {
+        return resync(propertyId, feedKey, new ByteArrayInputStream(content), sha256(content), etag, lastModified);
+    }
+
+    /**
+     * Ressincronização em streaming. Quando o hash do conteúdo já é conhecido (conteúdo em
+     * memória), um feed igual ao último aplicado nem sequer é interpretado; caso contrário, o
+     * hash é calculado durante a leitura e, se coincidir, as diferenças são descartadas e nada
+     * é publicado.
+     */
+    private IcsResyncResultDTO resync(Long propertyId, String feedKey, InputStream content, String contentHash,
+                                      String etag, String lastModified) {
+        IcsFeedState state = feedStateRepository.findForUpdate(propertyId, feedKey)
+                .orElseGet(() -> IcsFeedState.builder().propertyId(propertyId).feedKey(feedKey).build());
+        state.setLastSyncedAt(LocalDateTime.now());
+        if (etag != null || lastModified != null) {
+            state.setEtag(etag);
+            state.setLastModified(lastModified);
+        }
+        if (contentHash != null && contentHash.equals(state.getContentHash())) {
+            return unchanged(state);
+        }
+
+        MessageDigest digest = sha256();
+        DigestInputStream hashed = new DigestInputStream(content, digest);
+
+        Map<String, String> stored = state.getEventHashes();
+        Map<String, String> seen = new HashMap<>();
+        Map<String, CalendarImportMessage.Block> delta = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        Instant from = now.minus(pastHorizon);
+        Instant to = now.plus(futureHorizon);
+        parserService.streamBlocks(hashed, block -> {
+            String eventHash = eventHash(block);
+            String uid = block.uid() != null && !block.uid().isBlank()
+                    ? block.uid()
+                    : SYNTHETIC_UID_PREFIX + eventHash;
+            if (!block.endUtc().isAfter(from) || !block.startUtc().isBefore(to)) {
+                // Fora do horizonte: não é publicado, mas um UID já conhecido não conta como removido.
+                String previous = stored.get(uid);
+                if (previous != null) {
+                    seen.put(uid, previous);
+                }
+                return;
+            }
+            // O mesmo UID repetido no feed: prevalece a última ocorrência.
+            seen.put(uid, eventHash);
+            if (eventHash.equals(stored.get(uid))) {
+                delta.remove(uid);
+            } else {
+                delta.put(uid, new CalendarImportMessage.Block(block.startUtc(), block.endUtc(), uid, block.summary()));
+            }
+        });
+
+        String feedHash = HexFormat.of().formatHex(digest.digest());
+        if (feedHash.equals(state.getContentHash())) {
+            return unchanged(state);
+        }
+
+        int added = 0;
+        int changed = 0;
+        for (String uid : delta.keySet()) {
+            if (stored.containsKey(uid)) {
+                changed++;
+            } else {
+                added++;
+            }
+        }
+        Set<String> removed = new HashSet<>(stored.keySet());
+        removed.removeAll(seen.keySet());
+
+        if (!delta.isEmpty() || !removed.isEmpty()) {
+            rabbitTemplate.convertAndSend(bookingExchangeName, calendarImportRoutingKey,
+                    new CalendarImportMessage(propertyId, List.copyOf(delta.values()), List.copyOf(removed)));
+        }
+
+        // Atualiza o mapa gerido no lugar para que o Hibernate escreva apenas as linhas alteradas.
+        stored.keySet().removeAll(removed);
+        for (String uid : delta.keySet()) {
+            stored.put(uid, seen.get(uid));
+        }
+        state.setContentHash(feedHash);
+        feedStateRepository.save(state);
+
+        log.info("Feed {} da propriedade {} ressincronizado: {} novos, {} alterados, {} removidos",
+                feedKey, propertyId, added, changed, removed.size());
+        return new IcsResyncResultDTO(propertyId, feedKey, false, added, changed, removed.size());
+    }
+
+    /**
+     * Regista (ou atualiza) o URL de um feed para polling agendado.
+     * <p>
+     * O primeiro polling é marcado num instante aleatório dentro do intervalo inicial, para
+     * que um registo em massa de feeds não gere um pico de pedidos no mesmo tick.
+     * </p>
+     *
+     * @param propertyId      propriedade alvo.
+     * @param feedKey         identificador do feed dentro da propriedade.
+     * @param feedUrl         URL http(s) do calendário externo.
+     * @return estado persistido do feed.
+     * @throws IllegalArgumentException se o URL não for http(s) ou apontar para um endereço
+     *                                  interno (loopback, rede privada, link-local).
+     */
+    @Transactional
+    public IcsFeedState registerFeed(Long propertyId, String feedKey, String feedUrl) {
+        if (!allowPrivateHosts) {
+            IcsFeedUrls.requirePublicHttpUrl(feedUrl);
+        }
+        int intervalSeconds = initialPollIntervalSeconds;
+        IcsFeedState state = feedStateRepository.findForUpdate(propertyId, feedKey)
+                .orElseGet(() -> IcsFeedState.builder().propertyId(propertyId).feedKey(feedKey).build());
+        if (!feedUrl.equals(state.getFeedUrl())) {
+            // Outro URL: os validadores HTTP do anterior deixam de ser válidos.
+            state.setEtag(null);
+            state.setLastModified(null);
+        }
+        state.setFeedUrl(feedUrl);
+        state.setPollIntervalSeconds(intervalSeconds);
+        state.setNextPollAt(LocalDateTime.now().plusSeconds(ThreadLocalRandom.current().nextLong(intervalSeconds + 1L)));
+        return feedStateRepository.save(state);
+    }
+
+    private static String eventHash(SyncBlockDTO block) {
+        String canonical = block.startUtc() + "|" + block.endUtc() + "|"
+                + (block.summary() != null ? block.summary() : "");
+        return sha256(canonical.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private IcsResyncResultDTO unchanged(IcsFeedState state) {
+        feedStateRepository.save(state);
+        log.debug("Feed {} da propriedade {} sem alterações", state.getFeedKey(), state.getPropertyId());
+        return new IcsResyncResultDTO(state.getPropertyId(), state.getFeedKey(), true, 0, 0, 0);
+    }
+
+    private static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.nexus.estates.service.calendar;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Locale;
+
+/**
+ * Validação dos URLs de feeds iCal consultados pelo sync-service.
+ * <p>
+ * Os URLs são indicados pelos utilizadores e pedidos a partir da rede interna, pelo que só são
+ * aceites URLs http(s) cujo host resolva exclusivamente para endereços públicos: loopback,
+ * redes privadas, link-local (incluindo metadados de cloud), endereços unique-local IPv6 e
+ * multicast são recusados. A verificação é repetida antes de cada polling, para que um host
+ * que passe a resolver para a rede interna deixe de ser consultado.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+final class IcsFeedUrls {
+
+    private IcsFeedUrls() {
+    }
+
+    /**
+     * Garante que o URL é http(s) e que o host resolve apenas para endereços públicos.
+     *
+     * @param url URL do feed.
+     * @throws IllegalArgumentException se o URL for inválido, não for http(s), não resolver ou
+     *                                  apontar para um endereço não público.
+     */
+    static void requirePublicHttpUrl(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("URL de feed inválido: " + url, e);
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (uri.getHost() == null || !(scheme.equals("http") || scheme.equals("https"))) {
+            throw new IllegalArgumentException("O URL do feed tem de ser http(s): " + url);
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(uri.getHost());
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Host do feed desconhecido: " + uri.getHost(), e);
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new IllegalArgumentException("O URL do feed aponta para um endereço não público: " + uri.getHost());
+            }
+        }
+    }
+
+    private static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] raw = address.getAddress();
+        if (address instanceof Inet6Address) {
+            // fc00::/7 (unique local)
+            return (raw[0] & 0xFE) != 0xFC;
+        }
+        // 100.64.0.0/10 (CGNAT) e 0.0.0.0/8
+        return !((raw[0] & 0xFF) == 100 && (raw[1] & 0xC0) == 64) && raw[0] != 0;
+    }
+}
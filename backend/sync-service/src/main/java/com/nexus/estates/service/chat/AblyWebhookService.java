@@ -38,17 +38,17 @@ public class AblyWebhookService {
     /**
      * Valida a assinatura HMAC-SHA256 do webhook usando o segredo configurado e o utilitário partilhado.
      * <p>
-     * Utiliza a função utilitária {@link WebhookCryptoUtil#isValidSignature(String, String, String)}
+     * Utiliza a função utilitária {@link WebhookCryptoUtil#isValidSignature(byte[], String, String)}
      * para verificar se a assinatura enviada no cabeçalho condiz com a hash que o sistema
      * Nexus gerou, utilizando o segredo configurado (tipicamente através de variáveis de ambiente).
      * </p>
      *
-     * @param requestBody Corpo bruto (raw text/JSON) da requisição HTTP efetuada pelo Ably.
+     * @param requestBody Corpo bruto (bytes exatos do JSON) da requisição HTTP efetuada pelo Ably.
      * @param signatureHeader Valor explícito do cabeçalho de assinatura 'X-Ably-Signature'.
      * @return {@code true} se as assinaturas coincidirem, indicando a proveniência e integridade,
      *         ou {@code false} em caso de payload ou cabeçalho incorretos/manipulados.
      */
-    public boolean isSignatureValid(String requestBody, String signatureHeader) {
+    public boolean isSignatureValid(byte[] requestBody, String signatureHeader) {
         return WebhookCryptoUtil.isValidSignature(requestBody, signatureHeader, webhookSecret);
     }
 
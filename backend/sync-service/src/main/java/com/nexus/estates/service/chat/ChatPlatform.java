@@ -1,6 +1,7 @@
 package com.nexus.estates.service.chat;
 
 import com.nexus.estates.service.external.connectors.AblyConnector;
+import reactor.core.publisher.Mono;
 
 /**
  * Interface que define o contrato para integração com plataformas de chat e mensagens em tempo real.
@@ -27,6 +28,16 @@ public interface ChatPlatform {
      */
     boolean sendMessage(String channel, String event, Object message);
 
+    /**
+     * Variante não bloqueante de {@link #sendMessage}.
+     *
+     * @param channel identificador do canal (ex.: booking-chat:123)
+     * @param event   tipo de evento (ex.: new-message)
+     * @param message payload a publicar (serializável)
+     * @return Mono com true se publicado com sucesso, false caso contrário
+     */
+    Mono<Boolean> sendMessageReactive(String channel, String event, Object message);
+
     /**
      * Gera um token de cliente com permissões restritas para um canal.
      *
@@ -7,9 +7,14 @@ import com.nexus.estates.repository.MessageRepository;
 import com.nexus.estates.service.notification.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +28,7 @@ import java.util.Set;
  * </p>
  *
  * @author Nexus Estates Team
- * @version 1.2
+ * @version 1.3
  * @since 2026-03-31
  */
 @Slf4j
@@ -35,6 +40,14 @@ public class MessageService {
     private final Proxy proxy;
     private final EmailService emailService;
 
+    /** Mensagens por página quando o cliente não indica {@code limit}. */
+    @Value("${chat.history.default-page-size:50}")
+    private int defaultPageSize = 50;
+
+    /** Tamanho máximo de página aceite, mesmo que o cliente peça mais. */
+    @Value("${chat.history.max-page-size:200}")
+    private int maxPageSize = 200;
+
     /**
      * Persiste uma nova mensagem associada a uma reserva no histórico local.
      *
@@ -55,14 +68,67 @@ public class MessageService {
     }
 
     /**
-     * Recupera o histórico cronológico de mensagens de uma reserva.
+     * Recupera o histórico completo de mensagens de uma reserva.
+     * <p>
+     * Mantido para os clientes que não paginam (pedido sem {@code before} nem {@code limit});
+     * os restantes usam {@link #getLatestMessages(Long, Long, Integer)}.
+     * </p>
      *
      * @param bookingId ID da reserva.
-     * @return Lista de mensagens ordenadas.
+     * @return Mensagens ordenadas cronologicamente (mais antigas primeiro).
      */
     @Transactional(readOnly = true)
     public List<Message> getMessagesByBookingId(Long bookingId) {
-        return messageRepository.findByBookingIdOrderByCreatedAtAsc(bookingId);
+        return messageRepository.findByBookingIdOrderByCreatedAtAscIdAsc(bookingId);
+    }
+
+    /**
+     * Recupera uma página do histórico de uma reserva, da mais recente para trás.
+     * <p>
+     * Sem cursor devolve as últimas {@code limit} mensagens; com {@code beforeId} devolve as
+     * {@code limit} anteriores a essa mensagem, para carregar o histórico mais antigo a pedido.
+     * </p>
+     *
+     * @param bookingId ID da reserva.
+     * @param beforeId  ID da mensagem mais antiga já carregada pelo cliente (opcional).
+     * @param limit     Tamanho da página pretendido (opcional).
+     * @return Mensagens ordenadas cronologicamente (mais antigas primeiro).
+     * @throws IllegalArgumentException se o cursor não for uma mensagem desta reserva.
+     */
+    @Transactional(readOnly = true)
+    public List<Message> getLatestMessages(Long bookingId, Long beforeId, Integer limit) {
+        Pageable page = PageRequest.of(0, pageSize(limit));
+        List<Message> newestFirst;
+        if (beforeId == null) {
+            newestFirst = messageRepository.findLatest(bookingId, page);
+        } else {
+            Message cursor = cursor(bookingId, beforeId);
+            newestFirst = messageRepository.findBefore(bookingId, cursor.getCreatedAt(), cursor.getId(), page);
+        }
+        List<Message> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * Recupera as mensagens de uma reserva posteriores a um cursor (sincronização incremental).
+     * <p>
+     * Usado pelos clientes depois de uma reconexão ao canal de tempo real, para transferir apenas
+     * o que chegou entretanto. Uma página cheia indica que podem existir mais mensagens: o cliente
+     * repete o pedido com o ID da última recebida.
+     * </p>
+     *
+     * @param bookingId ID da reserva.
+     * @param afterId   ID da mensagem mais recente já conhecida pelo cliente.
+     * @param limit     Tamanho da página pretendido (opcional).
+     * @return Mensagens ordenadas cronologicamente (mais antigas primeiro).
+     * @throws IllegalArgumentException se o cursor não for uma mensagem desta reserva.
+     */
+    @Transactional(readOnly = true)
+    public List<Message> getMessagesAfter(Long bookingId, Long afterId, Integer limit) {
+        Message cursor = cursor(bookingId, afterId);
+        return messageRepository.findAfter(bookingId, cursor.getCreatedAt(), cursor.getId(),
+                PageRequest.of(0, pageSize(limit)));
     }
 
     /**
@@ -112,6 +178,23 @@ public class MessageService {
         }
     }
 
+    /**
+     * Resolve o ID de uma mensagem na sua posição {@code (createdAt, id)} no histórico da reserva.
+     */
+    private Message cursor(Long bookingId, Long messageId) {
+        return messageRepository.findById(messageId)
+                .filter(message -> bookingId.equals(message.getBookingId()))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Mensagem " + messageId + " não pertence à reserva " + bookingId));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
     /**
      * Prepara e envia o e-mail transacional de nova mensagem.
      */
@@ -0,0 +1,366 @@
+package com.nexus.estates.service.chat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.nexus.estates.common.util.WebhookCryptoUtil;
+import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookDelivery;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entrega agrupada (batch) de webhooks para as subscrições com {@code batchWindowMs} definido.
+ * <p>
+ * Cada evento continua a ter a sua {@link WebhookDelivery} persistida (com {@code batched = true});
+ * este componente apenas decide quando enviar. O primeiro evento de uma subscrição arma um
+ * temporizador de {@code batchWindowMs}; quando expira, ou quando se acumulam {@code batchMaxEvents}
+ * eventos, as entregas pendentes seguem num único POST com um array JSON assinado uma só vez:
+ * </p>
+ * <pre>
+ * [{"deliveryId":"...","event":"booking.created","data":{...}}, ...]
+ * </pre>
+ * <p>
+ * A ordem é a da criação das entregas e uma entrega pendente à espera (lote em curso ou nova
+ * tentativa) bloqueia as posteriores, pelo que os eventos de uma subscrição — e portanto de cada
+ * reserva — chegam sempre pela ordem em que foram registados. Só há um lote em curso por subscrição:
+ * a subscrição é bloqueada ({@code SKIP LOCKED}) enquanto o lote é montado, também entre instâncias.
+ * Os lotes falhados são retomados pelo {@link WebhookRetryScheduler} segundo a {@link WebhookRetryPolicy}.
+ * Tal como nas entregas individuais, o lease do lote é renovado quando sai da fila do motor de entrega
+ * e o resultado só é registado nas entregas cujo lease ainda é desta tentativa.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @see WebhookDispatcherService
+ */
+@Slf4j
+@Component
+public class WebhookBatcher {
+
+    /** Valor de {@code X-Nexus-Event} nos pedidos agrupados. */
+    static final String BATCH_EVENT = "batch";
+
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final WebhookDeliveryEngine deliveryEngine;
+    private final WebhookRetryPolicy retryPolicy;
+    private final TransactionOperations transactionOperations;
+    private final ObjectMapper objectMapper;
+    private final int defaultMaxEvents;
+    private final Map<Long, Buffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * @param deliveryRepository     repositório das entregas persistidas.
+     * @param subscriptionRepository repositório das subscrições (bloqueio durante a montagem do lote).
+     * @param deliveryEngine         motor de entrega (tetos de concorrência, timeout e Circuit Breaker).
+     * @param retryPolicy            política de backoff e lease.
+     * @param transactionOperations  transações curtas para reclamar lotes e registar resultados.
+     * @param objectMapper           serialização do array de eventos.
+     * @param defaultMaxEvents       eventos por lote quando a subscrição não define {@code batchMaxEvents}.
+     */
+    public WebhookBatcher(WebhookDeliveryRepository deliveryRepository,
+                          WebhookSubscriptionRepository subscriptionRepository,
+                          WebhookDeliveryEngine deliveryEngine,
+                          WebhookRetryPolicy retryPolicy,
+                          TransactionOperations transactionOperations,
+                          ObjectMapper objectMapper,
+                          @Value("${webhooks.batch.default-max-events:100}") int defaultMaxEvents) {
+        this.deliveryRepository = deliveryRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.deliveryEngine = deliveryEngine;
+        this.retryPolicy = retryPolicy;
+        this.transactionOperations = transactionOperations;
+        this.objectMapper = objectMapper;
+        this.defaultMaxEvents = defaultMaxEvents;
+    }
+
+    /**
+     * @param subscription subscrição agrupada.
+     * @return janela de agrupamento da subscrição.
+     */
+    public Duration windowFor(WebhookSubscription subscription) {
+        return Duration.ofMillis(subscription.getBatchWindowMs());
+    }
+
+    /**
+     * Sinaliza que foram registadas novas entregas para uma subscrição agrupada e agenda o envio:
+     * de imediato se o lote ficou cheio, senão no fim da janela iniciada pelo primeiro evento.
+     *
+     * @param subscription subscrição de destino.
+     * @param count        número de entregas novas.
+     */
+    public void enqueue(WebhookSubscription subscription, int count) {
+        Buffer buffer = buffers.computeIfAbsent(subscription.getId(), id -> new Buffer());
+        synchronized (buffer) {
+            buffer.subscription = subscription;
+            buffer.pending += count;
+            if (!schedule(buffer)) {
+                return;
+            }
+        }
+        fire(subscription.getId());
+    }
+
+    /**
+     * Monta e envia o próximo lote de uma subscrição.
+     *
+     * @param subscription subscrição de destino.
+     * @param cutoff       instante até ao qual uma entrega pendente pode seguir já.
+     * @return Mono com o número de entregas enviadas no lote (0 se não havia nenhuma disponível).
+     */
+    public Mono<Integer> flush(WebhookSubscription subscription, LocalDateTime cutoff) {
+        return Mono.fromCallable(() -> claim(subscription.getId(), cutoff, maxEventsFor(subscription)))
+                .flatMap(batch -> batch.isEmpty() ? Mono.just(0) : send(subscription, batch));
+    }
+
+    /**
+     * Decide, com o lock do buffer, se o lote deve seguir já; caso contrário arma o temporizador.
+     *
+     * @return true se o chamador deve disparar o envio.
+     */
+    private boolean schedule(Buffer buffer) {
+        if (buffer.inFlight || buffer.pending == 0) {
+            return false;
+        }
+        if (buffer.pending >= maxEventsFor(buffer.subscription)) {
+            return true;
+        }
+        if (buffer.timer == null) {
+            long subscriptionId = buffer.subscription.getId();
+            buffer.timer = Mono.delay(windowFor(buffer.subscription)).subscribe(tick -> fire(subscriptionId));
+        }
+        return false;
+    }
+
+    private void fire(long subscriptionId) {
+        Buffer buffer = buffers.get(subscriptionId);
+        WebhookSubscription subscription;
+        synchronized (buffer) {
+            if (buffer.inFlight) {
+                return;
+            }
+            if (buffer.timer != null) {
+                buffer.timer.dispose();
+                buffer.timer = null;
+            }
+            buffer.inFlight = true;
+            buffer.pending = 0;
+            subscription = buffer.subscription;
+        }
+        int maxEvents = maxEventsFor(subscription);
+        flush(subscription, LocalDateTime.now().plus(windowFor(subscription)))
+                // Reclamar o lote usa JPA: nunca nas threads do temporizador ou de I/O.
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.error("Falha ao enviar lote de webhooks da subscrição {}: {}", subscriptionId, e.getMessage(), e);
+                    return Mono.just(0);
+                })
+                .subscribe(sent -> completed(buffer, sent >= maxEvents));
+    }
+
+    private void completed(Buffer buffer, boolean batchWasFull) {
+        boolean fireNow;
+        synchronized (buffer) {
+            buffer.inFlight = false;
+            if (batchWasFull) {
+                // Podem existir mais entregas pendentes do que cabiam no lote
+                buffer.pending = Math.max(buffer.pending, maxEventsFor(buffer.subscription));
+            }
+            fireNow = schedule(buffer);
+        }
+        if (fireNow) {
+            fire(buffer.subscription.getId());
+        }
+    }
+
+    private List<WebhookDelivery> claim(long subscriptionId, LocalDateTime cutoff, int maxEvents) {
+        List<WebhookDelivery> batch = transactionOperations.execute(status -> {
+            if (subscriptionRepository.lockForBatch(subscriptionId).isEmpty()) {
+                return List.<WebhookDelivery>of();
+            }
+            List<WebhookDelivery> next = deliveryRepository.findNextBatch(subscriptionId, cutoff, PageRequest.of(0, maxEvents));
+            if (!next.isEmpty()) {
+                LocalDateTime leaseUntil = retryPolicy.leaseFrom(LocalDateTime.now());
+                deliveryRepository.leaseUntil(ids(next), leaseUntil);
+                // O lease reclamado condiciona a renovação e o registo do resultado
+                next.forEach(delivery -> delivery.setNextAttemptAt(leaseUntil));
+            }
+            return next;
+        });
+        return batch != null ? batch : List.of();
+    }
+
+    private Mono<Integer> send(WebhookSubscription subscription, List<WebhookDelivery> batch) {
+        String payload = batchPayload(batch);
+        String batchId = UUID.randomUUID().toString();
+
+        // Uma única assinatura para o array completo, tal como viaja na rede
+        ExternalApiConfig config = ExternalApiConfig.builder()
+                .baseUrl(subscription.getTargetUrl())
+                .endpoint("")
+                .authType(ExternalApiConfig.AuthType.NONE)
+                .customHeaders(Map.of(
+                        "Content-Type", "application/json",
+                        "X-Nexus-Signature", WebhookCryptoUtil.signPayload(payload, subscription.getSecret()),
+                        "X-Nexus-Event", BATCH_EVENT,
+                        "X-Nexus-Delivery-Id", batchId,
+                        "X-Nexus-Batch-Size", String.valueOf(batch.size())
+                ))
+                .build();
+
+        log.info("A disparar lote de {} webhooks para URL: {} (BatchId: {})", batch.size(), subscription.getTargetUrl(), batchId);
+
+        // Todas as entregas do lote foram reclamadas com o mesmo lease
+        LocalDateTime claimedLease = batch.get(0).getNextAttemptAt();
+        AtomicReference<LocalDateTime> lease = new AtomicReference<>();
+        Mono<Boolean> renewLease = Mono.fromCallable(() -> {
+                    LocalDateTime renewed = retryPolicy.leaseFrom(LocalDateTime.now());
+                    lease.set(claimedLease);
+                    Integer updated = transactionOperations.execute(tx ->
+                            deliveryRepository.renewLease(ids(batch), claimedLease, renewed));
+                    if (updated == null || updated != batch.size()) {
+                        // As entregas renovadas voltam a ser reclamadas quando o novo lease expirar
+                        log.warn("Lote {} não enviado: o lease de {} de {} entregas já não é desta tentativa",
+                                batchId, batch.size() - (updated != null ? updated : 0), batch.size());
+                        return false;
+                    }
+                    lease.set(renewed);
+                    return true;
+                })
+                // Renovar o lease usa JPA: nunca nas threads de I/O que libertam as filas do motor.
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return deliveryEngine.deliver(subscription, config, payload, renewLease)
+                // O registo do resultado usa JPA: sai das threads de I/O.
+                .publishOn(Schedulers.boundedElastic())
+                .map(delivered -> {
+                    recordAttempt(subscription, batch, delivered, lease.get());
+                    return batch.size();
+                })
+                .switchIfEmpty(Mono.fromCallable(() -> {
+                    if (lease.get() == null) {
+                        // Recusado pelo motor (fila do host cheia) antes de sair da fila
+                        postpone(subscription, batch, claimedLease);
+                    }
+                    return 0;
+                }));
+    }
+
+    private String batchPayload(List<WebhookDelivery> batch) {
+        ArrayNode events = objectMapper.createArrayNode();
+        for (WebhookDelivery delivery : batch) {
+            ObjectNode event = events.addObject();
+            event.put("deliveryId", delivery.getDeliveryId());
+            event.put("event", delivery.getEvent());
+            // O payload já é JSON serializado: entra tal como está, sem nova serialização
+            event.putRawValue("data", new RawValue(delivery.getPayload()));
+        }
+        try {
+            return objectMapper.writeValueAsString(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar lote de webhooks", e);
+        }
+    }
+
+    private void postpone(WebhookSubscription subscription, List<WebhookDelivery> batch, LocalDateTime claimedLease) {
+        LocalDateTime nextAttemptAt = retryPolicy.postponedFrom(LocalDateTime.now());
+        try {
+            transactionOperations.executeWithoutResult(tx ->
+                    deliveryRepository.renewLease(ids(batch), claimedLease, nextAttemptAt));
+        } catch (RuntimeException e) {
+            // O lote continua PENDING: volta a ser reclamado quando o lease expirar
+            log.error("Falha ao adiar o lote de webhooks da subscrição {}: {}", subscription.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void recordAttempt(WebhookSubscription subscription, List<WebhookDelivery> batch, boolean delivered,
+                               LocalDateTime leaseUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (delivered) {
+                Integer updated = transactionOperations.execute(tx -> deliveryRepository.recordBatchAttempt(
+                        ids(batch), leaseUntil, WebhookDelivery.Status.DELIVERED, now, null, now));
+                warnIfReclaimed(subscription, batch, updated);
+                return;
+            }
+
+            List<Long> exhausted = new ArrayList<>();
+            List<Long> retrying = new ArrayList<>();
+            int mostAttempts = 0;
+            for (WebhookDelivery delivery : batch) {
+                int attempts = delivery.getAttempts() + 1;
+                if (retryPolicy.isExhausted(attempts)) {
+                    exhausted.add(delivery.getId());
+                } else {
+                    retrying.add(delivery.getId());
+                    mostAttempts = Math.max(mostAttempts, attempts);
+                }
+            }
+            // O lote volta inteiro ao mesmo tempo, ao ritmo da entrega com mais tentativas
+            LocalDateTime nextAttemptAt = retrying.isEmpty() ? null : retryPolicy.nextAttemptAt(mostAttempts, now);
+            log.warn("Lote de {} webhooks não entregue para URL: {}. {}", batch.size(), subscription.getTargetUrl(),
+                    nextAttemptAt != null ? "Nova tentativa às " + nextAttemptAt : "Tentativas esgotadas.");
+            Integer updated = transactionOperations.execute(tx -> {
+                int rows = 0;
+                if (!exhausted.isEmpty()) {
+                    rows += deliveryRepository.recordBatchAttempt(exhausted, leaseUntil,
+                            WebhookDelivery.Status.FAILED, now, null, null);
+                }
+                if (!retrying.isEmpty()) {
+                    rows += deliveryRepository.recordBatchAttempt(retrying, leaseUntil,
+                            WebhookDelivery.Status.PENDING, now, nextAttemptAt, null);
+                }
+                return rows;
+            });
+            warnIfReclaimed(subscription, batch, updated);
+        } catch (RuntimeException e) {
+            // O lote continua PENDING: volta a ser reclamado quando o lease expirar
+            log.error("Falha ao registar o resultado do lote de webhooks da subscrição {}: {}",
+                    subscription.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void warnIfReclaimed(WebhookSubscription subscription, List<WebhookDelivery> batch, Integer updated) {
+        if (updated == null || updated < batch.size()) {
+            log.warn("Resultado de {} de {} entregas do lote da subscrição {} descartado: o lease expirou e foram reclamadas de novo",
+                    batch.size() - (updated != null ? updated : 0), batch.size(), subscription.getId());
+        }
+    }
+
+    private static List<Long> ids(List<WebhookDelivery> batch) {
+        return batch.stream().map(WebhookDelivery::getId).toList();
+    }
+
+    private int maxEventsFor(WebhookSubscription subscription) {
+        Integer maxEvents = subscription.getBatchMaxEvents();
+        return maxEvents != null && maxEvents > 0 ? maxEvents : defaultMaxEvents;
+    }
+
+    /** Estado em memória de uma subscrição agrupada; protegido pelo próprio monitor. */
+    private static final class Buffer {
+        private WebhookSubscription subscription;
+        private int pending;
+        private boolean inFlight;
+        private Disposable timer;
+    }
+}
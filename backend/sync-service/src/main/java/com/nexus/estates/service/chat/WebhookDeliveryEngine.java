@@ -0,0 +1,260 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.service.external.ExternalSyncService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Motor de entrega (fan-out) de webhooks com concorrência limitada e isolamento por subscritor.
+ * <p>
+ * Cada entrega passa por duas filas de espera não bloqueantes: primeiro a do host de destino
+ * ({@code webhooks.delivery.per-host-limit} pedidos em curso por host) e depois a global
+ * ({@code webhooks.delivery.max-in-flight}). Uma entrega só ocupa uma vaga global quando o seu
+ * host tem capacidade, pelo que um host lento ou saturado nunca atrasa os restantes. As filas
+ * de cada host estão limitadas a {@code webhooks.delivery.max-queued-per-host}; acima disso a
+ * entrega é recusada de imediato, sem contar como tentativa. Como uma entrega pode esperar nas
+ * filas, o chamador pode indicar um passo a executar quando ela as deixa (ex.: renovar o lease
+ * da entrega persistida) e que pode impedir o envio. A fila de um host é descartada quando deixa de ter entregas,
+ * pelo que só existem filas para hosts com entregas pendentes.
+ * </p>
+ * <p>
+ * Cada subscrição tem o seu próprio Circuit Breaker ({@code webhook-<id>}, configuração
+ * {@code resilience4j.circuitbreaker.configs.webhook}), pelo que um subscritor em falha deixa de
+ * ser contactado sem abrir o circuito dos outros nem o {@code externalApi} partilhado pelas
+ * integrações com OTAs. O timeout de cada tentativa é o da subscrição ({@code timeoutMs}) ou,
+ * na sua falta, {@code webhooks.delivery.timeout}, nunca acima de {@code webhooks.delivery.max-timeout},
+ * e é aplicado a cada pedido, sobrepondo-se ao timeout de resposta do cliente HTTP partilhado.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @see WebhookDispatcherService
+ */
+@Slf4j
+@Component
+public class WebhookDeliveryEngine {
+
+    /** Configuração Resilience4j partilhada pelos Circuit Breakers de cada subscritor. */
+    static final String CIRCUIT_BREAKER_CONFIG = "webhook";
+    /** Instância de Retry usada nas entregas (sem estado por subscritor). */
+    static final String RETRY_INSTANCE = "webhookDelivery";
+
+    private final ExternalSyncService externalSyncService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Retry retry;
+    private final Duration defaultTimeout;
+    private final Duration maxTimeout;
+    private final int perHostLimit;
+    private final int maxQueuedPerHost;
+    private final Lane global;
+    private final Map<String, Lane> hostLanes = new ConcurrentHashMap<>();
+
+    /**
+     * @param externalSyncService    cliente HTTP resiliente.
+     * @param circuitBreakerRegistry registo onde vivem os Circuit Breakers por subscritor.
+     * @param retryRegistry          registo de onde vem a política de repetição das entregas.
+     * @param maxInFlight            teto global de entregas em curso.
+     * @param perHostLimit           teto de entregas em curso por host de destino.
+     * @param maxQueuedPerHost       entregas em espera por host antes de recusar novas.
+     * @param defaultTimeout         timeout por tentativa quando a subscrição não define um.
+     * @param maxTimeout             timeout máximo aceite, mesmo que a subscrição peça mais.
+     */
+    public WebhookDeliveryEngine(ExternalSyncService externalSyncService,
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 RetryRegistry retryRegistry,
+                                 @Value("${webhooks.delivery.max-in-flight:200}") int maxInFlight,
+                                 @Value("${webhooks.delivery.per-host-limit:8}") int perHostLimit,
+                                 @Value("${webhooks.delivery.max-queued-per-host:1000}") int maxQueuedPerHost,
+                                 @Value("${webhooks.delivery.timeout:5s}") Duration defaultTimeout,
+                                 @Value("${webhooks.delivery.max-timeout:30s}") Duration maxTimeout) {
+        this.externalSyncService = externalSyncService;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.retry = retryRegistry.retry(RETRY_INSTANCE);
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+        this.perHostLimit = perHostLimit;
+        this.maxQueuedPerHost = maxQueuedPerHost;
+        // A fila global nunca recusa: o volume em espera já está limitado pelas filas por host.
+        this.global = new Lane(maxInFlight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Agenda a entrega de um payload já assinado a uma subscrição.
+     *
+     * @param subscription subscrição de destino.
+     * @param config       pedido HTTP (URL e cabeçalhos de assinatura).
+     * @param jsonPayload  corpo pré-serializado.
+     * @return Mono com true se o subscritor aceitou (2xx) ou false em 4xx, falha ou circuito
+     *         aberto; vazio se a entrega foi recusada por a fila do host estar cheia. Nunca
+     *         termina em erro.
+     */
+    public Mono<Boolean> deliver(WebhookSubscription subscription, ExternalApiConfig config, String jsonPayload) {
+        return deliver(subscription, config, jsonPayload, Mono.just(true));
+    }
+
+    /**
+     * Igual a {@link #deliver(WebhookSubscription, ExternalApiConfig, String)}, executando
+     * {@code beforeSend} quando a entrega sai das filas de espera, imediatamente antes do pedido.
+     *
+     * @param subscription subscrição de destino.
+     * @param config       pedido HTTP (URL e cabeçalhos de assinatura).
+     * @param jsonPayload  corpo pré-serializado.
+     * @param beforeSend   passo prévio ao envio; se não emitir {@code true} (ou falhar), a entrega
+     *                     não é enviada.
+     * @return Mono com true se o subscritor aceitou (2xx) ou false em 4xx, falha ou circuito
+     *         aberto; vazio se a entrega não chegou a ser tentada (fila do host cheia ou
+     *         {@code beforeSend} recusou). Nunca termina em erro.
+     */
+    public Mono<Boolean> deliver(WebhookSubscription subscription, ExternalApiConfig config, String jsonPayload,
+                                 Mono<Boolean> beforeSend) {
+        CircuitBreaker circuitBreaker = circuitBreakerFor(subscription.getId());
+        Duration timeout = timeoutFor(subscription);
+        String host = host(subscription.getTargetUrl());
+        Lane hostLane = hostLanes.compute(host, (h, lane) -> {
+            Lane current = lane != null ? lane : new Lane(perHostLimit, maxQueuedPerHost);
+            current.users++;
+            return current;
+        });
+
+        return hostLane.run(() -> global.run(() -> beforeSend
+                        .onErrorResume(ex -> {
+                            log.error("Webhook {} não enviado: falha antes do envio: {}", subscription.getId(), ex.getMessage());
+                            return Mono.just(false);
+                        })
+                        .filter(Boolean::booleanValue)
+                        .flatMap(ready -> externalSyncService.postWithoutResponseReactive(
+                                config, jsonPayload, circuitBreaker, retry, timeout))))
+                .onErrorResume(RejectedExecutionException.class, ex -> {
+                    log.warn("Webhook {} recusado: fila do host {} cheia", subscription.getId(), subscription.getTargetUrl());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> hostLanes.computeIfPresent(host, (h, lane) -> --lane.users == 0 ? null : lane));
+    }
+
+    /**
+     * Descarta o Circuit Breaker de uma subscrição removida.
+     *
+     * @param subscriptionId identificador da subscrição.
+     */
+    public void evict(long subscriptionId) {
+        circuitBreakerRegistry.remove(circuitBreakerName(subscriptionId));
+    }
+
+    int trackedHosts() {
+        return hostLanes.size();
+    }
+
+    CircuitBreaker circuitBreakerFor(long subscriptionId) {
+        return circuitBreakerRegistry.circuitBreaker(circuitBreakerName(subscriptionId), CIRCUIT_BREAKER_CONFIG);
+    }
+
+    private Duration timeoutFor(WebhookSubscription subscription) {
+        Integer timeoutMs = subscription.getTimeoutMs();
+        Duration timeout = timeoutMs != null && timeoutMs > 0 ? Duration.ofMillis(timeoutMs) : defaultTimeout;
+        return timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+    }
+
+    private static String circuitBreakerName(long subscriptionId) {
+        return "webhook-" + subscriptionId;
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    /**
+     * Semáforo não bloqueante: executa até {@code limit} tarefas em simultâneo e guarda as
+     * restantes numa fila FIFO (até {@code maxQueued}), arrancando a seguinte quando uma termina.
+     * Tarefas canceladas enquanto esperam são descartadas sem chegar a correr.
+     */
+    static final class Lane {
+
+        private final int limit;
+        private final int maxQueued;
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+        private int active;
+        /** Entregas que usam esta fila; alterado apenas dentro de {@code hostLanes.compute}. */
+        private int users;
+
+        Lane(int limit, int maxQueued) {
+            this.limit = Math.max(1, limit);
+            this.maxQueued = maxQueued;
+        }
+
+        <T> Mono<T> run(Supplier<Mono<T>> task) {
+            return Mono.create(sink -> {
+                Disposable.Swap running = Disposables.swap();
+                sink.onCancel(running);
+                Runnable start = () -> {
+                    if (running.isDisposed()) {
+                        release();
+                        return;
+                    }
+                    running.update(Mono.defer(task)
+                            .doFinally(signal -> release())
+                            .subscribe(sink::success, sink::error, sink::success));
+                };
+                boolean startNow;
+                synchronized (this) {
+                    if (active < limit) {
+                        active++;
+                        startNow = true;
+                    } else if (waiting.size() < maxQueued) {
+                        waiting.add(start);
+                        startNow = false;
+                    } else {
+                        sink.error(new RejectedExecutionException("Fila de entregas cheia"));
+                        return;
+                    }
+                }
+                if (startNow) {
+                    start.run();
+                }
+            });
+        }
+
+        synchronized int active() {
+            return active;
+        }
+
+        synchronized int queued() {
+            return waiting.size();
+        }
+
+        /** Passa a vaga à próxima tarefa em espera, ou liberta-a se não houver nenhuma. */
+        private void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            next.run();
+        }
+    }
+}
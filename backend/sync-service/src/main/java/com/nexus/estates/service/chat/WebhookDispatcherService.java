@@ -4,47 +4,67 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexus.estates.common.util.WebhookCryptoUtil;
 import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookDelivery;
 import com.nexus.estates.entity.WebhookSubscription;
-import com.nexus.estates.repository.WebhookSubscriptionRepository;
-import com.nexus.estates.service.external.ExternalSyncService;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Motor central de envio (dispatch) de notificações Webhook.
  * <p>
  * Este serviço atua como o core broker responsável por:
  * <ul>
- * <li>Pesquisar subscrições ativas baseadas em eventos de domínio;</li>
+ * <li>Obter as subscrições ativas de cada evento de domínio da {@link WebhookSubscriptionCache},
+ * sem acesso à base de dados enquanto as subscrições não mudam;</li>
  * <li>Serializar payloads de objetos Java em formato JSON, otimizando o processo realizando-o uma única vez por evento;</li>
  * <li>Assinar criptograficamente cada payload (usando o utilitário partilhado) com os segredos dos subscritores para garantir a integridade;</li>
- * <li>Distribuir os eventos através do {@link ExternalSyncService}, que trata de retries e circuit-breakers de forma assíncrona.</li>
+ * <li>Distribuir os eventos através do {@link WebhookDeliveryEngine}, que entrega em paralelo com tetos global e por host,
+ * timeout por subscritor e um circuit-breaker isolado por subscrição;</li>
+ * <li>Registar cada entrega em {@code webhook_deliveries} antes de a tentar, para que uma falha
+ * não a perca: o {@link WebhookRetryScheduler} volta a tentá-la em backoff exponencial.</li>
+ * <li>Entregar as subscrições com {@code batchWindowMs} definido em lotes, através do {@link WebhookBatcher}.</li>
  * </ul>
  * </p>
  * <p>
  * Funciona inteiramente em background ({@code @Async}), garantindo que o fluxo transacional principal
  * (como a criação de uma reserva) não é bloqueado enquanto aguarda as chamadas HTTP externas.
+ * A thread assíncrona apenas consulta as subscrições e agenda as entregas, que decorrem em paralelo
+ * sem ocupar threads durante o I/O; um subscritor lento não atrasa os restantes.
  * </p>
  *
  * @author Nexus Estates Team
- * @version 1.0
+ * @version 1.2
  * @since 2023-11-01
  * @see com.nexus.estates.common.util.WebhookCryptoUtil
- * @see com.nexus.estates.service.external.ExternalSyncService
+ * @see WebhookDeliveryEngine
+ * @see WebhookRetryScheduler
+ * @see WebhookBatcher
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WebhookDispatcherService {
 
-    private final WebhookSubscriptionRepository repository;
-    private final ExternalSyncService externalSyncService;
+    private final WebhookSubscriptionCache subscriptionCache;
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookDeliveryEngine deliveryEngine;
+    private final WebhookRetryPolicy retryPolicy;
+    private final WebhookBatcher batcher;
+    private final TransactionOperations transactionOperations;
     private final ObjectMapper objectMapper;
 
     /**
@@ -58,8 +78,8 @@ public class WebhookDispatcherService {
     public void dispatch(String event, Object payload) {
         log.debug("A procurar subscrições para o evento: {}", event);
 
-        // Busca ativa apenas para subscrições que escutam este evento
-        List<WebhookSubscription> subscriptions = repository.findBySubscribedEventsContainingAndIsActiveTrue(event);
+        // Subscrições ativas que escutam exatamente este evento (em cache até alguma subscrição mudar)
+        List<WebhookSubscription> subscriptions = subscriptionCache.activeFor(event);
 
         if (subscriptions.isEmpty()) {
             log.debug("Nenhum webhook ativo encontrado para o evento: {}", event);
@@ -67,11 +87,36 @@ public class WebhookDispatcherService {
         }
 
         try {
-            // Serializa o payload uma única vez para optimizar performance e evitar múltiplos processos desnecessários
-            String jsonPayload = objectMapper.writeValueAsString(payload);
+            // Serializa o payload uma única vez para optimizar performance e evitar múltiplos processos desnecessários;
+            // os mesmos bytes são assinados para cada subscritor
+            byte[] jsonBytes = objectMapper.writeValueAsBytes(payload);
+            String jsonPayload = new String(jsonBytes, StandardCharsets.UTF_8);
 
-            // Dispara para todos os subscritores de forma individual
-            subscriptions.forEach(sub -> sendNotification(sub, event, jsonPayload));
+            // Regista as entregas antes da primeira tentativa; o lease impede o scheduler de as reclamar entretanto.
+            // As entregas agrupadas ficam pendentes até ao fim da janela, quando o batcher as envia juntas.
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime leaseUntil = retryPolicy.leaseFrom(now);
+            List<WebhookDelivery> deliveries = subscriptions.stream()
+                    .map(sub -> WebhookDelivery.builder()
+                            .deliveryId(UUID.randomUUID().toString())
+                            .subscriptionId(sub.getId())
+                            .event(event)
+                            .payload(jsonPayload)
+                            .status(WebhookDelivery.Status.PENDING)
+                            .batched(sub.isBatched())
+                            .nextAttemptAt(sub.isBatched() ? now.plus(batcher.windowFor(sub)) : leaseUntil)
+                            .build())
+                    .toList();
+            List<WebhookDelivery> saved = transactionOperations.execute(status -> deliveryRepository.saveAll(deliveries));
+
+            // Dispara para todos os subscritores em paralelo; os limites de concorrência vivem no motor de entrega
+            Flux.range(0, subscriptions.size())
+                    .filter(i -> !subscriptions.get(i).isBatched())
+                    .flatMap(i -> attempt(saved.get(i), subscriptions.get(i), jsonBytes), subscriptions.size())
+                    .subscribe();
+            subscriptions.stream()
+                    .filter(WebhookSubscription::isBatched)
+                    .forEach(sub -> batcher.enqueue(sub, 1));
 
         } catch (JsonProcessingException e) {
             log.error("Falha crítica ao serializar payload para o evento {}. Abortando dispatch.", event, e);
@@ -79,20 +124,37 @@ public class WebhookDispatcherService {
     }
 
     /**
-     * Envia uma notificação de webhook individual para um subscritor específico.
-     * Gera os metadados necessários, assina o payload, configura os cabeçalhos do protocolo Nexus
-     * e efetua o pedido POST ao URL de destino do cliente.
+     * Tenta uma entrega registada: assina o payload guardado com o segredo atual da subscrição,
+     * envia-o pelo {@link WebhookDeliveryEngine} e regista o resultado. Em caso de falha, a entrega
+     * fica agendada segundo a {@link WebhookRetryPolicy} ou, com as tentativas esgotadas, {@code FAILED}.
+     * <p>
+     * O {@code X-Nexus-Delivery-Id} é o da entrega registada e repete-se em todas as tentativas,
+     * permitindo ao subscritor descartar duplicados.
+     * </p>
+     * <p>
+     * A entrega pode esperar nas filas do motor para lá do lease com que foi reclamada; por isso o
+     * lease é renovado quando sai da fila e o envio só acontece se ainda for desta tentativa. O
+     * resultado só é registado enquanto o lease renovado se mantiver. Uma entrega recusada por a
+     * fila do host estar cheia não conta como tentativa e é adiada.
+     * </p>
      *
+     * @param delivery A entrega registada (payload pré-serializado e identificador), com o lease
+     *                 detido em {@code nextAttemptAt}.
      * @param sub A entidade {@link WebhookSubscription} contendo as configurações de envio.
-     * @param event O nome do evento que espoletou a notificação.
-     * @param jsonPayload O payload previamente serializado para enviar no corpo da requisição HTTP.
+     * @return Mono com o resultado da tentativa (true em sucesso), emitido depois de registado;
+     *         vazio se a entrega não chegou a ser tentada.
      */
-    private void sendNotification(WebhookSubscription sub, String event, String jsonPayload) {
-        // ID único para rastrear e debugar a entrega específica desta notificação
-        String deliveryId = UUID.randomUUID().toString();
+    public Mono<Boolean> attempt(WebhookDelivery delivery, WebhookSubscription sub) {
+        return attempt(delivery, sub, delivery.getPayload().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Boolean> attempt(WebhookDelivery delivery, WebhookSubscription sub, byte[] payloadBytes) {
+        String event = delivery.getEvent();
+        String deliveryId = delivery.getDeliveryId();
+        String jsonPayload = delivery.getPayload();
 
         // 1. Assinar o payload exato que vai viajar na rede
-        String signature = WebhookCryptoUtil.signPayload(jsonPayload, sub.getSecret());
+        String signature = WebhookCryptoUtil.signPayload(payloadBytes, sub.getSecret());
 
         // 2. Configurar a chamada HTTP com os cabeçalhos de segurança do Nexus Estates
         ExternalApiConfig config = ExternalApiConfig.builder()
@@ -107,10 +169,75 @@ public class WebhookDispatcherService {
                 ))
                 .build();
 
-        log.info("A disparar webhook [Evento: {}] para URL: {} (DeliveryId: {})", event, sub.getTargetUrl(), deliveryId);
+        log.info("A disparar webhook [Evento: {}] para URL: {} (DeliveryId: {}, tentativa {})",
+                event, sub.getTargetUrl(), deliveryId, delivery.getAttempts() + 1);
 
-        // 3. O ExternalSyncService aplica automaticamente Retries e Circuit Breaker.
+        // 3. O motor de entrega aplica os tetos de concorrência, o timeout e o Circuit Breaker desta subscrição.
         // O corpo envia-se pré-serializado (String jsonPayload) garantindo que a assinatura coincide perfeitamente com a hash enviada.
-        externalSyncService.postWithoutResponse(config, jsonPayload);
+        LocalDateTime claimedLease = delivery.getNextAttemptAt();
+        AtomicReference<LocalDateTime> lease = new AtomicReference<>();
+        Mono<Boolean> renewLease = Mono.fromCallable(() -> {
+                    LocalDateTime renewed = retryPolicy.leaseFrom(LocalDateTime.now());
+                    lease.set(claimedLease);
+                    Integer updated = transactionOperations.execute(tx ->
+                            deliveryRepository.renewLease(List.of(delivery.getId()), claimedLease, renewed));
+                    if (updated == null || updated == 0) {
+                        log.warn("Entrega {} não enviada: o lease já não é desta tentativa", deliveryId);
+                        return false;
+                    }
+                    lease.set(renewed);
+                    return true;
+                })
+                // Renovar o lease usa JPA: nunca nas threads de I/O que libertam as filas do motor.
+                .subscribeOn(Schedulers.boundedElastic());
+
+        return deliveryEngine.deliver(sub, config, jsonPayload, renewLease)
+                // O registo do resultado usa JPA: sai das threads de I/O.
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(delivered -> recordAttempt(delivery, sub, delivered, lease.get()))
+                .switchIfEmpty(Mono.fromRunnable(() -> {
+                    if (lease.get() == null) {
+                        // Recusada pelo motor (fila do host cheia) antes de sair da fila
+                        postpone(delivery, claimedLease);
+                    }
+                }));
+    }
+
+    private void postpone(WebhookDelivery delivery, LocalDateTime claimedLease) {
+        LocalDateTime nextAttemptAt = retryPolicy.postponedFrom(LocalDateTime.now());
+        try {
+            transactionOperations.executeWithoutResult(tx -> deliveryRepository.renewLease(
+                    List.of(delivery.getId()), claimedLease, nextAttemptAt));
+        } catch (RuntimeException e) {
+            // A entrega continua PENDING: volta a ser reclamada quando o lease expirar
+            log.error("Falha ao adiar a entrega {}: {}", delivery.getDeliveryId(), e.getMessage(), e);
+        }
+    }
+
+    private void recordAttempt(WebhookDelivery delivery, WebhookSubscription sub, boolean delivered,
+                               LocalDateTime leaseUntil) {
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = delivery.getAttempts() + 1;
+        LocalDateTime nextAttemptAt = delivered ? null : retryPolicy.nextAttemptAt(attempts, now);
+        WebhookDelivery.Status status = delivered
+                ? WebhookDelivery.Status.DELIVERED
+                : nextAttemptAt != null ? WebhookDelivery.Status.PENDING : WebhookDelivery.Status.FAILED;
+
+        if (!delivered) {
+            log.warn("Webhook não entregue [Evento: {}] para URL: {} (DeliveryId: {}, tentativa {}). {}",
+                    delivery.getEvent(), sub.getTargetUrl(), delivery.getDeliveryId(), attempts,
+                    nextAttemptAt != null ? "Nova tentativa às " + nextAttemptAt : "Tentativas esgotadas.");
+        }
+        try {
+            Integer updated = transactionOperations.execute(tx -> deliveryRepository.recordAttempt(
+                    delivery.getId(), leaseUntil, status, now, nextAttemptAt, delivered ? now : null));
+            if (updated == null || updated == 0) {
+                log.warn("Resultado da entrega {} descartado: o lease expirou e a entrega foi reclamada de novo",
+                        delivery.getDeliveryId());
+            }
+        } catch (RuntimeException e) {
+            // A entrega continua PENDING: volta a ser reclamada quando o lease expirar
+            log.error("Falha ao registar o resultado da entrega {}: {}", delivery.getDeliveryId(), e.getMessage(), e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.nexus.estates.service.chat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Política de repetição das entregas de webhooks persistidas.
+ * <p>
+ * Depois da tentativa {@code n} falhada, a seguinte é agendada para daqui a
+ * {@code min(max-delay, base-delay * 2^(n-1))}, com <i>equal jitter</i> (metade fixa, metade
+ * aleatória) para que as entregas que falharam juntas — por exemplo durante uma indisponibilidade
+ * do subscritor — não voltem todas no mesmo instante. Com os valores por omissão (30s, teto de 6h,
+ * 12 tentativas) uma entrega é tentada ao longo de cerca de 14 horas antes de ficar {@code FAILED}.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Component
+public class WebhookRetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration lease;
+
+    /**
+     * @param maxAttempts número total de tentativas (incluindo a primeira) antes de desistir.
+     * @param baseDelay   espera depois da primeira falha.
+     * @param maxDelay    espera máxima entre tentativas.
+     * @param lease       tempo durante o qual uma entrega em curso não volta a ser reclamada.
+     */
+    public WebhookRetryPolicy(@Value("${webhooks.retry.max-attempts:12}") int maxAttempts,
+                              @Value("${webhooks.retry.base-delay:30s}") Duration baseDelay,
+                              @Value("${webhooks.retry.max-delay:6h}") Duration maxDelay,
+                              @Value("${webhooks.retry.lease:5m}") Duration lease) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.lease = lease;
+    }
+
+    /**
+     * Calcula o instante da próxima tentativa.
+     *
+     * @param attempts tentativas já concluídas (todas falhadas).
+     * @param now      instante da última tentativa.
+     * @return próxima tentativa, ou {@code null} se as tentativas estão esgotadas.
+     */
+    public LocalDateTime nextAttemptAt(int attempts, LocalDateTime now) {
+        if (isExhausted(attempts)) {
+            return null;
+        }
+        long delayMs = backoff(attempts).toMillis();
+        long half = delayMs / 2;
+        return now.plus(Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delayMs - half + 1)));
+    }
+
+    /**
+     * @param attempts tentativas já concluídas (todas falhadas).
+     * @return true se não há direito a mais tentativas.
+     */
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+
+    /**
+     * @param now instante em que a tentativa começa.
+     * @return fim do lease de uma entrega em curso, truncado ao milissegundo para que compare
+     *         igual ao valor guardado na base de dados.
+     */
+    public LocalDateTime leaseFrom(LocalDateTime now) {
+        return now.plus(lease).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * @param now instante em que a entrega foi recusada.
+     * @return próxima tentativa de uma entrega que não chegou a ser tentada (fila do host cheia),
+     *         que não conta para o limite de tentativas.
+     */
+    public LocalDateTime postponedFrom(LocalDateTime now) {
+        return now.plus(baseDelay).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /** Espera nominal (sem jitter) depois de {@code attempts} falhas. */
+    Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(0, attempts - 1), 30);
+        Duration delay = baseDelay.multipliedBy(1L << exponent);
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+}
@@ -0,0 +1,182 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.entity.WebhookDelivery;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Repetição agendada das entregas de webhooks falhadas ({@link WebhookDelivery}).
+ * <p>
+ * A cada tick, reclama um lote de entregas {@code PENDING} vencidas ({@code FOR UPDATE SKIP LOCKED})
+ * e adia-as por um lease enquanto a tentativa está em curso, pelo que várias instâncias do
+ * sync-service partilham o trabalho sem enviar a mesma entrega duas vezes. Cada entrega segue para
+ * {@link WebhookDispatcherService#attempt}, que a assina de novo, a envia pelo motor de entrega e
+ * agenda a tentativa seguinte segundo a {@link WebhookRetryPolicy}. Entregas cuja subscrição foi
+ * desativada são dadas por falhadas.
+ * </p>
+ * <p>
+ * As entregas agrupadas ({@code batched}) não são reclamadas uma a uma: para cada subscrição com
+ * entregas agrupadas vencidas (lote falhado ou janela perdida num reinício) é pedido um novo lote
+ * ao {@link WebhookBatcher}, que mantém a ordem dos eventos.
+ * </p>
+ * <p>
+ * Uma vez por dia apaga o histórico de entregas concluídas mais antigo do que
+ * {@code webhooks.retry.retention}.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "webhooks.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookRetryScheduler {
+
+    private final WebhookDeliveryRepository deliveryRepository;
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final WebhookDispatcherService dispatcherService;
+    private final WebhookBatcher batcher;
+    private final WebhookRetryPolicy retryPolicy;
+    private final TransactionOperations transactionOperations;
+    private final int batchSize;
+    private final Duration retention;
+
+    /**
+     * @param deliveryRepository     repositório das entregas persistidas.
+     * @param subscriptionRepository repositório das subscrições de destino.
+     * @param dispatcherService      serviço que executa e regista cada tentativa.
+     * @param batcher                envio das entregas agrupadas.
+     * @param retryPolicy            política de backoff e lease.
+     * @param transactionOperations  transações curtas para reclamar entregas.
+     * @param batchSize              número máximo de entregas reclamadas por tick.
+     * @param retention              tempo durante o qual se mantém o histórico de entregas concluídas.
+     */
+    public WebhookRetryScheduler(WebhookDeliveryRepository deliveryRepository,
+                                 WebhookSubscriptionRepository subscriptionRepository,
+                                 WebhookDispatcherService dispatcherService,
+                                 WebhookBatcher batcher,
+                                 WebhookRetryPolicy retryPolicy,
+                                 TransactionOperations transactionOperations,
+                                 @Value("${webhooks.retry.batch-size:100}") int batchSize,
+                                 @Value("${webhooks.retry.retention:14d}") Duration retention) {
+        this.deliveryRepository = deliveryRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.dispatcherService = dispatcherService;
+        this.batcher = batcher;
+        this.retryPolicy = retryPolicy;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Tick agendado: reclama as entregas vencidas e dispara as tentativas sem esperar por elas.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.retry.tick-ms:10000}",
+            initialDelayString = "${webhooks.retry.tick-ms:10000}")
+    public void tick() {
+        try {
+            retryDue().subscribe();
+            retryDueBatches().subscribe();
+        } catch (RuntimeException e) {
+            log.error("Falha ao reclamar entregas de webhooks vencidas: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reclama o próximo lote de entregas vencidas e devolve o fluxo das respetivas tentativas
+     * (que só começam quando subscrito).
+     *
+     * @return resultado de cada tentativa (true se entregue); as entregas que não chegaram a ser
+     *         tentadas não emitem resultado.
+     */
+    public Flux<Boolean> retryDue() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = retryPolicy.leaseFrom(now);
+        List<WebhookDelivery> claimed = transactionOperations.execute(status -> {
+            List<WebhookDelivery> due = deliveryRepository.lockDueDeliveries(now, PageRequest.of(0, batchSize));
+            if (!due.isEmpty()) {
+                deliveryRepository.leaseUntil(due.stream().map(WebhookDelivery::getId).toList(), leaseUntil);
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return Flux.empty();
+        }
+        // A tentativa só regista o resultado enquanto detiver este lease.
+        claimed.forEach(d -> d.setNextAttemptAt(leaseUntil));
+
+        Map<Long, WebhookSubscription> subscriptions = subscriptionRepository
+                .findAllById(claimed.stream().map(WebhookDelivery::getSubscriptionId).distinct().toList())
+                .stream()
+                .filter(WebhookSubscription::isActive)
+                .collect(Collectors.toMap(WebhookSubscription::getId, Function.identity()));
+
+        List<Long> orphaned = claimed.stream()
+                .filter(d -> !subscriptions.containsKey(d.getSubscriptionId()))
+                .map(WebhookDelivery::getId)
+                .toList();
+        if (!orphaned.isEmpty()) {
+            transactionOperations.executeWithoutResult(status -> deliveryRepository.abandon(orphaned));
+            log.info("{} entregas de webhooks abandonadas por a subscrição estar inativa", orphaned.size());
+        }
+
+        log.debug("A repetir {} entregas de webhooks vencidas", claimed.size() - orphaned.size());
+        return Flux.fromIterable(claimed)
+                .filter(d -> subscriptions.containsKey(d.getSubscriptionId()))
+                .flatMap(d -> dispatcherService.attempt(d, subscriptions.get(d.getSubscriptionId())));
+    }
+
+    /**
+     * Pede um novo lote para cada subscrição com entregas agrupadas vencidas; as de subscrições
+     * inativas são dadas por falhadas.
+     *
+     * @return número de entregas enviadas em cada lote.
+     */
+    public Flux<Integer> retryDueBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> subscriptionIds = deliveryRepository.findSubscriptionsWithDueBatches(now);
+        if (subscriptionIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Map<Long, WebhookSubscription> subscriptions = subscriptionRepository.findAllById(subscriptionIds).stream()
+                .filter(WebhookSubscription::isActive)
+                .collect(Collectors.toMap(WebhookSubscription::getId, Function.identity()));
+
+        subscriptionIds.stream()
+                .filter(id -> !subscriptions.containsKey(id))
+                .forEach(id -> {
+                    Integer abandoned = transactionOperations.execute(status -> deliveryRepository.abandonPendingBatches(id));
+                    log.info("{} entregas agrupadas de webhooks abandonadas (subscrição {} inativa)", abandoned, id);
+                });
+
+        return Flux.fromIterable(subscriptions.values())
+                .concatMap(sub -> batcher.flush(sub, now));
+    }
+
+    /**
+     * Apaga diariamente o histórico de entregas concluídas fora do período de retenção.
+     */
+    @Scheduled(cron = "${webhooks.retry.purge-cron:0 30 3 * * *}")
+    public void purgeHistory() {
+        Integer deleted = transactionOperations.execute(status ->
+                deliveryRepository.purgeCompletedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Histórico de entregas de webhooks: {} registos apagados", deleted);
+    }
+}
@@ -0,0 +1,80 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache em memória das subscrições ativas de cada evento, usada no caminho quente do dispatch.
+ * <p>
+ * A primeira consulta de um evento faz uma pesquisa indexada em {@code webhook_subscription_events};
+ * as seguintes não tocam na base de dados (eventos sem subscritores ficam também em cache). A cache
+ * é descartada por inteiro sempre que uma subscrição muda, nesta instância ou noutra (via
+ * {@code webhooks.exchange}). O {@code webhooks.subscriptions.cache.ttl} é apenas uma rede de
+ * segurança para avisos de invalidação perdidos.
+ * </p>
+ * <p>
+ * As listas devolvidas são partilhadas entre threads e não devem ser alteradas.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@Component
+public class WebhookSubscriptionCache {
+
+    private final WebhookSubscriptionRepository repository;
+    private final long ttlNanos;
+    private final Map<String, Entry> byEvent = new ConcurrentHashMap<>();
+    private long generation;
+
+    /**
+     * @param repository repositório das subscrições.
+     * @param ttl        idade máxima de uma entrada da cache.
+     */
+    public WebhookSubscriptionCache(WebhookSubscriptionRepository repository,
+                                    @Value("${webhooks.subscriptions.cache.ttl:5m}") Duration ttl) {
+        this.repository = repository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @param event nome do evento (ex.: {@code booking.created}).
+     * @return subscrições ativas que subscreveram exatamente este evento.
+     */
+    public List<WebhookSubscription> activeFor(String event) {
+        long now = System.nanoTime();
+        Entry entry = byEvent.get(event);
+        if (entry != null && now - entry.loadedAt <= ttlNanos) {
+            return entry.subscriptions;
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        List<WebhookSubscription> loaded = List.copyOf(repository.findActiveByEvent(event));
+        synchronized (this) {
+            // Uma invalidação durante a leitura pode ter tornado o resultado obsoleto: não o guarda.
+            if (loadGeneration == generation) {
+                byEvent.put(event, new Entry(loaded, now));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Descarta todas as entradas; a próxima consulta de cada evento volta à base de dados.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        byEvent.clear();
+    }
+
+    private record Entry(List<WebhookSubscription> subscriptions, long loadedAt) {}
+}
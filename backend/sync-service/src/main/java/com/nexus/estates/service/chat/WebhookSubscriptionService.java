@@ -3,25 +3,37 @@ package com.nexus.estates.service.chat;
 import com.nexus.estates.common.util.WebhookCryptoUtil;
 import com.nexus.estates.dto.WebhookSubscriptionDTO;
 import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.messaging.WebhookSubscriptionChangedMessage;
 import com.nexus.estates.repository.WebhookSubscriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Serviço responsável por gerir o ciclo de vida e a persistência das subscrições
  * de Webhooks (operações CRUD) na base de dados.
  * <p>
  * Garante que apenas o dono da subscrição consegue consultá-la ou modificá-la,
- * gera os segredos de assinatura (apenas durante a criação) e agrupa eventos
- * para armazenar como strings separadas por vírgula na entidade.
+ * gera os segredos de assinatura (apenas durante a criação) e normaliza os eventos
+ * subscritos (um por linha em {@code webhook_subscription_events}).
+ * </p>
+ * <p>
+ * Depois de cada alteração confirmada, invalida a {@link WebhookSubscriptionCache} local e
+ * avisa as restantes instâncias através de {@code webhooks.exchange}.
  * </p>
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  * @since 2023-10-10
  */
 @Slf4j
@@ -30,6 +42,15 @@ import java.util.List;
 public class WebhookSubscriptionService {
 
     private final WebhookSubscriptionRepository repository;
+    private final WebhookDeliveryEngine deliveryEngine;
+    private final WebhookSubscriptionCache subscriptionCache;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${webhooks.events.exchange:webhooks.exchange}")
+    private String webhooksExchangeName;
+
+    @Value("${webhooks.events.routing-key.subscriptions-changed:webhooks.subscriptions.changed}")
+    private String subscriptionsChangedRoutingKey;
 
     /**
      * Cria e regista uma nova subscrição de webhook associada a um utilizador.
@@ -50,17 +71,23 @@ public class WebhookSubscriptionService {
         log.info("A criar nova subscrição de webhook para o utilizador: {}", userId);
 
         String secret = WebhookCryptoUtil.generateSecret();
-        String eventsCsv = String.join(",", request.subscribedEvents());
+        Set<String> events = request.subscribedEvents().stream()
+                .map(String::trim)
+                .collect(Collectors.toSet());
 
         WebhookSubscription entity = WebhookSubscription.builder()
                 .userId(userId)
                 .targetUrl(request.targetUrl())
                 .secret(secret)
                 .isActive(true)
-                .subscribedEvents(eventsCsv)
+                .subscribedEvents(events)
+                .timeoutMs(request.timeoutMs())
+                .batchWindowMs(request.batchWindowMs())
+                .batchMaxEvents(request.batchMaxEvents())
                 .build();
 
         WebhookSubscription saved = repository.save(entity);
+        publishChangeAfterCommit(saved.getId());
 
         return WebhookSubscriptionDTO.CreatedResponse.fromEntity(saved, secret);
     }
@@ -98,6 +125,7 @@ public class WebhookSubscriptionService {
         WebhookSubscription subscription = getSubscriptionIfOwner(userId, subscriptionId);
         subscription.setActive(!subscription.isActive());
         repository.save(subscription);
+        publishChangeAfterCommit(subscriptionId);
         log.info("Estado do webhook {} alterado para: {}", subscriptionId, subscription.isActive());
     }
 
@@ -114,9 +142,40 @@ public class WebhookSubscriptionService {
     public void deleteSubscription(Long userId, Long subscriptionId) {
         WebhookSubscription subscription = getSubscriptionIfOwner(userId, subscriptionId);
         repository.delete(subscription);
+        deliveryEngine.evict(subscriptionId);
+        publishChangeAfterCommit(subscriptionId);
         log.info("Webhook {} eliminado pelo utilizador {}", subscriptionId, userId);
     }
 
+    /**
+     * Depois do commit (ou de imediato, sem transação ativa), invalida a cache local de subscrições
+     * e avisa as restantes instâncias. Se o aviso falhar, as outras instâncias só veem a alteração
+     * quando as suas caches expirarem.
+     *
+     * @param subscriptionId subscrição alterada.
+     */
+    private void publishChangeAfterCommit(long subscriptionId) {
+        Runnable publish = () -> {
+            subscriptionCache.invalidate();
+            try {
+                rabbitTemplate.convertAndSend(webhooksExchangeName, subscriptionsChangedRoutingKey,
+                        new WebhookSubscriptionChangedMessage(subscriptionId));
+            } catch (AmqpException e) {
+                log.warn("Falha ao avisar as outras instâncias da alteração do webhook {}: {}", subscriptionId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
     /**
      * Rotina utilitária de autorização e pesquisa focada.
      * Isola o facto de pesquisar por um Webhook e validar no preciso momento se o
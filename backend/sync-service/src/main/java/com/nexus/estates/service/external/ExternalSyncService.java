@@ -1,18 +1,25 @@
 package com.nexus.estates.service.external;
 
 import com.nexus.estates.dto.ExternalApiConfig;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Serviço de infraestrutura para comunicações externas resilientes.
@@ -22,12 +29,13 @@ import java.util.Optional;
  * no ecossistema Nexus Estates.
  * </p>
  * <p>
- * Utiliza o {@code RestClient} do Spring 6 para chamadas eficientes e integra-se
- * com o {@code ExternalAuthService} para gestão segura de credenciais.
+ * Utiliza o {@code WebClient} com os operadores reativos do Resilience4j, pelo que as variantes
+ * {@code *Reactive} não ocupam threads enquanto aguardam o parceiro ou o backoff entre tentativas.
+ * Integra-se com o {@code ExternalAuthService} para gestão segura de credenciais.
  * </p>
  *
  * @author Nexus Estates Architect
- * @version 2.0
+ * @version 2.1
  * @since 2026-03-31
  */
 @Slf4j
@@ -35,14 +43,22 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ExternalSyncService {
 
+    /** Instância Resilience4j partilhada por todas as chamadas externas. */
+    static final String RESILIENCE_INSTANCE = "externalApi";
+
     private final WebClient externalApiWebClient;
     private final ExternalAuthService authService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryRegistry retryRegistry;
 
     @Value("${external.api.timeout.request:5s}")
     private Duration requestTimeout;
 
     /**
      * Executa POST resiliente esperando um corpo de resposta.
+     * <p>
+     * Variante bloqueante de {@link #postReactive}; usar apenas fora de threads de I/O.
+     * </p>
      *
      * @param config   configuração de API externa
      * @param payload  corpo da requisição
@@ -50,17 +66,44 @@ public class ExternalSyncService {
      * @param <T>      tipo genérico de resposta
      * @return Optional com resposta ou vazio em falha
      */
-    @Retry(name = "externalApi", fallbackMethod = "fallbackGenericRequest")
-    @CircuitBreaker(name = "externalApi")
     public <T> Optional<T> post(ExternalApiConfig config, Object payload, Class<T> respType) {
+        return postReactive(config, payload, respType).block();
+    }
+
+    /**
+     * Executa POST resiliente sem esperar corpo de resposta.
+     * <p>
+     * Variante bloqueante de {@link #postWithoutResponseReactive}; usar apenas fora de threads de I/O.
+     * </p>
+     *
+     * @param config  configuração de API externa
+     * @param payload corpo da requisição
+     * @return true em sucesso; false em fallback/falha
+     */
+    public boolean postWithoutResponse(ExternalApiConfig config, Object payload) {
+        return Boolean.TRUE.equals(postWithoutResponseReactive(config, payload).block());
+    }
+
+    /**
+     * Executa POST resiliente sem bloquear, esperando um corpo de resposta.
+     * <p>
+     * Cada tentativa é limitada por {@code external.api.timeout.request}; o Circuit Breaker
+     * regista cada tentativa e o Retry (exterior) reagenda as falhas com o backoff configurado
+     * em {@code resilience4j.retry.instances.externalApi}, sem ocupar threads durante a espera.
+     * Respostas 4xx não são repetidas. Nunca termina em erro: falhas esgotadas resultam em
+     * {@code Optional.empty()}.
+     * </p>
+     *
+     * @param config   configuração de API externa
+     * @param payload  corpo da requisição
+     * @param respType tipo da resposta esperada
+     * @param <T>      tipo genérico de resposta
+     * @return Mono com Optional da resposta (vazio em 4xx ou falha)
+     */
+    public <T> Mono<Optional<T>> postReactive(ExternalApiConfig config, Object payload, Class<T> respType) {
         log.info("Executando POST resiliente para: {}/{}", config.baseUrl(), config.endpoint());
 
-        return externalApiWebClient.post()
-                .uri(config.baseUrl() + config.endpoint())
-                .contentType(MediaType.APPLICATION_JSON)
-                .headers(h -> authService.applyAuthentication(h, config))
-                .bodyValue(payload)
-                .exchangeToMono(response -> {
+        return resilient(exchange(config, payload, requestTimeout, response -> {
                     if (response.statusCode().is2xxSuccessful()) {
                         return response.bodyToMono(respType);
                     }
@@ -68,29 +111,50 @@ public class ExternalSyncService {
                         return Mono.empty();
                     }
                     return response.createException().flatMap(Mono::error);
-                })
-                .timeout(requestTimeout)
-                .blockOptional();
+                }), circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE), retryRegistry.retry(RESILIENCE_INSTANCE))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(ex -> {
+                    log.error("Circuit Breaker ou Retry falhou para {}. Motivo: {}", config.baseUrl(), ex.getMessage());
+                    return Mono.just(Optional.empty());
+                });
     }
 
     /**
-     * Executa POST resiliente sem esperar corpo de resposta.
+     * Executa POST resiliente sem bloquear e sem esperar corpo de resposta.
+     * <p>
+     * Mesma política de timeout, Circuit Breaker e Retry de {@link #postReactive}.
+     * </p>
      *
      * @param config  configuração de API externa
      * @param payload corpo da requisição
-     * @return true em sucesso; false em fallback/falha
+     * @return Mono com true em sucesso; false em 4xx ou falha
      */
-    @Retry(name = "externalApi", fallbackMethod = "fallbackBodilessRequest")
-    @CircuitBreaker(name = "externalApi")
-    public boolean postWithoutResponse(ExternalApiConfig config, Object payload) {
+    public Mono<Boolean> postWithoutResponseReactive(ExternalApiConfig config, Object payload) {
+        return postWithoutResponseReactive(config, payload,
+                circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE),
+                retryRegistry.retry(RESILIENCE_INSTANCE),
+                requestTimeout);
+    }
+
+    /**
+     * Variante de {@link #postWithoutResponseReactive(ExternalApiConfig, Object)} com política de
+     * resiliência própria, para chamadores que isolam destinos entre si (ex.: um Circuit Breaker
+     * por subscritor de webhooks) em vez de partilharem a instância {@code externalApi}.
+     *
+     * @param config         configuração de API externa
+     * @param payload        corpo da requisição
+     * @param circuitBreaker Circuit Breaker aplicado a cada tentativa
+     * @param retry          política de repetição aplicada à volta do Circuit Breaker
+     * @param timeout        timeout de cada tentativa, aplicado também como timeout de resposta
+     *                       do pedido (sobrepõe-se ao {@code external.api.timeout.response-ms})
+     * @return Mono com true em sucesso; false em 4xx ou falha
+     */
+    public Mono<Boolean> postWithoutResponseReactive(ExternalApiConfig config, Object payload,
+                                                     CircuitBreaker circuitBreaker, Retry retry, Duration timeout) {
         log.info("Executando POST (sem corpo) para: {}/{}", config.baseUrl(), config.endpoint());
 
-        return externalApiWebClient.post()
-                .uri(config.baseUrl() + config.endpoint())
-                .contentType(MediaType.APPLICATION_JSON)
-                .headers(h -> authService.applyAuthentication(h, config))
-                .bodyValue(payload)
-                .exchangeToMono(response -> {
+        return resilient(exchange(config, payload, timeout, response -> {
                     if (response.statusCode().is2xxSuccessful()) {
                         return Mono.just(true);
                     }
@@ -98,25 +162,39 @@ public class ExternalSyncService {
                         return Mono.just(false);
                     }
                     return response.createException().flatMap(Mono::error);
-                })
-                .timeout(requestTimeout)
-                .blockOptional()
-                .orElse(false);
+                }), circuitBreaker, retry)
+                .defaultIfEmpty(false)
+                .onErrorResume(ex -> {
+                    log.error("Falha crítica ao enviar dados para {}: {}", config.baseUrl(), ex.getMessage());
+                    return Mono.just(false);
+                });
     }
 
-    /**
-     * Fallback para POST com resposta.
-     */
-    private <T> Optional<T> fallbackGenericRequest(ExternalApiConfig config, Object payload, Class<T> respType, Throwable ex) {
-        log.error("Circuit Breaker ou Retry falhou para {}. Motivo: {}", config.baseUrl(), ex.getMessage());
-        return Optional.empty();
+    private <R> Mono<R> exchange(ExternalApiConfig config, Object payload, Duration timeout,
+                                 Function<ClientResponse, Mono<R>> handler) {
+        return externalApiWebClient.post()
+                .uri(config.baseUrl() + config.endpoint())
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(h -> authService.applyAuthentication(h, config))
+                .httpRequest(request -> {
+                    // O timeout de resposta do Netty no cliente partilhado cortaria tentativas mais longas.
+                    Object nativeRequest = request.getNativeRequest();
+                    if (nativeRequest instanceof HttpClientRequest httpClientRequest) {
+                        httpClientRequest.responseTimeout(timeout);
+                    }
+                })
+                .bodyValue(payload)
+                .exchangeToMono(handler)
+                .timeout(timeout);
     }
 
     /**
-     * Fallback para POST sem resposta.
+     * Aplica Circuit Breaker (por tentativa) e Retry (à volta) ao pedido, pela mesma ordem
+     * que os aspetos anotados usavam: o Retry re-subscreve o pedido, que volta a passar pelo CB.
      */
-    private boolean fallbackBodilessRequest(ExternalApiConfig config, Object payload, Throwable ex) {
-        log.error("Falha crítica ao enviar dados para {}: {}", config.baseUrl(), ex.getMessage());
-        return false;
+    private <R> Mono<R> resilient(Mono<R> request, CircuitBreaker circuitBreaker, Retry retry) {
+        return request
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(RetryOperator.of(retry));
     }
 }
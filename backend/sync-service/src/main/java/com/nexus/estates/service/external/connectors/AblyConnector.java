@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -68,6 +69,31 @@ public class AblyConnector implements ChannelConnector, ChatPlatform {
         return externalSyncService.postWithoutResponse(config, payload);
     }
 
+    @Override
+    /**
+     * Executa POST resiliente esperando resposta, sem bloquear.
+     *
+     * @param config   configuração externa
+     * @param payload  corpo da requisição
+     * @param respType tipo esperado
+     * @return Mono com Optional da resposta ou vazio em falha
+     */
+    public <T> Mono<Optional<T>> callReactive(ExternalApiConfig config, Object payload, Class<T> respType) {
+        return externalSyncService.postReactive(config, payload, respType);
+    }
+
+    @Override
+    /**
+     * Executa POST resiliente sem resposta (bodiless), sem bloquear.
+     *
+     * @param config  configuração externa
+     * @param payload corpo da requisição
+     * @return Mono com true em sucesso
+     */
+    public Mono<Boolean> callBodilessReactive(ExternalApiConfig config, Object payload) {
+        return externalSyncService.postWithoutResponseReactive(config, payload);
+    }
+
     @Override
     /**
      * Publica uma mensagem no canal Ably via REST.
@@ -81,11 +107,27 @@ public class AblyConnector implements ChannelConnector, ChatPlatform {
         return publishMessage(channel, event, message);
     }
 
+    @Override
+    /**
+     * Publica uma mensagem no canal Ably via REST, sem bloquear.
+     */
+    public Mono<Boolean> sendMessageReactive(String channel, String event, Object message) {
+        return publishMessageReactive(channel, event, message);
+    }
+
     @Override
     /**
      * Publica mensagem usando o endpoint oficial de mensagens do Ably.
      */
     public boolean publishMessage(String channel, String event, Object message) {
+        return Boolean.TRUE.equals(publishMessageReactive(channel, event, message).block());
+    }
+
+    @Override
+    /**
+     * Variante não bloqueante de {@link #publishMessage}.
+     */
+    public Mono<Boolean> publishMessageReactive(String channel, String event, Object message) {
         String endpoint = String.format("/channels/%s/messages", channel);
         var payload = new AblyMessage(event, message);
         ExternalApiConfig config = ExternalApiConfig.builder()
@@ -94,7 +136,7 @@ public class AblyConnector implements ChannelConnector, ChatPlatform {
                 .authType(ExternalApiConfig.AuthType.BASIC)
                 .credentials(ablyApiKey)
                 .build();
-        return externalSyncService.postWithoutResponse(config, payload);
+        return externalSyncService.postWithoutResponseReactive(config, payload);
     }
 
     @Override
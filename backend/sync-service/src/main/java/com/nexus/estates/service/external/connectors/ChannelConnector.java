@@ -1,6 +1,7 @@
 package com.nexus.estates.service.external.connectors;
 
 import com.nexus.estates.dto.ExternalApiConfig;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -35,10 +36,34 @@ public interface ChannelConnector {
      */
     boolean callBodiless(ExternalApiConfig config, Object payload);
 
+    /**
+     * Variante não bloqueante de {@link #call}.
+     *
+     * @param config   configuração externa
+     * @param payload  corpo da requisição
+     * @param respType tipo esperado de resposta
+     * @param <T>      tipo genérico
+     * @return Mono com Optional da resposta (vazio em falha); nunca termina em erro
+     */
+    <T> Mono<Optional<T>> callReactive(ExternalApiConfig config, Object payload, Class<T> respType);
+
+    /**
+     * Variante não bloqueante de {@link #callBodiless}.
+     *
+     * @param config  configuração externa
+     * @param payload corpo da requisição
+     * @return Mono com true em sucesso; false caso contrário
+     */
+    Mono<Boolean> callBodilessReactive(ExternalApiConfig config, Object payload);
+
     default boolean publishMessage(String channel, String event, Object message) {
         throw new UnsupportedOperationException("publishMessage não suportado");
     }
 
+    default Mono<Boolean> publishMessageReactive(String channel, String event, Object message) {
+        return Mono.error(new UnsupportedOperationException("publishMessage não suportado"));
+    }
+
     default Object generateClientToken(String userId, String channelId) {
         throw new UnsupportedOperationException("generateClientToken não suportado");
     }
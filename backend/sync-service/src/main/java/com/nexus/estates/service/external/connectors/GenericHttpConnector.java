@@ -4,6 +4,7 @@ import com.nexus.estates.dto.ExternalApiConfig;
 import com.nexus.estates.service.external.ExternalSyncService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -49,4 +50,29 @@ public class GenericHttpConnector implements ChannelConnector {
     public boolean callBodiless(ExternalApiConfig config, Object payload) {
         return externalSyncService.postWithoutResponse(config, payload);
     }
+
+    @Override
+    /**
+     * Executa POST resiliente esperando resposta, sem bloquear.
+     *
+     * @param config   configuração externa
+     * @param payload  corpo da requisição
+     * @param respType tipo esperado
+     * @return Mono com Optional da resposta ou vazio em falha
+     */
+    public <T> Mono<Optional<T>> callReactive(ExternalApiConfig config, Object payload, Class<T> respType) {
+        return externalSyncService.postReactive(config, payload, respType);
+    }
+
+    @Override
+    /**
+     * Executa POST resiliente sem resposta (bodiless), sem bloquear.
+     *
+     * @param config  configuração externa
+     * @param payload corpo da requisição
+     * @return Mono com true em sucesso
+     */
+    public Mono<Boolean> callBodilessReactive(ExternalApiConfig config, Object payload) {
+        return externalSyncService.postWithoutResponseReactive(config, payload);
+    }
 }
@@ -0,0 +1,25 @@
+-- =============================================================================
+-- V10: Eventos subscritos normalizados numa tabela de junção
+-- -----------------------------------------------------------------------------
+-- A coluna CSV subscribed_events obrigava a um LIKE '%evento%' por dispatch
+-- (full scan, e 'booking.created' encontrava também 'booking.created.v2').
+-- Cada par (subscrição, evento) passa a ser uma linha; o índice por evento
+-- serve a pesquisa exata das subscrições de um evento.
+-- =============================================================================
+
+CREATE TABLE webhook_subscription_events (
+    subscription_id BIGINT       NOT NULL REFERENCES webhook_subscriptions (id) ON DELETE CASCADE,
+    event           VARCHAR(100) NOT NULL,
+    PRIMARY KEY (subscription_id, event)
+);
+
+CREATE INDEX idx_webhook_subscription_events_event
+    ON webhook_subscription_events (event, subscription_id);
+
+INSERT INTO webhook_subscription_events (subscription_id, event)
+SELECT DISTINCT s.id, trim(e.event)
+FROM webhook_subscriptions s
+CROSS JOIN LATERAL unnest(string_to_array(s.subscribed_events, ',')) AS e(event)
+WHERE trim(e.event) <> '';
+
+ALTER TABLE webhook_subscriptions DROP COLUMN subscribed_events;
@@ -0,0 +1,19 @@
+-- =============================================================================
+-- V11: Entrega agrupada (batch) de webhooks, opcional por subscrição
+-- -----------------------------------------------------------------------------
+-- Com batch_window_ms definido, os eventos de uma subscrição acumulam durante
+-- até batch_window_ms (ou até batch_max_events) e seguem num único POST com um
+-- array assinado uma só vez. Cada evento continua a ter a sua linha em
+-- webhook_deliveries (batched = TRUE); as linhas pendentes de uma subscrição são
+-- enviadas por ordem de id e uma linha em espera bloqueia as seguintes, o que
+-- preserva a ordem dos eventos por subscritor (e, portanto, por reserva).
+-- =============================================================================
+
+ALTER TABLE webhook_subscriptions ADD COLUMN batch_window_ms INTEGER;
+ALTER TABLE webhook_subscriptions ADD COLUMN batch_max_events INTEGER;
+
+ALTER TABLE webhook_deliveries ADD COLUMN batched BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX idx_webhook_deliveries_batch_pending
+    ON webhook_deliveries (subscription_id, id)
+    WHERE status = 'PENDING' AND batched;
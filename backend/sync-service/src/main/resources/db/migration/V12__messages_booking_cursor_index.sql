@@ -0,0 +1,10 @@
+-- =============================================================================
+-- V12: Índice para a paginação por cursor do histórico de chat
+-- -----------------------------------------------------------------------------
+-- O histórico de uma reserva passa a ser lido por páginas ("últimas N",
+-- "anteriores a X", "posteriores a X") ordenadas por (created_at, id). O índice
+-- composto serve tanto o filtro por reserva como a ordenação e o cursor.
+-- =============================================================================
+
+CREATE INDEX idx_messages_booking_created_id
+    ON messages (booking_id, created_at, id);
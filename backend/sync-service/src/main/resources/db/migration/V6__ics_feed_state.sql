@@ -0,0 +1,27 @@
+-- =============================================================================
+-- V6: Estado persistido dos feeds iCal por propriedade
+-- -----------------------------------------------------------------------------
+-- Cada feed (.ics) aplicado a uma propriedade guarda o hash do conteúdo bruto,
+-- os validadores HTTP (ETag / Last-Modified) e, por UID, o hash do evento.
+-- Uma ressincronização compara o feed novo com este estado e publica para o
+-- booking-service apenas os eventos novos, alterados e removidos; um feed
+-- idêntico ao anterior é descartado sem sequer ser interpretado.
+-- =============================================================================
+
+CREATE TABLE ics_feed_states (
+    id             BIGSERIAL PRIMARY KEY,
+    property_id    BIGINT       NOT NULL,
+    feed_key       VARCHAR(255) NOT NULL,
+    content_hash   VARCHAR(64),
+    etag           VARCHAR(255),
+    last_modified  VARCHAR(64),
+    last_synced_at TIMESTAMP,
+    CONSTRAINT ux_ics_feed_states_property_feed UNIQUE (property_id, feed_key)
+);
+
+CREATE TABLE ics_feed_events (
+    feed_state_id BIGINT       NOT NULL REFERENCES ics_feed_states (id) ON DELETE CASCADE,
+    uid           VARCHAR(255) NOT NULL,
+    content_hash  VARCHAR(64)  NOT NULL,
+    PRIMARY KEY (feed_state_id, uid)
+);
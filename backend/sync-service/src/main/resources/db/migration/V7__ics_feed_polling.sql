@@ -0,0 +1,16 @@
+-- =============================================================================
+-- V7: Polling agendado de feeds iCal registados
+-- -----------------------------------------------------------------------------
+-- Um feed com URL é consultado periodicamente pelo IcsFeedPoller. O intervalo é
+-- adaptativo (encurta quando o feed muda, alonga quando não muda) e o próximo
+-- instante de polling inclui jitter para espalhar milhares de feeds no tempo.
+-- O índice parcial serve a query que reclama os feeds vencidos.
+-- =============================================================================
+
+ALTER TABLE ics_feed_states ADD COLUMN feed_url VARCHAR(2048);
+ALTER TABLE ics_feed_states ADD COLUMN poll_interval_seconds INTEGER;
+ALTER TABLE ics_feed_states ADD COLUMN next_poll_at TIMESTAMP;
+
+CREATE INDEX idx_ics_feed_states_next_poll
+    ON ics_feed_states (next_poll_at)
+    WHERE feed_url IS NOT NULL;
@@ -0,0 +1,2 @@
+-- Timeout por tentativa escolhido pelo subscritor (NULL usa webhooks.delivery.timeout)
+ALTER TABLE webhook_subscriptions ADD COLUMN timeout_ms INTEGER;
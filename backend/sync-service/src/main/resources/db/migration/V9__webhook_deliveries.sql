@@ -0,0 +1,32 @@
+-- =============================================================================
+-- V9: Registo persistente das entregas de webhooks
+-- -----------------------------------------------------------------------------
+-- Cada par (evento, subscrição) dá origem a uma linha com o payload já
+-- serializado e o X-Nexus-Delivery-Id enviado ao subscritor (mantido em todas
+-- as tentativas, para o destino poder deduplicar). Uma entrega falhada fica
+-- PENDING com next_attempt_at em backoff exponencial até esgotar as tentativas
+-- (FAILED). O índice parcial serve a query do WebhookRetryScheduler, que
+-- reclama as entregas vencidas com FOR UPDATE SKIP LOCKED.
+-- =============================================================================
+
+CREATE TABLE webhook_deliveries (
+    id              BIGSERIAL PRIMARY KEY,
+    delivery_id     VARCHAR(36)  NOT NULL,
+    subscription_id BIGINT       NOT NULL REFERENCES webhook_subscriptions (id) ON DELETE CASCADE,
+    event           VARCHAR(100) NOT NULL,
+    payload         TEXT         NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP,
+    last_attempt_at TIMESTAMP,
+    delivered_at    TIMESTAMP,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT ux_webhook_deliveries_delivery_id UNIQUE (delivery_id)
+);
+
+CREATE INDEX idx_webhook_deliveries_due
+    ON webhook_deliveries (next_attempt_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX idx_webhook_deliveries_subscription
+    ON webhook_deliveries (subscription_id, created_at);
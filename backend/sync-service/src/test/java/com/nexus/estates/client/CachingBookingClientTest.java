@@ -0,0 +1,33 @@
+package com.nexus.estates.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingBookingClientTest {
+
+    @Test
+    @DisplayName("Serve os participantes de uma reserva da cache até expirar o TTL")
+    void getBookingParticipants_ShouldCacheUntilTtl() {
+        NexusClients.BookingClient delegate = mock(NexusClients.BookingClient.class);
+        when(delegate.getBookingParticipants(10L)).thenReturn(Set.of(1L, 2L));
+
+        CachingBookingClient cached = new CachingBookingClient(delegate, Duration.ofMinutes(10), 100);
+        assertThat(cached.getBookingParticipants(10L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cached.getBookingParticipants(10L)).containsExactlyInAnyOrder(1L, 2L);
+        verify(delegate, times(1)).getBookingParticipants(10L);
+
+        CachingBookingClient expiring = new CachingBookingClient(delegate, Duration.ZERO, 100);
+        expiring.getBookingParticipants(10L);
+        expiring.getBookingParticipants(10L);
+        verify(delegate, times(3)).getBookingParticipants(10L);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nexus.estates.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingUserClientTest {
+
+    private NexusClients.UserClient delegate;
+    private CachingUserClient client;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(NexusClients.UserClient.class);
+        client = new CachingUserClient(delegate, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    @DisplayName("Resolve o e-mail pela pesquisa em lote e serve os pedidos seguintes da cache")
+    void getUserEmail_ShouldUseBulkLookupAndCache() {
+        when(delegate.getUserEmails(any())).thenReturn(Map.of(1L, "a@example.com"));
+
+        assertThat(client.getUserEmail(1L)).isEqualTo("a@example.com");
+        assertThat(client.getUserEmail(1L)).isEqualTo("a@example.com");
+
+        verify(delegate, times(1)).getUserEmails(Set.of(1L));
+    }
+
+    @Test
+    @DisplayName("Pede ao user-service, num só pedido, apenas os e-mails fora de cache")
+    void getUserEmails_ShouldFetchOnlyMissingIdsInOneRequest() {
+        when(delegate.getUserEmails(any())).thenAnswer(invocation -> {
+            Map<Long, String> all = Map.of(1L, "a@example.com", 2L, "b@example.com", 3L, "c@example.com");
+            Map<Long, String> found = new HashMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (all.containsKey(id)) {
+                    found.put(id, all.get(id));
+                }
+            }
+            return found;
+        });
+        client.getUserEmail(1L);
+
+        Map<Long, String> emails = client.getUserEmails(List.of(1L, 2L, 3L, 4L));
+
+        assertThat(emails).containsOnly(Map.entry(1L, "a@example.com"), Map.entry(2L, "b@example.com"),
+                Map.entry(3L, "c@example.com"));
+        verify(delegate).getUserEmails(Set.of(2L, 3L, 4L));
+    }
+
+    @Test
+    @DisplayName("Pedidos concorrentes pelo mesmo utilizador partilham uma única chamada remota")
+    void getUserPreferences_ShouldCoalesceConcurrentRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getUserPreferences(7L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new NexusClients.UserPreferencesDTO(true);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<NexusClients.UserPreferencesDTO> first = executor.submit(() -> client.getUserPreferences(7L));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<NexusClients.UserPreferencesDTO>> others = List.of(
+                    executor.submit(() -> client.getUserPreferences(7L)),
+                    executor.submit(() -> client.getUserPreferences(7L)));
+            // Dá tempo aos restantes pedidos de se juntarem ao carregamento em curso
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).emailNotificationsEnabled()).isTrue();
+            for (Future<NexusClients.UserPreferencesDTO> other : others) {
+                assertThat(other.get(5, TimeUnit.SECONDS).emailNotificationsEnabled()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).getUserPreferences(7L);
+    }
+
+    @Test
+    @DisplayName("Não guarda falhas em cache: o pedido seguinte volta a contactar o user-service")
+    void getUserPreferences_ShouldNotCacheFailures() {
+        when(delegate.getUserPreferences(7L))
+                .thenThrow(new IllegalStateException("user-service indisponível"))
+                .thenReturn(new NexusClients.UserPreferencesDTO(false));
+
+        assertThatThrownBy(() -> client.getUserPreferences(7L)).isInstanceOf(IllegalStateException.class);
+        assertThat(client.getUserPreferences(7L).emailNotificationsEnabled()).isFalse();
+
+        verify(delegate, times(2)).getUserPreferences(7L);
+    }
+}
@@ -0,0 +1,55 @@
+package com.nexus.estates.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes unitários do executor usado pelas tarefas {@code @Async}.
+ *
+ * <p>Valida a troca entre o pool de threads de plataforma e o modo de virtual threads
+ * controlado por {@code spring.threads.virtual.enabled}.</p>
+ *
+ * @author Nexus Estates Team
+ */
+class AsyncConfigTest {
+
+    private final AsyncConfig config = new AsyncConfig();
+
+    @Test
+    @DisplayName("Deve usar o pool de threads de plataforma por omissão")
+    void shouldUsePlatformThreadPoolByDefault() throws Exception {
+        Executor executor = config.taskExecutor();
+
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        assertThat(runningThread(executor).isVirtual()).isFalse();
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve executar as tarefas em virtual threads quando o modo virtual está ativo")
+    void shouldRunTasksOnVirtualThreadsWhenEnabled() throws Exception {
+        ReflectionTestUtils.setField(config, "virtualThreads", true);
+
+        Executor executor = config.taskExecutor();
+
+        assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        Thread thread = runningThread(executor);
+        assertThat(thread.isVirtual()).isTrue();
+        assertThat(thread.getName()).startsWith("NexusAsync-");
+    }
+
+    private Thread runningThread(Executor executor) throws Exception {
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+        return thread.get(5, TimeUnit.SECONDS);
+    }
+}
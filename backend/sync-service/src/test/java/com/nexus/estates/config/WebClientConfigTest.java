@@ -0,0 +1,86 @@
+package com.nexus.estates.config;
+
+import com.nexus.estates.client.NexusClients;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes dos clientes HTTP declarativos criados pelo {@link WebClientConfig}, contra um
+ * {@link MockWebServer} no papel do user-service.
+ *
+ * @author Nexus Estates Team
+ */
+class WebClientConfigTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("O cliente do user-service envia a credencial serviço-a-serviço na pesquisa de contactos")
+    void userClient_ShouldSendServiceTokenOnContactsLookup() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("[{\"id\":1,\"email\":\"a@nexus.com\"}]"));
+
+        contextRunner("clients.service-token=sync-secret").run(context -> {
+            NexusClients.UserClient client = context.getBean(NexusClients.UserClient.class);
+
+            assertThat(client.getUserEmail(1L)).isEqualTo("a@nexus.com");
+
+            RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(request).isNotNull();
+            assertThat(request.getPath()).isEqualTo("/api/users/contacts");
+            assertThat(request.getHeader(WebClientConfig.SERVICE_TOKEN_HEADER)).isEqualTo("sync-secret");
+        });
+    }
+
+    @Test
+    @DisplayName("Sem credencial configurada, os pedidos seguem sem o cabeçalho de serviço")
+    void userClient_ShouldOmitServiceTokenWhenNotConfigured() {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("[]"));
+
+        contextRunner("clients.service-token=").run(context -> {
+            context.getBean(NexusClients.UserClient.class).getUserContacts(List.of(2L));
+
+            RecordedRequest request = server.takeRequest(5, TimeUnit.SECONDS);
+            assertThat(request).isNotNull();
+            assertThat(request.getHeader(WebClientConfig.SERVICE_TOKEN_HEADER)).isNull();
+        });
+    }
+
+    private ApplicationContextRunner contextRunner(String serviceToken) {
+        return new ApplicationContextRunner()
+                // Conversões do Spring Boot (ex.: "5m" -> Duration) usadas pelos @Value da configuração
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(WebClientConfig.class)
+                .withBean(RestClient.Builder.class, RestClient::builder)
+                .withPropertyValues("user.service.url=http://" + server.getHostName() + ":" + server.getPort(), serviceToken);
+    }
+}
@@ -2,7 +2,10 @@ package com.nexus.estates.controller;
 
 import com.nexus.estates.dto.SyncBlockDTO;
 import com.nexus.estates.service.calendar.IcsCalendarParserService;
-import com.nexus.estates.common.messaging.CalendarBlockMessage;
+import com.nexus.estates.dto.IcsFeedDTO;
+import com.nexus.estates.dto.IcsResyncResultDTO;
+import com.nexus.estates.entity.IcsFeedState;
+import com.nexus.estates.service.calendar.IcsFeedSyncService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +14,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 
@@ -28,7 +32,7 @@ class IcsAdminControllerTest {
     private IcsCalendarParserService parserService;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private IcsFeedSyncService feedSyncService;
 
     @InjectMocks
     private IcsAdminController controller;
@@ -56,7 +60,7 @@ class IcsAdminControllerTest {
                 new SyncBlockDTO(Instant.parse("2026-02-18T12:00:00Z"), Instant.parse("2026-02-18T14:00:00Z"), "uid-2", "summary2")
         );
         // Ajuste: usar any(InputStream.class) em vez de file.getInputStream() para evitar mismatch de instância
-        when(parserService.parseBlocks(any(java.io.InputStream.class))).thenReturn(expected);
+        when(parserService.parseBlocks(any(InputStream.class))).thenReturn(expected);
 
         ResponseEntity<List<SyncBlockDTO>> response = controller.parseFile(file);
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
@@ -64,42 +68,62 @@ class IcsAdminControllerTest {
     }
 
     @Test
-    @DisplayName("Deve aplicar bloqueios publicando mensagens AMQP (conteúdo bruto)")
-    void shouldApplyBlocksFromRaw() {
-        ReflectionTestUtils.setField(controller, "bookingExchangeName", "booking.exchange");
-        ReflectionTestUtils.setField(controller, "calendarBlockRoutingKey", "calendar.block");
-
+    @DisplayName("Deve aplicar conteúdo bruto através da ressincronização incremental do feed")
+    void shouldApplyBlocksFromRaw() throws IOException {
         String ics = "BEGIN:VCALENDAR\nVERSION:2.0\nEND:VCALENDAR";
-        List<SyncBlockDTO> blocks = List.of(
-                new SyncBlockDTO(Instant.parse("2026-02-18T12:00:00Z"), Instant.parse("2026-02-18T14:00:00Z"), "uid-1", "summary")
-        );
-        when(parserService.parseBlocks(ics)).thenReturn(blocks);
+        IcsResyncResultDTO expected = new IcsResyncResultDTO(10L, "manual", false, 2, 0, 0);
+        InputStream body = new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8));
+        when(feedSyncService.resync(10L, "manual", body)).thenReturn(expected);
 
-        ResponseEntity<List<SyncBlockDTO>> response = controller.applyRaw(10L, ics);
+        ResponseEntity<IcsResyncResultDTO> response = controller.applyRaw(10L, "manual", body);
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
-        assertThat(response.getBody()).isEqualTo(blocks);
-        verify(rabbitTemplate, atLeastOnce())
-                .convertAndSend(eq("booking.exchange"), eq("calendar.block"), any(CalendarBlockMessage.class));
+        assertThat(response.getBody()).isEqualTo(expected);
+        verifyNoInteractions(parserService);
     }
 
     @Test
-    @DisplayName("Deve aplicar bloqueios publicando mensagens AMQP (ficheiro multipart)")
+    @DisplayName("Deve aplicar ficheiro multipart através da ressincronização incremental do feed")
     void shouldApplyBlocksFromFile() throws IOException {
-        ReflectionTestUtils.setField(controller, "bookingExchangeName", "booking.exchange");
-        ReflectionTestUtils.setField(controller, "calendarBlockRoutingKey", "calendar.block");
-
         byte[] content = "BEGIN:VCALENDAR\nVERSION:2.0\nEND:VCALENDAR".getBytes();
         MockMultipartFile file = new MockMultipartFile("file", "calendar.ics", "text/calendar", content);
-        List<SyncBlockDTO> blocks = List.of(
-                new SyncBlockDTO(Instant.parse("2026-02-18T12:00:00Z"), Instant.parse("2026-02-18T14:00:00Z"), "uid-2", "summary2")
-        );
-        // Ajuste: usar any(InputStream.class) em vez de file.getInputStream()
-        when(parserService.parseBlocks(any(java.io.InputStream.class))).thenReturn(blocks);
+        IcsResyncResultDTO expected = new IcsResyncResultDTO(11L, "airbnb", true, 0, 0, 0);
+        when(feedSyncService.resync(eq(11L), eq("airbnb"), any(InputStream.class))).thenReturn(expected);
 
-        ResponseEntity<List<SyncBlockDTO>> response = controller.applyFile(11L, file);
+        ResponseEntity<IcsResyncResultDTO> response = controller.applyFile(11L, "airbnb", file);
         assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
-        assertThat(response.getBody()).isEqualTo(blocks);
-        verify(rabbitTemplate, atLeastOnce())
-                .convertAndSend(eq("booking.exchange"), eq("calendar.block"), any(CalendarBlockMessage.class));
+        assertThat(response.getBody()).isEqualTo(expected);
+        verify(feedSyncService, never()).resync(anyLong(), anyString(), any(byte[].class));
+    }
+
+    @Test
+    @DisplayName("Deve registar um feed para polling, usando o URL como identificador por omissão")
+    void shouldRegisterFeedForPolling() {
+        String url = "https://www.airbnb.com/calendar/ical/123.ics?s=abc";
+        IcsFeedState state = IcsFeedState.builder()
+                .id(1L).propertyId(10L).feedKey(url).feedUrl(url).pollIntervalSeconds(900).build();
+        when(feedSyncService.registerFeed(10L, url, url)).thenReturn(state);
+
+        ResponseEntity<IcsFeedDTO> response = controller.registerFeed(10L, url, null);
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(response.getBody().feedUrl()).isEqualTo(url);
+        assertThat(response.getBody().pollIntervalSeconds()).isEqualTo(900);
+    }
+
+    @Test
+    @DisplayName("Deve devolver 400 quando o serviço recusa o URL por apontar para um endereço interno")
+    void shouldRejectInternalFeedUrl() {
+        String url = "http://169.254.169.254/latest/meta-data";
+        when(feedSyncService.registerFeed(10L, url, url)).thenThrow(new IllegalArgumentException("interno"));
+
+        ResponseEntity<IcsFeedDTO> response = controller.registerFeed(10L, url, null);
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar URLs de feed que não sejam http(s)")
+    void shouldRejectNonHttpFeedUrl() {
+        ResponseEntity<IcsFeedDTO> response = controller.registerFeed(10L, "file:///etc/passwd", null);
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        verifyNoInteractions(feedSyncService);
     }
 }
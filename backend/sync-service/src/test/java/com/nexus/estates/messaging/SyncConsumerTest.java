@@ -11,11 +11,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,13 +54,13 @@ class SyncConsumerTest {
                 "ok"
         );
 
-        when(bookingSyncService.syncBooking(input)).thenReturn(result);
+        when(bookingSyncService.syncBookingReactive(input)).thenReturn(Mono.just(result));
 
-        bookingEventListener.handleBookingCreated(input);
+        bookingEventListener.handleBookingCreated(input).block();
 
         ArgumentCaptor<BookingStatusUpdatedMessage> captor = ArgumentCaptor.forClass(BookingStatusUpdatedMessage.class);
 
-        verify(bookingSyncService).syncBooking(input);
+        verify(bookingSyncService).syncBookingReactive(input);
         verify(rabbitTemplate).convertAndSend(
                 eq("booking.exchange"),
                 eq("booking.status.updated"),
@@ -67,4 +72,18 @@ class SyncConsumerTest {
         assertThat(published.status()).isEqualTo(BookingStatus.CONFIRMED);
         assertThat(published.reason()).isEqualTo("ok");
     }
+
+    @Test
+    @DisplayName("Deve rejeitar sem requeue quando a publicação do resultado falhar")
+    void shouldRejectWithoutRequeueWhenPublishFails() {
+        BookingCreatedMessage input = new BookingCreatedMessage(1L, 10L, 20L, BookingStatus.PENDING_PAYMENT);
+        when(bookingSyncService.syncBookingReactive(input)).thenReturn(Mono.just(
+                new BookingStatusUpdatedMessage(1L, BookingStatus.CONFIRMED, "ok")));
+        doThrow(new IllegalStateException("broker indisponível"))
+                .when(rabbitTemplate).convertAndSend(any(), any(), any(BookingStatusUpdatedMessage.class));
+
+        assertThatThrownBy(() -> bookingEventListener.handleBookingCreated(input).block())
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class)
+                .hasRootCauseMessage("broker indisponível");
+    }
 }
@@ -0,0 +1,97 @@
+package com.nexus.estates.repository;
+
+import com.nexus.estates.entity.WebhookDelivery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes das atualizações condicionadas ao lease das entregas de webhooks, sobre H2.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+class WebhookDeliveryRepositoryTest {
+
+    private static final LocalDateTime LEASE = LocalDateTime.now().plusMinutes(5).truncatedTo(ChronoUnit.MILLIS);
+
+    @Autowired
+    private WebhookDeliveryRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Só renova o lease de entregas pendentes que ainda o detêm")
+    void renewLease_ShouldOnlyRenewWhileLeaseIsHeld() {
+        WebhookDelivery held = persist(LEASE, 0);
+        WebhookDelivery reclaimed = persist(LEASE.plusSeconds(30), 0);
+        LocalDateTime renewed = LEASE.plusMinutes(1);
+
+        int updated = repository.renewLease(List.of(held.getId(), reclaimed.getId()), LEASE, renewed);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(repository.findById(held.getId()).orElseThrow().getNextAttemptAt()).isEqualTo(renewed);
+        assertThat(repository.findById(reclaimed.getId()).orElseThrow().getNextAttemptAt()).isEqualTo(LEASE.plusSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Regista a tentativa somando-a às anteriores apenas enquanto o lease é do chamador")
+    void recordAttempt_ShouldIncrementAttemptsOnlyWhileLeaseIsHeld() {
+        WebhookDelivery delivery = persist(LEASE, 2);
+        LocalDateTime now = LocalDateTime.now();
+
+        int stale = repository.recordAttempt(delivery.getId(), LEASE.minusMinutes(5),
+                WebhookDelivery.Status.DELIVERED, now, null, now);
+        int current = repository.recordAttempt(delivery.getId(), LEASE,
+                WebhookDelivery.Status.PENDING, now, now.plusMinutes(1), null);
+        entityManager.clear();
+
+        assertThat(stale).isZero();
+        assertThat(current).isEqualTo(1);
+        WebhookDelivery reloaded = repository.findById(delivery.getId()).orElseThrow();
+        assertThat(reloaded.getAttempts()).isEqualTo(3);
+        assertThat(reloaded.getStatus()).isEqualTo(WebhookDelivery.Status.PENDING);
+        assertThat(reloaded.getDeliveredAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Regista a tentativa de um lote só nas entregas cujo lease ainda é do chamador")
+    void recordBatchAttempt_ShouldSkipReclaimedDeliveries() {
+        WebhookDelivery held = persist(LEASE, 0);
+        WebhookDelivery reclaimed = persist(LEASE.plusSeconds(30), 0);
+        LocalDateTime now = LocalDateTime.now();
+
+        int updated = repository.recordBatchAttempt(List.of(held.getId(), reclaimed.getId()), LEASE,
+                WebhookDelivery.Status.DELIVERED, now, null, now);
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(repository.findById(held.getId()).orElseThrow().getStatus()).isEqualTo(WebhookDelivery.Status.DELIVERED);
+        WebhookDelivery untouched = repository.findById(reclaimed.getId()).orElseThrow();
+        assertThat(untouched.getStatus()).isEqualTo(WebhookDelivery.Status.PENDING);
+        assertThat(untouched.getAttempts()).isZero();
+    }
+
+    private WebhookDelivery persist(LocalDateTime nextAttemptAt, int attempts) {
+        return entityManager.persistFlushFind(WebhookDelivery.builder()
+                .deliveryId(UUID.randomUUID().toString())
+                .subscriptionId(1L)
+                .event("booking.created")
+                .payload("{}")
+                .status(WebhookDelivery.Status.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(nextAttemptAt)
+                .build());
+    }
+}
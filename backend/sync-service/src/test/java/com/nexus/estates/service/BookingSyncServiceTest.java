@@ -15,6 +15,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
 
 import java.util.Optional;
 
@@ -49,15 +50,15 @@ class BookingSyncServiceTest {
         BookingCreatedMessage message = new BookingCreatedMessage(1L, 10L, 20L, BookingStatus.PENDING_PAYMENT);
         BookingSyncService.ExternalSyncResult result = new BookingSyncService.ExternalSyncResult(true, "OK");
 
-        when(genericConnector.call(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
-                .thenReturn(Optional.of(result));
+        when(genericConnector.callReactive(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
+                .thenReturn(Mono.just(Optional.of(result)));
 
         BookingStatusUpdatedMessage response = bookingSyncService.syncBooking(message);
 
         assertThat(response.status()).isEqualTo(BookingStatus.CONFIRMED);
         assertThat(response.reason()).isEqualTo("OK");
         
-        verify(genericConnector).call(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class));
+        verify(genericConnector).callReactive(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class));
     }
 
     @Test
@@ -66,8 +67,8 @@ class BookingSyncServiceTest {
         BookingCreatedMessage message = new BookingCreatedMessage(1L, 10L, 20L, BookingStatus.PENDING_PAYMENT);
         BookingSyncService.ExternalSyncResult result = new BookingSyncService.ExternalSyncResult(false, "No availability");
 
-        when(genericConnector.call(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
-                .thenReturn(Optional.of(result));
+        when(genericConnector.callReactive(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
+                .thenReturn(Mono.just(Optional.of(result)));
 
         BookingStatusUpdatedMessage response = bookingSyncService.syncBooking(message);
 
@@ -80,8 +81,8 @@ class BookingSyncServiceTest {
     void shouldReturnCancelledWhenIntegrationFails() {
         BookingCreatedMessage message = new BookingCreatedMessage(1L, 10L, 20L, BookingStatus.PENDING_PAYMENT);
 
-        when(genericConnector.call(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
-                .thenReturn(Optional.empty());
+        when(genericConnector.callReactive(any(ExternalApiConfig.class), eq(message), eq(BookingSyncService.ExternalSyncResult.class)))
+                .thenReturn(Mono.just(Optional.empty()));
 
         BookingStatusUpdatedMessage response = bookingSyncService.syncBooking(message);
 
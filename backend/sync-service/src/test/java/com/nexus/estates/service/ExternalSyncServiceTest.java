@@ -3,6 +3,9 @@ package com.nexus.estates.service;
 import com.nexus.estates.dto.ExternalApiConfig;
 import com.nexus.estates.service.external.ExternalAuthService;
 import com.nexus.estates.service.external.ExternalSyncService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +17,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -51,7 +56,12 @@ class ExternalSyncServiceTest {
 
     @BeforeEach
     void setup() {
-        externalSyncService = new ExternalSyncService(externalApiWebClient, authService);
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(2)
+                .waitDuration(Duration.ofMillis(10))
+                .build());
+        externalSyncService = new ExternalSyncService(externalApiWebClient, authService,
+                CircuitBreakerRegistry.ofDefaults(), retryRegistry);
         ReflectionTestUtils.setField(externalSyncService, "requestTimeout", Duration.ofSeconds(5));
     }
 
@@ -69,6 +79,7 @@ class ExternalSyncServiceTest {
         when(externalApiWebClient.post()).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.uri("https://api.com/test")).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.contentType(any())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.httpRequest(any())).thenReturn(requestBodyUriSpec);
         
         doAnswer(invocation -> {
             @SuppressWarnings("unchecked")
@@ -105,6 +116,7 @@ class ExternalSyncServiceTest {
         when(externalApiWebClient.post()).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.uri("https://api.com/test")).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.contentType(any())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.httpRequest(any())).thenReturn(requestBodyUriSpec);
         
         doAnswer(invocation -> {
             @SuppressWarnings("unchecked")
@@ -126,4 +138,60 @@ class ExternalSyncServiceTest {
         assertThat(result).isTrue();
         verify(authService).applyAuthentication(any(), eq(config));
     }
+
+    @Test
+    @DisplayName("Deve repetir erros 5xx na variante reativa e devolver Optional vazio quando esgotar tentativas")
+    void shouldRetryServerErrorsReactivelyAndFallBackToEmpty() {
+        ExternalApiConfig config = ExternalApiConfig.builder()
+                .baseUrl("https://api.com")
+                .endpoint("/test")
+                .build();
+        AtomicInteger attempts = stubExchange(config, "data", HttpStatus.INTERNAL_SERVER_ERROR);
+        when(clientResponse.createException()).thenReturn(Mono.just(
+                WebClientResponseException.create(500, "Internal Server Error", null, null, null)));
+
+        Optional<String> result = externalSyncService.postReactive(config, "data", String.class).block();
+
+        assertThat(result).isEmpty();
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Não deve repetir erros 4xx na variante reativa sem corpo")
+    void shouldNotRetryClientErrorsReactively() {
+        ExternalApiConfig config = ExternalApiConfig.builder()
+                .baseUrl("https://api.com")
+                .endpoint("/test")
+                .build();
+        AtomicInteger attempts = stubExchange(config, "data", HttpStatus.BAD_REQUEST);
+
+        Boolean result = externalSyncService.postWithoutResponseReactive(config, "data").block();
+
+        assertThat(result).isFalse();
+        assertThat(attempts).hasValue(1);
+    }
+
+    /**
+     * Prepara a cadeia do WebClient para responder sempre com o estado indicado, contando
+     * quantas vezes o pedido é efetivamente subscrito (uma por tentativa).
+     */
+    @SuppressWarnings("unchecked")
+    private AtomicInteger stubExchange(ExternalApiConfig config, String payload, HttpStatus status) {
+        AtomicInteger attempts = new AtomicInteger();
+        when(externalApiWebClient.post()).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.uri(config.baseUrl() + config.endpoint())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.contentType(any())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.httpRequest(any())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.headers(any())).thenReturn(requestBodyUriSpec);
+        when(requestBodyUriSpec.bodyValue(payload)).thenReturn(requestHeadersSpec);
+        when(clientResponse.statusCode()).thenReturn(status);
+        when(requestHeadersSpec.exchangeToMono(any())).thenAnswer(invocation -> {
+            Function<ClientResponse, Mono<Object>> fn = invocation.getArgument(0);
+            return Mono.defer(() -> {
+                attempts.incrementAndGet();
+                return fn.apply(clientResponse);
+            });
+        });
+        return attempts;
+    }
 }
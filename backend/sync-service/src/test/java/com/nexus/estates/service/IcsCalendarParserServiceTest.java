@@ -5,9 +5,12 @@ import com.nexus.estates.service.calendar.IcsCalendarParserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
 
@@ -168,4 +171,133 @@ class IcsCalendarParserServiceTest {
             TimeZone.setDefault(previous);
         }
     }
+
+    @Test
+    @DisplayName("Modo streaming entrega cada evento ao callback, com linhas dobradas, VALARM e TZID")
+    void shouldStreamEventsIncrementally() {
+        String ics = """
+                BEGIN:VCALENDAR
+                VERSION:2.0
+                BEGIN:VTIMEZONE
+                TZID:Europe/Lisbon
+                BEGIN:STANDARD
+                TZOFFSETFROM:+0000
+                TZOFFSETTO:+0000
+                TZNAME:WET
+                DTSTART:19701025T020000
+                END:STANDARD
+                END:VTIMEZONE
+                BEGIN:VEVENT
+                UID:stream-1
+                SUMMARY:Long summary that the channel manager
+                 folded over two lines
+                DTSTART;TZID=Europe/Lisbon:20261218T150000
+                DTEND;TZID=Europe/Lisbon:20261220T110000
+                BEGIN:VALARM
+                ACTION:DISPLAY
+                TRIGGER:-PT1H
+                END:VALARM
+                END:VEVENT
+                BEGIN:VEVENT
+                UID:stream-2
+                DTSTART;VALUE=DATE:20261224
+                DTEND;VALUE=DATE:20261226
+                END:VEVENT
+                END:VCALENDAR
+                """;
+
+        List<SyncBlockDTO> received = new ArrayList<>();
+        int events = parser.streamBlocks(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)), received::add);
+
+        assertThat(events).isEqualTo(2);
+        assertThat(received).extracting(SyncBlockDTO::uid).containsExactly("stream-1", "stream-2");
+        assertThat(received.get(0).summary()).isEqualTo("Long summary that the channel managerfolded over two lines");
+        assertThat(received.get(0).startUtc()).isEqualTo(Instant.parse("2026-12-18T15:00:00Z"));
+        assertThat(received.get(1).endUtc()).isEqualTo(Instant.parse("2026-12-26T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Resolve TZID cujo VTIMEZONE só aparece depois dos eventos")
+    void shouldResolveTimezoneDeclaredAfterEvents() {
+        String ics = """
+                BEGIN:VCALENDAR
+                VERSION:2.0
+                BEGIN:VEVENT
+                UID:late-tz
+                DTSTART;TZID="Host Local Time":20261218T150000
+                DTEND;TZID="Host Local Time":20261220T110000
+                END:VEVENT
+                BEGIN:VEVENT
+                UID:utc
+                DTSTART:20261221T100000Z
+                DTEND:20261222T100000Z
+                END:VEVENT
+                BEGIN:VTIMEZONE
+                TZID:Host Local Time
+                BEGIN:STANDARD
+                TZOFFSETFROM:+0200
+                TZOFFSETTO:+0200
+                TZNAME:HLT
+                DTSTART:19700101T000000
+                END:STANDARD
+                END:VTIMEZONE
+                END:VCALENDAR
+                """;
+
+        List<SyncBlockDTO> received = new ArrayList<>();
+        int events = parser.streamBlocks(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)), received::add);
+
+        assertThat(events).isEqualTo(2);
+        assertThat(received).extracting(SyncBlockDTO::uid).containsExactlyInAnyOrder("late-tz", "utc");
+        SyncBlockDTO late = received.stream().filter(b -> b.uid().equals("late-tz")).findFirst().orElseThrow();
+        assertThat(late.startUtc()).isEqualTo(Instant.parse("2026-12-18T13:00:00Z"));
+        assertThat(late.endUtc()).isEqualTo(Instant.parse("2026-12-20T09:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Um VTIMEZONE do ficheiro prevalece sobre o identificador Olson homónimo em todos os eventos")
+    void shouldPreferDeclaredTimezoneOverOlsonId() {
+        String ics = """
+                BEGIN:VCALENDAR
+                VERSION:2.0
+                BEGIN:VTIMEZONE
+                TZID:Europe/Lisbon
+                BEGIN:STANDARD
+                TZOFFSETFROM:+0500
+                TZOFFSETTO:+0500
+                TZNAME:X
+                DTSTART:19700101T000000
+                END:STANDARD
+                END:VTIMEZONE
+                BEGIN:VEVENT
+                UID:first
+                DTSTART;TZID=Europe/Lisbon:20260110T150000
+                DTEND;TZID=Europe/Lisbon:20260112T110000
+                END:VEVENT
+                BEGIN:VEVENT
+                UID:second
+                DTSTART;TZID=Europe/Lisbon:20260115T150000
+                DTEND;TZID=Europe/Lisbon:20260116T110000
+                END:VEVENT
+                END:VCALENDAR
+                """;
+
+        List<SyncBlockDTO> received = new ArrayList<>();
+        parser.streamBlocks(new ByteArrayInputStream(ics.getBytes(StandardCharsets.UTF_8)), received::add);
+
+        assertThat(received).extracting(SyncBlockDTO::startUtc).containsExactly(
+                Instant.parse("2026-01-10T10:00:00Z"), Instant.parse("2026-01-15T10:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Modo streaming aceita calendários sem eventos mas rejeita conteúdo sem VCALENDAR")
+    void shouldStreamEmptyCalendarAndRejectInvalidContent() {
+        byte[] empty = "BEGIN:VCALENDAR\nVERSION:2.0\nEND:VCALENDAR\n".getBytes(StandardCharsets.UTF_8);
+        assertThat(parser.streamBlocks(new ByteArrayInputStream(empty), b -> { })).isZero();
+
+        byte[] invalid = "NOT_AN_ICAL".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> parser.streamBlocks(new ByteArrayInputStream(invalid), b -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Conteúdo .ics inválido");
+    }
 }
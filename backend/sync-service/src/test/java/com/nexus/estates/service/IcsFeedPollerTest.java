@@ -0,0 +1,193 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.dto.IcsResyncResultDTO;
+import com.nexus.estates.entity.IcsFeedState;
+import com.nexus.estates.repository.IcsFeedStateRepository;
+import com.nexus.estates.service.calendar.IcsFeedPoller;
+import com.nexus.estates.service.calendar.IcsFeedSyncService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IcsFeedPollerTest {
+
+    private static final String ICS = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nEND:VCALENDAR\r\n";
+
+    @Mock
+    private IcsFeedStateRepository feedStateRepository;
+
+    @Mock
+    private IcsFeedSyncService feedSyncService;
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("Envia pedido condicional e, com 304, não ressincroniza e alonga o intervalo")
+    void pollDue_ShouldSendConditionalHeadersAndSkipResyncWhenNotModified() throws InterruptedException {
+        IcsFeedState feed = feed(1L, "/a.ics");
+        feed.setEtag("\"v1\"");
+        feed.setLastModified("Wed, 01 Jul 2026 10:00:00 GMT");
+        when(feedStateRepository.lockDueFeeds(any(), any())).thenReturn(List.of(feed));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        List<IcsFeedPoller.Outcome> outcomes = poller(4).pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.NOT_MODIFIED);
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getHeader("If-None-Match")).isEqualTo("\"v1\"");
+        assertThat(request.getHeader("If-Modified-Since")).isEqualTo("Wed, 01 Jul 2026 10:00:00 GMT");
+        verify(feedStateRepository).leaseUntil(eq(List.of(1L)), any());
+        verify(feedStateRepository).reschedule(eq(1L), eq(450), any());
+        verifyNoInteractions(feedSyncService);
+    }
+
+    @Test
+    @DisplayName("Com 200, ressincroniza com os novos validadores e encurta o intervalo quando o feed mudou")
+    void pollDue_ShouldResyncChangedFeedAndShortenInterval() {
+        IcsFeedState feed = feed(2L, "/b.ics");
+        when(feedStateRepository.lockDueFeeds(any(), any())).thenReturn(List.of(feed));
+        when(feedSyncService.resync(eq(20L), eq("airbnb"), any(), eq("\"v2\""), eq("Thu, 02 Jul 2026 10:00:00 GMT")))
+                .thenReturn(new IcsResyncResultDTO(20L, "airbnb", false, 1, 0, 0));
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v2\"")
+                .setHeader("Last-Modified", "Thu, 02 Jul 2026 10:00:00 GMT")
+                .setBody(ICS));
+
+        LocalDateTime before = LocalDateTime.now();
+        List<IcsFeedPoller.Outcome> outcomes = poller(4).pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.CHANGED);
+        ArgumentCaptor<byte[]> body = ArgumentCaptor.forClass(byte[].class);
+        verify(feedSyncService).resync(eq(20L), eq("airbnb"), body.capture(), any(), any());
+        assertThat(new String(body.getValue(), StandardCharsets.UTF_8)).isEqualTo(ICS);
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(feedStateRepository).reschedule(eq(2L), eq(150), next.capture());
+        assertThat(next.getValue()).isBetween(before.plusSeconds(150), LocalDateTime.now().plusSeconds(151));
+    }
+
+    @Test
+    @DisplayName("Põe em fila os feeds de um host ocupado e deixa vencidos os que excedem a fila")
+    void pollDue_ShouldQueueFeedsOfBusyHostAndDeferTheRest() {
+        when(feedStateRepository.lockDueFeeds(any(), any()))
+                .thenReturn(List.of(feed(3L, "/c.ics"), feed(4L, "/d.ics"), feed(5L, "/e.ics")));
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                Thread.sleep(100);
+                concurrent.decrementAndGet();
+                return new MockResponse().setResponseCode(304);
+            }
+        });
+
+        List<IcsFeedPoller.Outcome> outcomes = poller(1).pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.NOT_MODIFIED, IcsFeedPoller.Outcome.NOT_MODIFIED);
+        assertThat(maxConcurrent.get()).isEqualTo(1);
+        assertThat(server.getRequestCount()).isEqualTo(2);
+        verify(feedStateRepository).leaseUntil(eq(List.of(3L, 4L)), any());
+        verify(feedStateRepository, never()).reschedule(eq(5L), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("O request-timeout do poller sobrepõe-se ao timeout de resposta do cliente partilhado")
+    void pollDue_ShouldApplyRequestTimeoutOverSharedClientTimeout() {
+        when(feedStateRepository.lockDueFeeds(any(), any())).thenReturn(List.of(feed(6L, "/f.ics")));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        WebClient shared = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().responseTimeout(Duration.ofMillis(100))))
+                .build();
+
+        List<IcsFeedPoller.Outcome> outcomes = poller(shared, 4, true).pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.NOT_MODIFIED);
+    }
+
+    @Test
+    @DisplayName("Não consulta feeds que resolvam para endereços internos")
+    void pollDue_ShouldRefusePrivateHosts() {
+        when(feedStateRepository.lockDueFeeds(any(), any())).thenReturn(List.of(feed(7L, "/g.ics")));
+
+        List<IcsFeedPoller.Outcome> outcomes = poller(WebClient.builder().build(), 4, false)
+                .pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.FAILED);
+        assertThat(server.getRequestCount()).isZero();
+        verifyNoInteractions(feedSyncService);
+    }
+
+    @Test
+    @DisplayName("Uma falha HTTP adia o feed sem alterar o intervalo")
+    void pollDue_ShouldKeepIntervalOnFailure() {
+        when(feedStateRepository.lockDueFeeds(any(), any())).thenReturn(List.of(feed(5L, "/e.ics")));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        List<IcsFeedPoller.Outcome> outcomes = poller(4).pollDue().collectList().block(Duration.ofSeconds(10));
+
+        assertThat(outcomes).containsExactly(IcsFeedPoller.Outcome.FAILED);
+        verify(feedStateRepository).reschedule(eq(5L), eq(300), any());
+        verifyNoInteractions(feedSyncService);
+    }
+
+    private IcsFeedPoller poller(int perHostLimit) {
+        return poller(WebClient.builder().build(), perHostLimit, true);
+    }
+
+    private IcsFeedPoller poller(WebClient webClient, int perHostLimit, boolean allowPrivateHosts) {
+        return new IcsFeedPoller(feedStateRepository, feedSyncService, TransactionOperations.withoutTransaction(),
+                webClient, 1_048_576, Duration.ofSeconds(5), 100, 16, perHostLimit,
+                60, 3600, 0.0, 300, allowPrivateHosts);
+    }
+
+    private IcsFeedState feed(Long id, String path) {
+        return IcsFeedState.builder()
+                .id(id)
+                .propertyId(20L)
+                .feedKey("airbnb")
+                .feedUrl(server.url(path).toString())
+                .pollIntervalSeconds(300)
+                .nextPollAt(LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
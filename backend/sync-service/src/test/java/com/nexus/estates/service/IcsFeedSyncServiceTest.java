@@ -0,0 +1,214 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.common.messaging.CalendarImportMessage;
+import com.nexus.estates.dto.IcsResyncResultDTO;
+import com.nexus.estates.entity.IcsFeedState;
+import com.nexus.estates.repository.IcsFeedStateRepository;
+import com.nexus.estates.service.calendar.IcsCalendarParserService;
+import com.nexus.estates.service.calendar.IcsFeedSyncService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes da ressincronização incremental de feeds iCal sobre H2, incluindo o estado persistido.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+@Import({IcsFeedSyncService.class, IcsCalendarParserService.class})
+class IcsFeedSyncServiceTest {
+
+    private static final Long PROPERTY_ID = 7L;
+    private static final String FEED_KEY = "airbnb";
+
+    @Autowired
+    private IcsFeedSyncService feedSyncService;
+
+    @Autowired
+    private IcsFeedStateRepository feedStateRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @SpyBean
+    private IcsCalendarParserService parserService;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    @DisplayName("A primeira sincronização publica todos os eventos e guarda o estado do feed")
+    void resync_ShouldPublishEverythingOnFirstSync() {
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(
+                event("uid-a", d(10), d(13)),
+                event(null, d(20), d(22))));
+
+        assertThat(result).isEqualTo(new IcsResyncResultDTO(PROPERTY_ID, FEED_KEY, false, 2, 0, 0));
+        CalendarImportMessage message = publishedMessage();
+        assertThat(message.blocks()).extracting(CalendarImportMessage.Block::sourceUid)
+                .first().isEqualTo("uid-a");
+        assertThat(message.blocks().get(1).sourceUid()).startsWith("hash:");
+        assertThat(message.removedUids()).isEmpty();
+
+        IcsFeedState state = reloadState();
+        assertThat(state.getContentHash()).hasSize(64);
+        assertThat(state.getEventHashes()).hasSize(2).containsKey("uid-a");
+    }
+
+    @Test
+    @DisplayName("Um feed idêntico ao anterior não é interpretado nem publicado")
+    void resync_ShouldSkipUnchangedFeed() {
+        byte[] content = feed(event("uid-a", d(10), d(13)));
+        feedSyncService.resync(PROPERTY_ID, FEED_KEY, content);
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(parserService, rabbitTemplate);
+
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, content);
+
+        assertThat(result.feedUnchanged()).isTrue();
+        verify(parserService, never()).streamBlocks(any(), any());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Um feed lido em streaming igual ao anterior é interpretado mas não publicado")
+    void resync_ShouldSkipUnchangedStreamedFeed() {
+        byte[] content = feed(event("uid-a", d(10), d(13)));
+        feedSyncService.resync(PROPERTY_ID, FEED_KEY, content);
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(rabbitTemplate);
+
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, new ByteArrayInputStream(content));
+
+        assertThat(result.feedUnchanged()).isTrue();
+        verifyNoInteractions(rabbitTemplate);
+        assertThat(reloadState().getEventHashes()).containsOnlyKeys("uid-a");
+    }
+
+    @Test
+    @DisplayName("Publica apenas os eventos alterados, os novos e os UIDs removidos")
+    void resync_ShouldPublishOnlyTheDelta() {
+        feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(
+                event("uid-a", d(10), d(13)),
+                event("uid-b", d(20), d(22)),
+                event("uid-c", d(30), d(32))));
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(rabbitTemplate);
+
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(
+                event("uid-a", d(10), d(13)),
+                event("uid-b", d(21), d(23)),
+                event("uid-d", d(40), d(42))));
+
+        assertThat(result).isEqualTo(new IcsResyncResultDTO(PROPERTY_ID, FEED_KEY, false, 1, 1, 1));
+        CalendarImportMessage message = publishedMessage();
+        assertThat(message.blocks()).extracting(CalendarImportMessage.Block::sourceUid)
+                .containsExactly("uid-b", "uid-d");
+        assertThat(message.removedUids()).containsExactly("uid-c");
+        assertThat(reloadState().getEventHashes()).containsOnlyKeys("uid-a", "uid-b", "uid-d");
+    }
+
+    @Test
+    @DisplayName("Um calendário sem eventos remove todos os bloqueios anteriores")
+    void resync_ShouldRemoveEverythingWhenFeedBecomesEmpty() {
+        feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(event("uid-a", d(10), d(13))));
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(rabbitTemplate);
+
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed());
+
+        assertThat(result).isEqualTo(new IcsResyncResultDTO(PROPERTY_ID, FEED_KEY, false, 0, 0, 1));
+        CalendarImportMessage message = publishedMessage();
+        assertThat(message.blocks()).isEmpty();
+        assertThat(message.removedUids()).containsExactly("uid-a");
+        assertThat(reloadState().getEventHashes()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Recusa registar feeds em loopback, redes privadas ou link-local")
+    void registerFeed_ShouldRejectInternalAddresses() {
+        for (String url : List.of("http://localhost/a.ics", "http://127.0.0.1:8080/a.ics",
+                "http://10.0.0.5/a.ics", "http://169.254.169.254/latest/meta-data", "http://[::1]/a.ics",
+                "ftp://example.com/a.ics")) {
+            assertThatThrownBy(() -> feedSyncService.registerFeed(PROPERTY_ID, FEED_KEY, url))
+                    .as(url)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(feedStateRepository.findAll()).isEmpty();
+    }
+
+    private CalendarImportMessage publishedMessage() {
+        ArgumentCaptor<CalendarImportMessage> captor = ArgumentCaptor.forClass(CalendarImportMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("booking.exchange"), eq("calendar.import"), captor.capture());
+        assertThat(captor.getValue().propertyId()).isEqualTo(PROPERTY_ID);
+        return captor.getValue();
+    }
+
+    private IcsFeedState reloadState() {
+        entityManager.flush();
+        entityManager.clear();
+        IcsFeedState state = feedStateRepository.findForUpdate(PROPERTY_ID, FEED_KEY).orElseThrow();
+        state.getEventHashes().size();
+        return state;
+    }
+
+    @Test
+    @DisplayName("Eventos fora do horizonte não são publicados, mas um UID já conhecido não conta como removido")
+    void resync_ShouldSkipEventsOutsideHorizon() {
+        feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(event("uid-a", d(10), d(13))));
+        entityManager.flush();
+        entityManager.clear();
+        clearInvocations(rabbitTemplate);
+
+        // uid-a passou a estar além do horizonte futuro; uid-old terminou há um mês.
+        IcsResyncResultDTO result = feedSyncService.resync(PROPERTY_ID, FEED_KEY, feed(
+                event("uid-a", d(5000), d(5003)),
+                event("uid-old", d(-30), d(-27))));
+
+        assertThat(result).isEqualTo(new IcsResyncResultDTO(PROPERTY_ID, FEED_KEY, false, 0, 0, 0));
+        verifyNoInteractions(rabbitTemplate);
+        assertThat(reloadState().getEventHashes()).containsOnlyKeys("uid-a");
+    }
+
+    private static String d(int daysFromToday) {
+        return LocalDate.now().plusDays(daysFromToday).format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private static String event(String uid, String start, String end) {
+        return "BEGIN:VEVENT\n"
+                + (uid != null ? "UID:" + uid + "\n" : "")
+                + "SUMMARY:Reserved\n"
+                + "DTSTART;VALUE=DATE:" + start + "\n"
+                + "DTEND;VALUE=DATE:" + end + "\n"
+                + "END:VEVENT\n";
+    }
+
+    private static byte[] feed(String... events) {
+        return ("BEGIN:VCALENDAR\nVERSION:2.0\n" + String.join("", events) + "END:VCALENDAR\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
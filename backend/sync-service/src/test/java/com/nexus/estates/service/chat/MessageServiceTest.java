@@ -0,0 +1,121 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.client.Proxy;
+import com.nexus.estates.entity.Message;
+import com.nexus.estates.service.notification.EmailService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testes da paginação por cursor do histórico de chat, sobre H2.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "chat.history.default-page-size=3",
+        "chat.history.max-page-size=4"
+})
+@ActiveProfiles("test")
+@Import(MessageService.class)
+class MessageServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private Proxy proxy;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    @DisplayName("Devolve as últimas N mensagens por ordem cronológica e pagina para trás a partir de um cursor")
+    void getLatestMessages_ShouldReturnNewestPageAndPageBackwards() {
+        List<Long> ids = persistConversation(1L, 5);
+        persist(2L, "outra reserva", T0.plusMinutes(10));
+
+        List<Message> latest = messageService.getLatestMessages(1L, null, null);
+        assertThat(latest).extracting(Message::getId).containsExactly(ids.get(2), ids.get(3), ids.get(4));
+
+        List<Message> older = messageService.getLatestMessages(1L, ids.get(2), null);
+        assertThat(older).extracting(Message::getId).containsExactly(ids.get(0), ids.get(1));
+
+        assertThat(messageService.getLatestMessages(1L, null, 100)).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Devolve o histórico completo da reserva, por ordem cronológica, sem limite de página")
+    void getMessagesByBookingId_ShouldReturnWholeConversation() {
+        List<Long> ids = persistConversation(1L, 5);
+        Long sameInstant = persist(1L, "m4 bis", T0.plusMinutes(4));
+        persist(2L, "outra reserva", T0.plusMinutes(10));
+
+        assertThat(messageService.getMessagesByBookingId(1L)).extracting(Message::getId)
+                .containsExactly(ids.get(0), ids.get(1), ids.get(2), ids.get(3), ids.get(4), sameInstant);
+    }
+
+    @Test
+    @DisplayName("Devolve só as mensagens posteriores ao cursor, desempatando pelo ID quando a data coincide")
+    void getMessagesAfter_ShouldReturnOnlyNewerMessagesWithIdTieBreak() {
+        Long first = persist(1L, "a", T0);
+        Long sameInstant = persist(1L, "b", T0);
+        Long later = persist(1L, "c", T0.plusSeconds(1));
+        persist(2L, "outra reserva", T0.plusSeconds(2));
+
+        assertThat(messageService.getMessagesAfter(1L, first, null))
+                .extracting(Message::getId).containsExactly(sameInstant, later);
+        assertThat(messageService.getMessagesAfter(1L, first, 1))
+                .extracting(Message::getId).containsExactly(sameInstant);
+        assertThat(messageService.getMessagesAfter(1L, later, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Rejeita cursores que não pertencem à reserva")
+    void getMessagesAfter_ShouldRejectCursorFromAnotherBooking() {
+        Long foreign = persist(2L, "outra reserva", T0);
+
+        assertThatThrownBy(() -> messageService.getMessagesAfter(1L, foreign, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> messageService.getLatestMessages(1L, 999_999L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> persistConversation(Long bookingId, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> persist(bookingId, "m" + i, T0.plusMinutes(i)))
+                .toList();
+    }
+
+    private Long persist(Long bookingId, String content, LocalDateTime createdAt) {
+        Message message = entityManager.persistAndFlush(Message.builder()
+                .bookingId(bookingId)
+                .senderId("1")
+                .content(content)
+                .build());
+        // created_at é preenchido pelo Hibernate na inserção; fixa-o para controlar a ordem
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE messages SET created_at = ?1 WHERE id = ?2")
+                .setParameter(1, createdAt)
+                .setParameter(2, message.getId())
+                .executeUpdate();
+        entityManager.clear();
+        return message.getId();
+    }
+}
@@ -0,0 +1,242 @@
+package com.nexus.estates.service.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexus.estates.common.util.WebhookCryptoUtil;
+import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookDelivery;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookBatcherTest {
+
+    private static final String SECRET = "batch-secret";
+
+    @Mock
+    private WebhookDeliveryRepository deliveryRepository;
+
+    @Mock
+    private WebhookSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private WebhookDeliveryEngine deliveryEngine;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebhookBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        // Três tentativas no máximo por entrega
+        batcher = new WebhookBatcher(deliveryRepository, subscriptionRepository, deliveryEngine,
+                new WebhookRetryPolicy(3, Duration.ofSeconds(30), Duration.ofHours(6), Duration.ofMinutes(5)),
+                TransactionOperations.withoutTransaction(), objectMapper, 100);
+    }
+
+    @Test
+    @DisplayName("Envia as entregas pendentes num único array assinado uma só vez, pela ordem de criação")
+    void flush_ShouldSendOneSignedArrayInOrder() throws Exception {
+        WebhookSubscription sub = subscription(1000, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(11L, "booking.created", 0), delivery(12L, "booking.status.updated", 0)));
+        engineReturns(true);
+
+        Integer sent = batcher.flush(sub, LocalDateTime.now()).block(Duration.ofSeconds(5));
+
+        assertThat(sent).isEqualTo(2);
+        ArgumentCaptor<ExternalApiConfig> config = ArgumentCaptor.forClass(ExternalApiConfig.class);
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(deliveryEngine, times(1)).deliver(eq(sub), config.capture(), body.capture(), any());
+
+        JsonNode events = objectMapper.readTree(body.getValue());
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).get("deliveryId").asText()).isEqualTo("delivery-11");
+        assertThat(events.get(0).get("event").asText()).isEqualTo("booking.created");
+        assertThat(events.get(0).get("data").get("bookingId").asLong()).isEqualTo(11L);
+        assertThat(events.get(1).get("deliveryId").asText()).isEqualTo("delivery-12");
+
+        assertThat(config.getValue().customHeaders())
+                .containsEntry("X-Nexus-Event", WebhookBatcher.BATCH_EVENT)
+                .containsEntry("X-Nexus-Batch-Size", "2")
+                .containsKey("X-Nexus-Delivery-Id");
+        assertThat(WebhookCryptoUtil.isValidSignature(body.getValue(),
+                config.getValue().customHeaders().get("X-Nexus-Signature"), SECRET)).isTrue();
+
+        // O resultado é registado com o lease renovado à saída da fila do motor
+        ArgumentCaptor<LocalDateTime> claimed = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).leaseUntil(eq(List.of(11L, 12L)), claimed.capture());
+        ArgumentCaptor<LocalDateTime> renewed = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).renewLease(eq(List.of(11L, 12L)), eq(claimed.getValue()), renewed.capture());
+        verify(deliveryRepository).recordBatchAttempt(eq(List.of(11L, 12L)), eq(renewed.getValue()),
+                eq(WebhookDelivery.Status.DELIVERED), notNull(), isNull(), notNull());
+    }
+
+    @Test
+    @DisplayName("Não monta lote enquanto outra instância tem a subscrição bloqueada")
+    void flush_ShouldSkipWhenSubscriptionIsLockedElsewhere() {
+        WebhookSubscription sub = subscription(1000, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.empty());
+
+        assertThat(batcher.flush(sub, LocalDateTime.now()).block(Duration.ofSeconds(5))).isZero();
+
+        verify(deliveryRepository, never()).findNextBatch(any(), any(), any());
+        verifyNoInteractions(deliveryEngine);
+    }
+
+    @Test
+    @DisplayName("Um lote falhado volta inteiro a pendente, exceto as entregas sem tentativas restantes")
+    void flush_ShouldRescheduleFailedBatchAndFailExhaustedDeliveries() {
+        WebhookSubscription sub = subscription(1000, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(21L, "booking.created", 2), delivery(22L, "booking.created", 1)));
+        engineReturns(false);
+
+        LocalDateTime before = LocalDateTime.now();
+        batcher.flush(sub, before).block(Duration.ofSeconds(5));
+
+        verify(deliveryRepository).recordBatchAttempt(eq(List.of(21L)), notNull(), eq(WebhookDelivery.Status.FAILED),
+                notNull(), isNull(), isNull());
+        // Segunda falha da entrega 22 -> nova tentativa entre 30s e 60s depois (equal jitter sobre 60s)
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).recordBatchAttempt(eq(List.of(22L)), notNull(), eq(WebhookDelivery.Status.PENDING),
+                notNull(), next.capture(), isNull());
+        assertThat(next.getValue()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(next.getValue()).isBeforeOrEqualTo(LocalDateTime.now().plusSeconds(60));
+    }
+
+    @Test
+    @DisplayName("Envia de imediato quando o lote atinge batchMaxEvents, sem esperar pela janela")
+    void enqueue_ShouldFlushImmediatelyWhenMaxEventsIsReached() {
+        WebhookSubscription sub = subscription(60_000, 2);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(31L, "booking.created", 0), delivery(32L, "booking.created", 0)))
+                .thenReturn(List.of());
+        engineReturns(true);
+
+        batcher.enqueue(sub, 1);
+        verifyNoInteractions(deliveryEngine);
+        batcher.enqueue(sub, 1);
+
+        verify(deliveryEngine, timeout(2000)).deliver(eq(sub), any(), any(), any());
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(deliveryRepository, timeout(2000).atLeastOnce()).findNextBatch(eq(1L), any(), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Envia o lote no fim da janela iniciada pelo primeiro evento")
+    void enqueue_ShouldFlushWhenWindowExpires() {
+        WebhookSubscription sub = subscription(100, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(41L, "booking.created", 0)));
+        engineReturns(true);
+
+        batcher.enqueue(sub, 1);
+
+        verify(deliveryEngine, timeout(2000)).deliver(eq(sub), any(), any(), any());
+        verify(deliveryRepository, timeout(2000)).recordBatchAttempt(eq(List.of(41L)), notNull(),
+                eq(WebhookDelivery.Status.DELIVERED), notNull(), isNull(), notNull());
+    }
+
+    @Test
+    @DisplayName("Não envia o lote se parte dele foi reclamada por outra tentativa enquanto esperava na fila do host")
+    void flush_ShouldNotSend_WhenPartOfBatchWasReclaimedWhileQueued() {
+        WebhookSubscription sub = subscription(1000, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(51L, "booking.created", 0), delivery(52L, "booking.created", 0)));
+        when(deliveryRepository.renewLease(any(), any(), any())).thenReturn(1);
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Mono<Boolean>>getArgument(3).filter(Boolean::booleanValue).map(ready -> true));
+
+        Integer sent = batcher.flush(sub, LocalDateTime.now()).block(Duration.ofSeconds(5));
+
+        assertThat(sent).isZero();
+        verify(deliveryRepository, never()).recordBatchAttempt(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Um lote recusado pelo motor (fila do host cheia) é adiado sem contar como tentativa")
+    void flush_ShouldPostponeWithoutCountingAttempt_WhenHostQueueIsFull() {
+        WebhookSubscription sub = subscription(1000, null);
+        when(subscriptionRepository.lockForBatch(1L)).thenReturn(Optional.of(sub));
+        when(deliveryRepository.findNextBatch(eq(1L), any(), any()))
+                .thenReturn(List.of(delivery(61L, "booking.created", 0), delivery(62L, "booking.created", 0)));
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenReturn(Mono.empty());
+
+        LocalDateTime before = LocalDateTime.now();
+        Integer sent = batcher.flush(sub, before).block(Duration.ofSeconds(5));
+
+        // O lote volta daqui a base-delay (30s), condicionado ao lease com que foi reclamado
+        assertThat(sent).isZero();
+        ArgumentCaptor<LocalDateTime> claimed = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).leaseUntil(eq(List.of(61L, 62L)), claimed.capture());
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).renewLease(eq(List.of(61L, 62L)), eq(claimed.getValue()), next.capture());
+        assertThat(next.getValue()).isAfterOrEqualTo(before.plusSeconds(29));
+        verify(deliveryRepository, never()).recordBatchAttempt(any(), any(), any(), any(), any(), any());
+    }
+
+    /** Motor que executa o passo prévio (renovação do lease de todo o lote) e devolve o resultado indicado. */
+    private void engineReturns(boolean delivered) {
+        when(deliveryRepository.renewLease(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Mono<Boolean>>getArgument(3).filter(Boolean::booleanValue).map(ready -> delivered));
+    }
+
+    private WebhookSubscription subscription(int windowMs, Integer maxEvents) {
+        return WebhookSubscription.builder()
+                .id(1L)
+                .userId(100L)
+                .targetUrl("https://hooks.example.com/batch")
+                .secret(SECRET)
+                .isActive(true)
+                .subscribedEvents(Set.of("booking.created", "booking.status.updated"))
+                .batchWindowMs(windowMs)
+                .batchMaxEvents(maxEvents)
+                .build();
+    }
+
+    private WebhookDelivery delivery(long id, String event, int attempts) {
+        return WebhookDelivery.builder()
+                .id(id)
+                .deliveryId("delivery-" + id)
+                .subscriptionId(1L)
+                .event(event)
+                .payload("{\"bookingId\":" + id + "}")
+                .status(WebhookDelivery.Status.PENDING)
+                .batched(true)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,264 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.service.external.ExternalAuthService;
+import com.nexus.estates.service.external.ExternalSyncService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebhookDeliveryEngineTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private RetryRegistry retryRegistry;
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreakerRegistry.addConfiguration(WebhookDeliveryEngine.CIRCUIT_BREAKER_CONFIG, CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        retryRegistry = RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Limita as entregas em curso por host sem atrasar os outros hosts")
+    void deliver_ShouldCapInFlightPerHostWithoutBlockingOtherHosts() {
+        ExternalSyncService externalSyncService = mock(ExternalSyncService.class);
+        List<Sinks.One<Boolean>> pending = new ArrayList<>();
+        when(externalSyncService.postWithoutResponseReactive(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Sinks.One<Boolean> response = Sinks.one();
+            pending.add(response);
+            return response.asMono();
+        });
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 1);
+
+        List<Boolean> results = new ArrayList<>();
+        engine.deliver(sub(1L, "https://slow.example.com/hook"), config("https://slow.example.com/hook"), "{}").subscribe(results::add);
+        engine.deliver(sub(2L, "https://slow.example.com/other"), config("https://slow.example.com/other"), "{}").subscribe(results::add);
+        engine.deliver(sub(3L, "https://fast.example.com/hook"), config("https://fast.example.com/hook"), "{}").subscribe(results::add);
+
+        // O segundo pedido para slow.example.com espera; o de fast.example.com arranca logo
+        assertThat(pending).hasSize(2);
+
+        pending.get(0).tryEmitValue(true);
+        assertThat(pending).hasSize(3);
+
+        pending.get(1).tryEmitValue(true);
+        pending.get(2).tryEmitValue(true);
+        assertThat(results).containsExactly(true, true, true);
+    }
+
+    @Test
+    @DisplayName("Recusa entregas quando a fila do host está cheia, sem as contar como tentativa")
+    void deliver_ShouldRejectWhenHostQueueIsFull() {
+        ExternalSyncService externalSyncService = mock(ExternalSyncService.class);
+        when(externalSyncService.postWithoutResponseReactive(any(), any(), any(), any(), any()))
+                .thenReturn(Mono.never());
+        WebhookDeliveryEngine engine = new WebhookDeliveryEngine(externalSyncService, circuitBreakerRegistry,
+                retryRegistry, 10, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(30));
+        WebhookSubscription sub = sub(1L, "https://slow.example.com/hook");
+
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}").subscribe();
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}").subscribe();
+        Boolean rejected = engine.deliver(sub, config(sub.getTargetUrl()), "{}").block(Duration.ofSeconds(1));
+
+        // Recusada sem tentativa: o Mono termina vazio
+        assertThat(rejected).isNull();
+        verify(externalSyncService, times(1)).postWithoutResponseReactive(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Executa o passo prévio quando a entrega sai da fila e não envia se ele recusar")
+    void deliver_ShouldRunBeforeSendWhenLeavingQueue() {
+        ExternalSyncService externalSyncService = mock(ExternalSyncService.class);
+        Sinks.One<Boolean> first = Sinks.one();
+        when(externalSyncService.postWithoutResponseReactive(any(), any(), any(), any(), any()))
+                .thenReturn(first.asMono(), Mono.just(true));
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 1);
+        WebhookSubscription sub = sub(1L, "https://a.example.com/hook");
+        List<String> steps = new ArrayList<>();
+
+        List<Boolean> results = new ArrayList<>();
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}", Mono.fromSupplier(() -> steps.add("first")))
+                .subscribe(results::add);
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}", Mono.fromSupplier(() -> steps.add("second")))
+                .subscribe(results::add);
+        Boolean refused = engine.deliver(sub(2L, "https://b.example.com/hook"), config("https://b.example.com/hook"), "{}",
+                Mono.just(false)).block(Duration.ofSeconds(1));
+
+        // A segunda entrega ainda espera pela vaga do host: o seu passo prévio não correu
+        assertThat(steps).containsExactly("first");
+        assertThat(refused).isNull();
+
+        first.tryEmitValue(true);
+
+        assertThat(steps).containsExactly("first", "second");
+        assertThat(results).containsExactly(true, true);
+        verify(externalSyncService, times(2)).postWithoutResponseReactive(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Usa o timeout da subscrição, limitado ao máximo configurado")
+    void deliver_ShouldUseSubscriptionTimeoutCappedAtMax() {
+        ExternalSyncService externalSyncService = mock(ExternalSyncService.class);
+        when(externalSyncService.postWithoutResponseReactive(any(), any(), any(), any(), any()))
+                .thenReturn(Mono.just(true));
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 4);
+        WebhookSubscription quick = sub(1L, "https://a.example.com/hook");
+        quick.setTimeoutMs(250);
+        WebhookSubscription greedy = sub(2L, "https://b.example.com/hook");
+        greedy.setTimeoutMs(120_000);
+        WebhookSubscription unset = sub(3L, "https://c.example.com/hook");
+
+        engine.deliver(quick, config(quick.getTargetUrl()), "{}").block();
+        engine.deliver(greedy, config(greedy.getTargetUrl()), "{}").block();
+        engine.deliver(unset, config(unset.getTargetUrl()), "{}").block();
+
+        verify(externalSyncService).postWithoutResponseReactive(any(), any(), any(), any(), eq(Duration.ofMillis(250)));
+        verify(externalSyncService).postWithoutResponseReactive(any(), any(), any(), any(), eq(Duration.ofSeconds(30)));
+        verify(externalSyncService).postWithoutResponseReactive(any(), any(), any(), any(), eq(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("Um subscritor em falha abre apenas o seu próprio circuit breaker")
+    void deliver_ShouldIsolateCircuitBreakerPerSubscriber() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return "/broken".equals(request.getPath())
+                        ? new MockResponse().setResponseCode(500)
+                        : new MockResponse().setResponseCode(204);
+            }
+        });
+        server.start();
+        ExternalSyncService externalSyncService = new ExternalSyncService(WebClient.create(),
+                mock(ExternalAuthService.class), circuitBreakerRegistry, retryRegistry);
+        ReflectionTestUtils.setField(externalSyncService, "requestTimeout", Duration.ofSeconds(5));
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 4);
+        WebhookSubscription broken = sub(1L, server.url("/broken").toString());
+        WebhookSubscription healthy = sub(2L, server.url("/healthy").toString());
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(engine.deliver(broken, config(broken.getTargetUrl()), "{}").block()).isFalse();
+        }
+        int requestsBeforeOpen = server.getRequestCount();
+        assertThat(engine.deliver(broken, config(broken.getTargetUrl()), "{}").block()).isFalse();
+        Boolean healthyDelivered = engine.deliver(healthy, config(healthy.getTargetUrl()), "{}").block();
+
+        assertThat(engine.circuitBreakerFor(1L).getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(engine.circuitBreakerFor(2L).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(healthyDelivered).isTrue();
+        // Com o circuito aberto, o subscritor em falha já não é contactado
+        assertThat(server.getRequestCount()).isEqualTo(requestsBeforeOpen + 1);
+    }
+
+    @Test
+    @DisplayName("O timeout da subscrição sobrepõe-se ao timeout de resposta do cliente HTTP partilhado")
+    void deliver_ShouldHonourSubscriptionTimeoutAboveSharedClientTimeout() throws IOException {
+        server = new MockWebServer();
+        server.enqueue(new MockResponse().setResponseCode(204).setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        server.start();
+        WebClient shared = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().responseTimeout(Duration.ofMillis(100))))
+                .build();
+        ExternalSyncService externalSyncService = new ExternalSyncService(shared,
+                mock(ExternalAuthService.class), circuitBreakerRegistry, retryRegistry);
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 4);
+        WebhookSubscription patient = sub(1L, server.url("/hook").toString());
+        patient.setTimeoutMs(2_000);
+
+        Boolean delivered = engine.deliver(patient, config(patient.getTargetUrl()), "{}").block(Duration.ofSeconds(5));
+
+        assertThat(delivered).isTrue();
+    }
+
+    @Test
+    @DisplayName("Descarta a fila de um host quando deixa de ter entregas")
+    void deliver_ShouldDropHostLaneWhenIdle() {
+        ExternalSyncService externalSyncService = mock(ExternalSyncService.class);
+        Sinks.One<Boolean> response = Sinks.one();
+        when(externalSyncService.postWithoutResponseReactive(any(), any(), any(), any(), any()))
+                .thenReturn(response.asMono());
+        WebhookDeliveryEngine engine = engine(externalSyncService, 10, 1);
+        WebhookSubscription sub = sub(1L, "https://a.example.com/hook");
+
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}").subscribe();
+        engine.deliver(sub, config(sub.getTargetUrl()), "{}").subscribe();
+        assertThat(engine.trackedHosts()).isEqualTo(1);
+
+        response.tryEmitValue(true);
+
+        assertThat(engine.trackedHosts()).isZero();
+    }
+
+    private WebhookDeliveryEngine engine(ExternalSyncService externalSyncService, int maxInFlight, int perHostLimit) {
+        return new WebhookDeliveryEngine(externalSyncService, circuitBreakerRegistry, retryRegistry,
+                maxInFlight, perHostLimit, 100, Duration.ofSeconds(5), Duration.ofSeconds(30));
+    }
+
+    private WebhookSubscription sub(long id, String url) {
+        return WebhookSubscription.builder()
+                .id(id)
+                .userId(100L)
+                .targetUrl(url)
+                .secret("secret")
+                .isActive(true)
+                .subscribedEvents(Set.of("booking.created"))
+                .build();
+    }
+
+    private ExternalApiConfig config(String url) {
+        return ExternalApiConfig.builder()
+                .baseUrl(url)
+                .endpoint("")
+                .authType(ExternalApiConfig.AuthType.NONE)
+                .customHeaders(Map.of("X-Nexus-Event", "booking.created"))
+                .build();
+    }
+}
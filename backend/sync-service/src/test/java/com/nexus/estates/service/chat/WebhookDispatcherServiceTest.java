@@ -5,36 +5,55 @@ import com.nexus.estates.common.enums.BookingStatus;
 import com.nexus.estates.common.messaging.BookingCreatedMessage;
 import com.nexus.estates.common.util.WebhookCryptoUtil;
 import com.nexus.estates.dto.ExternalApiConfig;
+import com.nexus.estates.entity.WebhookDelivery;
 import com.nexus.estates.entity.WebhookSubscription;
-import com.nexus.estates.repository.WebhookSubscriptionRepository;
-import com.nexus.estates.service.external.ExternalSyncService;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class WebhookDispatcherServiceTest {
 
+    private static final LocalDateTime CLAIMED_LEASE = LocalDateTime.of(2026, 7, 1, 10, 5);
+
     @Mock
-    private WebhookSubscriptionRepository repository;
+    private WebhookSubscriptionCache subscriptionCache;
 
     @Mock
-    private ExternalSyncService externalSyncService;
+    private WebhookDeliveryRepository deliveryRepository;
 
-    // Usamos um Spy no ObjectMapper para termos comportamento real de serialização JSON
-    @Spy
-    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private WebhookDeliveryEngine deliveryEngine;
+
+    @Mock
+    private WebhookBatcher batcher;
 
-    @InjectMocks
     private WebhookDispatcherService dispatcherService;
 
+    @BeforeEach
+    void setUp() {
+        // ObjectMapper real para termos comportamento real de serialização JSON; duas tentativas no máximo
+        dispatcherService = new WebhookDispatcherService(subscriptionCache, deliveryRepository, deliveryEngine,
+                new WebhookRetryPolicy(2, Duration.ofSeconds(30), Duration.ofHours(6), Duration.ofMinutes(5)),
+                batcher, TransactionOperations.withoutTransaction(), new ObjectMapper());
+    }
+
     @Test
     void dispatch_ShouldSerializeSignAndSendPayload_WhenSubscriptionExists() {
         // Arrange
@@ -48,11 +67,13 @@ class WebhookDispatcherServiceTest {
                 .targetUrl(targetUrl)
                 .secret(secret)
                 .isActive(true)
-                .subscribedEvents(event)
+                .subscribedEvents(Set.of(event))
                 .build();
 
         // Quando o dispatcher procurar por webhooks ativos para 'booking.created', devolve a nossa subscrição mockada
-        when(repository.findBySubscribedEventsContainingAndIsActiveTrue(event)).thenReturn(List.of(sub));
+        when(subscriptionCache.activeFor(event)).thenReturn(List.of(sub));
+        engineReturns(true);
+        List<WebhookDelivery> persisted = stubPersistence();
 
         // Um evento fictício (Record criado de forma simulada)
         BookingCreatedMessage payload = new BookingCreatedMessage(500L, 500L,500L, BookingStatus.PENDING_PAYMENT);
@@ -61,11 +82,11 @@ class WebhookDispatcherServiceTest {
         dispatcherService.dispatch(event, payload);
 
         // Assert
-        // Capturar os argumentos que foram passados para o serviço de envio HTTP (ExternalSyncService)
+        // Capturar os argumentos que foram passados ao motor de entrega
         ArgumentCaptor<ExternalApiConfig> configCaptor = ArgumentCaptor.forClass(ExternalApiConfig.class);
         ArgumentCaptor<String> jsonCaptor = ArgumentCaptor.forClass(String.class);
 
-        verify(externalSyncService, times(1)).postWithoutResponse(configCaptor.capture(), jsonCaptor.capture());
+        verify(deliveryEngine, times(1)).deliver(eq(sub), configCaptor.capture(), jsonCaptor.capture(), any());
 
         ExternalApiConfig capturedConfig = configCaptor.getValue();
         String capturedJson = jsonCaptor.getValue();
@@ -80,6 +101,15 @@ class WebhookDispatcherServiceTest {
 
         assertEquals(event, capturedConfig.customHeaders().get("X-Nexus-Event"));
 
+        // O Delivery-Id enviado é o da entrega registada antes da tentativa, com o mesmo payload
+        WebhookDelivery delivery = persisted.get(0);
+        assertEquals(delivery.getDeliveryId(), capturedConfig.customHeaders().get("X-Nexus-Delivery-Id"));
+        assertEquals(capturedJson, delivery.getPayload());
+        assertEquals(1L, delivery.getSubscriptionId());
+        assertEquals(WebhookDelivery.Status.PENDING, delivery.getStatus());
+        verify(deliveryRepository, timeout(1000)).recordAttempt(eq(delivery.getId()), notNull(),
+                eq(WebhookDelivery.Status.DELIVERED), notNull(), isNull(), notNull());
+
         // 3. A Prova dos 9 (HMAC-SHA256)
         String generatedSignature = capturedConfig.customHeaders().get("X-Nexus-Signature");
 
@@ -94,12 +124,147 @@ class WebhookDispatcherServiceTest {
     void dispatch_ShouldNotSendAnything_WhenNoActiveSubscriptionsExist() {
         // Arrange
         String event = "booking.updated";
-        when(repository.findBySubscribedEventsContainingAndIsActiveTrue(event)).thenReturn(List.of());
+        when(subscriptionCache.activeFor(event)).thenReturn(List.of());
 
         // Act
         dispatcherService.dispatch(event, new Object());
 
         // Assert
-        verify(externalSyncService, never()).postWithoutResponse(any(), any());
+        verify(deliveryEngine, never()).deliver(any(), any(), any(), any());
+        verifyNoInteractions(deliveryRepository);
+    }
+
+    @Test
+    void dispatch_ShouldHandBatchedSubscriptionsToBatcher() {
+        // Arrange
+        WebhookSubscription batched = subscription();
+        batched.setBatchWindowMs(2000);
+        when(subscriptionCache.activeFor("booking.created")).thenReturn(List.of(batched));
+        when(batcher.windowFor(batched)).thenReturn(Duration.ofMillis(2000));
+        List<WebhookDelivery> persisted = stubPersistence();
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        dispatcherService.dispatch("booking.created", new BookingCreatedMessage(500L, 500L, 500L, BookingStatus.PENDING_PAYMENT));
+
+        // Assert: a entrega fica registada como agrupada até ao fim da janela e não é enviada individualmente
+        WebhookDelivery delivery = persisted.get(0);
+        assertTrue(delivery.isBatched());
+        assertFalse(delivery.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+        verify(batcher).enqueue(batched, 1);
+        verify(deliveryEngine, never()).deliver(any(), any(), any(), any());
+    }
+
+    @Test
+    void attempt_ShouldScheduleRetryWithBackoff_WhenDeliveryFails() {
+        // Arrange
+        WebhookSubscription sub = subscription();
+        WebhookDelivery delivery = delivery(0);
+        engineReturns(false);
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        Boolean delivered = dispatcherService.attempt(delivery, sub).block(Duration.ofSeconds(5));
+
+        // Assert: primeira falha -> nova tentativa entre 15s e 30s depois (equal jitter sobre 30s)
+        assertFalse(delivered);
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> renewed = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).renewLease(eq(List.of(7L)), eq(CLAIMED_LEASE), renewed.capture());
+        verify(deliveryRepository).recordAttempt(eq(7L), eq(renewed.getValue()), eq(WebhookDelivery.Status.PENDING), notNull(),
+                next.capture(), isNull());
+        assertTrue(!next.getValue().isBefore(before.plusSeconds(15)));
+        assertTrue(!next.getValue().isAfter(LocalDateTime.now().plusSeconds(30)));
+    }
+
+    @Test
+    void attempt_ShouldMarkFailed_WhenAttemptsAreExhausted() {
+        // Arrange
+        engineReturns(false);
+
+        // Act
+        dispatcherService.attempt(delivery(1), subscription()).block(Duration.ofSeconds(5));
+
+        // Assert
+        verify(deliveryRepository).recordAttempt(eq(7L), notNull(), eq(WebhookDelivery.Status.FAILED), notNull(),
+                isNull(), isNull());
+    }
+
+    @Test
+    void attempt_ShouldNotSend_WhenLeaseWasTakenWhileQueued() {
+        // Arrange: outra tentativa reclamou a entrega enquanto esta esperava na fila do host
+        when(deliveryRepository.renewLease(any(), any(), any())).thenReturn(0);
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Mono<Boolean>>getArgument(3).filter(Boolean::booleanValue).map(ready -> true));
+
+        // Act
+        Boolean delivered = dispatcherService.attempt(delivery(0), subscription()).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertNull(delivered);
+        verify(deliveryRepository).renewLease(eq(List.of(7L)), eq(CLAIMED_LEASE), notNull());
+        verify(deliveryRepository, never()).recordAttempt(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void attempt_ShouldPostponeWithoutCountingAttempt_WhenHostQueueIsFull() {
+        // Arrange: o motor recusa a entrega sem a tirar da fila
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenReturn(Mono.empty());
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        Boolean delivered = dispatcherService.attempt(delivery(0), subscription()).block(Duration.ofSeconds(5));
+
+        // Assert: a entrega volta daqui a base-delay (30s) e não regista tentativa
+        assertNull(delivered);
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).renewLease(eq(List.of(7L)), eq(CLAIMED_LEASE), next.capture());
+        assertFalse(next.getValue().isBefore(before.plusSeconds(29)));
+        verify(deliveryRepository, never()).recordAttempt(any(), any(), any(), any(), any(), any());
+    }
+
+    /** Motor que executa o passo prévio (renovação do lease) e devolve o resultado indicado. */
+    private void engineReturns(boolean delivered) {
+        when(deliveryRepository.renewLease(any(), any(), any())).thenReturn(1);
+        when(deliveryEngine.deliver(any(), any(), any(), any())).thenAnswer(invocation ->
+                invocation.<Mono<Boolean>>getArgument(3).filter(Boolean::booleanValue).map(ready -> delivered));
+    }
+
+    private List<WebhookDelivery> stubPersistence() {
+        List<WebhookDelivery> persisted = new ArrayList<>();
+        when(deliveryRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<WebhookDelivery> deliveries = invocation.getArgument(0);
+            long id = 1;
+            for (WebhookDelivery delivery : deliveries) {
+                delivery.setId(id++);
+                persisted.add(delivery);
+            }
+            return persisted;
+        });
+        return persisted;
+    }
+
+    private WebhookSubscription subscription() {
+        return WebhookSubscription.builder()
+                .id(1L)
+                .userId(100L)
+                .targetUrl("https://webhook.site/teste-nexus")
+                .secret(WebhookCryptoUtil.generateSecret())
+                .isActive(true)
+                .subscribedEvents(Set.of("booking.created"))
+                .build();
+    }
+
+    private WebhookDelivery delivery(int attempts) {
+        return WebhookDelivery.builder()
+                .id(7L)
+                .deliveryId("4f7a1c2e-0000-4000-8000-000000000007")
+                .subscriptionId(1L)
+                .event("booking.created")
+                .payload("{\"bookingId\":500}")
+                .status(WebhookDelivery.Status.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(CLAIMED_LEASE)
+                .build();
     }
 }
\ No newline at end of file
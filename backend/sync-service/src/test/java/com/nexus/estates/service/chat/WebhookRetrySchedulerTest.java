@@ -0,0 +1,160 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.entity.WebhookDelivery;
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookDeliveryRepository;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookRetrySchedulerTest {
+
+    @Mock
+    private WebhookDeliveryRepository deliveryRepository;
+
+    @Mock
+    private WebhookSubscriptionRepository subscriptionRepository;
+
+    @Mock
+    private WebhookDispatcherService dispatcherService;
+
+    @Mock
+    private WebhookBatcher batcher;
+
+    private WebhookRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new WebhookRetryScheduler(deliveryRepository, subscriptionRepository, dispatcherService, batcher,
+                new WebhookRetryPolicy(12, Duration.ofSeconds(30), Duration.ofHours(6), Duration.ofMinutes(5)),
+                TransactionOperations.withoutTransaction(), 50, Duration.ofDays(14));
+    }
+
+    @Test
+    @DisplayName("Reclama um lote de entregas vencidas, aplica o lease e volta a tentá-las")
+    void retryDue_ShouldLeaseAndRetryDueDeliveries() {
+        WebhookDelivery first = delivery(1L, 10L);
+        WebhookDelivery second = delivery(2L, 10L);
+        WebhookSubscription sub = subscription(10L, true);
+        when(deliveryRepository.lockDueDeliveries(any(), any())).thenReturn(List.of(first, second));
+        when(subscriptionRepository.findAllById(List.of(10L))).thenReturn(List.of(sub));
+        when(dispatcherService.attempt(any(), eq(sub))).thenReturn(Mono.just(true));
+
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Boolean> results = scheduler.retryDue().collectList().block(Duration.ofSeconds(5));
+
+        assertThat(results).containsExactly(true, true);
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(deliveryRepository).lockDueDeliveries(any(), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(50);
+        ArgumentCaptor<LocalDateTime> lease = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(deliveryRepository).leaseUntil(eq(List.of(1L, 2L)), lease.capture());
+        assertThat(lease.getValue()).isAfterOrEqualTo(before.plusMinutes(5));
+        assertThat(first.getNextAttemptAt()).isEqualTo(lease.getValue());
+        verify(dispatcherService).attempt(first, sub);
+        verify(dispatcherService).attempt(second, sub);
+        verify(deliveryRepository, never()).abandon(any());
+    }
+
+    @Test
+    @DisplayName("Abandona as entregas de subscrições inativas ou removidas sem as enviar")
+    void retryDue_ShouldAbandonDeliveriesOfInactiveSubscriptions() {
+        WebhookDelivery inactive = delivery(3L, 20L);
+        WebhookDelivery removed = delivery(4L, 30L);
+        when(deliveryRepository.lockDueDeliveries(any(), any())).thenReturn(List.of(inactive, removed));
+        when(subscriptionRepository.findAllById(List.of(20L, 30L))).thenReturn(List.of(subscription(20L, false)));
+
+        List<Boolean> results = scheduler.retryDue().collectList().block(Duration.ofSeconds(5));
+
+        assertThat(results).isEmpty();
+        verify(deliveryRepository).abandon(List.of(3L, 4L));
+        verifyNoInteractions(dispatcherService);
+    }
+
+    @Test
+    @DisplayName("Sem entregas vencidas não aplica lease nem consulta subscrições")
+    void retryDue_ShouldDoNothingWhenNothingIsDue() {
+        when(deliveryRepository.lockDueDeliveries(any(), any())).thenReturn(List.of());
+
+        assertThat(scheduler.retryDue().collectList().block(Duration.ofSeconds(5))).isEmpty();
+
+        verify(deliveryRepository, never()).leaseUntil(any(), any());
+        verifyNoInteractions(subscriptionRepository, dispatcherService);
+    }
+
+    @Test
+    @DisplayName("Pede um novo lote para as subscrições agrupadas vencidas e abandona as inativas")
+    void retryDueBatches_ShouldFlushActiveSubscriptionsAndAbandonInactive() {
+        WebhookSubscription active = subscription(40L, true);
+        active.setBatchWindowMs(1000);
+        when(deliveryRepository.findSubscriptionsWithDueBatches(any())).thenReturn(List.of(40L, 50L));
+        when(subscriptionRepository.findAllById(List.of(40L, 50L))).thenReturn(List.of(active, subscription(50L, false)));
+        when(batcher.flush(eq(active), any())).thenReturn(Mono.just(3));
+
+        List<Integer> results = scheduler.retryDueBatches().collectList().block(Duration.ofSeconds(5));
+
+        assertThat(results).containsExactly(3);
+        verify(deliveryRepository).abandonPendingBatches(50L);
+        verify(deliveryRepository, never()).abandonPendingBatches(40L);
+    }
+
+    @Test
+    @DisplayName("O backoff duplica a cada falha até ao teto e termina quando as tentativas se esgotam")
+    void retryPolicy_ShouldBackOffExponentiallyWithJitterUpToCap() {
+        WebhookRetryPolicy policy = new WebhookRetryPolicy(12, Duration.ofSeconds(30), Duration.ofHours(6),
+                Duration.ofMinutes(5));
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(policy.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(policy.backoff(2)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(policy.backoff(8)).isEqualTo(Duration.ofMinutes(64));
+        assertThat(policy.backoff(11)).isEqualTo(Duration.ofHours(6));
+        for (int i = 0; i < 50; i++) {
+            assertThat(policy.nextAttemptAt(3, now)).isBetween(now.plusMinutes(1), now.plusMinutes(2));
+        }
+        assertThat(policy.nextAttemptAt(12, now)).isNull();
+    }
+
+    private WebhookDelivery delivery(long id, long subscriptionId) {
+        return WebhookDelivery.builder()
+                .id(id)
+                .deliveryId("delivery-" + id)
+                .subscriptionId(subscriptionId)
+                .event("booking.created")
+                .payload("{}")
+                .status(WebhookDelivery.Status.PENDING)
+                .attempts(1)
+                .build();
+    }
+
+    private WebhookSubscription subscription(long id, boolean active) {
+        return WebhookSubscription.builder()
+                .id(id)
+                .userId(100L)
+                .targetUrl("https://hooks.example.com/" + id)
+                .secret("secret")
+                .isActive(active)
+                .subscribedEvents(Set.of("booking.created"))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.common.util.WebhookCryptoUtil;
+import com.nexus.estates.common.util.WebhookSigner;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link WebhookSigner} partilhado (common-library), usado pelo dispatcher de webhooks
+ * e pela validação dos webhooks do Ably.
+ */
+class WebhookSignerTest {
+
+    private static final String SECRET = "whsec_test_secret";
+    private static final String PAYLOAD = "{\"event\":\"booking.created\",\"guest\":\"João\"}";
+
+    private final WebhookSigner signer = WebhookCryptoUtil.signerFor(SECRET);
+
+    @Test
+    void sign_ShouldMatchReferenceHmacAndLegacySignPayload() throws Exception {
+        byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        String signature = signer.sign(bytes);
+
+        assertEquals("sha256=" + Base64.getEncoder().encodeToString(referenceHmac(bytes)), signature);
+        assertEquals(WebhookCryptoUtil.signPayload(PAYLOAD, SECRET), signature);
+        assertTrue(WebhookCryptoUtil.isValidSignature(PAYLOAD, signature, SECRET));
+    }
+
+    @Test
+    void sign_ShouldSignOnlyRemainingBytesOfBuffer() {
+        byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        byte[] framed = new byte[bytes.length + 8];
+        System.arraycopy(bytes, 0, framed, 4, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(framed, 4, bytes.length);
+
+        String signature = signer.sign(buffer);
+
+        assertEquals(signer.sign(bytes), signature);
+        assertEquals(buffer.limit(), buffer.position(), "O buffer deve ficar consumido até ao limite");
+    }
+
+    @Test
+    void sign_ShouldGiveSameResultForHeapAndDirectBuffers() {
+        byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+        assertEquals(signer.sign(bytes), signer.sign(direct));
+    }
+
+    @Test
+    void verify_ShouldAcceptOwnSignatureAndRejectOtherPayload() {
+        byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String signature = signer.sign(bytes);
+
+        assertTrue(signer.verify(bytes, signature));
+        assertFalse(signer.verify("{}".getBytes(StandardCharsets.UTF_8), signature));
+        assertFalse(WebhookCryptoUtil.signerFor("outro-segredo").verify(bytes, signature));
+    }
+
+    @Test
+    void verify_ShouldRejectMalformedSignaturesWithoutThrowing() {
+        byte[] bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        String base64 = signer.sign(bytes).substring("sha256=".length());
+
+        assertFalse(signer.verify(bytes, null));
+        assertFalse(signer.verify(null, "sha256=" + base64));
+        // Sem o prefixo do algoritmo
+        assertFalse(signer.verify(bytes, base64));
+        assertFalse(signer.verify(bytes, "sha1=" + base64));
+        // Base64 inválido
+        assertFalse(signer.verify(bytes, "sha256=%%%não-é-base64%%%"));
+        // Base64 válido mas com o comprimento errado (truncado ou com bytes a mais)
+        assertFalse(signer.verify(bytes, "sha256=" + base64.substring(0, 20)));
+        assertFalse(signer.verify(bytes, "sha256=" + Base64.getEncoder().encodeToString(new byte[33])));
+        assertFalse(signer.verify(bytes, "sha256="));
+    }
+
+    @Test
+    void signerFor_ShouldReuseSignerForSameSecret() {
+        assertSame(signer, WebhookCryptoUtil.signerFor(SECRET));
+        assertThrows(IllegalArgumentException.class, () -> WebhookCryptoUtil.signerFor(null));
+    }
+
+    private static byte[] referenceHmac(byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac.doFinal(payload);
+    }
+}
@@ -0,0 +1,90 @@
+package com.nexus.estates.service.chat;
+
+import com.nexus.estates.entity.WebhookSubscription;
+import com.nexus.estates.repository.WebhookSubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testes da pesquisa indexada de subscrições por evento e da respetiva cache, sobre H2.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ActiveProfiles("test")
+@Import(WebhookSubscriptionCache.class)
+class WebhookSubscriptionCacheTest {
+
+    @Autowired
+    private WebhookSubscriptionCache cache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @SpyBean
+    private WebhookSubscriptionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // A cache é um singleton do contexto partilhado entre testes
+        cache.invalidate();
+    }
+
+    @Test
+    @DisplayName("Devolve apenas subscrições ativas do evento exato, sem correspondências por substring")
+    void activeFor_ShouldMatchExactEventOnlyForActiveSubscriptions() {
+        WebhookSubscription exact = persist(true, "booking.created", "booking.status.updated");
+        persist(true, "booking.created.v2");
+        persist(false, "booking.created");
+
+        assertThat(cache.activeFor("booking.created"))
+                .extracting(WebhookSubscription::getId)
+                .containsExactly(exact.getId());
+        assertThat(cache.activeFor("booking.created").get(0).getSubscribedEvents())
+                .containsExactlyInAnyOrder("booking.created", "booking.status.updated");
+        assertThat(cache.activeFor("created")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Serve consultas repetidas da cache e recarrega depois de invalidada")
+    void activeFor_ShouldServeFromCacheUntilInvalidated() {
+        WebhookSubscription first = persist(true, "booking.created");
+
+        assertThat(cache.activeFor("booking.created")).hasSize(1);
+        WebhookSubscription second = persist(true, "booking.created");
+        assertThat(cache.activeFor("booking.created"))
+                .extracting(WebhookSubscription::getId)
+                .containsExactly(first.getId());
+        verify(repository, times(1)).findActiveByEvent("booking.created");
+
+        cache.invalidate();
+
+        assertThat(cache.activeFor("booking.created"))
+                .extracting(WebhookSubscription::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        verify(repository, times(2)).findActiveByEvent("booking.created");
+    }
+
+    private WebhookSubscription persist(boolean active, String... events) {
+        WebhookSubscription subscription = entityManager.persistFlushFind(WebhookSubscription.builder()
+                .userId(100L)
+                .targetUrl("https://hooks.example.com/nexus")
+                .secret("secret")
+                .isActive(active)
+                .subscribedEvents(Set.of(events))
+                .build());
+        entityManager.clear();
+        return subscription;
+    }
+}
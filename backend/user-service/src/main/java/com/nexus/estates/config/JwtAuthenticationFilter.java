@@ -1,5 +1,6 @@
 package com.nexus.estates.config;
 
+import com.nexus.estates.entity.User;
 import com.nexus.estates.entity.UserRole;
 import com.nexus.estates.repository.UserRepository;
 import com.nexus.estates.service.JwtService;
@@ -8,6 +9,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,9 +30,17 @@ import java.util.List;
  *         <li>Processar o cabeçalho "X-User-Role" injetado pelo Gateway para definir as autoridades do utilizador.</li>
  *     </ol>
  * </p>
+ * <p>
+ *     Com {@code security.trusted-gateway.enabled=true} (serviço acessível apenas através do gateway),
+ *     os cabeçalhos {@code X-User-Id}, {@code X-User-Email} e {@code X-User-Role} que o gateway injeta
+ *     depois de validar o JWT bastam para autenticar: o principal é um {@link User} destacado, construído
+ *     a partir desses cabeçalhos, sem consultar a base de dados nem voltar a verificar o token. Os
+ *     endpoints que precisam dos dados do perfil usam a {@link com.nexus.estates.service.UserProjectionCache}.
+ *     Um pedido já autenticado pelos cabeçalhos nunca volta a passar pela validação do Bearer.
+ * </p>
  *
  * @author Nexus Estates Team
- * @version 1.1
+ * @version 1.2
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -41,6 +51,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserRepository userRepository;
 
+    /** Confia nos cabeçalhos X-User-* do gateway sem consultar a base de dados. */
+    @Value("${security.trusted-gateway.enabled:false}")
+    private boolean trustedGateway;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -50,6 +64,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String roleHeader = request.getHeader("X-User-Role"); // Cabeçalho injetado pelo Gateway
         final String userEmailHeader = request.getHeader("X-User-Email"); // Cabeçalho injetado pelo Gateway
 
+        if (trustedGateway && SecurityContextHolder.getContext().getAuthentication() == null) {
+            User principal = principalFromGatewayHeaders(request.getHeader("X-User-Id"), userEmailHeader, roleHeader);
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()))
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+
         if (SecurityContextHolder.getContext().getAuthentication() == null
                 && userEmailHeader != null
                 && !userEmailHeader.isBlank()) {
@@ -86,8 +113,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt;
         final String userEmail;
 
-        // 2. Verifica se o cabeçalho existe e começa por "Bearer "
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // 2. Verifica se o cabeçalho existe e começa por "Bearer "; se os cabeçalhos do Gateway já
+        // autenticaram o pedido, o token (já validado pelo Gateway) não volta a ser verificado
+        if (authHeader == null || !authHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -138,4 +167,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
              filterChain.doFilter(request, response);
         }
     }
+
+    /**
+     * Constrói o principal a partir dos cabeçalhos do gateway, sem acesso à base de dados.
+     *
+     * @return utilizador destacado (apenas id, email e role), ou {@code null} se algum cabeçalho
+     *         faltar ou for inválido — nesse caso o pedido segue pelos restantes mecanismos.
+     */
+    private static User principalFromGatewayHeaders(String userIdHeader, String emailHeader, String roleHeader) {
+        if (userIdHeader == null || emailHeader == null || emailHeader.isBlank()
+                || roleHeader == null || roleHeader.isBlank()) {
+            return null;
+        }
+        try {
+            String roleName = roleHeader.trim().toUpperCase();
+            if (roleName.startsWith("ROLE_")) {
+                roleName = roleName.substring(5);
+            }
+            return User.builder()
+                    .id(Long.parseLong(userIdHeader.trim()))
+                    .email(emailHeader)
+                    .role(UserRole.valueOf(roleName))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -33,6 +33,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    /**
+     * Filtro que autentica as chamadas serviço-a-serviço pela credencial partilhada.
+     */
+    @Autowired
+    private ServiceAuthenticationFilter serviceAuthenticationFilter;
+
     @Bean
     public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
         FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
@@ -40,6 +46,13 @@ public class SecurityConfig {
         return registration;
     }
 
+    @Bean
+    public FilterRegistrationBean<ServiceAuthenticationFilter> serviceAuthenticationFilterRegistration(ServiceAuthenticationFilter filter) {
+        FilterRegistrationBean<ServiceAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * Define o algoritmo de hashing para as passwords dos utilizadores.
      * * @return uma instância de {@link BCryptPasswordEncoder} utilizando o padrão da indústria.
@@ -57,6 +70,7 @@ public class SecurityConfig {
      * <li>Configurar as regras de acesso (Endpoints públicos vs protegidos).</li>
      * <li>Definir a política de sessão como STATELESS.</li>
      * <li>Injetar o filtro JWT na cadeia de execução.</p></li>
+     * <li>Injetar, antes dele, o filtro das chamadas serviço-a-serviço.</li>
      * </ul>
      *
      * @param http objeto de configuração de segurança HTTP
@@ -84,6 +98,9 @@ public class SecurityConfig {
                 // Configuração Stateless: O servidor não mantém estado de sessão entre pedidos
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
+                // Chamadas serviço-a-serviço: a credencial partilhada é verificada antes dos cabeçalhos do utilizador
+                .addFilterBefore(serviceAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
                 // Regista o filtro JWT antes do filtro padrão de Username/Password para validar o Token primeiro
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
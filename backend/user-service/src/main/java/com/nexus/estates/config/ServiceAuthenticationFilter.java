@@ -0,0 +1,76 @@
+package com.nexus.estates.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Filtro de autenticação das chamadas serviço-a-serviço.
+ * <p>
+ *     Os outros microsserviços (ex.: sync-service) identificam-se com a credencial partilhada
+ *     {@code security.service-token} no cabeçalho {@value #SERVICE_TOKEN_HEADER}. Um pedido com a
+ *     credencial correta fica autenticado com a autoridade {@value #SERVICE_AUTHORITY}, exigida pelos
+ *     endpoints internos. A autoridade não tem o prefixo {@code ROLE_}, pelo que não pode ser obtida
+ *     através do cabeçalho {@code X-User-Role} tratado pelo {@link JwtAuthenticationFilter}.
+ * </p>
+ * <p>
+ *     Sem credencial configurada nenhum pedido é autenticado como serviço.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @version 1.0
+ */
+@Component
+public class ServiceAuthenticationFilter extends OncePerRequestFilter {
+
+    /** Cabeçalho com a credencial partilhada entre serviços. */
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    /** Autoridade atribuída às chamadas serviço-a-serviço autenticadas. */
+    public static final String SERVICE_AUTHORITY = "SERVICE_INTERNAL";
+
+    @Value("${security.service-token:}")
+    private String serviceToken;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String presented = request.getHeader(SERVICE_TOKEN_HEADER);
+        if (presented != null && isServiceToken(presented)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    "service",
+                    null,
+                    List.of(new SimpleGrantedAuthority(SERVICE_AUTHORITY))
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isServiceToken(String presented) {
+        if (serviceToken == null || serviceToken.isBlank()) {
+            return false;
+        }
+        // Comparação em tempo constante, para não revelar a credencial pelo tempo de resposta
+        return MessageDigest.isEqual(serviceToken.getBytes(StandardCharsets.UTF_8),
+                presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,7 +1,10 @@
 package com.nexus.estates.controller;
 
+import com.nexus.estates.config.ServiceAuthenticationFilter;
+import com.nexus.estates.dto.UserSummary;
 import com.nexus.estates.entity.User;
 import com.nexus.estates.repository.UserRepository;
+import com.nexus.estates.service.UserProjectionCache;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -40,6 +43,9 @@ import java.util.Optional;
 @Tag(name = "Gestão de Utilizadores", description = "Endpoints para gestão de perfis de utilizador (CRUD)")
 public class UserController {
 
+    /** Número máximo de ids aceites por {@code POST /api/users/contacts}. */
+    static final int MAX_CONTACT_IDS = 500;
+
     /**
      * Injeção de dependência do repositório para acesso a dados.
      */
@@ -49,6 +55,12 @@ public class UserController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    /**
+     * Projeções de perfil em cache, para não ler a entidade completa a cada {@code /me}.
+     */
+    @Autowired
+    private UserProjectionCache userProjectionCache;
+
     /**
      * Recupera a lista completa de utilizadores registados no sistema.
      * <p>
@@ -114,42 +126,76 @@ public class UserController {
                 .orElseThrow(() -> new RuntimeException("Utilizador não encontrado"));
     }
 
+    /**
+     * Pesquisa em lote dos contactos de vários utilizadores.
+     * <p>
+     *     Usada pelos outros serviços (ex.: sync-service) para resolver os e-mails de vários
+     *     destinatários num só pedido, em vez de um pedido por utilizador. Passa pela
+     *     {@link UserProjectionCache}, pelo que só os ids fora de cache chegam à base de dados.
+     *     Aceita no máximo {@value #MAX_CONTACT_IDS} ids por pedido.
+     *     <b>Endpoint interno:</b> só aceita chamadas serviço-a-serviço autenticadas pelo
+     *     {@link ServiceAuthenticationFilter}; os utilizadores finais recebem 403.
+     * </p>
+     * @param ids identificadores dos utilizadores pretendidos.
+     * @return contactos encontrados; os ids inexistentes são omitidos.
+     */
+    @Operation(summary = "Obter contactos em lote", description = "Retorna o e-mail de cada um dos utilizadores indicados, num só pedido.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contactos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Demasiados ids no pedido"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado (apenas chamadas serviço-a-serviço)")
+    })
+    @PostMapping("/contacts")
+    @PreAuthorize("hasAuthority('" + ServiceAuthenticationFilter.SERVICE_AUTHORITY + "')")
+    public ResponseEntity<List<UserContact>> getContacts(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_CONTACT_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserContact> contacts = userProjectionCache.findAllById(ids).values().stream()
+                .map(summary -> new UserContact(summary.id(), summary.email()))
+                .toList();
+        return ResponseEntity.ok(contacts);
+    }
+
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<com.nexus.estates.common.dto.ApiResponse<MeResponse>> me(
             @RequestHeader(value = "X-User-Id", required = false) String userIdHeader,
             @RequestHeader(value = "X-User-Email", required = false) String userEmailHeader
     ) {
-        User current = getCurrentUser(userIdHeader, userEmailHeader);
+        UserSummary current = getCurrentUser(userIdHeader, userEmailHeader);
         MeResponse dto = new MeResponse(
-                current.getId(),
-                current.getEmail(),
-                current.getPhone(),
-                current.getRole() != null ? current.getRole().name() : null,
-                current.getClerkUserId()
+                current.id(),
+                current.email(),
+                current.phone(),
+                current.role() != null ? current.role().name() : null,
+                current.clerkUserId()
         );
         return ResponseEntity.ok(com.nexus.estates.common.dto.ApiResponse.success(dto, "Perfil carregado."));
     }
 
     public record MeResponse(Long id, String email, String phone, String role, String clerkUserId) {}
 
-    private User getCurrentUser(String userIdHeader, String userEmailHeader) {
+    public record UserContact(Long id, String email) {}
+
+    private UserSummary getCurrentUser(String userIdHeader, String userEmailHeader) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         Object principal = auth != null ? auth.getPrincipal() : null;
         if (principal instanceof User user) {
-            return userRepository.findById(user.getId()).orElseThrow(() -> new IllegalStateException("Utilizador não autenticado."));
+            return userProjectionCache.findById(user.getId()).orElseThrow(() -> new IllegalStateException("Utilizador não autenticado."));
         }
 
-        Optional<User> fromHeader = Optional.empty();
+        Optional<UserSummary> fromHeader = Optional.empty();
         if (userIdHeader != null && !userIdHeader.isBlank()) {
             try {
                 Long id = Long.parseLong(userIdHeader);
-                fromHeader = userRepository.findById(id);
+                fromHeader = userProjectionCache.findById(id);
             } catch (Exception ignored) {
             }
         }
         if (fromHeader.isEmpty() && userEmailHeader != null && !userEmailHeader.isBlank()) {
-            fromHeader = userRepository.findByEmail(userEmailHeader);
+            fromHeader = userRepository.findByEmail(userEmailHeader)
+                    .flatMap(user -> userProjectionCache.findById(user.getId()));
         }
 
         return fromHeader.orElseThrow(() -> new IllegalStateException("Utilizador não autenticado."));
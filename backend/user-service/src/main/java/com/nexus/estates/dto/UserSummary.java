@@ -0,0 +1,20 @@
+package com.nexus.estates.dto;
+
+import com.nexus.estates.entity.UserRole;
+
+/**
+ * Projeção só de leitura dos dados de perfil de um {@link com.nexus.estates.entity.User}.
+ * <p>
+ * Carregada diretamente pelo {@code UserRepository} (sem password nem coleções) e mantida na
+ * {@link com.nexus.estates.service.UserProjectionCache} para os endpoints que precisam dos dados
+ * do utilizador autenticado.
+ * </p>
+ *
+ * @param id          identificador do utilizador.
+ * @param email       email de login.
+ * @param phone       telefone (opcional).
+ * @param role        papel atual na base de dados.
+ * @param clerkUserId identificador no Clerk, quando aplicável.
+ */
+public record UserSummary(Long id, String email, String phone, UserRole role, String clerkUserId) {
+}
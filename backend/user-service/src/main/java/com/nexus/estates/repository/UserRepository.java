@@ -1,9 +1,12 @@
 package com.nexus.estates.repository;
 
+import com.nexus.estates.dto.UserSummary;
 import com.nexus.estates.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,4 +34,10 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByClerkUserId(String clerkUserId);
+
+    /** Projeção de perfil (sem password nem coleções) usada pela {@code UserProjectionCache}. */
+    Optional<UserSummary> findSummaryById(Long id);
+
+    /** Projeções de vários utilizadores numa só consulta, para as pesquisas em lote. */
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
 }
@@ -32,6 +32,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final ExternalIdentityProviderStrategy externalIdentityProvider;
+    private final UserProjectionCache userProjectionCache;
 
     /**
      * Regista um novo utilizador no sistema.
@@ -90,6 +91,7 @@ public class AuthService {
         if (user.getRole() == UserRole.GUEST) {
             user.setRole(UserRole.OWNER);
             user = userRepository.save(user);
+            userProjectionCache.evict(user.getId());
         }
 
         var token = jwtService.generateToken(user);
@@ -119,6 +121,7 @@ public class AuthService {
         externalIdentityProvider.applyIdentity(user, identity);
 
         user = userRepository.save(user);
+        userProjectionCache.evict(user.getId());
         var token = jwtService.generateToken(user);
 
         return AuthResponse.builder()
@@ -32,6 +32,7 @@ public class ExternalIntegrationService {
 
     private final ExternalIntegrationRepository integrationRepository;
     private final UserRepository userRepository;
+    private final UserProjectionCache userProjectionCache;
 
     /**
      * Cria uma integração externa para o utilizador autenticado.
@@ -87,14 +88,19 @@ public class ExternalIntegrationService {
 
     /**
      * Obtém o utilizador autenticado a partir do SecurityContext.
+     * <p>
+     * A existência é confirmada pela {@link UserProjectionCache}; a entidade devolvida é uma
+     * referência (proxy) do JPA, suficiente para associar e filtrar integrações sem carregar o utilizador.
+     * </p>
      *
-     * @return entidade User persistida
+     * @return referência para a entidade User persistida
      */
     private User getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         Object principal = auth != null ? auth.getPrincipal() : null;
         if (principal instanceof User user) {
-            return userRepository.findById(user.getId()).orElseThrow();
+            userProjectionCache.findById(user.getId()).orElseThrow();
+            return userRepository.getReferenceById(user.getId());
         }
         throw new IllegalStateException("Utilizador não autenticado.");
     }
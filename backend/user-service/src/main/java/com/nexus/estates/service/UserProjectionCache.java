@@ -0,0 +1,91 @@
+package com.nexus.estates.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexus.estates.dto.UserSummary;
+import com.nexus.estates.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache de curta duração das projeções {@link UserSummary}, por id de utilizador.
+ * <p>
+ * No modo de gateway de confiança o principal é construído a partir dos cabeçalhos
+ * {@code X-User-*}, sem acesso à base de dados; os poucos endpoints que precisam dos dados
+ * completos do perfil passam por aqui. Cada entrada vive {@code user.projection-cache.ttl}
+ * (30s por omissão) e a cache (Caffeine) está limitada a {@code user.projection-cache.max-entries}
+ * entradas. Leituras concorrentes do mesmo id partilham uma única consulta.
+ * As alterações de perfil feitas neste serviço chamam {@link #evict(Long)}. As pesquisas em lote
+ * ({@link #findAllById(Collection)}) só vão à base de dados pelos ids que não estejam em cache.
+ * </p>
+ *
+ * @author Nexus Estates Team
+ * @since 2026-10-17
+ */
+@Component
+public class UserProjectionCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, UserSummary> entries;
+
+    /**
+     * @param userRepository repositório de utilizadores.
+     * @param ttl            tempo de vida de cada projeção em cache.
+     * @param maxEntries     número máximo de utilizadores em cache.
+     */
+    public UserProjectionCache(UserRepository userRepository,
+                               @Value("${user.projection-cache.ttl:30s}") Duration ttl,
+                               @Value("${user.projection-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param id identificador do utilizador.
+     * @return projeção do utilizador, da cache se ainda válida; vazio se não existir.
+     */
+    public Optional<UserSummary> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        // Utilizadores inexistentes não ficam em cache (o loader devolve null)
+        return Optional.ofNullable(entries.get(id, key -> userRepository.findSummaryById(key).orElse(null)));
+    }
+
+    /**
+     * Versão em lote de {@link #findById(Long)}: serve da cache o que ainda for válido e carrega
+     * os restantes numa única consulta.
+     *
+     * @param ids identificadores dos utilizadores.
+     * @return projeções encontradas, por id; os ids inexistentes ficam de fora.
+     */
+    public Map<Long, UserSummary> findAllById(Collection<Long> ids) {
+        return entries.getAll(
+                ids.stream().filter(Objects::nonNull).toList(),
+                missing -> userRepository.findSummariesByIdIn(Set.copyOf(missing)).stream()
+                        .collect(Collectors.toMap(UserSummary::id, Function.identity())));
+    }
+
+    /**
+     * Descarta a projeção de um utilizador alterado, para que a próxima leitura vá à base de dados.
+     *
+     * @param id identificador do utilizador.
+     */
+    public void evict(Long id) {
+        if (id != null) {
+            entries.invalidate(id);
+        }
+    }
+}
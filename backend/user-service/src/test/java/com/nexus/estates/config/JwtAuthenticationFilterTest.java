@@ -16,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -175,4 +176,63 @@ class JwtAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
         verifyNoInteractions(jwtService);
     }
+
+    @Test
+    @DisplayName("Modo gateway de confiança: autentica pelos headers X-User-* sem base de dados nem JWT")
+    void shouldAuthenticateFromGatewayHeadersWithoutLookupsWhenTrusted() throws Exception {
+        ReflectionTestUtils.setField(filter, "trustedGateway", true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer tok");
+        when(request.getHeader("X-User-Id")).thenReturn("124");
+        when(request.getHeader("X-User-Email")).thenReturn("u@example.com");
+        when(request.getHeader("X-User-Role")).thenReturn("OWNER");
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        assertEquals("ROLE_OWNER", auth.getAuthorities().iterator().next().getAuthority());
+        User principal = assertInstanceOf(User.class, auth.getPrincipal());
+        assertEquals(124L, principal.getId());
+        assertEquals("u@example.com", principal.getEmail());
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userRepository, jwtService);
+    }
+
+    @Test
+    @DisplayName("Modo gateway de confiança: headers incompletos seguem pela validação do Bearer")
+    void shouldFallBackToBearerWhenTrustedHeadersAreIncomplete() throws Exception {
+        ReflectionTestUtils.setField(filter, "trustedGateway", true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer tok");
+        when(request.getHeader("X-User-Id")).thenReturn(null);
+        when(request.getHeader("X-User-Email")).thenReturn(null);
+        when(request.getHeader("X-User-Role")).thenReturn(null);
+        when(jwtService.extractUsername("tok")).thenReturn("u@example.com");
+        User u = User.builder().id(124L).email("u@example.com").password("x").role(UserRole.GUEST).build();
+        when(userRepository.findByEmail("u@example.com")).thenReturn(Optional.of(u));
+        when(jwtService.isTokenValid("tok", "u@example.com")).thenReturn(true);
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(auth);
+        assertEquals("ROLE_GUEST", auth.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(1)).findByEmail("u@example.com");
+    }
+
+    @Test
+    @DisplayName("Não volta a validar o Bearer quando os headers do Gateway já autenticaram o pedido")
+    void shouldNotReverifyBearerWhenGatewayHeadersAuthenticated() throws Exception {
+        when(request.getHeader("Authorization")).thenReturn("Bearer tok");
+        when(request.getHeader("X-User-Email")).thenReturn("u@example.com");
+        when(request.getHeader("X-User-Role")).thenReturn("ADMIN");
+        User u = User.builder().id(124L).email("u@example.com").password("x").role(UserRole.GUEST).build();
+        when(userRepository.findByEmail("u@example.com")).thenReturn(Optional.of(u));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userRepository, times(1)).findByEmail("u@example.com");
+        verifyNoInteractions(jwtService);
+        verify(filterChain).doFilter(request, response);
+    }
 }
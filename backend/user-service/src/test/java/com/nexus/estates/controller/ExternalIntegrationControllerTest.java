@@ -3,6 +3,7 @@ package com.nexus.estates.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexus.estates.config.JwtAuthenticationFilter;
 import com.nexus.estates.config.SecurityConfig;
+import com.nexus.estates.config.ServiceAuthenticationFilter;
 import com.nexus.estates.dto.CreateExternalIntegrationRequest;
 import com.nexus.estates.dto.ExternalIntegrationDTO;
 import com.nexus.estates.entity.ExternalProviderName;
@@ -31,7 +32,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ExternalIntegrationController.class)
-@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, ServiceAuthenticationFilter.class})
 @DisplayName("Testes Web: External Integration Controller")
 class ExternalIntegrationControllerTest {
 
@@ -3,6 +3,7 @@ package com.nexus.estates.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexus.estates.config.JwtAuthenticationFilter;
 import com.nexus.estates.config.SecurityConfig;
+import com.nexus.estates.config.ServiceAuthenticationFilter;
 import com.nexus.estates.dto.GuestProfileRequest;
 import com.nexus.estates.dto.GuestProfileResponse;
 import com.nexus.estates.repository.UserRepository;
@@ -39,7 +40,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Nexus Estates Team
  */
 @WebMvcTest(GuestProfileController.class)
-@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, ServiceAuthenticationFilter.class})
 @DisplayName("Testes Web: Guest Profile Controller (Segurança e Endpoints)")
 class GuestProfileControllerTest {
 
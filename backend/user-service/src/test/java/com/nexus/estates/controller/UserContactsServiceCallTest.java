@@ -0,0 +1,88 @@
+package com.nexus.estates.controller;
+
+import com.nexus.estates.config.JwtAuthenticationFilter;
+import com.nexus.estates.config.SecurityConfig;
+import com.nexus.estates.config.ServiceAuthenticationFilter;
+import com.nexus.estates.dto.UserSummary;
+import com.nexus.estates.entity.UserRole;
+import com.nexus.estates.repository.UserRepository;
+import com.nexus.estates.service.JwtService;
+import com.nexus.estates.service.UserProjectionCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Contrato entre o sync-service e a segurança do user-service para {@code POST /api/users/contacts}.
+ * <p>
+ * Ao contrário do {@link UserControllerTest}, não substitui {@code security.service-token}: usa o
+ * {@link SecurityConfig} real com o {@code application.properties} do serviço, define apenas a
+ * variável {@code SERVICE_TOKEN} partilhada pelos dois serviços e envia o pedido tal como o
+ * {@code WebClientConfig} do sync-service o faz com essa mesma variável (cabeçalho
+ * {@code X-Service-Token} com {@code clients.service-token}, sem JWT nem cabeçalhos {@code X-User-*}).
+ * </p>
+ *
+ * @author Nexus Estates Team
+ */
+@WebMvcTest(UserController.class)
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, ServiceAuthenticationFilter.class})
+@TestPropertySource(properties = "SERVICE_TOKEN=" + UserContactsServiceCallTest.SHARED_SERVICE_TOKEN)
+@DisplayName("Contrato: pesquisa de contactos chamada pelo sync-service")
+class UserContactsServiceCallTest {
+
+    /** Valor de {@code SERVICE_TOKEN}, de onde os dois serviços leem a credencial partilhada. */
+    static final String SHARED_SERVICE_TOKEN = "shared-service-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserProjectionCache userProjectionCache;
+
+    @Test
+    @DisplayName("Aceita a pesquisa de contactos enviada pelo cliente do sync-service")
+    void shouldAcceptContactsLookupFromSyncService() throws Exception {
+        when(userProjectionCache.findAllById(List.of(1L)))
+                .thenReturn(Map.of(1L, new UserSummary(1L, "a@nexus.com", null, UserRole.GUEST, null)));
+
+        mockMvc.perform(post("/api/users/contacts")
+                        .header("X-Service-Token", SHARED_SERVICE_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email").value("a@nexus.com"));
+    }
+
+    @Test
+    @DisplayName("Recusa a mesma pesquisa sem a credencial de serviço")
+    void shouldRejectContactsLookupWithoutServiceToken() throws Exception {
+        mockMvc.perform(post("/api/users/contacts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isForbidden());
+    }
+}
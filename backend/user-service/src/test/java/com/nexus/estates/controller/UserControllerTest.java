@@ -3,10 +3,13 @@ package com.nexus.estates.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexus.estates.config.JwtAuthenticationFilter;
 import com.nexus.estates.config.SecurityConfig;
+import com.nexus.estates.config.ServiceAuthenticationFilter;
+import com.nexus.estates.dto.UserSummary;
 import com.nexus.estates.entity.User;
 import com.nexus.estates.entity.UserRole;
 import com.nexus.estates.repository.UserRepository;
 import com.nexus.estates.service.JwtService;
+import com.nexus.estates.service.UserProjectionCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,10 +19,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -42,10 +48,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @version 1.0
  */
 @WebMvcTest(UserController.class)
-@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, ServiceAuthenticationFilter.class})
+@TestPropertySource(properties = "security.service-token=" + UserControllerTest.SERVICE_TOKEN)
 @DisplayName("Testes Web: User Controller (Segurança e RBAC)")
 class UserControllerTest {
 
+    static final String SERVICE_TOKEN = "test-service-token";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -61,6 +70,9 @@ class UserControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private UserProjectionCache userProjectionCache;
+
     /**
      * Valida o acesso à listagem total de utilizadores.
      * <p>
@@ -191,4 +203,73 @@ class UserControllerTest {
         mockMvc.perform(get("/api/users/1"))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    /**
+     * Valida a pesquisa em lote de contactos usada pelos outros serviços.
+     */
+    @Test
+    @DisplayName("Deve devolver os contactos pedidos em lote a uma chamada serviço-a-serviço")
+    void shouldReturnContactsInBulk() throws Exception {
+        when(userProjectionCache.findAllById(List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, new UserSummary(1L, "a@nexus.com", null, UserRole.GUEST, null)));
+
+        mockMvc.perform(post("/api/users/contacts")
+                        .header(ServiceAuthenticationFilter.SERVICE_TOKEN_HEADER, SERVICE_TOKEN)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].email").value("a@nexus.com"));
+    }
+
+    /**
+     * Valida o limite de ids por pedido de contactos em lote.
+     */
+    @Test
+    @DisplayName("Deve rejeitar pedidos de contactos com demasiados ids")
+    void shouldRejectTooManyContactIds() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, UserController.MAX_CONTACT_IDS + 1)
+                .boxed().toList();
+
+        mockMvc.perform(post("/api/users/contacts")
+                        .header(ServiceAuthenticationFilter.SERVICE_TOKEN_HEADER, SERVICE_TOKEN)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Valida que a pesquisa de contactos em lote é exclusiva das chamadas serviço-a-serviço.
+     * <p>
+     * <b>Cenário:</b> Utilizador autenticado (mesmo ADMIN) sem credencial de serviço.<br>
+     * <b>Expectativa:</b> Status 403 Forbidden.
+     * </p>
+     */
+    @Test
+    @DisplayName("Deve retornar 403 Forbidden quando um utilizador pede contactos em lote")
+    @WithMockUser(roles = "ADMIN")
+    void shouldForbidContactsForEndUsers() throws Exception {
+        mockMvc.perform(post("/api/users/contacts")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Valida que uma credencial de serviço errada não autentica o pedido.
+     */
+    @Test
+    @DisplayName("Deve retornar 403 Forbidden quando a credencial de serviço é inválida")
+    void shouldForbidContactsWithWrongServiceToken() throws Exception {
+        mockMvc.perform(post("/api/users/contacts")
+                        .header(ServiceAuthenticationFilter.SERVICE_TOKEN_HEADER, "wrong-token")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -47,6 +47,8 @@ class AuthServiceTest {
     private JwtService jwtService;
     @Mock
     private ExternalIdentityProviderStrategy externalIdentityProvider;
+    @Mock
+    private UserProjectionCache userProjectionCache;
 
     @InjectMocks
     private AuthService authService;
@@ -0,0 +1,95 @@
+package com.nexus.estates.service;
+
+import com.nexus.estates.dto.UserSummary;
+import com.nexus.estates.entity.UserRole;
+import com.nexus.estates.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários da {@link UserProjectionCache}.
+ *
+ * @author Nexus Estates Team
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes de Unidade: User Projection Cache")
+class UserProjectionCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserProjectionCache cache;
+
+    private final UserSummary summary = new UserSummary(7L, "u@example.com", null, UserRole.OWNER, null);
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserProjectionCache(userRepository, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    @DisplayName("Deve servir leituras repetidas da cache até a entrada ser descartada")
+    void shouldServeFromCacheUntilEvicted() {
+        when(userRepository.findSummaryById(7L)).thenReturn(Optional.of(summary));
+
+        assertEquals(summary, cache.findById(7L).orElseThrow());
+        assertEquals(summary, cache.findById(7L).orElseThrow());
+        verify(userRepository, times(1)).findSummaryById(7L);
+
+        cache.evict(7L);
+        cache.findById(7L);
+        verify(userRepository, times(2)).findSummaryById(7L);
+    }
+
+    @Test
+    @DisplayName("Deve voltar à base de dados depois de expirado o TTL")
+    void shouldReloadAfterTtl() {
+        cache = new UserProjectionCache(userRepository, Duration.ZERO, 100);
+        when(userRepository.findSummaryById(7L)).thenReturn(Optional.of(summary));
+
+        cache.findById(7L);
+        cache.findById(7L);
+
+        verify(userRepository, times(2)).findSummaryById(7L);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar utilizadores inexistentes")
+    void shouldNotCacheMissingUsers() {
+        when(userRepository.findSummaryById(8L)).thenReturn(Optional.empty());
+
+        assertTrue(cache.findById(8L).isEmpty());
+        assertTrue(cache.findById(8L).isEmpty());
+
+        verify(userRepository, times(2)).findSummaryById(8L);
+    }
+
+    @Test
+    @DisplayName("Deve carregar numa só consulta apenas os ids que não estão em cache")
+    void shouldLoadOnlyMissingIdsInBulk() {
+        UserSummary other = new UserSummary(9L, "o@example.com", null, UserRole.GUEST, null);
+        when(userRepository.findSummaryById(7L)).thenReturn(Optional.of(summary));
+        when(userRepository.findSummariesByIdIn(Set.of(9L, 10L))).thenReturn(List.of(other));
+        cache.findById(7L);
+
+        Map<Long, UserSummary> found = cache.findAllById(List.of(7L, 9L, 10L));
+
+        assertEquals(Map.of(7L, summary, 9L, other), found);
+        verify(userRepository).findSummariesByIdIn(Set.of(9L, 10L));
+        assertEquals(other, cache.findById(9L).orElseThrow());
+        verify(userRepository, never()).findSummaryById(9L);
+    }
+}